@@ -50,9 +50,13 @@ import java.lang.reflect.Method;
 import java.nio.Buffer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class BuildComposablePipeline {
@@ -61,6 +65,8 @@ public class BuildComposablePipeline {
     public static final int GEN_TRACE = 1 << 1; // default
     public static final int GEN_CUSTOM = 1 << 2;
     public static final int GEN_PROLOG_XOR_DOWNSTREAM = 1 << 3;
+    public static final int GEN_PROFILE = 1 << 4; // default
+    public static final int GEN_STATE_FILTER = 1 << 5; // default
     int mode;
     private String outputDir;
     private String outputPackage;
@@ -72,6 +78,17 @@ public class BuildComposablePipeline {
     private boolean hasImmediateMode;
     // Desktop OpenGL and GLES1 have GL_STACK_OVERFLOW and GL_STACK_UNDERFLOW errors
     private boolean hasStackOverflow;
+    // GL methods filtered by com.jogamp.opengl.util.GLStateFilter, all overloads are handled
+    private static final Set<String> stateFilterMethods = new HashSet<String>(Arrays.asList(
+            "glUseProgram", "glDeleteProgram",
+            "glBindBuffer", "glDeleteBuffers",
+            "glBindVertexArray", "glDeleteVertexArrays", "glBindVertexArrayOES", "glDeleteVertexArraysOES",
+            "glActiveTexture", "glBindTexture", "glDeleteTextures",
+            "glEnable", "glDisable",
+            "glEnableVertexAttribArray", "glDisableVertexAttribArray", "glVertexAttribPointer",
+            "glPixelStorei",
+            "glPushAttrib", "glPopAttrib", "glPushClientAttrib", "glPopClientAttrib",
+            "glNewList", "glEndList", "glCallList", "glCallLists"));
 
     public static Class<?> getClass(String name) {
         Class<?> clazz = null;
@@ -119,7 +136,7 @@ public class BuildComposablePipeline {
             outputName = null; // TBD ..
             classPrologOpt = null;
             classDownstream = classToComposeAround;
-            mode = GEN_DEBUG | GEN_TRACE;
+            mode = GEN_DEBUG | GEN_TRACE | GEN_PROFILE | GEN_STATE_FILTER;
         }
 
         BuildComposablePipeline composer =
@@ -187,6 +204,12 @@ public class BuildComposablePipeline {
         if (0 != (mode & GEN_TRACE)) {
             (new TracePipeline(outputDir, outputPackage, classToComposeAround, classDownstream)).emit(publicMethodsPlain.iterator());
         }
+        if (0 != (mode & GEN_PROFILE)) {
+            (new ProfilePipeline(outputDir, outputPackage, classToComposeAround, classDownstream)).emit(publicMethodsPlain.iterator());
+        }
+        if (0 != (mode & GEN_STATE_FILTER)) {
+            (new StateFilterPipeline(outputDir, outputPackage, classToComposeAround, classDownstream)).emit(publicMethodsPlain.iterator());
+        }
         if (0 != (mode & GEN_CUSTOM)) {
             (new CustomPipeline(mode, outputDir, outputPackage, outputName, classToComposeAround, classPrologOpt, classDownstream)).emit(publicMethodsPlain.iterator());
         }
@@ -353,6 +376,14 @@ public class BuildComposablePipeline {
                     clazzList.add(baseInterfaceClass);
                 }
             }
+            final String[] addIfNames = getAdditionalInterfaceNames();
+            if (null != addIfNames) {
+                // leading, since GLPipelineFactory probes the interfaces right to left
+                String[] all = new String[addIfNames.length + ifNames.length];
+                System.arraycopy(addIfNames, 0, all, 0, addIfNames.length);
+                System.arraycopy(ifNames, 0, all, addIfNames.length, ifNames.length);
+                ifNames = all;
+            }
 
             clazzList.add(downstreamClass);
             if (null != prologClassOpt) {
@@ -545,6 +576,11 @@ public class BuildComposablePipeline {
         /** Get the output name for this pipeline class. */
         protected abstract String getOutputName();
 
+        /** Get the full names of interfaces implemented in addition to the base interfaces, may be null. */
+        protected String[] getAdditionalInterfaceNames() {
+            return null;
+        }
+
         /**
          * Called after the class headers have been generated, but before any
          * method wrappers have been generated.
@@ -1083,6 +1119,285 @@ public class BuildComposablePipeline {
         }
     } // end class TracePipeline
 
+    //-------------------------------------------------------
+    protected class ProfilePipeline extends PipelineEmitter {
+
+        /** Number of names initialized per static method, keeps each method below the byte code limit */
+        private static final int NAMES_PER_INIT = 1000;
+
+        String className;
+        /** Profiled methods sorted by name and argument types, the list index is the counter index */
+        List<Method> methods = new ArrayList<Method>();
+        Map<Method, Integer> methodIndex = new HashMap<Method, Integer>();
+        String[] methodNames;
+
+        ProfilePipeline(String outputDir, String outputPackage, Class<?> baseInterfaceClass, Class<?> downstreamClass) {
+            super(outputDir, outputPackage, baseInterfaceClass, null, downstreamClass);
+            className = "Profile" + getBaseInterfaceName();
+        }
+
+        @Override
+        public void emit(Iterator<PlainMethod> methodsToWrap) throws IOException {
+            List<PlainMethod> all = new ArrayList<PlainMethod>();
+            Set<String> names = new HashSet<String>();
+            Set<String> overloaded = new HashSet<String>();
+            while (methodsToWrap.hasNext()) {
+                PlainMethod pm = methodsToWrap.next();
+                all.add(pm);
+                if (pm.runHooks()) {
+                    methods.add(pm.getWrappedMethod());
+                    if (!names.add(pm.getWrappedMethod().getName())) {
+                        overloaded.add(pm.getWrappedMethod().getName());
+                    }
+                }
+            }
+            methodNames = new String[methods.size()];
+            final Map<Method, String> key = new HashMap<Method, String>();
+            for (Method m : methods) {
+                key.put(m, overloaded.contains(m.getName()) ? m.getName() + "(" + getArgTypeNames(m) + ")" : m.getName());
+            }
+            Collections.sort(methods, new Comparator<Method>() {
+                public int compare(Method a, Method b) {
+                    return key.get(a).compareTo(key.get(b));
+                }
+            });
+            for (int i = 0; i < methods.size(); i++) {
+                methodIndex.put(methods.get(i), Integer.valueOf(i));
+                methodNames[i] = key.get(methods.get(i));
+            }
+            super.emit(all.iterator());
+        }
+
+        private String getArgTypeNames(Method m) {
+            StringBuilder buf = new StringBuilder();
+            Class<?>[] argTypes = m.getParameterTypes();
+            for (int i = 0; i < argTypes.length; ++i) {
+                if (i > 0) {
+                    buf.append(',');
+                }
+                buf.append(argTypes[i].getSimpleName());
+            }
+            return buf.toString();
+        }
+
+        protected String getOutputName() {
+            return className;
+        }
+
+        @Override
+        protected String[] getAdditionalInterfaceNames() {
+            return new String[] { "com.jogamp.opengl.util.GLCallProfiler" };
+        }
+
+        protected int getMode() {
+            return 0;
+        }
+
+        protected boolean emptyMethodAllowed() {
+            return false;
+        }
+
+        protected boolean emptyDownstreamAllowed() {
+            return false;
+        }
+
+        @Override
+        protected void preMethodEmissionHook(PrintWriter output) {
+            super.preMethodEmissionHook(output);
+            final int count = methodNames.length;
+            output.println("  public static final int METHOD_COUNT = " + count + ";");
+            output.println("  private static final String[] methodNames = new String[METHOD_COUNT];");
+            output.println("  static {");
+            for (int i = 0; i < count; i += NAMES_PER_INIT) {
+                output.println("    initMethodNames" + (i / NAMES_PER_INIT) + "();");
+            }
+            output.println("  }");
+            for (int i = 0; i < count; i += NAMES_PER_INIT) {
+                output.println("  private static void initMethodNames" + (i / NAMES_PER_INIT) + "() {");
+                for (int j = i; j < Math.min(count, i + NAMES_PER_INIT); j++) {
+                    output.println("    methodNames[" + j + "] = \"" + methodNames[j] + "\";");
+                }
+                output.println("  }");
+            }
+            output.println();
+        }
+
+        protected void constructorHook(PrintWriter output) {
+            output.print("  public " + getOutputName() + "(");
+            output.println(downstreamName + " " + getDownstreamObjectName() + ")");
+            output.println("  {");
+            output.println("    if (" + getDownstreamObjectName() + " == null) {");
+            output.println("      throw new IllegalArgumentException(\"null " + getDownstreamObjectName() + "\");");
+            output.println("    }");
+            output.print("    this." + getDownstreamObjectName());
+            output.println(" = " + getDownstreamObjectName() + ";");
+            output.println("  }");
+            output.println();
+        }
+
+        @Override
+        protected void postMethodEmissionHook(PrintWriter output) {
+            super.postMethodEmissionHook(output);
+            output.println("  public int getMethodCount() { return METHOD_COUNT; }");
+            output.println("  public String getMethodName(int idx) { return methodNames[idx]; }");
+            output.println("  public void setTimingEnabled(boolean enable) { timing = enable; }");
+            output.println("  public boolean isTimingEnabled() { return timing; }");
+            output.println("  public com.jogamp.opengl.util.GLCallStats getStats(com.jogamp.opengl.util.GLCallStats result) {");
+            output.println("    if (null == result) { result = new com.jogamp.opengl.util.GLCallStats(methodNames); }");
+            output.println("    result.set(callCounts, callNanos, null, null, timing);");
+            output.println("    return result;");
+            output.println("  }");
+            output.println("  public com.jogamp.opengl.util.GLCallStats markFrame(com.jogamp.opengl.util.GLCallStats result) {");
+            output.println("    if (null == result) { result = new com.jogamp.opengl.util.GLCallStats(methodNames); }");
+            output.println("    result.set(callCounts, callNanos, frameCounts, frameNanos, timing);");
+            output.println("    System.arraycopy(callCounts, 0, frameCounts, 0, METHOD_COUNT);");
+            output.println("    System.arraycopy(callNanos, 0, frameNanos, 0, METHOD_COUNT);");
+            output.println("    return result;");
+            output.println("  }");
+            output.println("  public void reset() {");
+            output.println("    java.util.Arrays.fill(callCounts, 0L);");
+            output.println("    java.util.Arrays.fill(callNanos, 0L);");
+            output.println("    java.util.Arrays.fill(frameCounts, 0L);");
+            output.println("    java.util.Arrays.fill(frameNanos, 0L);");
+            output.println("  }");
+            output.println("  private boolean timing = false;");
+            output.println("  private final long[] callCounts = new long[METHOD_COUNT];");
+            output.println("  private final long[] callNanos = new long[METHOD_COUNT];");
+            output.println("  private final long[] frameCounts = new long[METHOD_COUNT];");
+            output.println("  private final long[] frameNanos = new long[METHOD_COUNT];");
+        }
+
+        protected void emitClassDocComment(PrintWriter output) {
+            output.println("/** <P> Composable pipeline which wraps an underlying {@link GL} implementation,");
+            output.println("    counting the calls of each OpenGL method and optionally accumulating their wall time");
+            output.println("    in preallocated counters, see {@link com.jogamp.opengl.util.GLCallProfiler}.");
+            output.println("    Sample code which installs this pipeline: </P>");
+            output.println();
+            output.println("<PRE>");
+            output.println("     GL gl = drawable.setGL(new ProfileGL(drawable.getGL()));");
+            output.println("</PRE>");
+            output.println("*/");
+        }
+
+        protected boolean hasPreDownstreamCallHook(Method m) {
+            return true;
+        }
+
+        protected void preDownstreamCallHook(PrintWriter output, Method m) {
+            output.println("final long _t0 = timing ? System.nanoTime() : 0L;");
+        }
+
+        protected boolean hasPostDownstreamCallHook(Method m) {
+            return true;
+        }
+
+        protected void postDownstreamCallHook(PrintWriter output, Method m) {
+            final int idx = methodIndex.get(m).intValue();
+            output.println("    callCounts[" + idx + "]++;");
+            output.println("    if (timing) { callNanos[" + idx + "] += System.nanoTime() - _t0; }");
+        }
+    } // end class ProfilePipeline
+
+    //-------------------------------------------------------
+    protected class StateFilterPipeline extends PipelineEmitter {
+
+        String className;
+
+        StateFilterPipeline(String outputDir, String outputPackage, Class<?> baseInterfaceClass, Class<?> downstreamClass) {
+            super(outputDir, outputPackage, baseInterfaceClass, null, downstreamClass);
+            className = "StateFilter" + getBaseInterfaceName();
+        }
+
+        protected String getOutputName() {
+            return className;
+        }
+
+        @Override
+        protected String[] getAdditionalInterfaceNames() {
+            return new String[] { "com.jogamp.opengl.util.GLStateFilter.Pipeline" };
+        }
+
+        protected int getMode() {
+            return 0;
+        }
+
+        protected boolean emptyMethodAllowed() {
+            return false;
+        }
+
+        protected boolean emptyDownstreamAllowed() {
+            return false;
+        }
+
+        private String getStateFilterName() {
+            return "stateFilter";
+        }
+
+        protected void constructorHook(PrintWriter output) {
+            output.print("  public " + getOutputName() + "(");
+            output.println(downstreamName + " " + getDownstreamObjectName() + ")");
+            output.println("  {");
+            output.println("    if (" + getDownstreamObjectName() + " == null) {");
+            output.println("      throw new IllegalArgumentException(\"null " + getDownstreamObjectName() + "\");");
+            output.println("    }");
+            output.print("    this." + getDownstreamObjectName());
+            output.println(" = " + getDownstreamObjectName() + ";");
+            output.println("    this." + getStateFilterName() + " = new com.jogamp.opengl.util.GLStateFilter(" + getDownstreamObjectName() + ");");
+            output.println("  }");
+            output.println();
+        }
+
+        @Override
+        protected void postMethodEmissionHook(PrintWriter output) {
+            super.postMethodEmissionHook(output);
+            output.println("  public com.jogamp.opengl.util.GLStateFilter getStateFilter() { return " + getStateFilterName() + "; }");
+            output.println("  private final com.jogamp.opengl.util.GLStateFilter " + getStateFilterName() + ";");
+        }
+
+        protected void emitClassDocComment(PrintWriter output) {
+            output.println("/** <P> Composable pipeline which wraps an underlying {@link GL} implementation,");
+            output.println("    eliding state changing OpenGL method calls which do not change the state,");
+            output.println("    see {@link com.jogamp.opengl.util.GLStateFilter}.");
+            output.println("    Sample code which installs this pipeline: </P>");
+            output.println();
+            output.println("<PRE>");
+            output.println("     GL gl = drawable.setGL(new StateFilterGL(drawable.getGL()));");
+            output.println("</PRE>");
+            output.println("*/");
+        }
+
+        @Override
+        protected void emitBody(PrintWriter output, Method m, boolean runHooks) {
+            if (!runHooks || m.getReturnType() != Void.TYPE || !stateFilterMethods.contains(m.getName())) {
+                super.emitBody(output, m, runHooks);
+                return;
+            }
+            output.println("  {");
+            output.print("    if (" + getStateFilterName() + "." + m.getName() + "(");
+            output.print(getArgListAsString(m, false, true));
+            output.println(")) {");
+            output.print("      " + getDownstreamObjectName() + "." + m.getName() + "(");
+            output.print(getArgListAsString(m, false, true));
+            output.println(");");
+            output.println("    }");
+            output.println("  }");
+        }
+
+        protected boolean hasPreDownstreamCallHook(Method m) {
+            return false;
+        }
+
+        protected void preDownstreamCallHook(PrintWriter output, Method m) {
+        }
+
+        protected boolean hasPostDownstreamCallHook(Method m) {
+            return false;
+        }
+
+        protected void postDownstreamCallHook(PrintWriter output, Method m) {
+        }
+    } // end class StateFilterPipeline
+
     public static final void printFunctionCallString(PrintWriter output, Method m) {
         Class<?>[] params = m.getParameterTypes();
         output.print("    \"" + m.getName() + "(\"");
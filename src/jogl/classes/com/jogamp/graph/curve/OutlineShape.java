@@ -36,6 +36,7 @@ import com.jogamp.graph.geom.AABBox;
 import com.jogamp.graph.geom.Outline;
 import com.jogamp.graph.geom.Triangle;
 import com.jogamp.graph.geom.Vertex;
+import com.jogamp.graph.geom.VertexStore;
 import com.jogamp.graph.math.VectorUtil;
 
 
@@ -525,21 +526,68 @@ public class OutlineShape implements Comparable<OutlineShape> {
      * which is produced by the combination of the outlines
      */
     public ArrayList<Triangle> triangulate() {
+        return triangulate(Triangulation.create());
+    }
+
+    /**
+     * Triangulate the {@link OutlineShape} generating a list of triangles
+     * using the given triangulator, which is {@link Triangulator#reset() reset} afterwards,
+     * even if triangulation fails, and may be reused by the calling thread.
+     * @param triangulator2d the triangulator in its initial state
+     * @return an arraylist of triangles representing the filled region
+     * which is produced by the combination of the outlines
+     */
+    public ArrayList<Triangle> triangulate(Triangulator triangulator2d) {
         if(outlines.size() == 0){
             return null;
         }
         sortOutlines();
         generateVertexIds();
 
-        Triangulator triangulator2d = Triangulation.create();
-        for(int index = 0; index<outlines.size(); index++) {
-            triangulator2d.addCurve(outlines.get(index));
+        try {
+            for(int index = 0; index<outlines.size(); index++) {
+                triangulator2d.addCurve(outlines.get(index));
+            }
+            return triangulator2d.generate();
+        } finally {
+            triangulator2d.reset();
         }
+    }
+
+    /**
+     * Triangulate the {@link OutlineShape} appending the vertices and triangles
+     * of the filled region to the given {@link VertexStore},
+     * w/o retaining {@link Triangle} objects.
+     * @param store the target store
+     * @see Triangulator#generate(VertexStore)
+     */
+    public void triangulate(VertexStore store) {
+        triangulate(store, Triangulation.create());
+    }
 
-        ArrayList<Triangle> triangles = triangulator2d.generate();
-        triangulator2d.reset();
+    /**
+     * Triangulate the {@link OutlineShape} appending the vertices and triangles
+     * of the filled region to the given {@link VertexStore} 
+     * using the given triangulator, which is {@link Triangulator#reset() reset} afterwards,
+     * even if triangulation fails, and may be reused by the calling thread.
+     * @param store the target store
+     * @param triangulator2d the triangulator in its initial state
+     * @see Triangulator#generate(VertexStore)
+     */
+    public void triangulate(VertexStore store, Triangulator triangulator2d) {
+        if(outlines.size() == 0){
+            return;
+        }
+        sortOutlines();
 
-        return triangles;
+        try {
+            for(int index = 0; index<outlines.size(); index++) {
+                triangulator2d.addCurve(outlines.get(index));
+            }
+            triangulator2d.generate(store);
+        } finally {
+            triangulator2d.reset();
+        }
     }
 
     /** Sort the outlines from large
@@ -34,6 +34,7 @@ import jogamp.opengl.Debug;
 import com.jogamp.graph.geom.AABBox;
 import com.jogamp.graph.geom.Triangle;
 import com.jogamp.graph.geom.Vertex;
+import com.jogamp.graph.geom.VertexStore;
 
 /** Abstract Outline shape GL representation
  *  define the method an OutlineShape(s) is
@@ -68,6 +69,8 @@ public abstract class Region {
     protected final AABBox box = new AABBox();
     protected ArrayList<Triangle> triangles = new ArrayList<Triangle>();
     protected ArrayList<Vertex> vertices = new ArrayList<Vertex>();
+    /** Primitive vertex storage, indexed after the {@link #vertices} objects */
+    protected final VertexStore store = new VertexStore();
 
     public static boolean isVBAA(int renderModes) { 
         return 0 != ( renderModes & Region.VBAA_RENDERING_BIT ); 
@@ -110,6 +113,7 @@ public abstract class Region {
     /** Get the current number of vertices associated
      * with this region. This number is not necessary equal to 
      * the OGL bound number of vertices.
+     * <p>Vertices of the {@link #getVertexStore() vertex store} are not included.</p>
      * @return vertices count
      */
     public final int getNumVertices(){
@@ -166,6 +170,36 @@ public abstract class Region {
         setDirty(true);
     }
 
+    /** Triangulates the given {@link OutlineShape} directly into 
+     * this region's {@link #getVertexStore() vertex store}, 
+     * see {@link OutlineShape#triangulate(VertexStore)}.
+     * @param shape the shape to add
+     */
+    public void addOutlineShape(OutlineShape shape) {
+        shape.triangulate(store);
+        setDirty(true);
+    }
+
+    /** Adds the vertices and triangles of the given {@link VertexStore}
+     * scaled and translated in the x/y plane to this region's {@link #getVertexStore() vertex store},
+     * see {@link VertexStore#addInstance(VertexStore, float, float, float)}.
+     */
+    public void addInstance(VertexStore src, float scale, float tx, float ty) {
+        store.addInstance(src, scale, tx, ty);
+        setDirty(true);
+    }
+
+    /** 
+     * Returns the primitive vertex and triangle storage of this region,
+     * which is bound to OGL objects in bulk after the {@link Vertex} and {@link Triangle} objects
+     * on the next call to {@code update}.
+     * <p>Data shall be added via {@link #addOutlineShape(OutlineShape)} or {@link #addInstance(VertexStore, float, float, float)},
+     * which mark this region dirty.</p>
+     */
+    public final VertexStore getVertexStore() {
+        return store;
+    }
+
     /**
      * @return the AxisAligned bounding box of
      * current region
@@ -28,15 +28,15 @@
 package com.jogamp.graph.curve.opengl;
 
 
-import java.util.ArrayList;
-
+import javax.media.opengl.GL;
 import javax.media.opengl.GL2ES2;
+import javax.media.opengl.GLException;
+
+import com.jogamp.opengl.util.GLArrayDataServer;
 import com.jogamp.opengl.util.PMVMatrix;
 
 import com.jogamp.graph.curve.OutlineShape;
 import com.jogamp.graph.curve.Region;
-import com.jogamp.graph.geom.Triangle;
-import com.jogamp.graph.geom.Vertex;
 import jogamp.graph.curve.opengl.RegionFactory;
 
 /** A GLRegion is the OGL binding of one or more OutlineShapes
@@ -53,26 +53,16 @@ public abstract class GLRegion extends Region {
     
     /** Create an ogl {@link GLRegion} defining the list of {@link OutlineShape}.
      * Combining the Shapes into single buffers.
+     * <p>The shapes are triangulated directly into the region's {@link #getVertexStore() vertex store}.</p>
      * @return the resulting Region inclusive the generated region
      */
     public static GLRegion create(OutlineShape[] outlineShapes, int renderModes) {
         final GLRegion region = RegionFactory.create(renderModes);
         
-        int numVertices = region.getNumVertices();
-        
         for(int index=0; index<outlineShapes.length; index++) {
             OutlineShape outlineShape = outlineShapes[index];
             outlineShape.transformOutlines(OutlineShape.VerticesState.QUADRATIC_NURBS);
-    
-            ArrayList<Triangle> triangles = outlineShape.triangulate();
-            region.addTriangles(triangles);
-            
-            ArrayList<Vertex> vertices = outlineShape.getVertices();
-            for(int pos=0; pos < vertices.size(); pos++){
-                Vertex vert = vertices.get(pos);
-                vert.setId(numVertices++);
-            }
-            region.addVertices(vertices);
+            region.addOutlineShape(outlineShape);
         }
         
         return region;
@@ -80,16 +70,14 @@ public abstract class GLRegion extends Region {
 
     /** 
      * Create an ogl {@link GLRegion} defining this {@link OutlineShape}
+     * <p>The shape is triangulated directly into the region's {@link #getVertexStore() vertex store}.</p>
      * @return the resulting Region.
      */
     public static GLRegion create(OutlineShape outlineShape, int renderModes) {
         final GLRegion region = RegionFactory.create(renderModes);
         
         outlineShape.transformOutlines(OutlineShape.VerticesState.QUADRATIC_NURBS);
-        ArrayList<Triangle> triangles = (ArrayList<Triangle>) outlineShape.triangulate();
-        ArrayList<Vertex> vertices = (ArrayList<Vertex>) outlineShape.getVertices();
-        region.addVertices(vertices);
-        region.addTriangles(triangles);
+        region.addOutlineShape(outlineShape);
         return region;
     }        
     
@@ -97,6 +85,25 @@ public abstract class GLRegion extends Region {
         super(renderModes);
     }
     
+    /**
+     * Creates the triangle index buffer object w/ 3 components per element,
+     * using 16 bit indices or 32 bit indices if <code>intIndices</code> is true.
+     * <p>32 bit indices are required if the region exceeds {@link com.jogamp.graph.geom.VertexStore#MAX_SHORT_INDEX_VERTICES} vertices.</p>
+     * @throws GLException if 32 bit indices are requested on GLES2 w/o <code>GL_OES_element_index_uint</code>
+     */
+    protected static GLArrayDataServer createIndices(GL2ES2 gl, boolean intIndices, int initialElementCount) {
+        if( intIndices && gl.isGLES2() && !gl.isExtensionAvailable("GL_OES_element_index_uint") ) {
+            throw new GLException("32 bit indices not supported w/o GL_OES_element_index_uint on "+gl.getGLProfile());
+        }
+        return GLArrayDataServer.createData(3, intIndices ? GL.GL_UNSIGNED_INT : GL.GL_SHORT, initialElementCount, 
+                                            GL.GL_STATIC_DRAW, GL.GL_ELEMENT_ARRAY_BUFFER);
+    }
+    
+    /** Returns the index type for <code>glDrawElements</code> of an index buffer created via {@link #createIndices(GL2ES2, boolean, int)}. */
+    protected static int getIndexType(GLArrayDataServer indices) {
+        return GL.GL_UNSIGNED_INT == indices.getComponentType() ? GL.GL_UNSIGNED_INT : GL.GL_UNSIGNED_SHORT;
+    }
+    
     /** Updates a graph region by updating the ogl related
      *  objects for use in rendering if {@link #isDirty()}.
      *  <p>Allocates the ogl related data and initializes it the 1st time.<p>  
@@ -110,6 +117,15 @@ public abstract class GLRegion extends Region {
      */
     public abstract void destroy(GL2ES2 gl, RenderState rs);
     
+    /** 
+     * Returns the estimated GPU memory in bytes held by the associated OGL objects,
+     * i.e. buffer objects and offscreen targets allocated by the last {@link #update(GL2ES2, RenderState) update}.
+     * <p>Default implementation returns zero.</p>
+     */
+    public long getSizeInBytes() {
+        return 0;
+    }
+    
     /** Renders the associated OGL objects specifying
      * current width/hight of window for multi pass rendering
      * of the region.
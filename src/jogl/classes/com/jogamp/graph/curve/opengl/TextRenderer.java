@@ -27,9 +27,8 @@
  */
 package com.jogamp.graph.curve.opengl;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 
 import javax.media.opengl.GL2ES2;
 
@@ -84,25 +83,23 @@ public abstract class TextRenderer extends Renderer {
     
     /** FIXME
    public void flushCache(GL2ES2 gl) {
-       Iterator<GlyphString> iterator = stringCacheMap.values().iterator();
+       Iterator<GlyphString> iterator = stringCache.values().iterator();
        while(iterator.hasNext()){
            GlyphString glyphString = iterator.next();
            glyphString.destroy(gl, rs);
        }
-       stringCacheMap.clear();    
-       stringCacheArray.clear();
+       stringCache.clear();    
    } */
    
    @Override
    protected void destroyImpl(GL2ES2 gl) {
        // fluchCache(gl) already called
-       Iterator<GlyphString> iterator = stringCacheMap.values().iterator();
+       Iterator<GlyphString> iterator = stringCache.values().iterator();
        while(iterator.hasNext()){
            GlyphString glyphString = iterator.next();
            glyphString.destroy(gl, rs);
        }
-       stringCacheMap.clear();    
-       stringCacheArray.clear();
+       stringCache.clear();    
    }
    
    /**
@@ -135,59 +132,157 @@ public abstract class TextRenderer extends Renderer {
    /** 
     * @return the current utilized cache size, <= {@link #getCacheLimit()}
     */
-   public final int getCacheSize() { return stringCacheArray.size(); }
+   public final int getCacheSize() { return stringCache.size(); }
+   
+   /** 
+    * @return the number of {@link #getCachedGlyphString(Font, String, int, int) lookups} served by the cache
+    */
+   public final long getCacheHitCount() { return stringCacheHits; }
+   
+   /** 
+    * @return the number of {@link #getCachedGlyphString(Font, String, int, int) lookups} not served by the cache
+    */
+   public final long getCacheMissCount() { return stringCacheMisses; }
+   
+   /** 
+    * @return the number of least recently used GlyphString's removed due to the {@link #getCacheLimit() cache limit}
+    */
+   public final long getCacheEvictionCount() { return stringCacheEvictions; }
+   
+   /**
+    * Iterates through the cache, hence shall not be called per frame.
+    * @return the estimated GPU memory in bytes held by the regions of all cached GlyphString's
+    */
+   public final long getCacheSizeInBytes() {
+       long bytes = 0;
+       final Iterator<GlyphString> iterator = stringCache.values().iterator();
+       while(iterator.hasNext()){
+           bytes += iterator.next().getSizeInBytes();
+       }
+       return bytes;
+   }
+   
+   /** Resets the cache hit, miss and eviction counter. */
+   public final void resetCacheStats() {
+       stringCacheHits = 0;
+       stringCacheMisses = 0;
+       stringCacheEvictions = 0;
+   }
    
    protected final void validateCache(GL2ES2 gl, int space) {
        if ( getCacheLimit() > 0 ) {
-           while ( getCacheSize() + space > getCacheLimit() ) {
+           while ( getCacheSize() + space > getCacheLimit() && getCacheSize() > 0 ) {
                removeCachedGlyphString(gl, 0);
+               stringCacheEvictions++;
            }
        }
    }
    
-   protected final GlyphString getCachedGlyphString(Font font, String str, int fontSize) {
-       return stringCacheMap.get(getKey(font, str, fontSize));
+   /**
+    * @param texSize the multipass texture size the GlyphString's region renders with, 0 if not used
+    */
+   protected final GlyphString getCachedGlyphString(Font font, String str, int fontSize, int texSize) {
+       final GlyphString glyphString = stringCache.get(stringCacheLookupKey.set(font, str, fontSize, texSize));
+       stringCacheLookupKey.clear();
+       if( null != glyphString ) {
+           stringCacheHits++;
+       } else {
+           stringCacheMisses++;
+       }
+       return glyphString;
    }
 
-   protected final void addCachedGlyphString(GL2ES2 gl, Font font, String str, int fontSize, GlyphString glyphString) {
+   protected final void addCachedGlyphString(GL2ES2 gl, Font font, String str, int fontSize, int texSize, GlyphString glyphString) {
        if ( 0 != getCacheLimit() ) {
-           final String key = getKey(font, str, fontSize);
-           GlyphString oldGlyphString = stringCacheMap.put(key, glyphString);
-           if ( null == oldGlyphString ) {
+           final CacheKey key = new CacheKey().set(font, str, fontSize, texSize);
+           if ( !stringCache.containsKey(key) ) {
                // new entry ..
                validateCache(gl, 1);
-               stringCacheArray.add(stringCacheArray.size(), key);
-           } /// else overwrite is nop ..
+           }
+           stringCache.put(key, glyphString); /// overwrite is nop ..
        }
    }
    
-   protected final void removeCachedGlyphString(GL2ES2 gl, Font font, String str, int fontSize) {
-       final String key = getKey(font, str, fontSize);
-       GlyphString glyphString = stringCacheMap.remove(key);
+   protected final void removeCachedGlyphString(GL2ES2 gl, Font font, String str, int fontSize, int texSize) {
+       final GlyphString glyphString = stringCache.remove(stringCacheLookupKey.set(font, str, fontSize, texSize));
+       stringCacheLookupKey.clear();
        if(null != glyphString) {
            glyphString.destroy(gl, rs);
        }       
-       stringCacheArray.remove(key);
    }
 
+   /** 
+    * Removes the cached GlyphString at position <code>idx</code> in least recently used order,
+    * i.e. <code>0</code> denotes the least recently used one.
+    */
    protected final void removeCachedGlyphString(GL2ES2 gl, int idx) {
-       final String key = stringCacheArray.remove(idx);
-       final GlyphString glyphString = stringCacheMap.remove(key);
+       final Iterator<GlyphString> iterator = stringCache.values().iterator();
+       for(int i=0; i<idx; i++) {
+           iterator.next();
+       }
+       final GlyphString glyphString = iterator.next();
+       iterator.remove();
        if(null != glyphString) {
            glyphString.destroy(gl, rs);
        }
    }
       
-   protected final String getKey(Font font, String str, int fontSize) {
-       final StringBuilder sb = new StringBuilder();
-       return font.getName(sb, Font.NAME_UNIQUNAME)
-              .append(".").append(str.hashCode()).append(".").append(fontSize).toString();
+   /** 
+    * GlyphString cache key, equal if font, string, font size and texture size are equal.
+    * Unlike a hash code of the string, the string itself is compared.
+    */
+   private static final class CacheKey {
+       private Font font;
+       private String str;
+       private int fontSize;
+       private int texSize;
+       private int hash;
+       
+       final CacheKey set(Font font, String str, int fontSize, int texSize) {
+           this.font = font;
+           this.str = str;
+           this.fontSize = fontSize;
+           this.texSize = texSize;
+           // 31 * x == (x << 5) - x
+           int h = 31 + font.hashCode();
+           h = ((h << 5) - h) + str.hashCode();
+           h = ((h << 5) - h) + fontSize;
+           this.hash = ((h << 5) - h) + texSize;
+           return this;
+       }
+       
+       /** Drops the references of the reused lookup key. */
+       final void clear() {
+           font = null;
+           str = null;
+       }
+       
+       @Override
+       public final int hashCode() {
+           return hash;
+       }
+       
+       @Override
+       public final boolean equals(Object o) {
+           if( this == o ) {
+               return true;
+           }
+           if( !(o instanceof CacheKey) ) {
+               return false;
+           }
+           final CacheKey k = (CacheKey) o;
+           return fontSize == k.fontSize && texSize == k.texSize && hash == k.hash && font.equals(k.font) && str.equals(k.str);
+       }
    }
 
    /** Default cache limit, see {@link #setCacheLimit(int)} */
    public static final int DEFAULT_CACHE_LIMIT = 256;
    
-   private HashMap<String, GlyphString> stringCacheMap = new HashMap<String, GlyphString>(DEFAULT_CACHE_LIMIT);
-   private ArrayList<String> stringCacheArray = new ArrayList<String>(DEFAULT_CACHE_LIMIT);
+   /** Access ordered, i.e. the first entry is the least recently used one. */
+   private final LinkedHashMap<CacheKey, GlyphString> stringCache = new LinkedHashMap<CacheKey, GlyphString>(DEFAULT_CACHE_LIMIT, 0.75f, true);
+   private final CacheKey stringCacheLookupKey = new CacheKey();
    private int stringCacheLimit = DEFAULT_CACHE_LIMIT;      
-}
\ No newline at end of file
+   private long stringCacheHits = 0;
+   private long stringCacheMisses = 0;
+   private long stringCacheEvictions = 0;
+}
@@ -28,7 +28,22 @@
 
 package com.jogamp.graph.curve.tess;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+
 import jogamp.graph.curve.tess.CDTriangulator2D;
+import jogamp.opengl.Debug;
+import jogamp.opengl.util.DaemonThreadPool;
+
+import com.jogamp.graph.curve.OutlineShape;
+import com.jogamp.graph.geom.Triangle;
+import com.jogamp.graph.geom.VertexStore;
 
 
 public class Triangulation {
@@ -41,4 +56,168 @@ public class Triangulation {
     public static Triangulator create() {
         return new CDTriangulator2D();
     }
+
+    /**
+     * Triangulates all given shapes in parallel using the shared triangulation pool,
+     * see {@link #triangulate(Collection, ExecutorService)}.
+     * @param shapes the independent shapes to triangulate
+     * @return the triangles of each shape in input order, 
+     *         <code>null</code> elements for shapes w/o outlines
+     */
+    public static List<ArrayList<Triangle>> triangulate(Collection<OutlineShape> shapes) {
+        return triangulate(shapes, getExecutor());
+    }
+
+    /**
+     * Triangulates all given shapes in parallel, see {@link OutlineShape#triangulate()}.
+     * <p>
+     * The shapes are split into contiguous chunks, each triangulated by one worker 
+     * w/ its own {@link Triangulator} instance.
+     * Since triangulation sorts the outlines and assigns vertex ids, 
+     * the shapes must be independent, i.e. neither share {@link com.jogamp.graph.geom.Outline}s 
+     * nor be modified concurrently.
+     * </p>
+     * @param shapes the independent shapes to triangulate
+     * @param executor the executor running the chunks, 
+     *        if <code>null</code> all shapes are triangulated on the calling thread
+     * @return the triangles of each shape in input order, 
+     *         <code>null</code> elements for shapes w/o outlines
+     */
+    public static List<ArrayList<Triangle>> triangulate(Collection<OutlineShape> shapes, ExecutorService executor) {
+        final Object[] res = invoke(shapes, false, executor);
+        final List<ArrayList<Triangle>> list = new ArrayList<ArrayList<Triangle>>(res.length);
+        for(int i=0; i<res.length; i++) {
+            @SuppressWarnings("unchecked")
+            final ArrayList<Triangle> triangles = (ArrayList<Triangle>) res[i];
+            list.add(triangles);
+        }
+        return list;
+    }
+
+    /**
+     * Triangulates all given shapes in parallel into their own {@link VertexStore} 
+     * using the shared triangulation pool,
+     * see {@link #triangulateToStores(Collection, ExecutorService)}.
+     * @param shapes the independent shapes to triangulate
+     * @return the store of each shape in input order
+     */
+    public static VertexStore[] triangulateToStores(Collection<OutlineShape> shapes) {
+        return triangulateToStores(shapes, getExecutor());
+    }
+
+    /**
+     * Triangulates all given shapes in parallel into their own {@link VertexStore}, 
+     * see {@link OutlineShape#triangulate(VertexStore)} and {@link #triangulate(Collection, ExecutorService)}.
+     * <p>
+     * The resulting stores may be merged via {@link VertexStore#addInstance(VertexStore, float, float, float)}.
+     * </p>
+     * @param shapes the independent shapes to triangulate
+     * @param executor the executor running the chunks, 
+     *        if <code>null</code> all shapes are triangulated on the calling thread
+     * @return the store of each shape in input order
+     */
+    public static VertexStore[] triangulateToStores(Collection<OutlineShape> shapes, ExecutorService executor) {
+        final Object[] res = invoke(shapes, true, executor);
+        final VertexStore[] stores = new VertexStore[res.length];
+        System.arraycopy(res, 0, stores, 0, res.length);
+        return stores;
+    }
+
+    //----------------------------------------------------------------------
+    // Internals only below this point
+    //
+
+    private static final int threadCount;
+    /** Chunks per worker, allowing the pool to balance shapes of different complexity. */
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static ExecutorService executor;
+
+    static {
+        int n = Runtime.getRuntime().availableProcessors();
+        final String s = Debug.getProperty("jogl.triangulation.threads", true);
+        if( null != s ) {
+            try {
+                n = Integer.parseInt(s);
+            } catch (NumberFormatException nfe) { }
+        }
+        threadCount = Math.max(1, n);
+    }
+
+    /** One triangulator per worker thread, reused for all its shapes. */
+    private static final ThreadLocal<Triangulator> triangulators = new ThreadLocal<Triangulator>() {
+        protected Triangulator initialValue() {
+            return create();
+        }
+    };
+
+    /** Lazily creates the shared pool of daemon worker threads, which terminate when idle. */
+    private static synchronized ExecutorService getExecutor() {
+        if( 1 == threadCount ) {
+            return null;
+        }
+        if( null == executor ) {
+            executor = DaemonThreadPool.create("Triangulation", threadCount, 5, new LinkedBlockingQueue<Runnable>());
+        }
+        return executor;
+    }
+
+    private static Object triangulate(OutlineShape shape, boolean toStore) {
+        final Triangulator triangulator2d = triangulators.get();
+        if( toStore ) {
+            final VertexStore store = new VertexStore();
+            shape.triangulate(store, triangulator2d);
+            return store;
+        } else {
+            return shape.triangulate(triangulator2d);
+        }
+    }
+
+    private static Object[] invoke(Collection<OutlineShape> shapes, final boolean toStore, ExecutorService executor) {
+        final OutlineShape[] input = shapes.toArray(new OutlineShape[shapes.size()]);
+        final Object[] res = new Object[input.length];
+        if( null == executor || 1 >= input.length ) {
+            for(int i=0; i<input.length; i++) {
+                res[i] = triangulate(input[i], toStore);
+            }
+            return res;
+        }
+        final int chunkCount = Math.min(input.length, CHUNKS_PER_THREAD * threadCount);
+        final List<Callable<Object>> tasks = new ArrayList<Callable<Object>>(chunkCount);
+        for(int c=0; c<chunkCount; c++) {
+            final int start = (int) ( (long)input.length * c / chunkCount );
+            final int end = (int) ( (long)input.length * (c+1) / chunkCount );
+            tasks.add(new Callable<Object>() {
+                public Object call() {
+                    for(int i=start; i<end; i++) {
+                        res[i] = triangulate(input[i], toStore);
+                    }
+                    return null;
+                } } );
+        }
+        final List<Future<Object>> futures;
+        try {
+            futures = executor.invokeAll(tasks);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while triangulating", ie);
+        }
+        for(int i=0; i<futures.size(); i++) {
+            try {
+                futures.get(i).get();
+            } catch (ExecutionException ee) {
+                final Throwable t = ee.getCause();
+                if( t instanceof RuntimeException ) {
+                    throw (RuntimeException) t;
+                } else if( t instanceof Error ) {
+                    throw (Error) t;
+                }
+                throw new RuntimeException(t);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while triangulating", ie);
+            }
+        }
+        // invokeAll's completed futures establish happens-before for the result slots
+        return res;
+    }
 }
@@ -32,6 +32,7 @@ import java.util.ArrayList;
 
 import com.jogamp.graph.geom.Outline;
 import com.jogamp.graph.geom.Triangle;
+import com.jogamp.graph.geom.VertexStore;
 
 /** Interface to the triangulation algorithms provided
  *  A triangulation of 2D outlines where you can
@@ -62,6 +63,17 @@ public interface Triangulator {
      */
     public ArrayList<Triangle> generate();
     
+    /** Generate the triangulation of the provided 
+     *  List of {@link Outline}s into the given {@link VertexStore}.
+     *  <p>
+     *  The outline vertices are appended in the order of the added outlines,
+     *  followed by the private vertices of each curve triangle. 
+     *  The outline vertices' ids are set to their store index.
+     *  </p>
+     * @param store the target store
+     */
+    public void generate(VertexStore store);
+    
     /** Reset the triangulation to initial state
      *  Clearing cached data
      */
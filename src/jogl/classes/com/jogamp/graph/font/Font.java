@@ -86,6 +86,42 @@ public interface Font {
         public float getAdvance(float pixelSize, boolean useFrationalMetrics);
     }
 
+    /**
+     * Bounded glyph cache of a font.
+     * <p>
+     * Glyphs are evicted in least recently used order 
+     * if either the entry count or the estimated byte footprint exceeds its limit.
+     * Evicted glyphs are recreated on demand.
+     * </p>
+     */
+    public interface GlyphCache {
+        /** Returns the maximum number of cached glyphs. */
+        int getMaxEntries();
+        /** Returns the maximum estimated byte footprint of all cached glyphs. */
+        long getMaxBytes();
+        /** 
+         * Sets the cache limits, evicting glyphs if required.
+         * @param maxEntries maximum number of cached glyphs, at least one
+         * @param maxBytes maximum estimated byte footprint of all cached glyphs
+         */
+        void setLimits(int maxEntries, long maxBytes);
+        
+        /** Returns the number of cached glyphs. */
+        int getEntryCount();
+        /** Returns the estimated byte footprint of all cached glyphs. */
+        long getByteCount();
+        /** Returns the number of glyph lookups served by the cache. */
+        long getHitCount();
+        /** Returns the number of glyph lookups which required to create the glyph. */
+        long getMissCount();
+        /** Returns the number of evicted glyphs. */
+        long getEvictionCount();
+        /** Resets the hit, miss and eviction counter. */
+        void resetStats();
+        /** Removes all glyphs from the cache. */
+        void clear();
+    }
+
 
     public String getName(int nameIndex);
     public StringBuilder getName(StringBuilder string, int nameIndex);
@@ -102,6 +138,9 @@ public interface Font {
     public Glyph getGlyph(char symbol);
     public int getNumGlyphs();
     
+    /** Returns the {@link GlyphCache} used by {@link #getGlyph(char)}. */
+    public GlyphCache getGlyphCache();
+    
     public float getStringWidth(CharSequence string, float pixelSize);
     public float getStringHeight(CharSequence string, float pixelSize);
     public AABBox getStringBounds(CharSequence string, float pixelSize);
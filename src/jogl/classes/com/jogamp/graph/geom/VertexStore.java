@@ -0,0 +1,266 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.graph.geom;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.ArrayList;
+
+/**
+ * Compact vertex and triangle storage in primitive arrays, 
+ * i.e. a structure of arrays w/o one object per {@link Vertex} or {@link Triangle}.
+ * <p>
+ * Vertices are stored as x/y/z coordinates and s/t texture coordinates,
+ * triangles as 3 vertex indices each. The arrays grow geometrically.
+ * </p>
+ * <p>
+ * Used as a triangulation target, see {@link com.jogamp.graph.curve.OutlineShape#triangulate(VertexStore)},
+ * and uploaded in bulk by the GL regions. 
+ * The object API is available via {@link #getVertex(int, Vertex.Factory)} and {@link #getTriangles(Vertex.Factory)}.
+ * </p>
+ */
+public class VertexStore {
+    /** 
+     * Maximum number of vertices addressable by 16 bit indices, see {@link #getShortIndices(int, short[])}.
+     * <p>Leaves index <code>0xFFFF</code> unused, which may be the primitive restart index.</p>
+     */
+    public static final int MAX_SHORT_INDEX_VERTICES = 0xFFFF;
+
+    private float[] coords;
+    private float[] texCoords;
+    private int[] indices;
+    private int vertexCount;
+    private int indexCount;
+    private final AABBox box = new AABBox();
+
+    public VertexStore() {
+        this(64, 64);
+    }
+
+    /**
+     * @param vertexCapacity initial vertex capacity
+     * @param triangleCapacity initial triangle capacity
+     */
+    public VertexStore(int vertexCapacity, int triangleCapacity) {
+        coords = new float[3*Math.max(1, vertexCapacity)];
+        texCoords = new float[2*Math.max(1, vertexCapacity)];
+        indices = new int[3*Math.max(1, triangleCapacity)];
+    }
+
+    /** Clears all vertices and triangles, keeping the allocated storage. */
+    public final void clear() {
+        vertexCount = 0;
+        indexCount = 0;
+        box.reset();
+    }
+
+    /** Ensures space for the given number of additional vertices and triangles. */
+    public final void ensureCapacity(int addVertices, int addTriangles) {
+        final int vertexCapacity = vertexCount + addVertices;
+        if( 3*vertexCapacity > coords.length ) {
+            final int n = Math.max(vertexCapacity, 2*coords.length/3);
+            final float[] newCoords = new float[3*n];
+            System.arraycopy(coords, 0, newCoords, 0, 3*vertexCount);
+            coords = newCoords;
+            final float[] newTexCoords = new float[2*n];
+            System.arraycopy(texCoords, 0, newTexCoords, 0, 2*vertexCount);
+            texCoords = newTexCoords;
+        }
+        final int indexCapacity = indexCount + 3*addTriangles;
+        if( indexCapacity > indices.length ) {
+            final int[] newIndices = new int[Math.max(indexCapacity, 2*indices.length)];
+            System.arraycopy(indices, 0, newIndices, 0, indexCount);
+            indices = newIndices;
+        }
+    }
+
+    /**
+     * Adds a vertex.
+     * @return the index of the new vertex
+     */
+    public final int addVertex(float x, float y, float z, float s, float t) {
+        if( 3*vertexCount == coords.length ) {
+            ensureCapacity(1, 0);
+        }
+        final int i = vertexCount++;
+        coords[3*i]   = x;
+        coords[3*i+1] = y;
+        coords[3*i+2] = z;
+        texCoords[2*i]   = s;
+        texCoords[2*i+1] = t;
+        box.resize(x, y, z);
+        return i;
+    }
+
+    /**
+     * Adds a copy of the given vertex' coordinates and texture coordinates.
+     * @return the index of the new vertex
+     */
+    public final int addVertex(Vertex v) {
+        final float[] tex = v.getTexCoord();
+        return addVertex(v.getX(), v.getY(), v.getZ(), tex[0], tex[1]);
+    }
+
+    /** Adds a triangle of the given vertex indices. */
+    public final void addTriangle(int a, int b, int c) {
+        if( indexCount + 3 > indices.length ) {
+            ensureCapacity(0, 1);
+        }
+        indices[indexCount++] = a;
+        indices[indexCount++] = b;
+        indices[indexCount++] = c;
+    }
+
+    /**
+     * Adds all vertices and triangles of <code>src</code>, 
+     * transformed by <code>scale</code> and translated by <code>tx</code>, <code>ty</code> in the x/y plane.
+     * <p>
+     * Allows to instance a shape, e.g. a glyph, w/o triangulating it again.
+     * </p>
+     */
+    public final void addInstance(VertexStore src, float scale, float tx, float ty) {
+        final int srcVertexCount = src.vertexCount;
+        ensureCapacity(srcVertexCount, src.indexCount/3);
+        final int base = vertexCount;
+        final float[] srcCoords = src.coords;
+        for(int i=0, j=3*base; i<3*srcVertexCount; i+=3, j+=3) {
+            final float x = srcCoords[i]*scale + tx;
+            final float y = srcCoords[i+1]*scale + ty;
+            final float z = srcCoords[i+2];
+            coords[j]   = x;
+            coords[j+1] = y;
+            coords[j+2] = z;
+            box.resize(x, y, z);
+        }
+        System.arraycopy(src.texCoords, 0, texCoords, 2*base, 2*srcVertexCount);
+        final int[] srcIndices = src.indices;
+        for(int i=0, j=indexCount; i<src.indexCount; i++, j++) {
+            indices[j] = srcIndices[i] + base;
+        }
+        vertexCount += srcVertexCount;
+        indexCount += src.indexCount;
+    }
+
+    public final int getVertexCount() { return vertexCount; }
+
+    public final int getTriangleCount() { return indexCount / 3; }
+
+    /** Returns the backing x/y/z coordinates, valid up to 3 * {@link #getVertexCount()}. */
+    public final float[] getCoords() { return coords; }
+
+    /** Returns the backing s/t texture coordinates, valid up to 2 * {@link #getVertexCount()}. */
+    public final float[] getTexCoords() { return texCoords; }
+
+    /** Returns the backing triangle vertex indices, valid up to 3 * {@link #getTriangleCount()}. */
+    public final int[] getIndices() { return indices; }
+
+    /** Returns the bounding box of all vertices. */
+    public final AABBox getBounds() { return box; }
+
+    /** Returns a {@link FloatBuffer} view of all x/y/z coordinates. */
+    public final FloatBuffer getCoordsBuffer() {
+        return FloatBuffer.wrap(coords, 0, 3*vertexCount);
+    }
+
+    /** Returns a {@link FloatBuffer} view of all s/t texture coordinates. */
+    public final FloatBuffer getTexCoordsBuffer() {
+        return FloatBuffer.wrap(texCoords, 0, 2*vertexCount);
+    }
+
+    /**
+     * Returns all triangle vertex indices added to <code>offset</code> as 16 bit indices.
+     * @param offset added to each index
+     * @param scratch optional reusable storage, may be null or too small
+     * @return the indices, w/ remaining 3 * {@link #getTriangleCount()}
+     * @throws IllegalArgumentException if <code>offset</code> + {@link #getVertexCount()} exceeds {@link #MAX_SHORT_INDEX_VERTICES},
+     *         use {@link #getIntIndices(int, int[])} instead.
+     */
+    public final ShortBuffer getShortIndices(int offset, short[] scratch) {
+        if( offset + vertexCount > MAX_SHORT_INDEX_VERTICES ) {
+            throw new IllegalArgumentException("Vertices "+offset+" + "+vertexCount+" exceed 16 bit indices, max "+MAX_SHORT_INDEX_VERTICES);
+        }
+        final short[] dst = null != scratch && scratch.length >= indexCount ? scratch : new short[indexCount];
+        for(int i=0; i<indexCount; i++) {
+            dst[i] = (short) ( indices[i] + offset );
+        }
+        return ShortBuffer.wrap(dst, 0, indexCount);
+    }
+
+    /**
+     * Returns all triangle vertex indices added to <code>offset</code> as 32 bit indices.
+     * @param offset added to each index
+     * @param scratch optional reusable storage, may be null or too small
+     * @return the indices, w/ remaining 3 * {@link #getTriangleCount()}
+     */
+    public final IntBuffer getIntIndices(int offset, int[] scratch) {
+        final int[] dst = null != scratch && scratch.length >= indexCount ? scratch : new int[indexCount];
+        for(int i=0; i<indexCount; i++) {
+            dst[i] = indices[i] + offset;
+        }
+        return IntBuffer.wrap(dst, 0, indexCount);
+    }
+
+    /**
+     * Returns a new {@link Vertex} w/ the data of the vertex at <code>index</code> and its index as id.
+     * The vertex is on-curve, curve control points are denoted by their texture coordinates only.
+     */
+    public final Vertex getVertex(int index, Vertex.Factory<? extends Vertex> factory) {
+        if( 0 > index || index >= vertexCount ) {
+            throw new IndexOutOfBoundsException("Index "+index+" not within [0.."+vertexCount+"[");
+        }
+        final Vertex v = factory.create(coords, 3*index, 3, true);
+        v.setTexCoord(texCoords, 2*index, 2);
+        v.setId(index);
+        return v;
+    }
+
+    /** Returns new {@link Triangle}s of all triangles, sharing the new {@link Vertex} objects per index. */
+    public final ArrayList<Triangle> getTriangles(Vertex.Factory<? extends Vertex> factory) {
+        final Vertex[] vertices = new Vertex[vertexCount];
+        for(int i=0; i<vertexCount; i++) {
+            vertices[i] = getVertex(i, factory);
+        }
+        final ArrayList<Triangle> triangles = new ArrayList<Triangle>(indexCount/3);
+        for(int i=0; i<indexCount; i+=3) {
+            final Triangle t = new Triangle(vertices[indices[i]], vertices[indices[i+1]], vertices[indices[i+2]]);
+            t.setId(i/3);
+            triangles.add(t);
+        }
+        return triangles;
+    }
+
+    /** Returns the estimated heap footprint in bytes */
+    public final int getByteSize() {
+        return 48 + 3 * 16 + 4 * ( coords.length + texCoords.length + indices.length );
+    }
+
+    public String toString() {
+        return "VertexStore[vertices "+vertexCount+", triangles "+getTriangleCount()+", bounds "+box+"]";
+    }
+}
@@ -167,6 +167,70 @@ public class FloatUtil {
   }
   
   
+  /**
+   * Inverts a rigid transformation, i.e. a 4x4 matrix composed of rotations and translations only,
+   * whose upper 3x3 matrix R is orthonormal, by transposing R and rotating back the translation.
+   * <p>
+   * The source and destination must not overlap.
+   * </p>
+   * @param src 4x4 rigid transformation matrix in column-major order
+   * @param dst inverse of <code>src</code> in column-major order
+   */
+  public static final void invertRigidMatrixf(final float[] src, int src_off, float[] dst, int dst_off) {
+     final float tx = src[src_off+0+3*4], ty = src[src_off+1+3*4], tz = src[src_off+2+3*4];
+     for (int i = 0; i < 3; i++) {
+        // row-i of the inverse is column-i of R
+        final float r0 = src[src_off+0+i*4], r1 = src[src_off+1+i*4], r2 = src[src_off+2+i*4];
+        dst[dst_off+i+0*4] = r0;
+        dst[dst_off+i+1*4] = r1;
+        dst[dst_off+i+2*4] = r2;
+        dst[dst_off+i+3*4] = -( r0 * tx + r1 * ty + r2 * tz );
+     }
+     dst[dst_off+3+0*4] = 0f;
+     dst[dst_off+3+1*4] = 0f;
+     dst[dst_off+3+2*4] = 0f;
+     dst[dst_off+3+3*4] = 1f;
+  }
+
+  /**
+   * Inverts an affine transformation, i.e. a 4x4 matrix with the last row being <code>(0, 0, 0, 1)</code>,
+   * by inverting the upper 3x3 matrix A via its adjugate and applying <code>-A<sup>-1</sup></code> to the translation.
+   * <p>
+   * The source and destination must not overlap.
+   * </p>
+   * @param src 4x4 affine transformation matrix in column-major order
+   * @param dst inverse of <code>src</code> in column-major order
+   * @return false if <code>src</code> is singular, in which case <code>dst</code> is left untouched, otherwise true
+   */
+  public static final boolean invertAffineMatrixf(final float[] src, int src_off, float[] dst, int dst_off) {
+     final float a00 = src[src_off+0+0*4], a01 = src[src_off+0+1*4], a02 = src[src_off+0+2*4];
+     final float a10 = src[src_off+1+0*4], a11 = src[src_off+1+1*4], a12 = src[src_off+1+2*4];
+     final float a20 = src[src_off+2+0*4], a21 = src[src_off+2+1*4], a22 = src[src_off+2+2*4];
+     final float c00 = a11 * a22 - a12 * a21;
+     final float c01 = a12 * a20 - a10 * a22;
+     final float c02 = a10 * a21 - a11 * a20;
+     final float det = a00 * c00 + a01 * c01 + a02 * c02;
+     if (det == 0f) {
+        return false;
+     }
+     final float s = 1f / det;
+     final float i00 = c00 * s, i01 = ( a02 * a21 - a01 * a22 ) * s, i02 = ( a01 * a12 - a02 * a11 ) * s;
+     final float i10 = c01 * s, i11 = ( a00 * a22 - a02 * a20 ) * s, i12 = ( a02 * a10 - a00 * a12 ) * s;
+     final float i20 = c02 * s, i21 = ( a01 * a20 - a00 * a21 ) * s, i22 = ( a00 * a11 - a01 * a10 ) * s;
+     final float tx = src[src_off+0+3*4], ty = src[src_off+1+3*4], tz = src[src_off+2+3*4];
+     dst[dst_off+0+0*4] = i00; dst[dst_off+0+1*4] = i01; dst[dst_off+0+2*4] = i02;
+     dst[dst_off+1+0*4] = i10; dst[dst_off+1+1*4] = i11; dst[dst_off+1+2*4] = i12;
+     dst[dst_off+2+0*4] = i20; dst[dst_off+2+1*4] = i21; dst[dst_off+2+2*4] = i22;
+     dst[dst_off+0+3*4] = -( i00 * tx + i01 * ty + i02 * tz );
+     dst[dst_off+1+3*4] = -( i10 * tx + i11 * ty + i12 * tz );
+     dst[dst_off+2+3*4] = -( i20 * tx + i21 * ty + i22 * tz );
+     dst[dst_off+3+0*4] = 0f;
+     dst[dst_off+3+1*4] = 0f;
+     dst[dst_off+3+2*4] = 0f;
+     dst[dst_off+3+3*4] = 1f;
+     return true;
+  }
+
   /**
    * Normalize vector
    *
@@ -0,0 +1,117 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.common.util.IntObjectHashMap;
+
+/**
+ * Recycles direct NIO buffers of equal byte capacity,
+ * avoiding the churn of native memory which is only reclaimed on GC.
+ * <p>
+ * Growing buffers, e.g. {@link GLArrayDataClient} and {@link ImmModeSink},
+ * {@link #release(ByteBuffer) release} the replaced storage to the pool when set,
+ * a following rebuild of the same geometry {@link #acquire(int) acquires} the same capacities again.
+ * </p>
+ * <p>
+ * A released buffer must no longer be referenced by the user,
+ * hence pooling is opt-in.
+ * </p>
+ * <p>
+ * This class is thread safe.
+ * </p>
+ */
+public class DirectBufferPool {
+    private final IntObjectHashMap capacity2Buffers = new IntObjectHashMap();
+    private final int maxPooledBytes;
+    private int pooledBytes = 0;
+    private int hits = 0, misses = 0;
+
+    /**
+     * @param maxPooledBytes maximum sum of capacities held by this pool, released buffers exceeding it are dropped
+     */
+    public DirectBufferPool(int maxPooledBytes) {
+        this.maxPooledBytes = maxPooledBytes;
+    }
+
+    /**
+     * Returns a cleared direct ByteBuffer in native order of exactly <code>byteCapacity</code> bytes,
+     * either recycled or newly allocated.
+     * <p>
+     * A recycled buffer's content is undefined.
+     * </p>
+     */
+    public synchronized ByteBuffer acquire(int byteCapacity) {
+        final ArrayList<?> list = (ArrayList<?>) capacity2Buffers.get(byteCapacity);
+        if( null != list && list.size() > 0 ) {
+            final ByteBuffer b = (ByteBuffer) list.remove(list.size()-1);
+            pooledBytes -= byteCapacity;
+            hits++;
+            b.clear();
+            return b.order(ByteOrder.nativeOrder());
+        }
+        misses++;
+        return Buffers.newDirectByteBuffer(byteCapacity);
+    }
+
+    /**
+     * Returns the given direct buffer to this pool, unless the pool is full.
+     * @return true if pooled, otherwise false
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized boolean release(ByteBuffer b) {
+        if( null == b || !b.isDirect() || pooledBytes + b.capacity() > maxPooledBytes ) {
+            return false;
+        }
+        ArrayList<ByteBuffer> list = (ArrayList<ByteBuffer>) capacity2Buffers.get(b.capacity());
+        if( null == list ) {
+            list = new ArrayList<ByteBuffer>();
+            capacity2Buffers.put(b.capacity(), list);
+        }
+        list.add(b);
+        pooledBytes += b.capacity();
+        return true;
+    }
+
+    /** Drops all pooled buffers. */
+    public synchronized void clear() {
+        capacity2Buffers.clear();
+        pooledBytes = 0;
+    }
+
+    /** Returns the sum of capacities held by this pool. */
+    public synchronized int getPooledBytes() { return pooledBytes; }
+
+    public synchronized String toString() {
+        return "DirectBufferPool[pooled "+pooledBytes+"/"+maxPooledBytes+" bytes, hits "+hits+", misses "+misses+"]";
+    }
+}
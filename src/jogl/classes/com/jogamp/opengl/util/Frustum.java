@@ -0,0 +1,293 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import com.jogamp.common.os.Platform;
+
+/**
+ * Providing frustum {@link #getPlanes() planes} derived by different inputs
+ * ({@link #updateByPMV(float[], int) P*MV}, ..)
+ * used to classify objects and to cull them in batches.
+ * <p>
+ * Extraction of the planes follows
+ * <i>Fast Extraction of Viewing Frustum Planes from the World-View-Projection Matrix</i>
+ * by Gil Gribb and Klaus Hartmann.
+ * If P*MV is used, the planes are in object space, if P only in eye space.
+ * </p>
+ * <p>
+ * The batched culling methods, e.g. {@link #cullAABBoxes(float[], float[], float[], float[], float[], float[], int, int, long[]) cullAABBoxes(..)},
+ * test packed structure-of-arrays and write a visibility bitset.
+ * They only read the planes and may be invoked concurrently for disjoint ranges of objects,
+ * as long as the ranges start at multiples of 64, i.e. do not share a bitset word.
+ * </p>
+ * @see PMVMatrix#glGetFrustum()
+ */
+public class Frustum {
+    /** Normalized plane, <code>n * p + d = 0</code>, with the normal pointing inside the frustum. */
+    public static class Plane {
+        /** Normal of the plane */
+        public final float[] n = new float[3];
+
+        /** Distance to origin */
+        public float d;
+
+        /** Return signed distance of point to plane, positive if inside the frustum. */
+        public final float distanceTo(float x, float y, float z) {
+            return n[0] * x + n[1] * y + n[2] * z + d;
+        }
+
+        @Override
+        public String toString() {
+            return "Plane[ [ " + n[0] + ", " + n[1] + ", " + n[2] + " ], " + d + "]";
+        }
+    }
+
+    /** Index for left plane: {@value} */
+    public static final int LEFT   = 0;
+    /** Index for right plane: {@value} */
+    public static final int RIGHT  = 1;
+    /** Index for bottom plane: {@value} */
+    public static final int BOTTOM = 2;
+    /** Index for top plane: {@value} */
+    public static final int TOP    = 3;
+    /** Index for near plane: {@value} */
+    public static final int NEAR   = 4;
+    /** Index for far plane: {@value} */
+    public static final int FAR    = 5;
+
+    protected final Plane[] planes = new Plane[6];
+
+    /** Planes packed as <code>nx, ny, nz, d</code> for the batched tests */
+    private final float[] packed = new float[6*4];
+
+    public Frustum() {
+        for (int i = 0; i < 6; ++i) {
+            planes[i] = new Plane();
+        }
+    }
+
+    /**
+     * Planes are ordered in the returned array as follows:
+     * <ul>
+     *   <li>{@link #LEFT}</li>
+     *   <li>{@link #RIGHT}</li>
+     *   <li>{@link #BOTTOM}</li>
+     *   <li>{@link #TOP}</li>
+     *   <li>{@link #NEAR}</li>
+     *   <li>{@link #FAR}</li>
+     * </ul>
+     * <p>
+     * The returned planes are not to be modified.
+     * </p>
+     */
+    public final Plane[] getPlanes() { return planes; }
+
+    /**
+     * Calculate the frustum planes in world coordinates
+     * using the passed float[16] as premultiplied P*MV (column major order).
+     * <p>
+     * Frustum plane's normals will point to the inside of the viewing frustum,
+     * as required by this class.
+     * </p>
+     */
+    public void updateByPMV(float[] pmv, int pmv_off) {
+        // row i of the column major matrix is: pmv[i], pmv[4+i], pmv[8+i], pmv[12+i]
+        final float m30 = pmv[pmv_off+3+0*4], m31 = pmv[pmv_off+3+1*4], m32 = pmv[pmv_off+3+2*4], m33 = pmv[pmv_off+3+3*4];
+        for (int i = 0; i < 3; ++i) {
+            final float mi0 = pmv[pmv_off+i+0*4], mi1 = pmv[pmv_off+i+1*4], mi2 = pmv[pmv_off+i+2*4], mi3 = pmv[pmv_off+i+3*4];
+            // row3 + row_i: LEFT, BOTTOM, NEAR
+            setPlane(2*i,   m30 + mi0, m31 + mi1, m32 + mi2, m33 + mi3);
+            // row3 - row_i: RIGHT, TOP, FAR
+            setPlane(2*i+1, m30 - mi0, m31 - mi1, m32 - mi2, m33 - mi3);
+        }
+    }
+
+    private final void setPlane(int i, float a, float b, float c, float d) {
+        final float invl = 1f / (float) Math.sqrt(a * a + b * b + c * c);
+        final Plane p = planes[i];
+        p.n[0] = a * invl;
+        p.n[1] = b * invl;
+        p.n[2] = c * invl;
+        p.d = d * invl;
+        packed[i*4+0] = p.n[0];
+        packed[i*4+1] = p.n[1];
+        packed[i*4+2] = p.n[2];
+        packed[i*4+3] = p.d;
+    }
+
+    /** Returns true if the point is outside of the frustum, otherwise false. */
+    public final boolean isPointOutside(float x, float y, float z) {
+        for (int i = 0; i < 6; ++i) {
+            if ( planes[i].distanceTo(x, y, z) < 0f ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Returns true if the sphere is completely outside of the frustum, otherwise false. */
+    public final boolean isSphereOutside(float x, float y, float z, float radius) {
+        for (int i = 0; i < 6; ++i) {
+            if ( planes[i].distanceTo(x, y, z) < -radius ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if the axis aligned box is completely outside of the frustum, otherwise false.
+     * <p>
+     * The test is conservative, i.e. a box close to a frustum corner may be reported as not outside.
+     * </p>
+     */
+    public final boolean isAABBoxOutside(float lx, float ly, float lz, float hx, float hy, float hz) {
+        final float cx = ( lx + hx ) * 0.5f, cy = ( ly + hy ) * 0.5f, cz = ( lz + hz ) * 0.5f;
+        final float ex = ( hx - lx ) * 0.5f, ey = ( hy - ly ) * 0.5f, ez = ( hz - lz ) * 0.5f;
+        for (int i = 0; i < 6; ++i) {
+            final float[] n = planes[i].n;
+            final float r = Math.abs(n[0]) * ex + Math.abs(n[1]) * ey + Math.abs(n[2]) * ez;
+            if ( planes[i].distanceTo(cx, cy, cz) < -r ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Culls the axis aligned boxes <code>[from, to)</code> given as structure-of-arrays
+     * by their low and high coordinates.
+     * <p>
+     * Bit <code>i</code> of the <code>visible</code> bitset, i.e. <code>visible[i >>> 6] & ( 1L << i )</code>,
+     * is set if box <code>i</code> is not {@link #isAABBoxOutside(float, float, float, float, float, float) outside} of the frustum,
+     * otherwise cleared. Bits outside of <code>[from, to)</code> are left untouched.
+     * </p>
+     * @return the number of visible boxes within <code>[from, to)</code>
+     */
+    public final int cullAABBoxes(final float[] lowX, final float[] lowY, final float[] lowZ,
+                                  final float[] highX, final float[] highY, final float[] highZ,
+                                  final int from, final int to, final long[] visible) {
+        checkRange(from, to, visible);
+        final float[] p = packed;
+        int count = 0;
+        for (int w = from >>> 6; w <= ( to - 1 ) >>> 6 && from < to; ++w) {
+            final int start = Math.max(from, w << 6);
+            final int end = Math.min(to, ( w << 6 ) + 64);
+            long bits = 0;
+            for (int i = start; i < end; ++i) {
+                final float lx = lowX[i], ly = lowY[i], lz = lowZ[i];
+                final float hx = highX[i], hy = highY[i], hz = highZ[i];
+                final float cx = ( lx + hx ) * 0.5f, cy = ( ly + hy ) * 0.5f, cz = ( lz + hz ) * 0.5f;
+                final float ex = ( hx - lx ) * 0.5f, ey = ( hy - ly ) * 0.5f, ez = ( hz - lz ) * 0.5f;
+                boolean inside = true;
+                for (int j = 0; inside && j < 6*4; j += 4) {
+                    final float nx = p[j], ny = p[j+1], nz = p[j+2];
+                    final float r = Math.abs(nx) * ex + Math.abs(ny) * ey + Math.abs(nz) * ez;
+                    inside = nx * cx + ny * cy + nz * cz + p[j+3] >= -r;
+                }
+                if (inside) {
+                    bits |= 1L << i;
+                    ++count;
+                }
+            }
+            storeBits(visible, w, start, end, bits);
+        }
+        return count;
+    }
+
+    /**
+     * Culls the spheres <code>[from, to)</code> given as structure-of-arrays
+     * by their center coordinates and radius.
+     * <p>
+     * Bit <code>i</code> of the <code>visible</code> bitset
+     * is set if sphere <code>i</code> is not {@link #isSphereOutside(float, float, float, float) outside} of the frustum,
+     * otherwise cleared. Bits outside of <code>[from, to)</code> are left untouched.
+     * </p>
+     * @return the number of visible spheres within <code>[from, to)</code>
+     */
+    public final int cullSpheres(final float[] x, final float[] y, final float[] z, final float[] radius,
+                                 final int from, final int to, final long[] visible) {
+        checkRange(from, to, visible);
+        final float[] p = packed;
+        int count = 0;
+        for (int w = from >>> 6; w <= ( to - 1 ) >>> 6 && from < to; ++w) {
+            final int start = Math.max(from, w << 6);
+            final int end = Math.min(to, ( w << 6 ) + 64);
+            long bits = 0;
+            for (int i = start; i < end; ++i) {
+                final float cx = x[i], cy = y[i], cz = z[i], r = -radius[i];
+                boolean inside = true;
+                for (int j = 0; inside && j < 6*4; j += 4) {
+                    inside = p[j] * cx + p[j+1] * cy + p[j+2] * cz + p[j+3] >= r;
+                }
+                if (inside) {
+                    bits |= 1L << i;
+                    ++count;
+                }
+            }
+            storeBits(visible, w, start, end, bits);
+        }
+        return count;
+    }
+
+    private static final void checkRange(int from, int to, long[] visible) {
+        if ( 0 > from || from > to ) {
+            throw new IndexOutOfBoundsException("Invalid range ["+from+", "+to+")");
+        }
+        if ( ( (long) visible.length << 6 ) < to ) {
+            throw new IndexOutOfBoundsException("Bitset of "+visible.length+" words too small for "+to+" objects");
+        }
+    }
+
+    /** Stores the bits of <code>[start, end)</code> in word <code>w</code>. */
+    private static final void storeBits(long[] visible, int w, int start, int end, long bits) {
+        final int n = end - start;
+        final long mask = ( 64 == n ? -1L : ( ( 1L << n ) - 1L ) ) << start;
+        visible[w] = ( visible[w] & ~mask ) | ( bits & mask );
+    }
+
+    public StringBuilder toString(StringBuilder sb) {
+        if( null == sb ) {
+            sb = new StringBuilder();
+        }
+        sb.append("Frustum[ Planes[ ").append(Platform.NEWLINE)
+        .append(" L: ").append(planes[LEFT]).append(", ").append(Platform.NEWLINE)
+        .append(" R: ").append(planes[RIGHT]).append(", ").append(Platform.NEWLINE)
+        .append(" B: ").append(planes[BOTTOM]).append(", ").append(Platform.NEWLINE)
+        .append(" T: ").append(planes[TOP]).append(", ").append(Platform.NEWLINE)
+        .append(" N: ").append(planes[NEAR]).append(", ").append(Platform.NEWLINE)
+        .append(" F: ").append(planes[FAR]).append("], ").append(Platform.NEWLINE)
+        .append("]");
+        return sb;
+    }
+
+    @Override
+    public String toString() {
+        return toString(null).toString();
+    }
+}
@@ -21,6 +21,9 @@ import com.jogamp.opengl.util.glsl.ShaderState;
 
 public class GLArrayDataClient extends GLArrayDataWrapper implements GLArrayDataEditable {
 
+  /** Default {@link #setGrowthFactor(float) growth factor}: {@value} */
+  public static final float DEFAULT_GROWTH_FACTOR = 2f;
+
   /**
    * Create a client side buffer object, using a predefined fixed function array index
    * and starting with a new created Buffer object with initialElementCount size
@@ -144,6 +147,10 @@ public class GLArrayDataClient extends GLArrayDataWrapper implements GLArrayData
   public void destroy(GL gl) {
     reset(gl);
     super.destroy(gl);
+    if(null!=bufferPool && null!=bufferStorage) {
+        bufferPool.release(bufferStorage);
+    }
+    bufferStorage = null;
   }
 
   @Override
@@ -292,6 +299,48 @@ public class GLArrayDataClient extends GLArrayDataWrapper implements GLArrayData
     Buffers.putf(buffer, v);
   }
 
+  /**
+   * Sets the factor the buffer capacity is multiplied with when growing,
+   * at least by <code>initialElementCount</code> elements.
+   * <p>
+   * Geometric growth keeps filling a large array linear in time,
+   * a factor of <code>1</code> grows by <code>initialElementCount</code> elements only.
+   * </p>
+   * @param factor the growth factor, must be >= 1, default is {@link #DEFAULT_GROWTH_FACTOR}
+   */
+  public void setGrowthFactor(float factor) {
+    if( 1f > factor ) {
+        throw new IllegalArgumentException("Growth factor "+factor+" < 1");
+    }
+    growthFactor = factor;
+  }
+
+  /** Returns the growth factor, see {@link #setGrowthFactor(float)}. */
+  public final float getGrowthFactor() { return growthFactor; }
+
+  /**
+   * Sets a pool the replaced direct buffer storage is released to when growing or destroyed,
+   * and new storage is acquired from.
+   * <p>
+   * The user shall not keep references to the {@link #getBuffer() buffer} across growth or destruction.
+   * </p>
+   * @param pool the pool, or <code>null</code> to disable pooling (default)
+   */
+  public void setBufferPool(DirectBufferPool pool) {
+    bufferPool = pool;
+  }
+
+  /**
+   * Grows the buffer in one step if required to hold at least <code>elementCount</code> elements in total,
+   * e.g. before filling a known amount of data.
+   */
+  public void ensureCapacity(int elementCount) {
+    final int capacity = ( null != buffer ) ? buffer.capacity() / components : 0;
+    if( elementCount > capacity ) {
+        growBuffer(elementCount - capacity);
+    }
+  }
+
   public String toString() {
     return "GLArrayDataClient["+name+
                        ", index "+index+
@@ -303,6 +352,7 @@ public class GLArrayDataClient extends GLArrayDataWrapper implements GLArrayData
                        ", components "+components+ 
                        ", stride "+strideB+"b "+strideL+"c"+
                        ", initialElementCount "+initialElementCount+ 
+                       ", growthFactor "+growthFactor+ 
                        ", sealed "+sealed+ 
                        ", bufferEnabled "+bufferEnabled+ 
                        ", bufferWritten "+bufferWritten+ 
@@ -315,7 +365,10 @@ public class GLArrayDataClient extends GLArrayDataWrapper implements GLArrayData
 
   protected final boolean growBufferIfNecessary(int spare) {
     if(buffer==null || buffer.remaining()<spare) { 
-        growBuffer(Math.max(initialElementCount, spare));
+        // grow geometrically, at least about initialElementCount
+        final int capacity = ( null != buffer ) ? buffer.capacity() / components : 0;
+        final int geometric = (int) ( capacity * ( growthFactor - 1f ) );
+        growBuffer(Math.max(Math.max(initialElementCount, spare), geometric));
         return true;
     }
     return false;
@@ -331,38 +384,38 @@ public class GLArrayDataClient extends GLArrayDataWrapper implements GLArrayData
 
     final int osize = (buffer!=null) ? buffer.capacity() : 0;
     final int nsize = osize + ( additionalElements * components );
-    
+
+    final ByteBuffer oldStorage = bufferStorage;
+    final ByteBuffer storage;
+    if(null!=bufferPool) {
+        storage = bufferPool.acquire( nsize * componentByteSize );
+    } else {
+        storage = Buffers.newDirectByteBuffer( nsize * componentByteSize );
+    }
+    final Buffer newBuffer;
     if(componentClazz==ByteBuffer.class) {
-        ByteBuffer newBBuffer = Buffers.newDirectByteBuffer( nsize );
-        if(buffer!=null) {
-            buffer.flip();
-            newBBuffer.put((ByteBuffer)buffer);
-        }
-        buffer = newBBuffer;
+        newBuffer = storage;
     } else if(componentClazz==ShortBuffer.class) {
-        ShortBuffer newSBuffer = Buffers.newDirectShortBuffer( nsize );
-        if(buffer!=null) {
-            buffer.flip();
-            newSBuffer.put((ShortBuffer)buffer);
-        }
-        buffer = newSBuffer;
+        newBuffer = storage.asShortBuffer();
     } else if(componentClazz==IntBuffer.class) {
-        IntBuffer newIBuffer = Buffers.newDirectIntBuffer( nsize );
-        if(buffer!=null) {
-            buffer.flip();
-            newIBuffer.put((IntBuffer)buffer);
-        }
-        buffer = newIBuffer;
+        newBuffer = storage.asIntBuffer();
     } else if(componentClazz==FloatBuffer.class) {
-        FloatBuffer newFBuffer = Buffers.newDirectFloatBuffer( nsize );
-        if(buffer!=null) {
-            buffer.flip();
-            newFBuffer.put((FloatBuffer)buffer);
-        }
-        buffer = newFBuffer;
+        newBuffer = storage.asFloatBuffer();
     } else {
+        if(null!=bufferPool) {
+            bufferPool.release(storage);
+        }
         throw new GLException("Given Buffer Class not supported: "+componentClazz+":\n\t"+this);
     }
+    if(buffer!=null) {
+        buffer.flip();
+        Buffers.put(newBuffer, buffer);
+    }
+    buffer = newBuffer;
+    bufferStorage = storage;
+    if(null!=bufferPool && null!=oldStorage) {
+        bufferPool.release(oldStorage);
+    }
     if(DEBUG) {
         System.err.println("*** Grow: comps: "+components+", "+(osize/components)+"/"+osize+" -> "+(nsize/components)+"/"+nsize+", "+this);
     }
@@ -418,6 +471,9 @@ public class GLArrayDataClient extends GLArrayDataWrapper implements GLArrayData
   protected boolean enableBufferAlways;
 
   protected int initialElementCount;
+  protected float growthFactor = DEFAULT_GROWTH_FACTOR;
+  protected DirectBufferPool bufferPool;
+  private ByteBuffer bufferStorage; // direct storage backing the grown buffer, null if user supplied
 
   protected GLArrayHandler glArrayHandler;
   protected boolean usesGLSL;
@@ -0,0 +1,511 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+ 
+package com.jogamp.opengl.util;
+
+import com.jogamp.common.nio.Buffers;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.media.opengl.*;
+
+import jogamp.opengl.Debug;
+import jogamp.opengl.util.DaemonThreadPool;
+
+import com.jogamp.common.util.IOUtil;
+import com.jogamp.opengl.util.texture.TextureData;
+import com.jogamp.opengl.util.texture.TextureIO;
+
+/**
+ * Utility to continuously capture the current FB w/o stalling the GL pipeline,
+ * e.g. for recording the rendered output.
+ * <p>
+ * On GL2GL3 profiles each frame is read into one of a ring of <i>N</i> pixel pack buffer objects (PBO),
+ * which is mapped not before <i>N</i> frames later, when the asynchronous transfer has long completed.
+ * The mapped pixels are copied into a pooled direct buffer and handed to a {@link FrameEncoder}
+ * running on a background thread through a bounded queue.
+ * If the encoder can't keep up and all pooled buffers are in use, frames are dropped and counted.
+ * </p>
+ * <p>
+ * Other profiles lacking PBO pack support read the pixels synchronously,
+ * but still encode them in the background.
+ * </p>
+ * <p>
+ * All methods taking a {@link GL} object must be called on the GL thread w/ the context current.
+ * </p>
+ * <p>
+ * To avoid a round trip per frame, the GL error state is only queried after (re)allocating the buffers
+ * for a new frame size, or for each frame if the property <code>jogl.debug.GLAsyncReadBufferUtil</code> is set.
+ * Read and encoding failures are counted, see {@link #getFailedFrameCount()}, and reported in debug mode only.
+ * </p>
+ * @see GLReadBufferUtil
+ */
+public class GLAsyncReadBufferUtil {
+    private static final boolean DEBUG = Debug.debug("GLAsyncReadBufferUtil");
+
+    /** A captured frame as passed to the {@link FrameEncoder}. */
+    public static class Frame {
+        private final GLProfile glp;
+        private final long frameNumber, captureTime;
+        private final int width, height, internalFormat, pixelFormat, pixelType;
+        private final boolean flip;
+        private final ByteBuffer data;
+
+        Frame(GLProfile glp, long frameNumber, long captureTime, int width, int height,
+              int internalFormat, int pixelFormat, int pixelType, boolean flip, ByteBuffer data) {
+            this.glp = glp;
+            this.frameNumber = frameNumber;
+            this.captureTime = captureTime;
+            this.width = width;
+            this.height = height;
+            this.internalFormat = internalFormat;
+            this.pixelFormat = pixelFormat;
+            this.pixelType = pixelType;
+            this.flip = flip;
+            this.data = data;
+        }
+
+        /** Returns the number of this frame, counting all {@link GLAsyncReadBufferUtil#readPixels(GL, boolean) readPixels} calls. */
+        public long getFrameNumber() { return frameNumber; }
+        /** Returns the {@link System#nanoTime()} the pixels were read. */
+        public long getCaptureTime() { return captureTime; }
+        public int getWidth() { return width; }
+        public int getHeight() { return height; }
+        public int getInternalFormat() { return internalFormat; }
+        public int getPixelFormat() { return pixelFormat; }
+        public int getPixelType() { return pixelType; }
+        public boolean mustFlipVertically() { return flip; }
+        /** Returns the pixels, only valid during {@link FrameEncoder#encode(Frame)}. */
+        public ByteBuffer getData() { return data; }
+
+        /** Returns a TextureData sharing this frame's pixels, e.g. for {@link TextureIO#write(TextureData, File)}. */
+        public TextureData toTextureData() {
+            return new TextureData(glp, internalFormat, width, height, 0, pixelFormat, pixelType,
+                                   false, false, flip, data, null /* Flusher */);
+        }
+
+        public String toString() {
+            return "Frame["+frameNumber+", "+width+"x"+height+", fmt 0x"+Integer.toHexString(pixelFormat)+
+                   ", type 0x"+Integer.toHexString(pixelType)+", flip "+flip+"]";
+        }
+    }
+
+    /** Consumes captured frames on the encoder thread, in frame order. */
+    public interface FrameEncoder {
+        /**
+         * Encodes the given frame. The frame's data is recycled after this call returns.
+         * @throws IOException counted as a failed frame, encoding continues w/ the next frame
+         */
+        void encode(Frame frame) throws IOException;
+    }
+
+    /**
+     * Returns a {@link FrameEncoder} writing each frame to <code>dir/basename-NNNNNN.suffix</code>.
+     * <p>
+     * Suffix {@link TextureIO#PNG}, {@link TextureIO#TGA} etc. are written via {@link TextureIO},
+     * suffix <code>raw</code> writes the plain pixels as read.
+     * </p>
+     */
+    public static FrameEncoder createFileEncoder(final File dir, final String basename, final String suffix) {
+        return new FrameEncoder() {
+            public void encode(Frame frame) throws IOException {
+                final String num = String.valueOf(1000000 + frame.getFrameNumber()).substring(1);
+                final File file = new File(dir, basename+"-"+num+"."+suffix);
+                if( "raw".equals(suffix) ) {
+                    final FileOutputStream out = IOUtil.getFileOutputStream(file, true);
+                    try {
+                        final FileChannel chan = out.getChannel();
+                        final ByteBuffer data = frame.getData();
+                        while( data.hasRemaining() ) {
+                            chan.write(data);
+                        }
+                    } finally {
+                        out.close();
+                    }
+                } else if( !TextureIO.write(frame.toTextureData(), file) ) {
+                    throw new IOException("No TextureWriter for "+file);
+                }
+            }
+        };
+    }
+
+    /** One pixel pack buffer of the ring and the frame read into it. */
+    private static class Slot {
+        int pbo;
+        boolean pending;
+        long frameNumber, captureTime;
+        int width, height, internalFormat, pixelFormat, pixelType, size;
+        boolean flip;
+    }
+
+    protected final int components, alignment;
+    protected final GLPixelStorageModes psm;
+
+    private final Slot[] ring;
+    private final FrameEncoder encoder;
+    private final ThreadPoolExecutor encoderExecutor;
+    private final int maxBuffers;
+    private final ConcurrentLinkedQueue<ByteBuffer> freeBuffers = new ConcurrentLinkedQueue<ByteBuffer>();
+    private final AtomicInteger allocatedBuffers = new AtomicInteger(0);
+
+    private long frameCount = 0;
+    private int pboSize = 0;
+    /** Frame size for which the readback has been validated via glGetError. */
+    private int checkedSize = 0;
+
+    private final AtomicLong capturedFrames = new AtomicLong(0);
+    private final AtomicLong encodedFrames = new AtomicLong(0);
+    private final AtomicLong droppedFrames = new AtomicLong(0);
+    private final AtomicLong failedFrames = new AtomicLong(0);
+    private final AtomicLong totalLatency = new AtomicLong(0);
+    private final AtomicLong maxLatency = new AtomicLong(0);
+
+    /**
+     * @param alpha true for RGBA readPixels, otherwise RGB readPixels. Disclaimer: Alpha maybe forced on ES platforms!
+     * @param ringSize number of pixel pack buffers, i.e. frames in flight before a readback is mapped; 2 or 3 usually suffice
+     * @param queueSize number of frames which may wait for the encoder before further frames are dropped
+     * @param encoder the encoder, invoked on a background thread
+     */
+    public GLAsyncReadBufferUtil(boolean alpha, int ringSize, int queueSize, FrameEncoder encoder) {
+        if( 1 > ringSize || 1 > queueSize || null == encoder ) {
+            throw new IllegalArgumentException("Invalid ringSize "+ringSize+", queueSize "+queueSize+" or encoder "+encoder);
+        }
+        components = alpha ? 4 : 3 ;
+        alignment = alpha ? 4 : 1 ;
+        psm = new GLPixelStorageModes();
+        ring = new Slot[ringSize];
+        for(int i=0; i<ringSize; i++) {
+            ring[i] = new Slot();
+        }
+        this.encoder = encoder;
+        // all queued frames plus the one being encoded
+        maxBuffers = queueSize + 1;
+        encoderExecutor = DaemonThreadPool.create("GLAsyncReadBufferUtil-Encoder", 1, 0, new ArrayBlockingQueue<Runnable>(queueSize));
+    }
+
+    public boolean hasAlpha() { return 4 == components ? true : false ; }
+
+    public GLPixelStorageModes getGLPixelStorageModes() { return psm; }
+
+    /** Returns the number of pixel pack buffers, i.e. the readback latency in frames. */
+    public int getRingSize() { return ring.length; }
+
+    /** Returns the number of frames read so far. */
+    public long getCapturedFrameCount() { return capturedFrames.get(); }
+
+    /** Returns the number of frames successfully encoded so far. */
+    public long getEncodedFrameCount() { return encodedFrames.get(); }
+
+    /** Returns the number of frames dropped, since the encoder could not keep up. */
+    public long getDroppedFrameCount() { return droppedFrames.get(); }
+
+    /** Returns the number of frames which failed to read or encode. */
+    public long getFailedFrameCount() { return failedFrames.get(); }
+
+    /** Returns the average time in nanoseconds from reading a frame's pixels until it is encoded. */
+    public long getAverageLatency() {
+        final long n = encodedFrames.get();
+        return 0 < n ? totalLatency.get() / n : 0;
+    }
+
+    /** Returns the maximum time in nanoseconds from reading a frame's pixels until it is encoded. */
+    public long getMaxLatency() { return maxLatency.get(); }
+
+    public String toString() {
+        return "GLAsyncReadBufferUtil[ring "+ring.length+", captured "+getCapturedFrameCount()+", encoded "+getEncodedFrameCount()+
+               ", dropped "+getDroppedFrameCount()+", failed "+getFailedFrameCount()+", latency avg "+getAverageLatency()/1000000+
+               " ms, max "+getMaxLatency()/1000000+" ms]";
+    }
+
+    /**
+     * Starts reading the drawable's pixels. On GL2GL3 profiles the frame read
+     * {@link #getRingSize()} calls earlier is passed to the encoder.
+     *
+     * @param gl the current GL context object. It's read drawable is being used as the pixel source.
+     * @param flip weather the encoder shall flip the data vertically or not
+     * @return true if the pixels are being read, false if the frame failed or was dropped
+     */
+    public boolean readPixels(GL gl, boolean flip) {
+        final GLDrawable drawable = gl.getContext().getGLReadDrawable();
+        final int width = drawable.getWidth();
+        final int height = drawable.getHeight();
+        final int[] readFormat = GLReadBufferUtil.getReadFormat(gl, components, new int[] { 0, 0 });
+        final int tmp[] = new int[1];
+        final int size = GLBuffers.sizeof(gl, tmp, readFormat[1], readFormat[2], width, height, 1, true);
+        final long frameNumber = frameCount;
+        capturedFrames.incrementAndGet();
+        final boolean checkError = DEBUG || size != checkedSize;
+        if( checkError ) {
+            final int glerr0 = gl.glGetError();
+            if( DEBUG && GL.GL_NO_ERROR != glerr0 ) {
+                System.err.println("Info: GLAsyncReadBufferUtil.readPixels: pre-exisiting GL error 0x"+Integer.toHexString(glerr0));
+            }
+        }
+
+        if( !gl.isGL2GL3() ) {
+            frameCount++;
+            return readPixelsSync(gl, frameNumber, width, height, readFormat, size, flip, checkError);
+        }
+        final GL2GL3 gl2gl3 = gl.getGL2GL3();
+        if( size > pboSize ) {
+            // (re)allocate the ring, passing on all frames in flight
+            flush(gl);
+            destroyBuffers(gl2gl3);
+            final int[] names = new int[ring.length];
+            gl2gl3.glGenBuffers(ring.length, names, 0);
+            for(int i=0; i<ring.length; i++) {
+                ring[i].pbo = names[i];
+                gl2gl3.glBindBuffer(GL2GL3.GL_PIXEL_PACK_BUFFER, names[i]);
+                gl2gl3.glBufferData(GL2GL3.GL_PIXEL_PACK_BUFFER, size, null, GL2GL3.GL_STREAM_READ);
+            }
+            gl2gl3.glBindBuffer(GL2GL3.GL_PIXEL_PACK_BUFFER, 0);
+            pboSize = size;
+        }
+        frameCount++;
+        final Slot slot = ring[(int) ( frameNumber % ring.length )];
+        if( slot.pending ) {
+            retire(gl2gl3, slot);
+        }
+        boolean res = true;
+        psm.setAlignment(gl, alignment, alignment);
+        gl2gl3.glBindBuffer(GL2GL3.GL_PIXEL_PACK_BUFFER, slot.pbo);
+        try {
+            gl2gl3.glReadPixels(0, 0, width, height, readFormat[1], readFormat[2], 0L);
+        } catch(GLException gle) { 
+            res = false; 
+            if(DEBUG) {
+                gle.printStackTrace();
+            }
+        }
+        gl2gl3.glBindBuffer(GL2GL3.GL_PIXEL_PACK_BUFFER, 0);
+        psm.restore(gl);
+        if( res && checkError ) {
+            res = checkReadError(gl, width, height, readFormat, size);
+        }
+        if( res ) {
+            slot.pending = true;
+            slot.frameNumber = frameNumber;
+            slot.captureTime = System.nanoTime();
+            slot.width = width;
+            slot.height = height;
+            slot.internalFormat = readFormat[0];
+            slot.pixelFormat = readFormat[1];
+            slot.pixelType = readFormat[2];
+            slot.size = size;
+            slot.flip = flip;
+        } else {
+            failedFrames.incrementAndGet();
+        }
+        return res;
+    }
+
+    /**
+     * Passes all frames in flight to the encoder, oldest first.
+     * This stalls until the pending readbacks are complete, e.g. at the end of a recording.
+     */
+    public void flush(GL gl) {
+        if( !gl.isGL2GL3() ) {
+            return;
+        }
+        final GL2GL3 gl2gl3 = gl.getGL2GL3();
+        for(int i=0; i<ring.length; i++) {
+            final Slot slot = ring[(int) ( ( frameCount + i ) % ring.length )];
+            if( slot.pending ) {
+                retire(gl2gl3, slot);
+            }
+        }
+    }
+
+    /**
+     * Flushes all frames in flight, releases the GL resources and waits
+     * until the encoder has processed all queued frames.
+     */
+    public void dispose(GL gl) {
+        flush(gl);
+        if( gl.isGL2GL3() ) {
+            destroyBuffers(gl.getGL2GL3());
+        }
+        encoderExecutor.shutdown();
+        try {
+            while( !encoderExecutor.awaitTermination(1, TimeUnit.SECONDS) ) {
+                // keep waiting for the queued frames
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        freeBuffers.clear();
+        allocatedBuffers.set(0);
+    }
+
+    private void destroyBuffers(GL2GL3 gl2gl3) {
+        if( 0 < pboSize ) {
+            final int[] names = new int[ring.length];
+            for(int i=0; i<ring.length; i++) {
+                names[i] = ring[i].pbo;
+                ring[i].pbo = 0;
+                ring[i].pending = false;
+            }
+            gl2gl3.glDeleteBuffers(names.length, names, 0);
+            pboSize = 0;
+            checkedSize = 0;
+        }
+    }
+
+    /** Maps the slot's completed readback and hands a copy to the encoder. */
+    private void retire(GL2GL3 gl2gl3, Slot slot) {
+        slot.pending = false;
+        final ByteBuffer buffer = obtainBuffer(slot.size);
+        if( null == buffer ) {
+            droppedFrames.incrementAndGet();
+            return;
+        }
+        gl2gl3.glBindBuffer(GL2GL3.GL_PIXEL_PACK_BUFFER, slot.pbo);
+        final ByteBuffer mapped = gl2gl3.glMapBuffer(GL2GL3.GL_PIXEL_PACK_BUFFER, GL2GL3.GL_READ_ONLY);
+        if( null != mapped ) {
+            mapped.clear();
+            mapped.limit(slot.size);
+            buffer.put(mapped);
+            buffer.flip();
+            gl2gl3.glUnmapBuffer(GL2GL3.GL_PIXEL_PACK_BUFFER);
+        }
+        gl2gl3.glBindBuffer(GL2GL3.GL_PIXEL_PACK_BUFFER, 0);
+        if( null == mapped ) {
+            freeBuffers.offer(buffer);
+            failedFrames.incrementAndGet();
+            return;
+        }
+        enqueue(new Frame(gl2gl3.getGLProfile(), slot.frameNumber, slot.captureTime, slot.width, slot.height,
+                          slot.internalFormat, slot.pixelFormat, slot.pixelType, slot.flip, buffer));
+    }
+
+    /** 
+     * Queries the GL error state after reading a frame of the given size, 
+     * which is validated if no error occurred, see {@link #checkedSize}. 
+     */
+    private boolean checkReadError(GL gl, int width, int height, int[] readFormat, int size) {
+        final int glerr1 = gl.glGetError();
+        if(GL.GL_NO_ERROR != glerr1) {
+            if(DEBUG) {
+                System.err.println("GLAsyncReadBufferUtil.readPixels: readPixels error 0x"+Integer.toHexString(glerr1)+
+                                   " "+width+"x"+height+", fmt 0x"+Integer.toHexString(readFormat[1])+
+                                   ", type 0x"+Integer.toHexString(readFormat[2])+", sz "+size);
+            }
+            checkedSize = 0;
+            return false;
+        }
+        checkedSize = size;
+        return true;
+    }
+
+    private boolean readPixelsSync(GL gl, long frameNumber, int width, int height, int[] readFormat, int size, boolean flip, boolean checkError) {
+        final ByteBuffer buffer = obtainBuffer(size);
+        if( null == buffer ) {
+            droppedFrames.incrementAndGet();
+            return false;
+        }
+        final long captureTime = System.nanoTime();
+        boolean res = true;
+        psm.setAlignment(gl, alignment, alignment);
+        try {
+            gl.glReadPixels(0, 0, width, height, readFormat[1], readFormat[2], buffer);
+        } catch(GLException gle) { 
+            res = false; 
+            if(DEBUG) {
+                gle.printStackTrace();
+            }
+        }
+        psm.restore(gl);
+        if( res && checkError ) {
+            res = checkReadError(gl, width, height, readFormat, size);
+        }
+        if( !res ) {
+            freeBuffers.offer(buffer);
+            failedFrames.incrementAndGet();
+            return false;
+        }
+        buffer.limit(size);
+        enqueue(new Frame(gl.getGLProfile(), frameNumber, captureTime, width, height,
+                          readFormat[0], readFormat[1], readFormat[2], flip, buffer));
+        return true;
+    }
+
+    /** Returns a cleared pooled buffer of at least the given size, or null if all are in use. */
+    private ByteBuffer obtainBuffer(int size) {
+        ByteBuffer buffer = freeBuffers.poll();
+        if( null == buffer ) {
+            if( allocatedBuffers.incrementAndGet() > maxBuffers ) {
+                allocatedBuffers.decrementAndGet();
+                return null;
+            }
+            buffer = Buffers.newDirectByteBuffer(size);
+        } else if( buffer.capacity() < size ) {
+            buffer = Buffers.newDirectByteBuffer(size);
+        }
+        buffer.clear();
+        buffer.limit(size);
+        return buffer;
+    }
+
+    private void enqueue(final Frame frame) {
+        try {
+            encoderExecutor.execute(new Runnable() {
+                public void run() {
+                    try {
+                        encoder.encode(frame);
+                        final long latency = System.nanoTime() - frame.getCaptureTime();
+                        totalLatency.addAndGet(latency);
+                        long max;
+                        while( latency > ( max = maxLatency.get() ) && !maxLatency.compareAndSet(max, latency) ) { }
+                        encodedFrames.incrementAndGet();
+                    } catch (Throwable t) {
+                        failedFrames.incrementAndGet();
+                        if(DEBUG) {
+                            System.err.println("GLAsyncReadBufferUtil: Encoding frame "+frame.getFrameNumber()+" failed");
+                            t.printStackTrace();
+                        }
+                    } finally {
+                        freeBuffers.offer(frame.getData());
+                    }
+                } } );
+        } catch (RejectedExecutionException ree) {
+            freeBuffers.offer(frame.getData());
+            droppedFrames.incrementAndGet();
+        }
+    }
+}
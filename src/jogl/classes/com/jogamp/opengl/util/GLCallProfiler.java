@@ -0,0 +1,91 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+/**
+ * Implemented by the generated <code>ProfileGL*</code> composable pipelines,
+ * which count the calls of each GL entry point and optionally accumulate their wall time.
+ * <p>
+ * Sample code which installs the pipeline and dumps the statistics of each frame:
+ * <pre>
+ *   public void init(GLAutoDrawable drawable) {
+ *       drawable.setGL(new ProfileGL2(drawable.getGL().getGL2()));
+ *   }
+ *   public void display(GLAutoDrawable drawable) {
+ *       ..
+ *       final GLCallProfiler profiler = (GLCallProfiler) drawable.getGL();
+ *       frameStats = profiler.markFrame(frameStats);
+ *       if( frameStats.getTotalCount() > maxCalls ) {
+ *           System.err.println(frameStats.toString(null, 10, true));
+ *       }
+ *   }
+ * </pre>
+ * The pipeline may also be installed at context creation by the property <code>jogl.debug.ProfileGL</code>.
+ * </p>
+ * <p>
+ * The counters are preallocated, one per entry point, and updated w/o synchronization
+ * like the GL object itself. Hence the statistics shall be retrieved on the thread using the GL object,
+ * e.g. within {@link javax.media.opengl.GLEventListener#display(javax.media.opengl.GLAutoDrawable) display(..)}.
+ * </p>
+ */
+public interface GLCallProfiler {
+    /** Returns the number of profiled GL entry points. */
+    public int getMethodCount();
+
+    /** Returns the name of the GL entry point with the given index, overloaded entry points carry their argument types. */
+    public String getMethodName(int idx);
+
+    /**
+     * Enables or disables measuring the wall time of each call, disabled by default.
+     * <p>
+     * If disabled, only the calls are counted, which avoids the cost of two {@link System#nanoTime()} calls per GL call.
+     * </p>
+     */
+    public void setTimingEnabled(boolean enable);
+
+    /** Returns true if the wall time of each call is measured, otherwise false. */
+    public boolean isTimingEnabled();
+
+    /**
+     * Stores the accumulated statistics since creation or the last {@link #reset()} in <code>result</code>.
+     * @param result the target instance, if <code>null</code> a new instance is created.
+     * @return the target instance
+     */
+    public GLCallStats getStats(GLCallStats result);
+
+    /**
+     * Stores the statistics since the previous call of this method, {@link #reset()} or creation
+     * in <code>result</code> and starts a new frame.
+     * @param result the target instance, if <code>null</code> a new instance is created.
+     * @return the target instance
+     */
+    public GLCallStats markFrame(GLCallStats result);
+
+    /** Clears all counters, including the ones of the current frame. */
+    public void reset();
+}
@@ -0,0 +1,177 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+/**
+ * Snapshot of the per GL entry point call counts and accumulated wall time
+ * as retrieved via {@link GLCallProfiler}.
+ * <p>
+ * Instances shall be reused for subsequent snapshots, which then do not allocate memory.
+ * </p>
+ */
+public class GLCallStats {
+    private final String[] names;
+    private final long[] counts;
+    private final long[] nanos;
+    private long totalCount;
+    private long totalNanos;
+    private boolean timed;
+
+    /**
+     * @param names the entry point names, indexed like the counters. The array is not copied.
+     */
+    public GLCallStats(String[] names) {
+        this.names = names;
+        this.counts = new long[names.length];
+        this.nanos = new long[names.length];
+    }
+
+    /**
+     * Stores <code>counts - baseCounts</code> and <code>nanos - baseNanos</code>.
+     * @param counts current call counts
+     * @param nanos current accumulated nanoseconds
+     * @param baseCounts optional call counts to subtract, may be <code>null</code>
+     * @param baseNanos optional nanoseconds to subtract, may be <code>null</code>
+     * @param timed true if the nanoseconds have been measured
+     */
+    public final void set(long[] counts, long[] nanos, long[] baseCounts, long[] baseNanos, boolean timed) {
+        if( counts.length != this.counts.length ) {
+            throw new IllegalArgumentException("Expected "+this.counts.length+" counters, has "+counts.length);
+        }
+        long tc = 0, tn = 0;
+        for(int i=0; i<counts.length; i++) {
+            final long c = null != baseCounts ? counts[i] - baseCounts[i] : counts[i];
+            final long n = null != baseNanos ? nanos[i] - baseNanos[i] : nanos[i];
+            this.counts[i] = c;
+            this.nanos[i] = n;
+            tc += c;
+            tn += n;
+        }
+        this.totalCount = tc;
+        this.totalNanos = tn;
+        this.timed = timed;
+    }
+
+    /** Returns the number of entry points. */
+    public final int size() { return names.length; }
+
+    /** Returns the name of the entry point with the given index. */
+    public final String getName(int idx) { return names[idx]; }
+
+    /** Returns the index of the entry point with the given name, or -1 if not available. */
+    public final int indexOf(String name) {
+        for(int i=0; i<names.length; i++) {
+            if( names[i].equals(name) ) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Returns the number of calls of the entry point with the given index. */
+    public final long getCount(int idx) { return counts[idx]; }
+
+    /** Returns the accumulated wall time in nanoseconds of the entry point with the given index. */
+    public final long getNanos(int idx) { return nanos[idx]; }
+
+    /** Returns the number of calls of all entry points. */
+    public final long getTotalCount() { return totalCount; }
+
+    /** Returns the accumulated wall time in nanoseconds of all entry points. */
+    public final long getTotalNanos() { return totalNanos; }
+
+    /** Returns true if the wall time has been measured, see {@link GLCallProfiler#setTimingEnabled(boolean)}. */
+    public final boolean isTimed() { return timed; }
+
+    /**
+     * Returns the indices of the at most <code>n</code> entry points with the most calls,
+     * or the most time if <code>byTime</code> is true and time has been measured, in descending order.
+     * Entry points w/o calls are omitted, an empty array is returned for <code>n</code> &le; 0.
+     */
+    public final int[] getTop(int n, boolean byTime) {
+        if( 0 >= n ) {
+            return new int[0];
+        }
+        final long[] v = byTime && timed ? nanos : counts;
+        final int[] top = new int[Math.min(n, names.length)];
+        int size = 0;
+        for(int i=0; i<v.length; i++) {
+            if( 0 == counts[i] ) {
+                continue;
+            }
+            // insertion into the descending top list
+            int j = size < top.length ? size++ : top.length;
+            if( j == top.length && v[top[j-1]] >= v[i] ) {
+                continue;
+            }
+            if( j == top.length ) {
+                j--;
+            }
+            while( j > 0 && v[top[j-1]] < v[i] ) {
+                top[j] = top[j-1];
+                j--;
+            }
+            top[j] = i;
+        }
+        if( size < top.length ) {
+            final int[] r = new int[size];
+            System.arraycopy(top, 0, r, 0, size);
+            return r;
+        }
+        return top;
+    }
+
+    /**
+     * Appends the totals and the <code>n</code> entry points with the most calls,
+     * or the most time if <code>byTime</code> is true, see {@link #getTop(int, boolean)}.
+     */
+    public StringBuilder toString(StringBuilder sb, int n, boolean byTime) {
+        if( null == sb ) {
+            sb = new StringBuilder();
+        }
+        sb.append("GLCallStats[calls ").append(totalCount);
+        if( timed ) {
+            sb.append(", ").append(totalNanos/1000).append(" us");
+        }
+        final int[] top = getTop(n, byTime);
+        for(int i=0; i<top.length; i++) {
+            final int idx = top[i];
+            sb.append(i == 0 ? ": " : ", ").append(names[idx]).append(" ").append(counts[idx]);
+            if( timed ) {
+                sb.append(" / ").append(nanos[idx]/1000).append(" us");
+            }
+        }
+        sb.append("]");
+        return sb;
+    }
+
+    @Override
+    public String toString() {
+        return toString(null, 10, false).toString();
+    }
+}
@@ -121,25 +121,11 @@ public class GLReadBufferUtil {
             System.err.println("Info: GLReadBufferUtil.readPixels: pre-exisiting GL error 0x"+Integer.toHexString(glerr0));
         }
         final GLDrawable drawable = gl.getContext().getGLReadDrawable();
-        final int textureInternalFormat, textureDataFormat, textureDataType;
         final int[] glImplColorReadVals = new int[] { 0, 0 };
-        
-        if(gl.isGL2GL3() && 3 == components) {
-            textureInternalFormat=GL.GL_RGB;
-            textureDataFormat=GL.GL_RGB;
-            textureDataType = GL.GL_UNSIGNED_BYTE;            
-        } else if(gl.isGLES2Compatible() || gl.isExtensionAvailable(GLExtensions.OES_read_format)) {
-            gl.glGetIntegerv(GL.GL_IMPLEMENTATION_COLOR_READ_FORMAT, glImplColorReadVals, 0);
-            gl.glGetIntegerv(GL.GL_IMPLEMENTATION_COLOR_READ_TYPE, glImplColorReadVals, 1);            
-            textureInternalFormat = (4 == components) ? GL.GL_RGBA : GL.GL_RGB;
-            textureDataFormat = glImplColorReadVals[0];
-            textureDataType = glImplColorReadVals[1];
-        } else {
-            // RGBA read is safe for all GL profiles 
-            textureInternalFormat = (4 == components) ? GL.GL_RGBA : GL.GL_RGB;
-            textureDataFormat=GL.GL_RGBA;
-            textureDataType = GL.GL_UNSIGNED_BYTE;
-        }
+        final int[] readFormat = getReadFormat(gl, components, glImplColorReadVals);
+        final int textureInternalFormat = readFormat[0];
+        final int textureDataFormat = readFormat[1];
+        final int textureDataType = readFormat[2];
         
         final int tmp[] = new int[1];
         final int readPixelSize = GLBuffers.sizeof(gl, tmp, textureDataFormat, textureDataType, 
@@ -209,6 +195,27 @@ public class GLReadBufferUtil {
         return res;
     }
 
+    /**
+     * Determines the glReadPixels format for the given number of components.
+     * 
+     * @param gl the current GL context object
+     * @param components 3 for RGB, 4 for RGBA
+     * @param glImplColorReadVals storage for the implementation's color read format and type, if queried
+     * @return { textureInternalFormat, textureDataFormat, textureDataType }
+     */
+    protected static int[] getReadFormat(GL gl, int components, int[] glImplColorReadVals) {
+        if(gl.isGL2GL3() && 3 == components) {
+            return new int[] { GL.GL_RGB, GL.GL_RGB, GL.GL_UNSIGNED_BYTE };
+        } else if(gl.isGLES2Compatible() || gl.isExtensionAvailable(GLExtensions.OES_read_format)) {
+            gl.glGetIntegerv(GL.GL_IMPLEMENTATION_COLOR_READ_FORMAT, glImplColorReadVals, 0);
+            gl.glGetIntegerv(GL.GL_IMPLEMENTATION_COLOR_READ_TYPE, glImplColorReadVals, 1);            
+            return new int[] { (4 == components) ? GL.GL_RGBA : GL.GL_RGB, glImplColorReadVals[0], glImplColorReadVals[1] };
+        } else {
+            // RGBA read is safe for all GL profiles 
+            return new int[] { (4 == components) ? GL.GL_RGBA : GL.GL_RGB, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE };
+        }
+    }
+
     public void dispose(GL gl) {  
         if(null != readTexture) {
             readTexture.destroy(gl);
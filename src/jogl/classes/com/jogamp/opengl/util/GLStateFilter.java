@@ -0,0 +1,628 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import java.nio.Buffer;
+import java.nio.IntBuffer;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GL2;
+import javax.media.opengl.GL2GL3;
+import javax.media.opengl.GLArrayData;
+import javax.media.opengl.GLContext;
+import javax.media.opengl.GLES2;
+
+import jogamp.opengl.GLBufferStateTracker;
+import jogamp.opengl.GLContextImpl;
+import jogamp.opengl.GLStateTracker;
+
+/**
+ * Shadow state used by the generated <code>StateFilterGL*</code> composable pipelines
+ * to elide GL calls which do not change the tracked state.
+ * <p>
+ * Each filter method returns <code>true</code> if the call shall be forwarded downstream,
+ * or <code>false</code> if it is redundant and has been elided.
+ * Sample code which installs the pipeline:
+ * <pre>
+ *   drawable.setGL(new StateFilterGL2ES2(drawable.getGL().getGL2ES2()));
+ *   ..
+ *   final GLStateFilter filter = ((GLStateFilter.Pipeline) drawable.getGL()).getStateFilter();
+ *   System.err.println(filter);
+ * </pre>
+ * </p>
+ * <p>
+ * Tracked states:
+ * <ul>
+ *   <li>{@link #PROGRAM}: <code>glUseProgram</code></li>
+ *   <li>{@link #BUFFER}: <code>glBindBuffer</code> for the targets known by the context's <code>GLBufferStateTracker</code></li>
+ *   <li>{@link #TEXTURE}: <code>glActiveTexture</code> and <code>glBindTexture</code> of the first {@link #MAX_TEXTURE_UNITS} units</li>
+ *   <li>{@link #CAPABILITY}: <code>glEnable</code> and <code>glDisable</code> of global capabilities, e.g. <code>GL_BLEND</code> or <code>GL_DEPTH_TEST</code></li>
+ *   <li>{@link #VERTEX_ATTRIB}: <code>glEnableVertexAttribArray</code>, <code>glDisableVertexAttribArray</code>
+ *       and the VBO variant of <code>glVertexAttribPointer</code> of the first {@link #MAX_VERTEX_ATTRIBS} attributes</li>
+ *   <li>{@link #PIXEL_STORE}: <code>glPixelStorei</code> as known by the context's <code>GLStateTracker</code></li>
+ * </ul>
+ * A state is unknown until it has been set through the pipeline,
+ * hence installing the pipeline on a context in use is safe.
+ * Deleting objects, binding a vertex array object, popping attributes and calling display lists
+ * invalidate the affected states.
+ * </p>
+ * <p>
+ * All state changes must pass through the pipeline.
+ * If native code or another GL instance modifies the state of the context, {@link #invalidate()} must be called.
+ * The filter assumes error free usage, e.g. as validated by the <code>DebugGL*</code> pipeline,
+ * an elided call will not raise the GL error the forwarded call would have raised.
+ * </p>
+ * <p>
+ * The filter is disabled for external contexts, whose state cannot be tracked in Java.
+ * </p>
+ */
+public class GLStateFilter {
+    /** Implemented by the generated <code>StateFilterGL*</code> pipelines. */
+    public static interface Pipeline {
+        /** Returns the state filter of this pipeline. */
+        public GLStateFilter getStateFilter();
+    }
+
+    /** Counter index of <code>glUseProgram</code>: {@value} */
+    public static final int PROGRAM = 0;
+    /** Counter index of <code>glBindBuffer</code>: {@value} */
+    public static final int BUFFER = 1;
+    /** Counter index of <code>glActiveTexture</code> and <code>glBindTexture</code>: {@value} */
+    public static final int TEXTURE = 2;
+    /** Counter index of <code>glEnable</code> and <code>glDisable</code>: {@value} */
+    public static final int CAPABILITY = 3;
+    /** Counter index of <code>glEnableVertexAttribArray</code>, <code>glDisableVertexAttribArray</code> and <code>glVertexAttribPointer</code>: {@value} */
+    public static final int VERTEX_ATTRIB = 4;
+    /** Counter index of <code>glPixelStorei</code>: {@value} */
+    public static final int PIXEL_STORE = 5;
+    private static final int KIND_COUNT = 6;
+    private static final String[] kindNames = { "program", "buffer", "texture", "capability", "vertexAttrib", "pixelStore" };
+
+    /** Number of texture units whose bindings are tracked: {@value} */
+    public static final int MAX_TEXTURE_UNITS = 32;
+    /** Number of vertex attributes whose arrays are tracked: {@value} */
+    public static final int MAX_VERTEX_ATTRIBS = 32;
+
+    private static final int UNKNOWN = 0xFFFFFFFF;
+    private static final int TEX_TARGETS = 6;
+    private static final int ATTRIB_FIELDS = 5;
+
+    private final GL gl;
+    private final GLBufferStateTracker bufferStateTracker;
+    private final GLStateTracker glStateTracker;
+    /** true if the trackers are not maintained by the GL implementation */
+    private final boolean ownTrackers;
+    private boolean enabled;
+    /** true while compiling a display list, where state changes are recorded but not executed */
+    private boolean compilingList;
+
+    private int program;
+    private int activeTexture;
+    private final int[] textures = new int[MAX_TEXTURE_UNITS * TEX_TARGETS];
+    private final int[] capabilities = new int[9];
+    private final int[] attribArrays = new int[MAX_VERTEX_ATTRIBS];
+    /** per attribute: buffer, size, type, normalized|stride<<1, offset lo/hi packed as long in attribOffsets */
+    private final int[] attribPointers = new int[MAX_VERTEX_ATTRIBS * ATTRIB_FIELDS];
+    private final long[] attribOffsets = new long[MAX_VERTEX_ATTRIBS];
+    private final int[] tmp = new int[1];
+
+    private final long[] elided = new long[KIND_COUNT];
+    private final long[] forwarded = new long[KIND_COUNT];
+
+    /**
+     * @param gl the downstream GL object, used to query unknown buffer bindings.
+     *        If its context is a JOGL context, its buffer and pixel store trackers are shared.
+     */
+    public GLStateFilter(GL gl) {
+        this.gl = gl;
+        final GLContext ctx = gl.getContext();
+        if( ctx instanceof GLContextImpl ) {
+            final GLContextImpl ctxImpl = (GLContextImpl) ctx;
+            bufferStateTracker = ctxImpl.getBufferStateTracker();
+            glStateTracker = ctxImpl.getGLStateTracker();
+            ownTrackers = false;
+            enabled = glStateTracker.isEnabled();
+        } else {
+            bufferStateTracker = new GLBufferStateTracker();
+            glStateTracker = new GLStateTracker();
+            ownTrackers = true;
+            enabled = true;
+        }
+        invalidateImpl();
+        if( ownTrackers ) {
+            invalidateTrackers();
+        }
+    }
+
+    /** Enables or disables filtering, if disabled all calls are forwarded. Enabling invalidates the shadow state. */
+    public final void setEnabled(boolean enable) {
+        if( enable && !enabled ) {
+            invalidateImpl();
+        }
+        enabled = enable;
+    }
+
+    /** Returns true if filtering is enabled, otherwise false. */
+    public final boolean isEnabled() { return enabled; }
+
+    /** 
+     * Marks all tracked states unknown, e.g. after native code has modified the context state.
+     * This includes the buffer bindings and pixel store state of the context's trackers.
+     */
+    public final void invalidate() {
+        invalidateImpl();
+        invalidateTrackers();
+    }
+
+    private final void invalidateTrackers() {
+        bufferStateTracker.clearBufferObjectState();
+        glStateTracker.clearStates(glStateTracker.isEnabled());
+    }
+
+    /** Marks the states tracked by this instance unknown */
+    private final void invalidateImpl() {
+        program = UNKNOWN;
+        activeTexture = UNKNOWN;
+        java.util.Arrays.fill(textures, UNKNOWN);
+        java.util.Arrays.fill(capabilities, UNKNOWN);
+        java.util.Arrays.fill(attribArrays, UNKNOWN);
+        invalidateAttribPointers();
+    }
+
+    private final void invalidateAttribPointers() {
+        for(int i=0; i<MAX_VERTEX_ATTRIBS; i++) {
+            attribPointers[i*ATTRIB_FIELDS] = UNKNOWN;
+        }
+    }
+
+    /** Returns the number of elided calls of the given kind, e.g. {@link #PROGRAM}. */
+    public final long getElidedCount(int kind) { return elided[kind]; }
+
+    /** Returns the number of forwarded calls of the given kind, e.g. {@link #PROGRAM}. */
+    public final long getForwardedCount(int kind) { return forwarded[kind]; }
+
+    /** Returns the number of elided calls of all kinds. */
+    public final long getElidedCount() { return sum(elided); }
+
+    /** Returns the number of forwarded calls of all kinds. */
+    public final long getForwardedCount() { return sum(forwarded); }
+
+    private static final long sum(long[] a) {
+        long s = 0;
+        for(int i=0; i<a.length; i++) {
+            s += a[i];
+        }
+        return s;
+    }
+
+    /** Clears the elided and forwarded counters. */
+    public final void resetCounters() {
+        java.util.Arrays.fill(elided, 0L);
+        java.util.Arrays.fill(forwarded, 0L);
+    }
+
+    private final boolean forward(int kind) {
+        forwarded[kind]++;
+        return true;
+    }
+
+    private final boolean elide(int kind) {
+        elided[kind]++;
+        return false;
+    }
+
+    private final boolean isFiltering() {
+        return enabled && !compilingList;
+    }
+
+    //
+    // Program
+    //
+
+    public final boolean glUseProgram(int program) {
+        if( !isFiltering() ) {
+            return forward(PROGRAM);
+        }
+        if( this.program == program ) {
+            return elide(PROGRAM);
+        }
+        this.program = program;
+        return forward(PROGRAM);
+    }
+
+    public final boolean glDeleteProgram(int program) {
+        if( this.program == program ) {
+            this.program = UNKNOWN;
+        }
+        return true;
+    }
+
+    //
+    // Buffer
+    //
+
+    private static final boolean isTrackedBufferTarget(int target) {
+        switch(target) {
+            case GL.GL_ARRAY_BUFFER:
+            case GL.GL_ELEMENT_ARRAY_BUFFER:
+            case GL2.GL_PIXEL_PACK_BUFFER:
+            case GL2.GL_PIXEL_UNPACK_BUFFER:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public final boolean glBindBuffer(int target, int buffer) {
+        if( !isTrackedBufferTarget(target) ) {
+            return forward(BUFFER);
+        }
+        // unknown bindings are not queried, avoiding a round trip
+        if( isFiltering() && bufferStateTracker.isBoundBufferObjectKnown(target) &&
+            bufferStateTracker.getBoundBufferObject(target, gl) == buffer ) {
+            return elide(BUFFER);
+        }
+        // binding is executed immediately, even while compiling a display list
+        bufferStateTracker.setBoundBufferObject(target, buffer);
+        return forward(BUFFER);
+    }
+
+    public final boolean glDeleteBuffers(int n, int[] buffers, int buffers_offset) {
+        for(int i=0; i<n; i++) {
+            deleteBuffer(buffers[buffers_offset+i]);
+        }
+        return true;
+    }
+
+    public final boolean glDeleteBuffers(int n, IntBuffer buffers) {
+        final int p = buffers.position();
+        for(int i=0; i<n; i++) {
+            deleteBuffer(buffers.get(p+i));
+        }
+        return true;
+    }
+
+    /** A deleted buffer is unbound from all targets and vertex attributes of the context */
+    private final void deleteBuffer(int buffer) {
+        if( 0 == buffer ) {
+            return;
+        }
+        deleteBuffer(GL.GL_ARRAY_BUFFER, buffer);
+        deleteBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, buffer);
+        deleteBuffer(GL2.GL_PIXEL_PACK_BUFFER, buffer);
+        deleteBuffer(GL2.GL_PIXEL_UNPACK_BUFFER, buffer);
+        for(int i=0; i<MAX_VERTEX_ATTRIBS; i++) {
+            if( attribPointers[i*ATTRIB_FIELDS] == buffer ) {
+                attribPointers[i*ATTRIB_FIELDS] = UNKNOWN;
+            }
+        }
+    }
+
+    private final void deleteBuffer(int target, int buffer) {
+        if( bufferStateTracker.isBoundBufferObjectKnown(target) &&
+            bufferStateTracker.getBoundBufferObject(target, gl) == buffer ) {
+            bufferStateTracker.setBoundBufferObject(target, 0);
+        }
+    }
+
+    /** Vertex attribute arrays and the element array binding are vertex array object state */
+    public final boolean glBindVertexArray(int array) {
+        invalidateVertexArrayState();
+        return true;
+    }
+
+    public final boolean glDeleteVertexArrays(int n, int[] arrays, int arrays_offset) {
+        invalidateVertexArrayState();
+        return true;
+    }
+
+    public final boolean glDeleteVertexArrays(int n, IntBuffer arrays) {
+        invalidateVertexArrayState();
+        return true;
+    }
+
+    public final boolean glBindVertexArrayOES(int array) {
+        return glBindVertexArray(array);
+    }
+
+    public final boolean glDeleteVertexArraysOES(int n, int[] arrays, int arrays_offset) {
+        invalidateVertexArrayState();
+        return true;
+    }
+
+    public final boolean glDeleteVertexArraysOES(int n, IntBuffer arrays) {
+        invalidateVertexArrayState();
+        return true;
+    }
+
+    private final void invalidateVertexArrayState() {
+        java.util.Arrays.fill(attribArrays, UNKNOWN);
+        invalidateAttribPointers();
+        bufferStateTracker.setBoundBufferObject(GL.GL_ELEMENT_ARRAY_BUFFER, UNKNOWN);
+    }
+
+    //
+    // Texture
+    //
+
+    private static final int getTextureTargetSlot(int target) {
+        switch(target) {
+            case GL.GL_TEXTURE_2D:               return 0;
+            case GL2.GL_TEXTURE_CUBE_MAP:        return 1;
+            case GL2GL3.GL_TEXTURE_1D:           return 2;
+            case GL2GL3.GL_TEXTURE_3D:           return 3;
+            case GL2GL3.GL_TEXTURE_RECTANGLE:    return 4;
+            case GLES2.GL_TEXTURE_EXTERNAL_OES:  return 5;
+            default:                             return -1;
+        }
+    }
+
+    public final boolean glActiveTexture(int texture) {
+        if( !isFiltering() ) {
+            return forward(TEXTURE);
+        }
+        final int unit = texture - GL.GL_TEXTURE0;
+        if( 0 > unit || unit >= MAX_TEXTURE_UNITS ) {
+            activeTexture = UNKNOWN;
+            return forward(TEXTURE);
+        }
+        if( activeTexture == unit ) {
+            return elide(TEXTURE);
+        }
+        activeTexture = unit;
+        return forward(TEXTURE);
+    }
+
+    public final boolean glBindTexture(int target, int texture) {
+        final int slot = getTextureTargetSlot(target);
+        if( !isFiltering() || 0 > slot || UNKNOWN == activeTexture ) {
+            return forward(TEXTURE);
+        }
+        final int idx = activeTexture * TEX_TARGETS + slot;
+        if( textures[idx] == texture ) {
+            return elide(TEXTURE);
+        }
+        textures[idx] = texture;
+        return forward(TEXTURE);
+    }
+
+    public final boolean glDeleteTextures(int n, int[] textures, int textures_offset) {
+        for(int i=0; i<n; i++) {
+            deleteTexture(textures[textures_offset+i]);
+        }
+        return true;
+    }
+
+    public final boolean glDeleteTextures(int n, IntBuffer textures) {
+        final int p = textures.position();
+        for(int i=0; i<n; i++) {
+            deleteTexture(textures.get(p+i));
+        }
+        return true;
+    }
+
+    /** A deleted texture is unbound from all units, i.e. reverts to the default texture */
+    private final void deleteTexture(int texture) {
+        if( 0 == texture ) {
+            return;
+        }
+        for(int i=0; i<this.textures.length; i++) {
+            if( this.textures[i] == texture ) {
+                this.textures[i] = UNKNOWN;
+            }
+        }
+    }
+
+    //
+    // Capability
+    //
+
+    /** Global capabilities only, texture targets and texture coordinate generation are per texture unit */
+    private static final int getCapabilitySlot(int cap) {
+        switch(cap) {
+            case GL.GL_BLEND:                    return 0;
+            case GL.GL_CULL_FACE:                return 1;
+            case GL.GL_DEPTH_TEST:               return 2;
+            case GL.GL_DITHER:                   return 3;
+            case GL.GL_POLYGON_OFFSET_FILL:      return 4;
+            case GL.GL_SAMPLE_ALPHA_TO_COVERAGE: return 5;
+            case GL.GL_SAMPLE_COVERAGE:          return 6;
+            case GL.GL_SCISSOR_TEST:             return 7;
+            case GL.GL_STENCIL_TEST:             return 8;
+            default:                             return -1;
+        }
+    }
+
+    private final boolean setCapability(int cap, int value) {
+        final int slot = getCapabilitySlot(cap);
+        if( !isFiltering() || 0 > slot ) {
+            return forward(CAPABILITY);
+        }
+        if( capabilities[slot] == value ) {
+            return elide(CAPABILITY);
+        }
+        capabilities[slot] = value;
+        return forward(CAPABILITY);
+    }
+
+    public final boolean glEnable(int cap) {
+        return setCapability(cap, 1);
+    }
+
+    public final boolean glDisable(int cap) {
+        return setCapability(cap, 0);
+    }
+
+    //
+    // Vertex attributes
+    //
+
+    private final boolean setAttribArray(int index, int value) {
+        if( !isFiltering() || 0 > index || index >= MAX_VERTEX_ATTRIBS ) {
+            return forward(VERTEX_ATTRIB);
+        }
+        if( attribArrays[index] == value ) {
+            return elide(VERTEX_ATTRIB);
+        }
+        attribArrays[index] = value;
+        return forward(VERTEX_ATTRIB);
+    }
+
+    public final boolean glEnableVertexAttribArray(int index) {
+        return setAttribArray(index, 1);
+    }
+
+    public final boolean glDisableVertexAttribArray(int index) {
+        return setAttribArray(index, 0);
+    }
+
+    /** VBO variant, the pointer is relative to the buffer bound to <code>GL_ARRAY_BUFFER</code> */
+    public final boolean glVertexAttribPointer(int index, int size, int type, boolean normalized, int stride, long pointer_buffer_offset) {
+        if( !isFiltering() || 0 > index || index >= MAX_VERTEX_ATTRIBS ) {
+            return forward(VERTEX_ATTRIB);
+        }
+        final int buffer = bufferStateTracker.isBoundBufferObjectKnown(GL.GL_ARRAY_BUFFER) ?
+                           bufferStateTracker.getBoundBufferObject(GL.GL_ARRAY_BUFFER, gl) : 0;
+        final int i = index * ATTRIB_FIELDS;
+        final int normStride = ( normalized ? 1 : 0 ) | ( stride << 1 );
+        if( attribPointers[i] == buffer && 0 != buffer &&
+            attribPointers[i+1] == size && attribPointers[i+2] == type &&
+            attribPointers[i+3] == normStride && attribOffsets[index] == pointer_buffer_offset ) {
+            return elide(VERTEX_ATTRIB);
+        }
+        attribPointers[i] = 0 != buffer ? buffer : UNKNOWN;
+        attribPointers[i+1] = size;
+        attribPointers[i+2] = type;
+        attribPointers[i+3] = normStride;
+        attribOffsets[index] = pointer_buffer_offset;
+        return forward(VERTEX_ATTRIB);
+    }
+
+    /** Client memory variant, always forwarded */
+    public final boolean glVertexAttribPointer(int index, int size, int type, boolean normalized, int stride, Buffer ptr) {
+        if( 0 <= index && index < MAX_VERTEX_ATTRIBS ) {
+            attribPointers[index * ATTRIB_FIELDS] = UNKNOWN;
+        }
+        return forward(VERTEX_ATTRIB);
+    }
+
+    /** Decomposed like the GL implementation does, hence a VBO array benefits from filtering */
+    public final boolean glVertexAttribPointer(GLArrayData array) {
+        if( array.getComponentCount() == 0 ) {
+            return true;
+        }
+        if( array.isVBO() ) {
+            return glVertexAttribPointer(array.getLocation(), array.getComponentCount(), array.getComponentType(),
+                                         array.getNormalized(), array.getStride(), array.getVBOOffset());
+        }
+        return glVertexAttribPointer(array.getLocation(), array.getComponentCount(), array.getComponentType(),
+                                     array.getNormalized(), array.getStride(), array.getBuffer());
+    }
+
+    //
+    // Pixel store
+    //
+
+    public final boolean glPixelStorei(int pname, int param) {
+        if( isFiltering() && glStateTracker.getInt(pname, tmp, 0) && tmp[0] == param ) {
+            return elide(PIXEL_STORE);
+        }
+        if( ownTrackers ) {
+            glStateTracker.setInt(pname, param);
+        }
+        return forward(PIXEL_STORE);
+    }
+
+    //
+    // Attribute stacks and display lists
+    //
+
+    public final boolean glPushAttrib(int mask) {
+        return true;
+    }
+
+    public final boolean glPopAttrib() {
+        invalidateImpl();
+        return true;
+    }
+
+    public final boolean glPushClientAttrib(int mask) {
+        if( ownTrackers ) {
+            glStateTracker.pushAttrib(mask);
+        }
+        return true;
+    }
+
+    public final boolean glPopClientAttrib() {
+        if( ownTrackers ) {
+            glStateTracker.popAttrib();
+            bufferStateTracker.clearBufferObjectState();
+        }
+        invalidateImpl();
+        return true;
+    }
+
+    public final boolean glNewList(int list, int mode) {
+        compilingList = true;
+        return true;
+    }
+
+    public final boolean glEndList() {
+        compilingList = false;
+        // GL_COMPILE_AND_EXECUTE may have changed the state
+        invalidateImpl();
+        return true;
+    }
+
+    public final boolean glCallList(int list) {
+        invalidateImpl();
+        return true;
+    }
+
+    public final boolean glCallLists(int n, int type, Buffer lists) {
+        invalidateImpl();
+        return true;
+    }
+
+    public StringBuilder toString(StringBuilder sb) {
+        if( null == sb ) {
+            sb = new StringBuilder();
+        }
+        sb.append("GLStateFilter[enabled ").append(enabled).append(", elided/forwarded");
+        for(int i=0; i<KIND_COUNT; i++) {
+            sb.append(i == 0 ? ": " : ", ").append(kindNames[i]).append(" ").append(elided[i]).append("/").append(forwarded[i]);
+        }
+        sb.append("]");
+        return sb;
+    }
+
+    @Override
+    public String toString() {
+        return toString(null).toString();
+    }
+}
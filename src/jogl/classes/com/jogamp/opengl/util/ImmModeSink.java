@@ -131,6 +131,38 @@ public class ImmModeSink {
     vboSet.reset(gl);
   }
 
+  /**
+   * Sets the factor the buffer element count is multiplied with when growing,
+   * at least by <code>initialElementCount</code> elements.
+   * A factor of <code>1</code> grows by <code>initialElementCount</code> elements only.
+   * @param factor the growth factor, must be >= 1, default is {@link GLArrayDataClient#DEFAULT_GROWTH_FACTOR}
+   */
+  public void setGrowthFactor(float factor) {
+    if( 1f > factor ) {
+        throw new IllegalArgumentException("Growth factor "+factor+" < 1");
+    }
+    growthFactor = factor;
+    vboSet.growthFactor = factor;
+  }
+
+  /**
+   * Sets a pool the direct buffers are acquired from, and released to when replaced by growth
+   * or when the deferred draw list is {@link #reset(GL) reset} or {@link #destroy(GL) destroyed}.
+   * @param pool the pool, or <code>null</code> to disable pooling (default)
+   */
+  public void setBufferPool(DirectBufferPool pool) {
+    bufferPool = pool;
+    vboSet.bufferPool = pool;
+  }
+
+  /**
+   * Grows the current buffers in one step if required to hold at least <code>elementCount</code> elements each,
+   * e.g. after {@link #glBegin(int)} w/ a known amount of vertices.
+   */
+  public void ensureCapacity(int elementCount) {
+    vboSet.ensureCapacity(elementCount);
+  }
+
   public String toString() {
     StringBuilder sb = new StringBuilder("ImmModeSink[");
     sb.append(",\n\tVBO list: "+vboSetList.size()+" [");
@@ -319,7 +351,8 @@ public class ImmModeSink {
                         int nDataType, int tComps, 
                         int tDataType, boolean useGLSL, int glBufferUsage) {
     vboSet = new  VBOSet(initialElementCount, vComps, 
-                         vDataType, cComps, cDataType, nComps, nDataType, tComps, tDataType, useGLSL, glBufferUsage);
+                         vDataType, cComps, cDataType, nComps, nDataType, tComps, tDataType, useGLSL, glBufferUsage,
+                         growthFactor, bufferPool);
     this.vboSetList   = new ArrayList<VBOSet>();
   }
   
@@ -334,14 +367,19 @@ public class ImmModeSink {
 
   private VBOSet vboSet;
   private final ArrayList<VBOSet> vboSetList;
+  private float growthFactor = GLArrayDataClient.DEFAULT_GROWTH_FACTOR;
+  private DirectBufferPool bufferPool = null;
 
   protected static class VBOSet {
     protected VBOSet (int initialElementCount, int vComps,
                       int vDataType, int cComps,
                       int cDataType, int nComps, 
                       int nDataType, int tComps, 
-                      int tDataType, boolean useGLSL, int glBufferUsage) {
+                      int tDataType, boolean useGLSL, int glBufferUsage,
+                      float growthFactor, DirectBufferPool bufferPool) {
         this.glBufferUsage=glBufferUsage;
+        this.growthFactor=growthFactor;
+        this.bufferPool=bufferPool;
         this.initialElementCount=initialElementCount;
         this.vDataType=vDataType;
         this.vComps=vComps;
@@ -379,7 +417,8 @@ public class ImmModeSink {
     
     protected final VBOSet regenerate(GL gl) {
         return new VBOSet(initialElementCount, vComps, 
-                          vDataType, cComps, cDataType, nComps, nDataType, tComps, tDataType, useGLSL, glBufferUsage);
+                          vDataType, cComps, cDataType, nComps, nDataType, tComps, tDataType, useGLSL, glBufferUsage,
+                          growthFactor, bufferPool);
     }
 
     protected void checkSeal(boolean test) throws GLException {
@@ -725,6 +764,9 @@ public class ImmModeSink {
         vCount=0; cCount=0; nCount=0; tCount=0;
         vertexArray=null; colorArray=null; normalArray=null; textCoordArray=null;
         vArrayData=null; cArrayData=null; nArrayData=null; tArrayData=null;
+        if(null!=bufferPool && null!=buffer) {
+            bufferPool.release(buffer);
+        }
         buffer=null;
     }
 
@@ -1015,7 +1057,11 @@ public class ImmModeSink {
         final int bSizeN  = nCount * nWidth;
         final int bSizeT  = tCount * tWidth;
         
-        buffer = GLBuffers.newDirectByteBuffer( bSizeV + bSizeC + bSizeN + bSizeT );
+        if(null!=bufferPool) {
+            buffer = bufferPool.acquire( bSizeV + bSizeC + bSizeN + bSizeT );
+        } else {
+            buffer = GLBuffers.newDirectByteBuffer( bSizeV + bSizeC + bSizeN + bSizeT );
+        }
         vOffset = 0;
         
         if(bSizeV>0) {
@@ -1080,33 +1126,73 @@ public class ImmModeSink {
         return true;
     }
 
-    /** grow buffer by initialElementCount if there is no space for one more element in the designated buffer */
+    /** 
+     * grow buffer geometrically by growthFactor, at least by initialElementCount,
+     * if there is no space for one more element in the designated buffer 
+     */
     protected final boolean growBuffer(int type) {
         if( null !=buffer && !sealed ) {
             if( !fitElementInBuffer(type) ) {
-                // save olde values ..
-                final Buffer _vertexArray=vertexArray, _colorArray=colorArray, _normalArray=normalArray, _textCoordArray=textCoordArray;
-        
-                if ( reallocateBuffer(initialElementCount) ) {
-                    if(null!=_vertexArray) {
-                        _vertexArray.flip();
-                        GLBuffers.put(vertexArray, _vertexArray);
-                    }
-                    if(null!=_colorArray) {
-                        _colorArray.flip();
-                        GLBuffers.put(colorArray, _colorArray);
-                    }
-                    if(null!=_normalArray) {
-                        _normalArray.flip();
-                        GLBuffers.put(normalArray, _normalArray);
-                    }
-                    if(null!=_textCoordArray) {
-                        _textCoordArray.flip();
-                        GLBuffers.put(textCoordArray, _textCoordArray);
-                    }
-                    return true;
+                final int count;
+                switch (type) {
+                    case VERTEX:
+                        count = vCount;
+                        break;
+                    case COLOR:
+                        count = cCount;
+                        break;
+                    case NORMAL:
+                        count = nCount;
+                        break;
+                    case TEXTCOORD:
+                        count = tCount;
+                        break;
+                    default:
+                        throw new InternalError("XXX");
                 }
+                return reallocateBufferAndCopy( Math.max( initialElementCount, (int) ( count * ( growthFactor - 1f ) ) ) );
+            }
+        }
+        return false;
+    }
+
+    /** grow buffer if required to hold at least elementCount elements in each buffer */
+    protected final boolean ensureCapacity(int elementCount) {
+        if( null !=buffer && !sealed ) {
+            final int used = Math.max( Math.max(vElems, cElems), Math.max(nElems, tElems) );
+            if( elementCount > used ) {
+                return reallocateBufferAndCopy( elementCount - used );
+            }
+        }
+        return false;
+    }
+
+    private final boolean reallocateBufferAndCopy(int addElems) {
+        // save olde values ..
+        final ByteBuffer _buffer=buffer;
+        final Buffer _vertexArray=vertexArray, _colorArray=colorArray, _normalArray=normalArray, _textCoordArray=textCoordArray;
+        
+        if ( reallocateBuffer(addElems) ) {
+            if(null!=_vertexArray) {
+                _vertexArray.flip();
+                GLBuffers.put(vertexArray, _vertexArray);
+            }
+            if(null!=_colorArray) {
+                _colorArray.flip();
+                GLBuffers.put(colorArray, _colorArray);
+            }
+            if(null!=_normalArray) {
+                _normalArray.flip();
+                GLBuffers.put(normalArray, _normalArray);
+            }
+            if(null!=_textCoordArray) {
+                _textCoordArray.flip();
+                GLBuffers.put(textCoordArray, _textCoordArray);
+            }
+            if(null!=bufferPool) {
+                bufferPool.release(_buffer);
             }
+            return true;
         }
         return false;
     }
@@ -1143,6 +1229,8 @@ public class ImmModeSink {
     }
 
     final protected int glBufferUsage, initialElementCount;
+    protected float growthFactor;
+    protected DirectBufferPool bufferPool;
     final protected boolean useVBO;
     protected int mode, modeOrig;
 
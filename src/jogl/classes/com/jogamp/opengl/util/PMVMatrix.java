@@ -37,8 +37,6 @@ package com.jogamp.opengl.util;
 import java.nio.Buffer;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
-import java.util.ArrayList;
-import java.util.List;
 
 import javax.media.opengl.GL;
 import javax.media.opengl.GLException;
@@ -84,6 +82,16 @@ import com.jogamp.common.os.Platform;
  *   <li>If using absolute operations like {@link FloatBuffer#get(int) get(int)}, use it's {@link FloatBuffer#reset() reset} {@link FloatBuffer#position() position} as it's offset.</li> 
  * </ul>
  * </p>
+ * <p>
+ * The matrix stacks of {@link #glPushMatrix()} and {@link #glPopMatrix()} are contiguous float arrays
+ * preallocated to the {@link #PMVMatrix(boolean, int) initial stack depth}, hence push and pop do not allocate
+ * unless the stack has to grow.
+ * </p>
+ * <p>
+ * The {@link #getMvMatrixKind() kind of the modelview matrix} is tracked by all mutable operations,
+ * allowing {@link #update()} to compute the inverse of identity, rigid and affine transformations
+ * without the general 4x4 matrix inversion.
+ * </p>
  */
 public class PMVMatrix implements GLMatrixFunc {
 
@@ -100,8 +108,22 @@ public class PMVMatrix implements GLMatrixFunc {
     public static final int DIRTY_INVERSE_MODELVIEW             = 1 << 0;
     /** Bit value stating a dirty {@link #glGetMvitMatrixf() inverse transposed modelview matrix (Mvit)}. */
     public static final int DIRTY_INVERSE_TRANSPOSED_MODELVIEW  = 1 << 1;    
+    /** Bit value stating a dirty {@link #glGetFrustum() frustum}. */
+    public static final int DIRTY_FRUSTUM                       = 1 << 2;
     /** Bit value stating all is dirty */
-    public static final int DIRTY_ALL                           = DIRTY_INVERSE_MODELVIEW | DIRTY_INVERSE_TRANSPOSED_MODELVIEW ;
+    public static final int DIRTY_ALL                           = DIRTY_INVERSE_MODELVIEW | DIRTY_INVERSE_TRANSPOSED_MODELVIEW | DIRTY_FRUSTUM ;
+
+    /** Matrix kind of an identity matrix, see {@link #getMvMatrixKind()}. */
+    public static final int MATRIX_KIND_IDENTITY                = 0;
+    /** Matrix kind of a rigid transformation composed of rotations and translations only, see {@link #getMvMatrixKind()}. */
+    public static final int MATRIX_KIND_RIGID                   = 1;
+    /** Matrix kind of an affine transformation, i.e. with last row <code>(0, 0, 0, 1)</code>, see {@link #getMvMatrixKind()}. */
+    public static final int MATRIX_KIND_AFFINE                  = 2;
+    /** Matrix kind of a general, e.g. projective, transformation, see {@link #getMvMatrixKind()}. */
+    public static final int MATRIX_KIND_GENERAL                 = 3;
+
+    /** Default initial depth of each matrix stack, being the minimum modelview stack depth required by OpenGL. */
+    public static final int DEFAULT_STACK_DEPTH                 = 32;
     
     /**
      * @param matrixModeName One of {@link GLMatrixFunc#GL_MODELVIEW GL_MODELVIEW}, {@link GLMatrixFunc#GL_PROJECTION GL_PROJECTION} or {@link GL#GL_TEXTURE GL_TEXTURE}  
@@ -196,7 +218,8 @@ public class PMVMatrix implements GLMatrixFunc {
     }
     
     /**
-     * Creates an instance of PMVMatrix.
+     * Creates an instance of PMVMatrix {@link #PMVMatrix(boolean, int) PMVMatrix(boolean useBackingArray, int stackDepth)},
+     * with <code>stackDepth = {@link #DEFAULT_STACK_DEPTH}</code>.
      * 
      * @param useBackingArray <code>true</code> for non direct NIO Buffers with guaranteed backing array,
      *                        which allows faster access in Java computation.
@@ -209,6 +232,20 @@ public class PMVMatrix implements GLMatrixFunc {
      *                        this flag shall be set to <code>true</code> or <code>false</code></p>.
      */
     public PMVMatrix(boolean useBackingArray) {
+        this(useBackingArray, DEFAULT_STACK_DEPTH);
+    }
+
+    /**
+     * Creates an instance of PMVMatrix.
+     * 
+     * @param useBackingArray see {@link #PMVMatrix(boolean)}
+     * @param stackDepth initial depth of each matrix stack, i.e. the number of matrices which can be pushed w/o allocation. 
+     *                   The stacks grow by this amount if exceeded.
+     */
+    public PMVMatrix(boolean useBackingArray, int stackDepth) {
+          if( 0 >= stackDepth ) {
+              throw new IllegalArgumentException("stackDepth must be > 0, is "+stackDepth);
+          }
           this.usesBackingArray = useBackingArray;
           
           // I    Identity
@@ -255,9 +292,12 @@ public class PMVMatrix implements GLMatrixFunc {
           FloatUtil.makeIdentityf(matrixScale, 0);
           FloatUtil.makeIdentityf(matrixOrtho, 0);
           FloatUtil.makeZero(matrixFrustum, 0);
+          matrixInv     = new float[2*16];
+          frustum       = new Frustum();
 
-          matrixPStack = new ArrayList<float[]>();
-          matrixMvStack= new ArrayList<float[]>();
+          matrixTStack  = new MatrixStack(stackDepth);
+          matrixPStack  = new MatrixStack(stackDepth);
+          matrixMvStack = new MatrixStack(stackDepth);
 
           // default values and mode
           glMatrixMode(GL_PROJECTION);
@@ -291,19 +331,12 @@ public class PMVMatrix implements GLMatrixFunc {
         matrixScale   = null;
         matrixOrtho   = null;
         matrixFrustum = null;
+        matrixInv     = null;
+        frustum       = null;
         
-        if(null!=matrixPStack) {
-            matrixPStack.clear(); matrixPStack=null;
-        }
-        if(null!=matrixMvStack) {
-            matrixMvStack.clear(); matrixMvStack=null;
-        }
-        if(null!=matrixPStack) {
-            matrixPStack.clear(); matrixPStack=null;
-        }
-        if(null!=matrixTStack) {
-            matrixTStack.clear(); matrixTStack=null;
-        }
+        matrixPStack = null;
+        matrixMvStack = null;
+        matrixTStack = null;
     }
 
     
@@ -376,6 +409,24 @@ public class PMVMatrix implements GLMatrixFunc {
         return matrixMvit;
     }
     
+    /** 
+     * Returns the {@link Frustum} of P x Mv, i.e. the view frustum in object space.
+     * <p>
+     * Method enables the frustum update, and performs it's update w/o clearing the modified bits.
+     * The planes are only recomputed if {@link #glGetPMatrixf() P} or {@link #glGetMvMatrixf() Mv} 
+     * have been modified since the last call.
+     * </p>
+     * <p>
+     * The returned instance is owned by this PMVMatrix and updated in place.
+     * </p>
+     * @see #update()
+     */
+    public final Frustum glGetFrustum() {
+        requestMask |= DIRTY_FRUSTUM ;
+        updateImpl(false);
+        return frustum;
+    }
+    
     /** 
      * Returns 2 matrices within one FloatBuffer: {@link #glGetPMatrixf() P} and {@link #glGetMvMatrixf() Mv}.  
      * <p>
@@ -517,11 +568,13 @@ public class PMVMatrix implements GLMatrixFunc {
         if(matrixMode==GL_MODELVIEW) {
             matrixMv.put(values, offset, len);
             matrixMv.reset();
-            dirtyBits |= DIRTY_INVERSE_MODELVIEW | DIRTY_INVERSE_TRANSPOSED_MODELVIEW ;
+            matrixMvKind = getMatrixKind(values, offset);
+            dirtyBits |= DIRTY_INVERSE_MODELVIEW | DIRTY_INVERSE_TRANSPOSED_MODELVIEW | DIRTY_FRUSTUM ;
             modifiedBits |= MODIFIED_MODELVIEW;
         } else if(matrixMode==GL_PROJECTION) {
             matrixP.put(values, offset, len);
             matrixP.reset();
+            dirtyBits |= DIRTY_FRUSTUM ;
             modifiedBits |= MODIFIED_PROJECTION;            
         } else if(matrixMode==GL.GL_TEXTURE) {
             matrixTex.put(values, offset, len);
@@ -534,13 +587,15 @@ public class PMVMatrix implements GLMatrixFunc {
     public final void glLoadMatrixf(java.nio.FloatBuffer m) {
         int spos = m.position();
         if(matrixMode==GL_MODELVIEW) {
+            matrixMvKind = getMatrixKind(m);
             matrixMv.put(m);
             matrixMv.reset();
-            dirtyBits |= DIRTY_INVERSE_MODELVIEW | DIRTY_INVERSE_TRANSPOSED_MODELVIEW ;
+            dirtyBits |= DIRTY_INVERSE_MODELVIEW | DIRTY_INVERSE_TRANSPOSED_MODELVIEW | DIRTY_FRUSTUM ;
             modifiedBits |= MODIFIED_MODELVIEW;
         } else if(matrixMode==GL_PROJECTION) {
             matrixP.put(m);
             matrixP.reset();
+            dirtyBits |= DIRTY_FRUSTUM ;
             modifiedBits |= MODIFIED_PROJECTION;            
         } else if(matrixMode==GL.GL_TEXTURE) {
             matrixTex.put(m);
@@ -552,32 +607,28 @@ public class PMVMatrix implements GLMatrixFunc {
 
     @Override
     public final void glPopMatrix() {
-        float[] stackEntry=null;
         if(matrixMode==GL_MODELVIEW) {
-            stackEntry = matrixMvStack.remove(0);
+            matrixMvKind = matrixMvStack.pop(matrixMv);
+            dirtyBits |= DIRTY_INVERSE_MODELVIEW | DIRTY_INVERSE_TRANSPOSED_MODELVIEW | DIRTY_FRUSTUM ;
+            modifiedBits |= MODIFIED_MODELVIEW;
         } else if(matrixMode==GL_PROJECTION) {
-            stackEntry = matrixPStack.remove(0);
+            matrixPStack.pop(matrixP);
+            dirtyBits |= DIRTY_FRUSTUM ;
+            modifiedBits |= MODIFIED_PROJECTION;            
         } else if(matrixMode==GL.GL_TEXTURE) {
-            stackEntry = matrixTStack.remove(0);
+            matrixTStack.pop(matrixTex);
+            modifiedBits |= MODIFIED_TEXTURE;
         } 
-        glLoadMatrixf(stackEntry, 0);
     }
 
     @Override
     public final void glPushMatrix() {
-        float[] stackEntry = new float[1*16];
         if(matrixMode==GL_MODELVIEW) {
-            matrixMv.get(stackEntry);
-            matrixMv.reset();
-            matrixMvStack.add(0, stackEntry);
+            matrixMvStack.push(matrixMv, matrixMvKind);
         } else if(matrixMode==GL_PROJECTION) {
-            matrixP.get(stackEntry);
-            matrixP.reset();
-            matrixPStack.add(0, stackEntry);
+            matrixPStack.push(matrixP, MATRIX_KIND_GENERAL);
         } else if(matrixMode==GL.GL_TEXTURE) {
-            matrixTex.get(stackEntry);
-            matrixTex.reset();
-            matrixTStack.add(0, stackEntry);
+            matrixTStack.push(matrixTex, MATRIX_KIND_GENERAL);
         }
     }
 
@@ -586,11 +637,13 @@ public class PMVMatrix implements GLMatrixFunc {
         if(matrixMode==GL_MODELVIEW) {
             matrixMv.put(matrixIdent);
             matrixMv.reset();
-            dirtyBits |= DIRTY_INVERSE_MODELVIEW | DIRTY_INVERSE_TRANSPOSED_MODELVIEW ;
+            matrixMvKind = MATRIX_KIND_IDENTITY;
+            dirtyBits |= DIRTY_INVERSE_MODELVIEW | DIRTY_INVERSE_TRANSPOSED_MODELVIEW | DIRTY_FRUSTUM ;
             modifiedBits |= MODIFIED_MODELVIEW;
         } else if(matrixMode==GL_PROJECTION) {
             matrixP.put(matrixIdent);
             matrixP.reset();
+            dirtyBits |= DIRTY_FRUSTUM ;
             modifiedBits |= MODIFIED_PROJECTION;            
         } else if(matrixMode==GL.GL_TEXTURE) {
             matrixTex.put(matrixIdent);
@@ -604,10 +657,12 @@ public class PMVMatrix implements GLMatrixFunc {
     public final void glMultMatrixf(final FloatBuffer m) {
         if(matrixMode==GL_MODELVIEW) {
             FloatUtil.multMatrixf(matrixMv, m, matrixMv);
-            dirtyBits |= DIRTY_INVERSE_MODELVIEW | DIRTY_INVERSE_TRANSPOSED_MODELVIEW ;
+            matrixMvKind = Math.max(matrixMvKind, getMatrixKind(m));
+            dirtyBits |= DIRTY_INVERSE_MODELVIEW | DIRTY_INVERSE_TRANSPOSED_MODELVIEW | DIRTY_FRUSTUM ;
             modifiedBits |= MODIFIED_MODELVIEW;
         } else if(matrixMode==GL_PROJECTION) {
             FloatUtil.multMatrixf(matrixP, m, matrixP);
+            dirtyBits |= DIRTY_FRUSTUM ;
             modifiedBits |= MODIFIED_PROJECTION;
         } else if(matrixMode==GL.GL_TEXTURE) {
             FloatUtil.multMatrixf(matrixTex, m, matrixTex);
@@ -617,19 +672,37 @@ public class PMVMatrix implements GLMatrixFunc {
 
     @Override
     public final void glMultMatrixf(float[] m, int m_offset) {
+        multMatrixf(m, m_offset, getMatrixKind(m, m_offset));
+    }
+
+    /** Multiplies the current matrix with the given matrix of the given kind. */
+    private final void multMatrixf(float[] m, int m_offset, int kind) {
         if(matrixMode==GL_MODELVIEW) {
-            FloatUtil.multMatrixf(matrixMv, m, m_offset, matrixMv);
-            dirtyBits |= DIRTY_INVERSE_MODELVIEW | DIRTY_INVERSE_TRANSPOSED_MODELVIEW ;
+            multMatrixf(matrixMv, m, m_offset);
+            matrixMvKind = Math.max(matrixMvKind, kind);
+            dirtyBits |= DIRTY_INVERSE_MODELVIEW | DIRTY_INVERSE_TRANSPOSED_MODELVIEW | DIRTY_FRUSTUM ;
             modifiedBits |= MODIFIED_MODELVIEW;
         } else if(matrixMode==GL_PROJECTION) {
-            FloatUtil.multMatrixf(matrixP, m, m_offset, matrixP);
+            multMatrixf(matrixP, m, m_offset);
+            dirtyBits |= DIRTY_FRUSTUM ;
             modifiedBits |= MODIFIED_PROJECTION;
         } else if(matrixMode==GL.GL_TEXTURE) {
-            FloatUtil.multMatrixf(matrixTex, m, m_offset, matrixTex);
+            multMatrixf(matrixTex, m, m_offset);
             modifiedBits |= MODIFIED_TEXTURE;
         } 
     }
 
+    /** Computes <code>d = d * m</code>, directly on the backing array if available. */
+    private final void multMatrixf(FloatBuffer d, float[] m, int m_offset) {
+        if(usesBackingArray) {
+            final float[] _d = d.array();
+            final int _dOffset = d.position();
+            FloatUtil.multMatrixf(_d, _dOffset, m, m_offset, _d, _dOffset);
+        } else {
+            FloatUtil.multMatrixf(d, m, m_offset, d);
+        }
+    }
+
     @Override
     public final void glTranslatef(final float x, final float y, final float z) {
         // Translation matrix: 
@@ -640,7 +713,7 @@ public class PMVMatrix implements GLMatrixFunc {
         matrixTrans[0+4*3] = x;
         matrixTrans[1+4*3] = y;
         matrixTrans[2+4*3] = z;
-        glMultMatrixf(matrixTrans, 0);
+        multMatrixf(matrixTrans, 0, MATRIX_KIND_RIGID);
     }
 
     @Override
@@ -677,7 +750,7 @@ public class PMVMatrix implements GLMatrixFunc {
         matrixRot[2*4+1] = yz*ic-xs;
         matrixRot[2*4+2] = z*z*ic+c;
 
-        glMultMatrixf(matrixRot, 0);
+        multMatrixf(matrixRot, 0, MATRIX_KIND_RIGID);
     }
 
     @Override
@@ -691,7 +764,7 @@ public class PMVMatrix implements GLMatrixFunc {
         matrixScale[1+4*1] = y;
         matrixScale[2+4*2] = z;
 
-        glMultMatrixf(matrixScale, 0);
+        multMatrixf(matrixScale, 0, MATRIX_KIND_AFFINE);
     }
 
     @Override
@@ -715,7 +788,7 @@ public class PMVMatrix implements GLMatrixFunc {
         matrixOrtho[1+4*3] = ty;
         matrixOrtho[2+4*3] = tz;
 
-        glMultMatrixf(matrixOrtho, 0);
+        multMatrixf(matrixOrtho, 0, MATRIX_KIND_AFFINE);
     }
 
     @Override
@@ -750,7 +823,7 @@ public class PMVMatrix implements GLMatrixFunc {
         matrixFrustum[2+4*3] = D;
         matrixFrustum[3+4*2] = -1.0f;
 
-        glMultMatrixf(matrixFrustum, 0);
+        multMatrixf(matrixFrustum, 0, MATRIX_KIND_GENERAL);
     }
 
     //
@@ -912,6 +985,7 @@ public class PMVMatrix implements GLMatrixFunc {
      * @deprecated Function is exposed for debugging purposes only.
      * @see #DIRTY_INVERSE_MODELVIEW
      * @see #DIRTY_INVERSE_TRANSPOSED_MODELVIEW
+     * @see #DIRTY_FRUSTUM
      * @see #glGetMviMatrixf()
      * @see #glGetMvitMatrixf()
      * @see #glGetPMvMviMatrixf()
@@ -931,6 +1005,7 @@ public class PMVMatrix implements GLMatrixFunc {
      * @see #disableMviMvitUpdate()
      * @see #DIRTY_INVERSE_MODELVIEW
      * @see #DIRTY_INVERSE_TRANSPOSED_MODELVIEW
+     * @see #DIRTY_FRUSTUM
      * @see #glGetMviMatrixf()
      * @see #glGetMvitMatrixf()
      * @see #glGetPMvMviMatrixf()
@@ -958,7 +1033,7 @@ public class PMVMatrix implements GLMatrixFunc {
      * @see #getRequestMask()
      */
     public final void disableMviMvitUpdate() {
-        requestMask &= ~DIRTY_ALL;        
+        requestMask &= ~( DIRTY_INVERSE_MODELVIEW | DIRTY_INVERSE_TRANSPOSED_MODELVIEW );        
     }
     
     /**
@@ -992,6 +1067,7 @@ public class PMVMatrix implements GLMatrixFunc {
      * @see #MODIFIED_TEXTURE
      * @see #DIRTY_INVERSE_MODELVIEW
      * @see #DIRTY_INVERSE_TRANSPOSED_MODELVIEW
+     * @see #DIRTY_FRUSTUM
      * @see #glGetMviMatrixf()
      * @see #glGetMvitMatrixf()
      * @see #glGetPMvMviMatrixf()
@@ -1001,13 +1077,31 @@ public class PMVMatrix implements GLMatrixFunc {
     public final boolean update() {
         return updateImpl(true);
     }
+
+    /**
+     * Returns the kind of the {@link #glGetMvMatrixf() modelview matrix (Mv)},
+     * which is tracked by all mutable operations and selects the inverse computation in {@link #update()}.
+     * <p>
+     * The kind is conservative, e.g. a matrix loaded via {@link #glLoadMatrixf(float[], int) glLoadMatrixf(..)}
+     * is at least considered {@link #MATRIX_KIND_AFFINE affine}.
+     * </p>
+     * @return one of {@link #MATRIX_KIND_IDENTITY}, {@link #MATRIX_KIND_RIGID}, {@link #MATRIX_KIND_AFFINE} or {@link #MATRIX_KIND_GENERAL}
+     */
+    public final int getMvMatrixKind() {
+        return matrixMvKind;
+    }
+
     private final boolean updateImpl(boolean clearModBits) {
-        final boolean mod = 0 != modifiedBits;
+        boolean mod = 0 != modifiedBits;
         if(clearModBits) {
             modifiedBits = 0;
         }
         
-        if( 0 == ( dirtyBits & requestMask ) ) {
+        if( 0 != ( requestMask & ( dirtyBits & DIRTY_FRUSTUM ) ) ) { // only if requested & dirty
+            updateFrustum();
+            mod = true;
+        }
+        if( 0 == ( dirtyBits & requestMask & ( DIRTY_INVERSE_MODELVIEW | DIRTY_INVERSE_TRANSPOSED_MODELVIEW ) ) ) {
             return mod; // nothing requested which may have been dirty
         }
 
@@ -1028,12 +1122,53 @@ public class PMVMatrix implements GLMatrixFunc {
     private int nioBackupArraySupported = 0; // -1 not supported, 0 - TBD, 1 - supported
     private final String msgCantComputeInverse = "Invalid source Mv matrix, can't compute inverse";
 
+    private final void updateFrustum() {
+        if(usesBackingArray) {
+            FloatUtil.multMatrixf(matrixP.array(), matrixP.position(), matrixMv.array(), matrixMv.position(), matrixMult, 0);
+        } else {
+            matrixP.get(matrixInv, 0, 16);
+            matrixP.reset();
+            matrixMv.get(matrixInv, 16, 16);
+            matrixMv.reset();
+            FloatUtil.multMatrixf(matrixInv, 0, matrixInv, 16, matrixMult, 0);
+        }
+        frustum.updateByPMV(matrixMult, 0);
+        dirtyBits &= ~DIRTY_FRUSTUM;
+    }
+
+    /** Returns {@link #MATRIX_KIND_AFFINE} if the last row of the given matrix is <code>(0, 0, 0, 1)</code>, otherwise {@link #MATRIX_KIND_GENERAL}. */
+    private static final int getMatrixKind(final float[] m, final int m_offset) {
+        return ( 0f == m[m_offset+3+0*4] && 0f == m[m_offset+3+1*4] && 0f == m[m_offset+3+2*4] && 1f == m[m_offset+3+3*4] ) ?
+               MATRIX_KIND_AFFINE : MATRIX_KIND_GENERAL;
+    }
+    private static final int getMatrixKind(final FloatBuffer m) {
+        final int mP = m.position();
+        return ( 0f == m.get(mP+3+0*4) && 0f == m.get(mP+3+1*4) && 0f == m.get(mP+3+2*4) && 1f == m.get(mP+3+3*4) ) ?
+               MATRIX_KIND_AFFINE : MATRIX_KIND_GENERAL;
+    }
+
+    /** Inverts the Mv matrix <code>src</code> w/ the cheapest method allowed by its {@link #getMvMatrixKind() kind}. */
+    private final boolean invertMvImpl(final float[] src, final int src_offset, final float[] dst, final int dst_offset) {
+        switch( matrixMvKind ) {
+            case MATRIX_KIND_IDENTITY:
+                FloatUtil.makeIdentityf(dst, dst_offset);
+                return true;
+            case MATRIX_KIND_RIGID:
+                FloatUtil.invertRigidMatrixf(src, src_offset, dst, dst_offset);
+                return true;
+            case MATRIX_KIND_AFFINE:
+                return FloatUtil.invertAffineMatrixf(src, src_offset, dst, dst_offset);
+            default:
+                return projectFloat.gluInvertMatrixf(src, src_offset, dst, dst_offset);
+        }
+    }
+
     private final boolean setMviMvitNIOBackupArray() {
         final float[] _matrixMvi = matrixMvi.array();
         final int _matrixMviOffset = matrixMvi.position();
         boolean res = false;
         if( 0 != ( dirtyBits & DIRTY_INVERSE_MODELVIEW ) ) { // only if dirt; always requested at this point, see update()
-            if(!projectFloat.gluInvertMatrixf(matrixMv.array(), matrixMv.position(), _matrixMvi, _matrixMviOffset)) {
+            if(!invertMvImpl(matrixMv.array(), matrixMv.position(), _matrixMvi, _matrixMviOffset)) {
                 throw new GLException(msgCantComputeInverse);
             }
             dirtyBits &= ~DIRTY_INVERSE_MODELVIEW;
@@ -1057,8 +1192,18 @@ public class PMVMatrix implements GLMatrixFunc {
     private final boolean setMviMvitNIODirectAccess() {
         boolean res = false;
         if( 0 != ( dirtyBits & DIRTY_INVERSE_MODELVIEW ) ) { // only if dirt; always requested at this point, see update()
-            if(!projectFloat.gluInvertMatrixf(matrixMv, matrixMvi)) {
-                throw new GLException(msgCantComputeInverse);
+            if( MATRIX_KIND_GENERAL == matrixMvKind ) {
+                if(!projectFloat.gluInvertMatrixf(matrixMv, matrixMvi)) {
+                    throw new GLException(msgCantComputeInverse);
+                }
+            } else {
+                matrixMv.get(matrixInv, 0, 16);
+                matrixMv.reset();
+                if(!invertMvImpl(matrixInv, 0, matrixInv, 16)) {
+                    throw new GLException(msgCantComputeInverse);
+                }
+                matrixMvi.put(matrixInv, 16, 16);
+                matrixMvi.reset();
             }
             dirtyBits &= ~DIRTY_INVERSE_MODELVIEW;
             res = true;
@@ -1076,15 +1221,72 @@ public class PMVMatrix implements GLMatrixFunc {
         return res;
     }
 
+    /**
+     * Stack of 4x4 matrices and their kind, stored contiguously in a float array
+     * which grows by its initial depth if exceeded.
+     */
+    protected static final class MatrixStack {
+        private final int growDepth;
+        private float[] matrices;
+        private int[] kinds;
+        private int depth;
+
+        MatrixStack(final int initialDepth) {
+            growDepth = initialDepth;
+            matrices = new float[initialDepth*16];
+            kinds = new int[initialDepth];
+            depth = 0;
+        }
+
+        /** Returns the number of pushed matrices. */
+        public final int depth() { return depth; }
+
+        /** Pushes a copy of the given matrix, w/o modifying its position. */
+        final void push(final FloatBuffer m, final int kind) {
+            if( depth == kinds.length ) {
+                final float[] nMatrices = new float[matrices.length + growDepth*16];
+                System.arraycopy(matrices, 0, nMatrices, 0, matrices.length);
+                matrices = nMatrices;
+                final int[] nKinds = new int[kinds.length + growDepth];
+                System.arraycopy(kinds, 0, nKinds, 0, kinds.length);
+                kinds = nKinds;
+            }
+            if( m.hasArray() ) {
+                System.arraycopy(m.array(), m.arrayOffset()+m.position(), matrices, depth*16, 16);
+            } else {
+                m.get(matrices, depth*16, 16);
+                m.reset();
+            }
+            kinds[depth++] = kind;
+        }
+
+        /** Pops the top matrix into the given matrix, w/o modifying its position, and returns its kind. */
+        final int pop(final FloatBuffer m) {
+            if( 0 == depth ) {
+                throw new GLException("GL_STACK_UNDERFLOW: matrix stack is empty");
+            }
+            depth--;
+            if( m.hasArray() ) {
+                System.arraycopy(matrices, depth*16, m.array(), m.arrayOffset()+m.position(), 16);
+            } else {
+                m.put(matrices, depth*16, 16);
+                m.reset();
+            }
+            return kinds[depth];
+        }
+    }
+
     protected final float[] matrixBufferArray;
     protected final boolean usesBackingArray;
     protected Buffer matrixBuffer;
     protected FloatBuffer matrixIdent, matrixPMvMvit, matrixPMvMvi, matrixPMv, matrixP, matrixTex, matrixMv, matrixMvi, matrixMvit;
-    protected float[] matrixMult, matrixTrans, matrixRot, matrixScale, matrixOrtho, matrixFrustum, vec3f;
-    protected List<float[]> matrixTStack, matrixPStack, matrixMvStack;
+    protected float[] matrixMult, matrixTrans, matrixRot, matrixScale, matrixOrtho, matrixFrustum, matrixInv, vec3f;
+    protected MatrixStack matrixTStack, matrixPStack, matrixMvStack;
     protected int matrixMode = GL_MODELVIEW;
+    protected int matrixMvKind = MATRIX_KIND_IDENTITY;
     protected int modifiedBits = MODIFIED_ALL;
     protected int dirtyBits = DIRTY_ALL; // contains the dirty bits, i.e. hinting for update operation
     protected int requestMask = 0; // may contain the requested dirty bits: DIRTY_INVERSE_MODELVIEW | DIRTY_INVERSE_TRANSPOSED_MODELVIEW
     protected ProjectFloat projectFloat;
+    protected Frustum frustum;
 }
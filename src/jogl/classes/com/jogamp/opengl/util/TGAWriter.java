@@ -40,6 +40,8 @@ import java.io.*;
 import java.nio.*;
 import java.nio.channels.*;
 
+import com.jogamp.opengl.util.texture.spi.TGAImage;
+
 /**
  * Utility class which helps take fast screenshots of OpenGL rendering
  * results into Targa-format files. Used by the {@link com.jogamp.opengl.util.awt.Screenshot}
@@ -51,6 +53,10 @@ public class TGAWriter {
 
   private FileChannel ch;
   private ByteBuffer buf;
+  // set if run-length encoded on close()
+  private File rleFile;
+  private int rleWidth, rleHeight;
+  private boolean rleAlpha;
 
   /** Constructor for the TGAWriter. */
   public TGAWriter() {
@@ -74,6 +80,39 @@ public class TGAWriter {
                    int width,
                    int height,
                    boolean alpha) throws IOException {
+    open(file, width, height, alpha, false);
+  }
+
+  /**
+   * Opens the specified Targa file for writing, like {@link
+   * #open(File, int, int, boolean)}. If <code>compressed</code> is
+   * true, the image data is collected in a direct buffer and written
+   * run-length encoded by {@link #close()}, otherwise it is filled in
+   * straight into the memory mapped file.
+   *
+   * @param file the file to write containing the screenshot
+   * @param width the width of the current drawable
+   * @param height the height of the current drawable
+   * @param alpha whether the alpha channel should be saved
+   * @param compressed whether the file shall be run-length encoded
+   *
+   * @throws IOException if an I/O error occurred while writing the
+   *   file
+   */
+  public void open(File file,
+                   int width,
+                   int height,
+                   boolean alpha,
+                   boolean compressed) throws IOException {
+    if (compressed) {
+      rleFile = file;
+      rleWidth = width;
+      rleHeight = height;
+      rleAlpha = alpha;
+      buf = GLBuffers.newDirectByteBuffer(width * height * (alpha ? 4 : 3));
+      return;
+    }
+    rleFile = null;
     RandomAccessFile out = new RandomAccessFile(file, "rw");
     ch = out.getChannel();
     int pixelSize = (alpha ? 32 : 24);
@@ -109,8 +148,14 @@ public class TGAWriter {
   }
 
   public void close() throws IOException {
-    // close the file channel
-    ch.close();
+    if (null != rleFile) {
+      buf.rewind();
+      TGAImage.createFromData(rleWidth, rleHeight, rleAlpha, false, true, buf).write(rleFile);
+      rleFile = null;
+    } else {
+      // close the file channel
+      ch.close();
+    }
     buf = null;
   }
 }
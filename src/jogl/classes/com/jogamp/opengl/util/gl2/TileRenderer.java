@@ -2,11 +2,16 @@ package com.jogamp.opengl.util.gl2;
 
 import java.awt.Dimension;
 import java.nio.Buffer;
+import java.nio.ByteBuffer;
 
 import javax.media.opengl.*;
 import javax.media.opengl.glu.*;
 import javax.media.opengl.glu.gl2.*;
 
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GLExtensions;
+import com.jogamp.opengl.util.GLBuffers;
+
 /**
  * A fairly direct port of Brian Paul's tile rendering library, found
  * at <a href = "http://www.mesa3d.org/brianp/TR.html">
@@ -16,11 +21,44 @@ import javax.media.opengl.glu.gl2.*;
  * Original code Copyright (C) 1997-2005 Brian Paul. Licensed under
  * BSD-compatible terms with permission of the author. See LICENSE.txt
  * for license information.
+ * <p>
+ * Besides copying the tiles into one image buffer, the tiles may be
+ * streamed to an {@link ImageRowSink}, which receives each completed
+ * row of tiles. Hence the final image never needs to exist in memory
+ * as a whole. If pixel buffer objects are available, the readback of
+ * a tile is pipelined w/ rendering the next tile.
+ * </p>
  * 
  * @author ryanm
  */
 public class TileRenderer
 {
+  /**
+   * Receives the final image in strips of rows, one strip per row of
+   * tiles, see {@link TileRenderer#setImageRowSink(int, int, ImageRowSink)}.
+   */
+  public static interface ImageRowSink
+  {
+    /**
+     * Called on the GL thread once all tiles of a row of tiles have
+     * been read.
+     * 
+     * @param tr
+     *           the calling TileRenderer
+     * @param rows
+     *           the pixels of the strip, <code>height</code> rows of
+     *           the full image width, tightly packed (alignment 1),
+     *           first row being the bottom one as read by
+     *           glReadPixels. Only valid during this call.
+     * @param imageY
+     *           the image row of the strip's bottom row, 0 being the
+     *           bottom of the final image
+     * @param height
+     *           the number of rows of the strip
+     */
+    void rowsCompleted( TileRenderer tr, ByteBuffer rows, int imageY, int height );
+  }
+
   private static final int DEFAULT_TILE_WIDTH = 256;
 
   private static final int DEFAULT_TILE_HEIGHT = 256;
@@ -111,6 +149,24 @@ public class TileRenderer
 
   private Buffer tileBuffer;
 
+  /* Streaming parameters */
+  private ImageRowSink rowSink;
+
+  private int rowSinkFormat, rowSinkType;
+
+  private ByteBuffer stripBuffer;
+
+  private int stripBytesPerPixel;
+
+  private boolean usePBO;
+
+  /** Deleted after the last tile, still allocated if a rendering was aborted */
+  private final int[] pbos = new int[ 2 ];
+
+  private boolean pboPending;
+
+  private int pboPendingIndex, pboPendingColumn, pboPendingRow, pboPendingWidth, pboPendingHeight;
+
   /* Projection parameters */
   private boolean perspective;
 
@@ -249,6 +305,30 @@ public class TileRenderer
     imageBuffer = image;
   }
 
+  /**
+   * Streams the final image to the given sink, one strip per row of
+   * tiles. The strip of the tile row just finished is delivered by
+   * {@link #endTile(GL2)}; use {@link #TR_TOP_TO_BOTTOM} to receive the
+   * strips in the order most image writers expect. If pixel buffer
+   * objects are available, each tile is read asynchronously and copied
+   * into the strip while the next tile is rendered. May be combined
+   * with {@link #setImageBuffer(int, int, Buffer)}.
+   * 
+   * @param format
+   *           Interpreted as in glReadPixels
+   * @param type
+   *           Interpreted as in glReadPixels
+   * @param sink
+   *           the sink receiving the strips, or null to disable
+   *           streaming
+   */
+  public void setImageRowSink( int format, int type, ImageRowSink sink )
+  {
+    rowSinkFormat = format;
+    rowSinkType = type;
+    rowSink = sink;
+  }
+
   /**
    * Gets the parameters of this TileRenderer object
    * 
@@ -518,6 +598,10 @@ public class TileRenderer
       gl.glReadPixels( srcX, srcY, srcWidth, srcHeight, imageFormat, imageType, imageBuffer );
     }
 
+    if( rowSink != null ) {
+      streamTile( gl );
+    }
+
     /* restore previous glPixelStore values */
     gl.glPixelStorei( GL2.GL_PACK_ROW_LENGTH, prevRowLength[ 0 ] );
     gl.glPixelStorei( GL2.GL_PACK_SKIP_ROWS, prevSkipRows[ 0 ] );
@@ -536,6 +620,112 @@ public class TileRenderer
     }
   }
 
+  /**
+   * Reads the current tile for the {@link ImageRowSink}, either
+   * asynchronously into a pixel buffer object, mapped at the next
+   * tile, or straight into the strip buffer.
+   */
+  private void streamTile( GL2 gl )
+  {
+    final int srcWidth = currentTileWidth - 2 * tileBorder;
+    final int srcHeight = currentTileHeight - 2 * tileBorder;
+    final boolean lastTile = currentTile == rows * columns - 1;
+
+    gl.glPixelStorei( GL2.GL_PACK_ROW_LENGTH, 0 );
+    gl.glPixelStorei( GL2.GL_PACK_SKIP_ROWS, 0 );
+    gl.glPixelStorei( GL2.GL_PACK_SKIP_PIXELS, 0 );
+    gl.glPixelStorei( GL2.GL_PACK_ALIGNMENT, 1 );
+
+    if( currentTile == 0 ) {
+      stripBytesPerPixel = GLBuffers.sizeof( gl, new int[ 1 ], rowSinkFormat, rowSinkType, 1, 1, 1, true );
+      final int stripSize = imageSize.width * tileSizeNB.height * stripBytesPerPixel;
+      if( stripBuffer == null || stripBuffer.capacity() < stripSize ) {
+        stripBuffer = Buffers.newDirectByteBuffer( stripSize );
+      }
+      usePBO = gl.isExtensionAvailable( GLExtensions.ARB_pixel_buffer_object );
+      if( usePBO ) {
+        if( pbos[ 0 ] == 0 ) {
+          gl.glGenBuffers( 2, pbos, 0 );
+        }
+        /* (re)allocates the storage, the tile size may have changed */
+        for( int i = 0; i < 2; i++ ) {
+          gl.glBindBuffer( GL2.GL_PIXEL_PACK_BUFFER, pbos[ i ] );
+          gl.glBufferData( GL2.GL_PIXEL_PACK_BUFFER, tileSizeNB.width * tileSizeNB.height * stripBytesPerPixel,
+                           null, GL2.GL_STREAM_READ );
+        }
+        gl.glBindBuffer( GL2.GL_PIXEL_PACK_BUFFER, 0 );
+        pboPending = false;
+      }
+    }
+
+    if( usePBO ) {
+      /* start reading this tile, then complete the previous one */
+      final int index = currentTile % 2;
+      gl.glBindBuffer( GL2.GL_PIXEL_PACK_BUFFER, pbos[ index ] );
+      gl.glReadPixels( tileBorder, tileBorder, srcWidth, srcHeight, rowSinkFormat, rowSinkType, 0L );
+      gl.glBindBuffer( GL2.GL_PIXEL_PACK_BUFFER, 0 );
+      if( pboPending ) {
+        retirePBOTile( gl );
+      }
+      pboPending = true;
+      pboPendingIndex = index;
+      pboPendingColumn = currentColumn;
+      pboPendingRow = currentRow;
+      pboPendingWidth = srcWidth;
+      pboPendingHeight = srcHeight;
+      if( lastTile ) {
+        retirePBOTile( gl );
+        gl.glDeleteBuffers( 2, pbos, 0 );
+        pbos[ 0 ] = 0;
+        pbos[ 1 ] = 0;
+      }
+    } else {
+      /* read the tile into its column of the strip */
+      gl.glPixelStorei( GL2.GL_PACK_ROW_LENGTH, imageSize.width );
+      gl.glPixelStorei( GL2.GL_PACK_SKIP_PIXELS, tileSizeNB.width * currentColumn );
+      stripBuffer.clear();
+      gl.glReadPixels( tileBorder, tileBorder, srcWidth, srcHeight, rowSinkFormat, rowSinkType, stripBuffer );
+      tileStreamed( currentColumn, currentRow, srcHeight );
+    }
+  }
+
+  /** Copies the pending tile from its mapped pixel buffer object into the strip. */
+  private void retirePBOTile( GL2 gl )
+  {
+    pboPending = false;
+    gl.glBindBuffer( GL2.GL_PIXEL_PACK_BUFFER, pbos[ pboPendingIndex ] );
+    final ByteBuffer mapped = gl.glMapBuffer( GL2.GL_PIXEL_PACK_BUFFER, GL2.GL_READ_ONLY );
+    if( mapped == null ) {
+      gl.glBindBuffer( GL2.GL_PIXEL_PACK_BUFFER, 0 );
+      throw new GLException( "TileRenderer: could not map pixel buffer object" );
+    }
+    final int srcRowBytes = pboPendingWidth * stripBytesPerPixel;
+    final int dstRowBytes = imageSize.width * stripBytesPerPixel;
+    final int dstX = tileSizeNB.width * pboPendingColumn * stripBytesPerPixel;
+    final ByteBuffer src = mapped.duplicate();
+    final ByteBuffer dst = stripBuffer.duplicate();
+    dst.clear();
+    for( int y = 0; y < pboPendingHeight; y++ ) {
+      src.limit( ( y + 1 ) * srcRowBytes );
+      src.position( y * srcRowBytes );
+      dst.position( y * dstRowBytes + dstX );
+      dst.put( src );
+    }
+    gl.glUnmapBuffer( GL2.GL_PIXEL_PACK_BUFFER );
+    gl.glBindBuffer( GL2.GL_PIXEL_PACK_BUFFER, 0 );
+    tileStreamed( pboPendingColumn, pboPendingRow, pboPendingHeight );
+  }
+
+  /** Hands the strip to the sink once the last tile of its row has been read. */
+  private void tileStreamed( int column, int row, int height )
+  {
+    if( column == columns - 1 ) {
+      stripBuffer.clear();
+      stripBuffer.limit( imageSize.width * height * stripBytesPerPixel );
+      rowSink.rowsCompleted( this, stripBuffer, tileSizeNB.height * row, height );
+    }
+  }
+
   /**
    * Tile rendering causes problems with using glRasterPos3f, so you
    * should use this replacement instead
@@ -43,9 +43,10 @@ import java.util.*;
 
 /** Manages a list of Levels; this is the core data structure
     contained within the RectanglePacker and encompasses the storage
-    algorithm for the contained Rects. */
+    algorithm for the contained Rects. This is the default
+    {@link PackingStrategy}, placing Rects on horizontal shelves. */
 
-public class LevelSet {
+public class LevelSet implements PackingStrategy {
   // Maintained in sorted order by increasing Y coordinate
   private List/*<Level>*/ levels = new ArrayList/*<Level>*/();
   private int nextAddY;
@@ -59,6 +60,10 @@ public class LevelSet {
     this.h = h;
   }
 
+  public PackingStrategy create(int w, int h) {
+    return new LevelSet(w, h);
+  }
+
   public int w() { return w; }
   public int h() { return h; }
 
@@ -182,6 +187,19 @@ public class LevelSet {
     return (float) freeHeight / (float) usedHeight;
   }
 
+  /** Returns the sum of the areas of all Rects in this LevelSet. */
+  public long getUsedArea() {
+    long area = 0;
+    for (Iterator i1 = levels.iterator(); i1.hasNext(); ) {
+      Level level = (Level) i1.next();
+      for (Iterator i2 = level.iterator(); i2.hasNext(); ) {
+        Rect cur = (Rect) i2.next();
+        area += (long) cur.w() * cur.h();
+      }
+    }
+    return area;
+  }
+
   public Iterator iterator() {
     return levels.iterator();
   }
@@ -0,0 +1,401 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util.packrect;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+/** {@link PackingStrategy} maintaining a list of possibly
+    overlapping, maximal free rectangles of the backing store. Rects are placed into the free
+    rectangle which leaves the shortest side over (best short side
+    fit), preferring lower y-coordinates. <P>
+
+    Unlike the {@link LevelSet} and the {@link SkylinePacker}, the
+    space of removed Rects is immediately reusable without compaction,
+    which suits caches with frequent evictions such as the glyph cache
+    of the TextRenderer. The free rectangles are kept sorted by height
+    and indexed by width: the best short side fit leaves either the
+    height to spare of the lowest free rectangle wide enough or the
+    width to spare of the narrowest one high enough, both located in
+    O(log n) and scanned from there in order. Splitting and merging
+    the free rectangles on {@link #add add} and {@link #remove remove}
+    visits the overlapping and adjacent ones, while removing a Rect
+    from the placed ones takes constant time. */
+
+public class MaxRectsPacker implements PackingStrategy {
+  private static int compare(int a, int b) {
+    return a < b ? -1 : (a == b ? 0 : 1);
+  }
+
+  private static final Comparator<Rect> heightComparator = new Comparator<Rect>() {
+      public int compare(Rect r1, Rect r2) {
+        if (r1.h() != r2.h())
+          return MaxRectsPacker.compare(r1.h(), r2.h());
+        if (r1.w() != r2.w())
+          return MaxRectsPacker.compare(r1.w(), r2.w());
+        if (r1.y() != r2.y())
+          return MaxRectsPacker.compare(r1.y(), r2.y());
+        return MaxRectsPacker.compare(r1.x(), r2.x());
+      }
+    };
+
+  private static final Comparator<Rect> widthComparator = new Comparator<Rect>() {
+      public int compare(Rect r1, Rect r2) {
+        if (r1.w() != r2.w())
+          return MaxRectsPacker.compare(r1.w(), r2.w());
+        if (r1.h() != r2.h())
+          return MaxRectsPacker.compare(r1.h(), r2.h());
+        if (r1.y() != r2.y())
+          return MaxRectsPacker.compare(r1.y(), r2.y());
+        return MaxRectsPacker.compare(r1.x(), r2.x());
+      }
+    };
+
+  // Maintained in sorted order by increasing height, then width, y and x
+  private final List<Rect> freeRects = new ArrayList<Rect>();
+  // The same free rectangles in order of increasing width, then height, y and x
+  private final TreeSet<Rect> freeByWidth = new TreeSet<Rect>(widthComparator);
+  // Insertion ordered, removal in constant time; Rect uses identity equality
+  private LinkedHashSet<Rect> rects = new LinkedHashSet<Rect>();
+  private final int w;
+  private int h;
+  private long usedArea;
+  private int usedHeight;
+
+  public MaxRectsPacker(int w, int h) {
+    this.w = w;
+    this.h = h;
+    clear();
+  }
+
+  public PackingStrategy create(int w, int h) {
+    return new MaxRectsPacker(w, h);
+  }
+
+  public int w() { return w; }
+  public int h() { return h; }
+
+  /** Returns a search key sorting before all free rectangles of the
+      given size or larger in the respective order. */
+  private static Rect key(int width, int height) {
+    return new Rect(0, 0, width, height, null);
+  }
+
+  /** Index of the first free rectangle sorting at or after the given
+      key. */
+  private int lowerBound(Rect key) {
+    final int pos = Collections.binarySearch(freeRects, key, heightComparator);
+    return pos < 0 ? -pos - 1 : pos;
+  }
+
+  /** Returns the first free rectangle the given Rect fits into. */
+  private static Rect firstFit(Iterator<Rect> iter, Rect rect) {
+    while (iter.hasNext()) {
+      final Rect cur = iter.next();
+      if (cur.w() >= rect.w() && cur.h() >= rect.h())
+        return cur;
+    }
+    return null;
+  }
+
+  /** Returns the lower, then leftmost one of the given free
+      rectangles, either may be null. */
+  private static Rect lower(Rect r1, Rect r2) {
+    if (r1 == null)
+      return r2;
+    if (r2 == null || r1.y() < r2.y() || (r1.y() == r2.y() && r1.x() < r2.x()))
+      return r1;
+    return r2;
+  }
+
+  public boolean add(Rect rect) {
+    if (rect.w() > w || rect.h() > h)
+      return false;
+
+    // The shortest side left over is either the least height to spare
+    // or the least width to spare of all fitting free rectangles
+    final Rect lowestFit = firstFit(freeRects.listIterator(lowerBound(key(rect.w(), rect.h()))), rect);
+    if (lowestFit == null)
+      return false;
+    final Rect narrowestFit = firstFit(freeByWidth.tailSet(key(rect.w(), rect.h())).iterator(), rect);
+    final int shortSide = Math.min(lowestFit.h() - rect.h(), narrowestFit.w() - rect.w());
+    // Of all fitting free rectangles leaving it, prefer the lowest
+    final int fitH = rect.h() + shortSide;
+    final int fitW = rect.w() + shortSide;
+    Rect best = null;
+    for (int i = lowerBound(key(rect.w(), fitH)); i < freeRects.size() && freeRects.get(i).h() == fitH; i++) {
+      best = lower(freeRects.get(i), best);
+    }
+    for (Iterator<Rect> iter = freeByWidth.subSet(key(fitW, rect.h()), key(fitW + 1, 0)).iterator(); iter.hasNext(); ) {
+      best = lower(iter.next(), best);
+    }
+
+    rect.setPosition(best.x(), best.y());
+    place(rect);
+    rects.add(rect);
+    usedArea += (long) rect.w() * rect.h();
+    usedHeight = Math.max(usedHeight, rect.y() + rect.h());
+    return true;
+  }
+
+  /** Splits all free rectangles intersecting the given Rect into
+      their maximal remainders. */
+  private void place(Rect rect) {
+    if (rect.w() == 0 || rect.h() == 0)
+      return;
+    final int x0 = rect.x();
+    final int y0 = rect.y();
+    final int x1 = x0 + rect.w();
+    final int y1 = y0 + rect.h();
+    final List<Rect> split = new ArrayList<Rect>();
+    for (int i = freeRects.size() - 1; i >= 0; --i) {
+      final Rect free = freeRects.get(i);
+      final int fx1 = free.x() + free.w();
+      final int fy1 = free.y() + free.h();
+      if (x0 >= fx1 || x1 <= free.x() || y0 >= fy1 || y1 <= free.y())
+        continue;
+      removeFree(i);
+      if (x0 > free.x())
+        split.add(new Rect(free.x(), free.y(), x0 - free.x(), free.h(), null));
+      if (x1 < fx1)
+        split.add(new Rect(x1, free.y(), fx1 - x1, free.h(), null));
+      if (y0 > free.y())
+        split.add(new Rect(free.x(), free.y(), free.w(), y0 - free.y(), null));
+      if (y1 < fy1)
+        split.add(new Rect(free.x(), y1, free.w(), fy1 - y1, null));
+    }
+    insert(split);
+  }
+
+  private static boolean contains(Rect a, Rect b) {
+    return b.x() >= a.x() && b.y() >= a.y() &&
+           b.x() + b.w() <= a.x() + a.w() &&
+           b.y() + b.h() <= a.y() + a.h();
+  }
+
+  private void addFree(Rect free) {
+    final int pos = Collections.binarySearch(freeRects, free, heightComparator);
+    if (pos < 0) {
+      freeRects.add(-pos - 1, free);
+      freeByWidth.add(free);
+    }
+  }
+
+  private void removeFree(int i) {
+    freeByWidth.remove(freeRects.remove(i));
+  }
+
+  /** Inserts the given free rectangles, dropping the ones contained
+      in another free rectangle as well as the existing free
+      rectangles contained in one of them. The existing free
+      rectangles are known not to contain each other. */
+  private void insert(List<Rect> added) {
+    for (int i = added.size() - 1; i >= 0; --i) {
+      final Rect r = added.get(i);
+      boolean contained = false;
+      // Only higher free rectangles can contain the new one
+      for (int j = lowerBound(key(0, r.h())); !contained && j < freeRects.size(); j++) {
+        contained = contains(freeRects.get(j), r);
+      }
+      for (int j = 0; !contained && j < added.size(); j++) {
+        // of two identical rectangles only the first one is kept
+        contained = j != i && contains(added.get(j), r) &&
+                    (j < i || !contains(r, added.get(j)));
+      }
+      if (contained)
+        added.remove(i);
+    }
+    for (int i = 0; i < added.size(); i++) {
+      final Rect r = added.get(i);
+      // Only lower free rectangles can be contained in the new one
+      for (int j = lowerBound(key(0, r.h() + 1)) - 1; j >= 0; --j) {
+        if (contains(r, freeRects.get(j)))
+          removeFree(j);
+      }
+    }
+    for (int i = 0; i < added.size(); i++) {
+      addFree(added.get(i));
+    }
+  }
+
+  /** Re-indexes the given free rectangles, dropping all contained in
+      another one. */
+  private void prune(List<Rect> free) {
+    Collections.sort(free, heightComparator);
+    freeRects.clear();
+    freeByWidth.clear();
+    // A free rectangle can only be contained in one sorted after it
+    for (int i = 0; i < free.size(); i++) {
+      final Rect r1 = free.get(i);
+      boolean contained = false;
+      for (int j = i + 1; !contained && j < free.size(); j++) {
+        contained = contains(free.get(j), r1);
+      }
+      if (!contained && freeByWidth.add(r1))
+        freeRects.add(r1);
+    }
+  }
+
+  public boolean remove(Rect rect) {
+    if (!rects.remove(rect))
+      return false;
+    usedArea -= (long) rect.w() * rect.h();
+    if (rect.y() + rect.h() == usedHeight) {
+      usedHeight = 0;
+      for (Iterator<Rect> iter = rects.iterator(); iter.hasNext(); ) {
+        final Rect cur = iter.next();
+        usedHeight = Math.max(usedHeight, cur.y() + cur.h());
+      }
+    }
+    if (rect.w() == 0 || rect.h() == 0)
+      return true;
+
+    // Grow the released area by merging it with free rectangles
+    // sharing a complete edge
+    Rect freed = new Rect(rect.x(), rect.y(), rect.w(), rect.h(), null);
+    boolean merged;
+    do {
+      merged = false;
+      for (int i = 0; i < freeRects.size(); i++) {
+        final Rect free = freeRects.get(i);
+        Rect union = null;
+        if (free.y() == freed.y() && free.h() == freed.h()) {
+          if (free.x() + free.w() == freed.x() || freed.x() + freed.w() == free.x())
+            union = new Rect(Math.min(free.x(), freed.x()), freed.y(), free.w() + freed.w(), freed.h(), null);
+        } else if (free.x() == freed.x() && free.w() == freed.w()) {
+          if (free.y() + free.h() == freed.y() || freed.y() + freed.h() == free.y())
+            union = new Rect(freed.x(), Math.min(free.y(), freed.y()), freed.w(), free.h() + freed.h(), null);
+        }
+        if (union != null) {
+          removeFree(i);
+          freed = union;
+          merged = true;
+          break;
+        }
+      }
+    } while (merged);
+    final List<Rect> added = new ArrayList<Rect>(1);
+    added.add(freed);
+    insert(added);
+    return true;
+  }
+
+  /** Free space is reused directly, so in-place compaction is not
+      supported; always returns false and leaves the re-layout to the
+      RectanglePacker. */
+  public boolean compactAndAdd(Rect rect,
+                               Object backingStore,
+                               BackingStoreManager manager) {
+    return false;
+  }
+
+  public int getUsedHeight() {
+    return usedHeight;
+  }
+
+  public void setHeight(int height) throws IllegalArgumentException {
+    if (height < getUsedHeight()) {
+      throw new IllegalArgumentException("May not reduce height below currently used height");
+    }
+    if (height == h)
+      return;
+    // Free rectangles reaching the bottom edge follow it; since the
+    // used height is not exceeded, no Rect lies below them
+    final List<Rect> free = new ArrayList<Rect>(freeRects);
+    for (int i = free.size() - 1; i >= 0; --i) {
+      final Rect cur = free.get(i);
+      if (cur.y() >= height) {
+        free.remove(i);
+      } else if (cur.y() + cur.h() == h || cur.y() + cur.h() > height) {
+        cur.setSize(cur.w(), height - cur.y());
+      }
+    }
+    if (height > h) {
+      free.add(new Rect(0, h, w, height - h, null));
+    }
+    h = height;
+    prune(free);
+  }
+
+  public long getUsedArea() {
+    return usedArea;
+  }
+
+  /** Returns the fraction of the free area within the used height
+      which is not part of the largest free rectangle. Free space is
+      reusable without compaction, but scattered free space can only
+      hold small Rects. */
+  public float verticalFragmentationRatio() {
+    if (usedHeight == 0)
+      return 0.0f;
+    final long freeArea = (long) w * usedHeight - usedArea;
+    if (freeArea <= 0)
+      return 0.0f;
+    long largest = 0;
+    for (int i = 0; i < freeRects.size(); i++) {
+      final Rect free = freeRects.get(i);
+      final int height = Math.min(free.y() + free.h(), usedHeight) - free.y();
+      if (height > 0)
+        largest = Math.max(largest, (long) free.w() * height);
+    }
+    return (float) (freeArea - largest) / ((float) w * usedHeight);
+  }
+
+  public void visit(RectVisitor visitor) {
+    for (Iterator<Rect> iter = rects.iterator(); iter.hasNext(); ) {
+      visitor.visit(iter.next());
+    }
+  }
+
+  public void updateRectangleReferences() {
+    final LinkedHashSet<Rect> nextRects = new LinkedHashSet<Rect>();
+    for (Iterator<Rect> iter = rects.iterator(); iter.hasNext(); ) {
+      Rect cur = iter.next();
+      Rect next = cur.getNextLocation();
+      next.setPosition(cur.x(), cur.y());
+      if (cur.w() != next.w() || cur.h() != next.h())
+        throw new RuntimeException("Unexpected disparity in rectangle sizes during updateRectangleReferences");
+      nextRects.add(next);
+    }
+    rects = nextRects;
+  }
+
+  public void clear() {
+    rects.clear();
+    freeRects.clear();
+    freeByWidth.clear();
+    addFree(new Rect(0, 0, w, h, null));
+    usedArea = 0;
+    usedHeight = 0;
+  }
+}
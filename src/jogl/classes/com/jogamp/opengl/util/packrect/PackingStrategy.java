@@ -0,0 +1,95 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util.packrect;
+
+/** Storage algorithm used by the {@link RectanglePacker} to lay out
+    Rects on a backing store of a given width and height. <P>
+
+    Implementations are responsible only for the placement of Rects
+    within their current dimensions; growing the backing store and
+    re-laying out all Rects is done by the RectanglePacker, which
+    uses {@link #create(int, int)} to obtain an empty instance of the
+    same strategy with the new dimensions. <P>
+
+    Available strategies are the shelf-based {@link LevelSet} (the
+    default), the {@link SkylinePacker} and the {@link MaxRectsPacker}. */
+
+public interface PackingStrategy {
+  /** Returns a new, empty instance of this strategy managing a
+      backing store of the given width and height. */
+  public PackingStrategy create(int w, int h);
+
+  public int w();
+  public int h();
+
+  /** Returns true if the given rectangle was successfully added
+      given the current dimensions, false if not. Caller is
+      responsible for performing compaction, expansion, etc. as a
+      consequence. */
+  public boolean add(Rect rect);
+
+  /** Removes the given Rect, returning true if it was contained. */
+  public boolean remove(Rect rect);
+
+  /** Allocates the given Rect, performing in-place compaction of the
+      backing store if supported. Returns true if allocated
+      successfully, false otherwise (indicating the need to re-layout
+      or expand the backing store). */
+  public boolean compactAndAdd(Rect rect,
+                               Object backingStore,
+                               BackingStoreManager manager);
+
+  /** Gets the height of the backing store currently in use, i.e. the
+      maximum y-coordinate of all allocated space. */
+  public int getUsedHeight();
+
+  /** Sets the height of the backing store. It is only legal to
+      reduce the height to greater than or equal to the currently used
+      height. */
+  public void setHeight(int height) throws IllegalArgumentException;
+
+  /** Returns the sum of the areas of all contained Rects. */
+  public long getUsedArea();
+
+  /** Returns the vertical fragmentation ratio, i.e. the fraction of
+      the used height of the backing store which is free but can not
+      be reused without a compaction. A high ratio indicates that it
+      may be profitable to perform a compaction. */
+  public float verticalFragmentationRatio();
+
+  /** Visits all contained Rects. */
+  public void visit(RectVisitor visitor);
+
+  /** Updates the references to the contained Rect objects with their
+      "next locations". This is used to update the new Rects of a
+      newly laid-out strategy with the original Rects. */
+  public void updateRectangleReferences();
+
+  /** Removes all Rects. */
+  public void clear();
+}
@@ -45,12 +45,14 @@ import java.util.*;
     image regions) into a larger backing store rectangle (typically
     representing a large texture). Supports automatic compaction of
     the space on the backing store, and automatic expansion of the
-    backing store, when necessary. */
+    backing store, when necessary. The layout of the rectangles is
+    delegated to a {@link PackingStrategy}, by default a {@link
+    LevelSet}. */
 
 public class RectanglePacker {
   private BackingStoreManager manager;
   private Object backingStore;
-  private LevelSet levels;
+  private PackingStrategy levels;
   private float EXPANSION_FACTOR = 0.5f;
   private float SHRINK_FACTOR = 0.3f;
 
@@ -76,10 +78,24 @@ public class RectanglePacker {
   public RectanglePacker(BackingStoreManager manager,
                          int initialWidth,
                          int initialHeight) {
+    this(manager, new LevelSet(initialWidth, initialHeight));
+  }
+
+  /** Creates a RectanglePacker laying out the rectangles with the
+      given, empty PackingStrategy, whose dimensions are used as the
+      initial size of the backing store. */
+  public RectanglePacker(BackingStoreManager manager,
+                         PackingStrategy strategy) {
     this.manager = manager;
-    levels = new LevelSet(initialWidth, initialHeight);
-    this.initialWidth = initialWidth;
-    this.initialHeight = initialHeight;
+    levels = strategy;
+    this.initialWidth = strategy.w();
+    this.initialHeight = strategy.h();
+  }
+
+  /** Returns the PackingStrategy currently in use. Compactions
+      replace it with a new instance of the same strategy. */
+  public PackingStrategy getPackingStrategy() {
+    return levels;
   }
 
   public Object getBackingStore() {
@@ -153,14 +169,24 @@ public class RectanglePacker {
   }
 
   /** Returns the vertical fragmentation ratio of this
-      RectanglePacker. This is defined as the ratio of the sum of the
-      heights of all completely empty Levels divided by the overall
-      used height of the LevelSet. A high vertical fragmentation ratio
+      RectanglePacker as defined by its {@link PackingStrategy}. For
+      the default LevelSet this is the ratio of the sum of the heights
+      of all completely empty Levels divided by the overall used
+      height of the LevelSet. A high vertical fragmentation ratio
       indicates that it may be profitable to perform a compaction. */
   public float verticalFragmentationRatio() {
     return levels.verticalFragmentationRatio();
   }
 
+  /** Returns the occupancy ratio of this RectanglePacker, i.e. the
+      sum of the areas of all Rects divided by the area of the backing
+      store. */
+  public float occupancyRatio() {
+    if (levels.w() == 0 || levels.h() == 0)
+      return 0.0f;
+    return (float) levels.getUsedArea() / ((float) levels.w() * levels.h());
+  }
+
   /** Forces a compaction cycle, which typically results in allocating
       a new backing store and copying all entries to it. */
   public void compact() {
@@ -178,13 +204,33 @@ public class RectanglePacker {
     boolean done = false;
     int newWidth = levels.w();
     int newHeight = levels.h();
-    LevelSet nextLevelSet = null;
+    PackingStrategy nextLevelSet = null;
     int attemptNumber = 0;
     boolean needAdditionFailureNotification = false;
 
+    final List/*<Rect>*/ curRects = new ArrayList/*<Rect>*/();
+    levels.visit(new RectVisitor() {
+        public void visit(Rect rect) {
+          curRects.add(rect);
+        }
+      });
+
+    // If there is enough free area, a re-layout at the current size
+    // may already make room for the incoming rectangle; this only
+    // costs the layout computation since the movement happens below.
+    // The LevelSet has already tried compacting its levels in place
+    // and keeps preferring expansion.
+    boolean tryCurrentSize = (cause != null &&
+                              !(levels instanceof LevelSet) &&
+                              cause.w() <= newWidth &&
+                              cause.h() <= newHeight &&
+                              (long) newWidth * newHeight - levels.getUsedArea() >= (long) cause.w() * cause.h());
+
     while (!done) {
       if (cause != null) {
-        if (cause.w() > newWidth) {
+        if (tryCurrentSize) {
+          tryCurrentSize = false;
+        } else if (cause.w() > newWidth) {
           newWidth = cause.w();
         } else {
           newHeight = (int) (newHeight * (1.0f + EXPANSION_FACTOR));
@@ -202,20 +248,17 @@ public class RectanglePacker {
         needAdditionFailureNotification = true;
       }
 
-      nextLevelSet = new LevelSet(newWidth, newHeight);
+      nextLevelSet = levels.create(newWidth, newHeight);
       
       // Make copies of all existing rectangles
       List/*<Rect>*/ newRects = new ArrayList/*<Rect>*/();
-      for (Iterator i1 = levels.iterator(); i1.hasNext(); ) {
-        Level level = (Level) i1.next();
-        for (Iterator i2 = level.iterator(); i2.hasNext(); ) {
-          Rect cur = (Rect) i2.next();
-          Rect newRect = new Rect(0, 0, cur.w(), cur.h(), null);
-          cur.setNextLocation(newRect);
-          // Hook up the reverse mapping too for easier replacement
-          newRect.setNextLocation(cur);
-          newRects.add(newRect);
-        }
+      for (Iterator iter = curRects.iterator(); iter.hasNext(); ) {
+        Rect cur = (Rect) iter.next();
+        Rect newRect = new Rect(0, 0, cur.w(), cur.h(), null);
+        cur.setNextLocation(newRect);
+        // Hook up the reverse mapping too for easier replacement
+        newRect.setNextLocation(cur);
+        newRects.add(newRect);
       }
       // Sort them by decreasing height (note: this isn't really
       // guaranteed to improve the chances of a successful layout)
@@ -271,20 +314,17 @@ public class RectanglePacker {
     Object newBackingStore = manager.allocateBackingStore(nextLevelSet.w(),
                                                           nextLevelSet.h());
     manager.beginMovement(backingStore, newBackingStore);
-    for (Iterator i1 = levels.iterator(); i1.hasNext(); ) {
-      Level level = (Level) i1.next();
-      for (Iterator i2 = level.iterator(); i2.hasNext(); ) {
-        Rect cur = (Rect) i2.next();
-        manager.move(backingStore, cur,
-                     newBackingStore, cur.getNextLocation());
-      }
+    for (Iterator iter = curRects.iterator(); iter.hasNext(); ) {
+      Rect cur = (Rect) iter.next();
+      manager.move(backingStore, cur,
+                   newBackingStore, cur.getNextLocation());
     }
     // Replace references to temporary rectangles with original ones
     nextLevelSet.updateRectangleReferences();
     manager.endMovement(backingStore, newBackingStore);
     // Now delete the old backing store
     manager.deleteBackingStore(backingStore);
-    // Update to new versions of backing store and LevelSet
+    // Update to new versions of backing store and PackingStrategy
     backingStore = newBackingStore;
     levels = nextLevelSet;
   }
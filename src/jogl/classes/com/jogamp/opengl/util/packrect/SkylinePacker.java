@@ -0,0 +1,336 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util.packrect;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.TreeSet;
+
+/** {@link PackingStrategy} maintaining the skyline, i.e. the lowest
+    free y-coordinate for every horizontal position, as a list of
+    segments. Rects are placed bottom-left, at the position which
+    minimizes their resulting maximum y-coordinate, which keeps the
+    waste low for mixed Rect heights such as glyphs of different
+    fonts. <P>
+
+    Space below the skyline can not be reused; removing a Rect only
+    lowers the skyline if nothing has been placed on top of it.
+    Otherwise its area counts towards the {@link
+    #verticalFragmentationRatio vertical fragmentation} and is
+    reclaimed by the next compaction of the RectanglePacker. <P>
+
+    {@link #add add} visits the skyline segments in order of
+    increasing height and stops at the first one which can not
+    improve on the best position found so far. The resting height of
+    a Rect is the maximum height below it, found by walking the
+    adjacent segments to the right until the Rect is covered or can
+    not rest lower than that best position. Segments are located by
+    a binary search on removal, and removing a Rect from the placed
+    ones takes constant time. */
+
+public class SkylinePacker implements PackingStrategy {
+  /** Horizontal segment [x, x+w) of the skyline at height y */
+  static class Segment {
+    int x;
+    int y;
+    int w;
+    // The adjacent segment to the right, or null
+    Segment next;
+
+    Segment(int x, int y, int w) {
+      this.x = x;
+      this.y = y;
+      this.w = w;
+    }
+  }
+
+  private static final Comparator<Segment> heightComparator = new Comparator<Segment>() {
+      public int compare(Segment s1, Segment s2) {
+        if (s1.y != s2.y)
+          return s1.y < s2.y ? -1 : 1;
+        return s1.x < s2.x ? -1 : (s1.x == s2.x ? 0 : 1);
+      }
+    };
+
+  // Maintained in sorted order by increasing x coordinate, spanning [0, w)
+  private final List<Segment> skyline = new ArrayList<Segment>();
+  // The same segments in order of increasing height, then x coordinate
+  private final TreeSet<Segment> byHeight = new TreeSet<Segment>(heightComparator);
+  // Insertion ordered, removal in constant time; Rect uses identity equality
+  private LinkedHashSet<Rect> rects = new LinkedHashSet<Rect>();
+  private final int w;
+  private int h;
+  private long usedArea;
+
+  public SkylinePacker(int w, int h) {
+    this.w = w;
+    this.h = h;
+    clear();
+  }
+
+  public PackingStrategy create(int w, int h) {
+    return new SkylinePacker(w, h);
+  }
+
+  public int w() { return w; }
+  public int h() { return h; }
+
+  /** Returns the y-coordinate at which a Rect of the given width
+      would rest when placed at the start of the given segment. Stops
+      early and returns a value above maxY once the resting height
+      exceeds maxY. */
+  private static int fitY(Segment first, int width, int maxY) {
+    int y = first.y;
+    int remaining = width;
+    for (Segment seg = first; remaining > 0 && y <= maxY; seg = seg.next) {
+      y = Math.max(y, seg.y);
+      remaining -= seg.w;
+    }
+    return y;
+  }
+
+  public boolean add(Rect rect) {
+    if (rect.w() > w || rect.h() > h)
+      return false;
+
+    // Ties are broken by the narrower, then the leftmost segment
+    int bestX = -1;
+    int bestY = 0;
+    int bestTop = Integer.MAX_VALUE;
+    int bestWidth = Integer.MAX_VALUE;
+    for (Iterator<Segment> iter = byHeight.iterator(); iter.hasNext(); ) {
+      final Segment seg = iter.next();
+      if (seg.y + rect.h() > Math.min(h, bestTop))
+        break; // neither this nor any higher segment can rest lower
+      if (seg.x + rect.w() > w)
+        continue;
+      final int y = fitY(seg, rect.w(), Math.min(h, bestTop) - rect.h());
+      final int top = y + rect.h();
+      if (top > h)
+        continue;
+      final int width = seg.w;
+      if (top < bestTop || (top == bestTop && (width < bestWidth || (width == bestWidth && seg.x < bestX)))) {
+        bestX = seg.x;
+        bestY = y;
+        bestTop = top;
+        bestWidth = width;
+      }
+    }
+    if (bestX < 0)
+      return false;
+
+    rect.setPosition(bestX, bestY);
+    raise(bestX, rect.w(), bestTop);
+    rects.add(rect);
+    usedArea += (long) rect.w() * rect.h();
+    return true;
+  }
+
+  public boolean remove(Rect rect) {
+    if (!rects.remove(rect))
+      return false;
+    usedArea -= (long) rect.w() * rect.h();
+
+    // Lower the skyline if nothing has been placed on top of the Rect
+    final int top = rect.y() + rect.h();
+    final int end = rect.x() + rect.w();
+    boolean onTop = true;
+    for (int i = indexOf(rect.x()); i < skyline.size(); i++) {
+      final Segment seg = skyline.get(i);
+      if (seg.x >= end)
+        break;
+      if (seg.y != top) {
+        onTop = false;
+        break;
+      }
+    }
+    if (onTop && rect.w() > 0) {
+      split(rect.x());
+      split(end);
+      final int first = indexOf(rect.x());
+      int i = first;
+      for (; i < skyline.size() && skyline.get(i).x < end; i++) {
+        setY(skyline.get(i), rect.y());
+      }
+      merge(first, i - 1);
+    }
+    return true;
+  }
+
+  /** Index of the segment containing the given x coordinate. */
+  private int indexOf(int x) {
+    int lo = 0;
+    int hi = skyline.size() - 1;
+    while (lo < hi) {
+      final int mid = (lo + hi + 1) >>> 1;
+      if (skyline.get(mid).x <= x)
+        lo = mid;
+      else
+        hi = mid - 1;
+    }
+    return lo;
+  }
+
+  /** Ensures a segment boundary at the given x coordinate. */
+  private void split(int x) {
+    if (x <= 0 || x >= w)
+      return;
+    final int i = indexOf(x);
+    final Segment seg = skyline.get(i);
+    if (seg.x != x) {
+      final Segment next = new Segment(x, seg.y, seg.x + seg.w - x);
+      next.next = seg.next;
+      seg.next = next;
+      skyline.add(i + 1, next);
+      byHeight.add(next);
+      seg.w = x - seg.x;
+    }
+  }
+
+  /** Changes the height of a segment, keeping its order by height. */
+  private void setY(Segment seg, int y) {
+    if (seg.y != y) {
+      byHeight.remove(seg);
+      seg.y = y;
+      byHeight.add(seg);
+    }
+  }
+
+  /** Removes a segment other than the first one. */
+  private void removeSegment(int i) {
+    final Segment seg = skyline.remove(i);
+    skyline.get(i - 1).next = seg.next;
+    byHeight.remove(seg);
+  }
+
+  /** Sets the skyline over [x, x+width) to the given height. */
+  private void raise(int x, int width, int y) {
+    if (width == 0)
+      return;
+    split(x);
+    split(x + width);
+    final int i = indexOf(x);
+    final int end = x + width;
+    while (i + 1 < skyline.size() && skyline.get(i + 1).x < end) {
+      removeSegment(i + 1);
+    }
+    final Segment seg = skyline.get(i);
+    setY(seg, y);
+    seg.w = width;
+    merge(i, i);
+  }
+
+  /** Coalesces adjacent segments of equal height within the
+      segments [from, to] and their neighbors; all others are known
+      to differ from their neighbors. */
+  private void merge(int from, int to) {
+    int i = Math.max(0, from - 1);
+    int last = to + 1;
+    while (i < last && i < skyline.size() - 1) {
+      final Segment s1 = skyline.get(i);
+      final Segment s2 = skyline.get(i + 1);
+      if (s1.y == s2.y) {
+        s1.w += s2.w;
+        removeSegment(i + 1);
+        --last;
+      } else {
+        ++i;
+      }
+    }
+  }
+
+  /** The skyline can not be compacted in place; always returns false
+      and leaves the re-layout to the RectanglePacker. */
+  public boolean compactAndAdd(Rect rect,
+                               Object backingStore,
+                               BackingStoreManager manager) {
+    return false;
+  }
+
+  public int getUsedHeight() {
+    return byHeight.last().y;
+  }
+
+  public void setHeight(int height) throws IllegalArgumentException {
+    if (height < getUsedHeight()) {
+      throw new IllegalArgumentException("May not reduce height below currently used height");
+    }
+    h = height;
+  }
+
+  public long getUsedArea() {
+    return usedArea;
+  }
+
+  /** Returns the ratio of the area below the skyline which is not
+      occupied by any Rect to the overall used area of the backing
+      store. */
+  public float verticalFragmentationRatio() {
+    final int usedHeight = getUsedHeight();
+    if (usedHeight == 0)
+      return 0.0f;
+    long skylineArea = 0;
+    for (int i = 0; i < skyline.size(); i++) {
+      final Segment seg = skyline.get(i);
+      skylineArea += (long) seg.w * seg.y;
+    }
+    return (float) (skylineArea - usedArea) / ((float) w * usedHeight);
+  }
+
+  public void visit(RectVisitor visitor) {
+    for (Iterator<Rect> iter = rects.iterator(); iter.hasNext(); ) {
+      visitor.visit(iter.next());
+    }
+  }
+
+  public void updateRectangleReferences() {
+    final LinkedHashSet<Rect> nextRects = new LinkedHashSet<Rect>();
+    for (Iterator<Rect> iter = rects.iterator(); iter.hasNext(); ) {
+      Rect cur = iter.next();
+      Rect next = cur.getNextLocation();
+      next.setPosition(cur.x(), cur.y());
+      if (cur.w() != next.w() || cur.h() != next.h())
+        throw new RuntimeException("Unexpected disparity in rectangle sizes during updateRectangleReferences");
+      nextRects.add(next);
+    }
+    rects = nextRects;
+  }
+
+  public void clear() {
+    rects.clear();
+    skyline.clear();
+    byHeight.clear();
+    final Segment seg = new Segment(0, 0, w);
+    skyline.add(seg);
+    byHeight.add(seg);
+    usedArea = 0;
+  }
+}
@@ -0,0 +1,308 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util.texture;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GL2GL3;
+import javax.media.opengl.GLException;
+
+/**
+ * CPU mipmap chain generator for uncompressed <code>GL_UNSIGNED_BYTE</code> images,
+ * using a 2x2 box filter on plain byte arrays.
+ * <p>
+ * Used by {@link Texture} in case automatic mipmap generation is not available,
+ * and by the GLU mipmap implementation to halve unsigned byte images.
+ * </p>
+ * <p>
+ * Odd dimensions are halved by flooring, where a dimension of 1 is clamped,
+ * i.e. level sizes follow <code>max(1, size/2)</code> as expected by OpenGL.
+ * </p>
+ */
+public class MipmapGenerator {
+    /** Minimum pixel count of a level to be split into row bands processed in parallel. */
+    private static final int PARALLEL_MIN_PIXELS = 128 * 128;
+    /** Row bands per level when processed in parallel. */
+    private static final int PARALLEL_BANDS = 16;
+
+    /**
+     * Returns the number of bytes per pixel for the given <code>GL_UNSIGNED_BYTE</code>
+     * pixel format, or 0 if not supported.
+     */
+    public static int getBytesPerPixel(int pixelFormat) {
+        switch(pixelFormat) {
+            case GL.GL_ALPHA:
+            case GL.GL_LUMINANCE:
+            case GL2GL3.GL_RED:
+                return 1;
+            case GL.GL_LUMINANCE_ALPHA:
+            case GL2GL3.GL_RG:
+                return 2;
+            case GL.GL_RGB:
+            case GL2GL3.GL_BGR:
+                return 3;
+            case GL.GL_RGBA:
+            case GL.GL_BGRA:
+                return 4;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Returns true if {@link #createMipmapData(TextureData, ExecutorService)} supports the given data, 
+     * i.e. an uncompressed single level <code>GL_UNSIGNED_BYTE</code> image w/o border 
+     * held in a {@link ByteBuffer} w/ a supported pixel format.
+     */
+    public static boolean isSupported(TextureData data) {
+        return !data.isDataCompressed() &&
+               null == data.getMipmapData() &&
+               data.getBuffer() instanceof ByteBuffer &&
+               0 == data.getBorder() &&
+               GL.GL_UNSIGNED_BYTE == data.getPixelType() &&
+               0 < getBytesPerPixel(data.getPixelFormat());
+    }
+
+    /** Returns the number of mipmap levels down to 1x1 for the given base level size. */
+    public static int getLevelCount(int width, int height) {
+        int n = 1;
+        while( 1 < width || 1 < height ) {
+            width = Math.max(1, width / 2);
+            height = Math.max(1, height / 2);
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * Creates the full mipmap chain of the given data on the calling thread,
+     * see {@link #createMipmapData(TextureData, ExecutorService)}.
+     */
+    public static TextureData createMipmapData(TextureData data) throws GLException {
+        return createMipmapData(data, null);
+    }
+
+    /**
+     * Creates a new {@link TextureData} holding the full mipmap chain of the given data
+     * as {@link TextureData#getMipmapData() mipmap data}, tightly packed w/ an alignment of 1.
+     * <p>
+     * The base level reuses the source buffer if it is tightly packed already, 
+     * hence the source data shall not be modified nor flushed while the result is in use.
+     * </p>
+     * @param data the source image, see {@link #isSupported(TextureData)}
+     * @param executor optional executor to halve large levels in row bands concurrently, may be <code>null</code>
+     * @throws GLException if the data is not supported
+     */
+    public static TextureData createMipmapData(TextureData data, ExecutorService executor) throws GLException {
+        if( !isSupported(data) ) {
+            throw new GLException("Unsupported texture data for CPU mipmap generation: "+data);
+        }
+        final int bpp = getBytesPerPixel(data.getPixelFormat());
+        int width = data.getWidth();
+        int height = data.getHeight();
+        final ByteBuffer src = (ByteBuffer) data.getBuffer();
+        final int srcStride = getRowStride(width, bpp, data.getRowLength(), data.getAlignment());
+        final int tightStride = width * bpp;
+        final Buffer[] levels = new Buffer[getLevelCount(width, height)];
+
+        // base level
+        byte[] level;
+        final int srcOffset;
+        if( src.hasArray() ) {
+            level = src.array();
+            srcOffset = src.arrayOffset() + src.position();
+        } else {
+            level = new byte[ (height - 1) * srcStride + tightStride ];
+            final ByteBuffer s = src.duplicate();
+            s.get(level);
+            srcOffset = 0;
+        }
+        if( srcStride == tightStride ) {
+            final ByteBuffer l0 = src.duplicate();
+            l0.limit(l0.position() + height * tightStride);
+            levels[0] = l0.slice();
+        } else {
+            final byte[] l0 = new byte[height * tightStride];
+            for(int y=0; y<height; y++) {
+                System.arraycopy(level, srcOffset + y * srcStride, l0, y * tightStride, tightStride);
+            }
+            levels[0] = ByteBuffer.wrap(l0);
+        }
+
+        int levelOffset = srcOffset;
+        int levelStride = srcStride;
+        for(int i=1; i<levels.length; i++) {
+            final int w = Math.max(1, width / 2);
+            final int h = Math.max(1, height / 2);
+            final byte[] next = new byte[w * h * bpp];
+            halveImage(bpp, width, height, level, levelOffset, levelStride, next, 0, w * bpp, executor);
+            levels[i] = ByteBuffer.wrap(next);
+            level = next;
+            levelOffset = 0;
+            levelStride = w * bpp;
+            width = w;
+            height = h;
+        }
+        return new TextureData(data.getGLProfile(), data.getInternalFormat(), data.getWidth(), data.getHeight(),
+                               0, data.getPixelFormat(), data.getPixelType(), false, 
+                               data.getMustFlipVertically(), levels, null);
+    }
+
+    /**
+     * Halves the given image using a 2x2 box filter, reading from and writing to absolute buffer positions.
+     * <p>
+     * Array backed buffers are processed in place, otherwise the source is bulk copied.
+     * The buffer positions are not modified.
+     * </p>
+     * @param bpp bytes per pixel
+     * @param width source width in pixels
+     * @param height source height in pixels
+     * @param src source image
+     * @param srcOffset byte offset of the first source row
+     * @param srcStride byte distance of source rows
+     * @param dst destination image of <code>max(1, width/2) x max(1, height/2)</code> pixels
+     * @param dstOffset byte offset of the first destination row
+     * @param dstStride byte distance of destination rows
+     */
+    public static void halveImage(int bpp, int width, int height, 
+                                  ByteBuffer src, int srcOffset, int srcStride, 
+                                  ByteBuffer dst, int dstOffset, int dstStride) {
+        final int w = Math.max(1, width / 2);
+        final int h = Math.max(1, height / 2);
+        final byte[] in;
+        final int inOffset;
+        if( src.hasArray() ) {
+            in = src.array();
+            inOffset = src.arrayOffset() + srcOffset;
+        } else {
+            in = new byte[ (height - 1) * srcStride + width * bpp ];
+            final ByteBuffer s = src.duplicate();
+            s.position(srcOffset);
+            s.get(in);
+            inOffset = 0;
+        }
+        if( dst.hasArray() ) {
+            halveImage(bpp, width, height, in, inOffset, srcStride, 
+                       dst.array(), dst.arrayOffset() + dstOffset, dstStride, 0, h);
+        } else {
+            final byte[] out = new byte[ (h - 1) * dstStride + w * bpp ];
+            halveImage(bpp, width, height, in, inOffset, srcStride, out, 0, dstStride, 0, h);
+            final ByteBuffer d = dst.duplicate();
+            d.position(dstOffset);
+            d.put(out);
+        }
+    }
+
+    /**
+     * Halves the given image using a 2x2 box filter, 
+     * optionally splitting large images into row bands processed by the given executor.
+     * @see #halveImage(int, int, int, ByteBuffer, int, int, ByteBuffer, int, int)
+     */
+    public static void halveImage(final int bpp, final int width, final int height, 
+                                  final byte[] src, final int srcOffset, final int srcStride, 
+                                  final byte[] dst, final int dstOffset, final int dstStride, 
+                                  ExecutorService executor) {
+        final int w = Math.max(1, width / 2);
+        final int h = Math.max(1, height / 2);
+        if( null == executor || w * h < PARALLEL_MIN_PIXELS ) {
+            halveImage(bpp, width, height, src, srcOffset, srcStride, dst, dstOffset, dstStride, 0, h);
+            return;
+        }
+        final int bands = Math.min(h, PARALLEL_BANDS);
+        final List<Callable<Object>> tasks = new ArrayList<Callable<Object>>(bands);
+        for(int b=0; b<bands; b++) {
+            final int rowStart = h * b / bands;
+            final int rowEnd = h * (b+1) / bands;
+            tasks.add(new Callable<Object>() {
+                public Object call() {
+                    halveImage(bpp, width, height, src, srcOffset, srcStride, dst, dstOffset, dstStride, rowStart, rowEnd);
+                    return null;
+                } } );
+        }
+        try {
+            final List<Future<Object>> futures = executor.invokeAll(tasks);
+            for(int i=0; i<futures.size(); i++) {
+                futures.get(i).get();
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new GLException("Interrupted while generating mipmaps", ie);
+        } catch (ExecutionException ee) {
+            throw new GLException("Caught exception while generating mipmaps", ee.getCause());
+        }
+    }
+
+    /** Halves destination rows [rowStart .. rowEnd) of the given image. */
+    private static void halveImage(int bpp, int width, int height, 
+                                   byte[] src, int srcOffset, int srcStride, 
+                                   byte[] dst, int dstOffset, int dstStride, 
+                                   int rowStart, int rowEnd) {
+        final int pairs = width / 2;
+        final int pairBytes = 2 * bpp;
+        for(int y=rowStart; y<rowEnd; y++) {
+            final int r0 = srcOffset + Math.min(2*y, height-1) * srcStride;
+            final int r1 = srcOffset + Math.min(2*y+1, height-1) * srcStride;
+            int d = dstOffset + y * dstStride;
+            if( 0 < pairs ) {
+                final int end = r0 + pairs * pairBytes;
+                for(int s0 = r0, s1 = r1; s0 < end; s0 += bpp, s1 += bpp) {
+                    for(int c=0; c<bpp; c++, s0++, s1++) {
+                        final int sum = ( 0xFF & src[s0] ) + ( 0xFF & src[s0+bpp] ) +
+                                        ( 0xFF & src[s1] ) + ( 0xFF & src[s1+bpp] );
+                        dst[d++] = (byte) ( ( sum + 2 ) >> 2 );
+                    }
+                }
+            } else {
+                // single column
+                for(int c=0; c<bpp; c++) {
+                    final int sum = ( 0xFF & src[r0+c] ) + ( 0xFF & src[r1+c] );
+                    dst[d++] = (byte) ( ( sum + 1 ) >> 1 );
+                }
+            }
+        }
+    }
+
+    private static int getRowStride(int width, int bpp, int rowLength, int alignment) {
+        int stride = ( 0 < rowLength ? rowLength : width ) * bpp;
+        if( 1 < alignment ) {
+            final int remainder = stride % alignment;
+            if( 0 != remainder ) {
+                stride += alignment - remainder;
+            }
+        }
+        return stride;
+    }
+}
@@ -578,11 +578,26 @@ public class Texture {
             }
 
             try {
-                // FIXME: may need check for GLUnsupportedException
-                GLU glu = GLU.createGLU(gl);
-                glu.gluBuild2DMipmaps(texTarget, data.getInternalFormat(),
-                                      data.getWidth(), data.getHeight(),
-                                      data.getPixelFormat(), data.getPixelType(), data.getBuffer());
+                if (isPOT && MipmapGenerator.isSupported(data)) {
+                    // Generate the mipmap chain on the CPU, avoiding GLU's generic buffer access
+                    Buffer[] mipmapData = MipmapGenerator.createMipmapData(data).getMipmapData();
+                    gl.glPixelStorei(GL.GL_UNPACK_ALIGNMENT, 1);
+                    int width = texWidth;
+                    int height = texHeight;
+                    for (int i = 0; i < mipmapData.length; i++) {
+                        gl.glTexImage2D(texTarget, i, data.getInternalFormat(),
+                                        width, height, 0,
+                                        data.getPixelFormat(), data.getPixelType(), mipmapData[i]);
+                        width = Math.max(width / 2, 1);
+                        height = Math.max(height / 2, 1);
+                    }
+                } else {
+                    // FIXME: may need check for GLUnsupportedException
+                    GLU glu = GLU.createGLU(gl);
+                    glu.gluBuild2DMipmaps(texTarget, data.getInternalFormat(),
+                                          data.getWidth(), data.getHeight(),
+                                          data.getPixelFormat(), data.getPixelType(), data.getBuffer());
+                }
             } finally {
                 gl.glPixelStorei(GL.GL_UNPACK_ALIGNMENT, align[0]); // restore alignment
             }
@@ -45,12 +45,18 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 
 import javax.media.opengl.GL;
 import javax.media.opengl.GL2;
@@ -60,6 +66,7 @@ import javax.media.opengl.GLException;
 import javax.media.opengl.GLProfile;
 
 import jogamp.opengl.Debug;
+import jogamp.opengl.util.DaemonThreadPool;
 
 import com.jogamp.common.util.IOUtil;
 import com.jogamp.opengl.util.texture.spi.DDSImage;
@@ -170,6 +177,7 @@ public class TextureIO {
     // is useful for shader writers (thanks to Chris Campbell for this
     // observation)
     private static boolean texRectEnabled = true;
+    private static boolean tgaCompressionEnabled = false;
 
     //----------------------------------------------------------------------
     // methods that *do not* require a current context
@@ -414,6 +422,86 @@ public class TextureIO {
         return newTextureDataImpl(glp, url, internalFormat, pixelFormat, mipmap, fileSuffix);
     }
 
+    //----------------------------------------------------------------------
+    // These methods decode multiple files concurrently on a bounded
+    // pool of worker threads, see {@link #getDecodeThreadCount()}.
+    // They do no OpenGL work either. The same pool compresses large
+    // images written as PNG.
+
+    /**
+     * Creates TextureData from the given files, decoding them concurrently
+     * on the worker pool. Does no OpenGL work.
+     *
+     * @param glp the OpenGL Profile this texture data should be
+     *                  created for.
+     * @param files the files from which to read the texture data
+     * @param mipmap     whether mipmaps should be produced for these
+     *                   textures, see {@link #newTextureData(GLProfile, File, boolean, String)}
+     * @param fileSuffix the suffix of the file names to be used as a
+     *                   hint of the file format to the underlying
+     *                   texture provider, or null if it shall be
+     *                   derived from each file name
+     * @return the texture data in the order of the given files, an
+     *         element is null if none of the registered texture providers
+     *         could read the respective file
+     * @throws IOException if an error occurred while reading one of the files
+     */
+    public static TextureData[] newTextureData(final GLProfile glp, final File[] files,
+                                               final boolean mipmap,
+                                               final String fileSuffix) throws IOException {
+        final ArrayList<Callable<TextureData>> tasks = new ArrayList<Callable<TextureData>>(files.length);
+        for(int i=0; i<files.length; i++) {
+            final File file = files[i];
+            tasks.add(new Callable<TextureData>() {
+                public TextureData call() throws IOException {
+                    return newTextureData(glp, file, mipmap, fileSuffix);
+                } } );
+        }
+        return invokeDecodeTasks(tasks);
+    }
+
+    /**
+     * Creates TextureData from the given URLs, decoding them concurrently
+     * on the worker pool. Does no OpenGL work.
+     *
+     * @param glp the OpenGL Profile this texture data should be
+     *                  created for.
+     * @param urls the URLs from which to read the texture data
+     * @param mipmap     whether mipmaps should be produced for these
+     *                   textures, see {@link #newTextureData(GLProfile, URL, boolean, String)}
+     * @param fileSuffix the suffix of the file names to be used as a
+     *                   hint of the file format to the underlying
+     *                   texture provider, or null if it shall be
+     *                   derived from each URL
+     * @return the texture data in the order of the given URLs, an
+     *         element is null if none of the registered texture providers
+     *         could read the respective URL
+     * @throws IOException if an error occurred while reading one of the URLs
+     */
+    public static TextureData[] newTextureData(final GLProfile glp, final URL[] urls,
+                                               final boolean mipmap,
+                                               final String fileSuffix) throws IOException {
+        final ArrayList<Callable<TextureData>> tasks = new ArrayList<Callable<TextureData>>(urls.length);
+        for(int i=0; i<urls.length; i++) {
+            final URL url = urls[i];
+            tasks.add(new Callable<TextureData>() {
+                public TextureData call() throws IOException {
+                    return newTextureData(glp, url, mipmap, fileSuffix);
+                } } );
+        }
+        return invokeDecodeTasks(tasks);
+    }
+
+    /**
+     * Returns the maximum number of worker threads used to decode
+     * multiple textures concurrently, which defaults to the number of
+     * available processors and may be set via the property
+     * <code>jogl.textureio.threads</code>.
+     */
+    public static int getDecodeThreadCount() {
+        return decodeThreadCount;
+    }
+
     //----------------------------------------------------------------------
     // methods that *do* require a current context
     //
@@ -761,6 +849,20 @@ public class TextureIO {
         return texRectEnabled;
     }
 
+    /** Toggles run-length encoding of Targa (.tga) files written by
+        the TextureIO classes. Screenshots and other images with large
+        uniform areas typically shrink considerably. The default is
+        that images are written uncompressed. */
+    public static void setTGACompressionEnabled(boolean enabled) {
+        tgaCompressionEnabled = enabled;
+    }
+
+    /** Indicates whether Targa files are written run-length encoded;
+        see {@link #setTGACompressionEnabled setTGACompressionEnabled}. */
+    public static boolean isTGACompressionEnabled() {
+        return tgaCompressionEnabled;
+    }
+
     //----------------------------------------------------------------------
     // Internals only below this point
     //
@@ -768,6 +870,76 @@ public class TextureIO {
     private static List<TextureProvider> textureProviders = new ArrayList<TextureProvider>();
     private static List<TextureWriter>   textureWriters   = new ArrayList<TextureWriter>();
 
+    private static final int decodeThreadCount;
+    private static final int PARALLEL_PNG_WRITE_MIN_PIXELS = 256 * 256;
+    private static ExecutorService decodeExecutor;
+
+    static {
+        int n = Runtime.getRuntime().availableProcessors();
+        final String s = Debug.getProperty("jogl.textureio.threads", true);
+        if( null != s ) {
+            try {
+                n = Integer.parseInt(s);
+            } catch (NumberFormatException nfe) {
+                if (DEBUG) {
+                    nfe.printStackTrace();
+                }
+            }
+        }
+        decodeThreadCount = Math.max(1, n);
+    }
+
+    /** Lazily creates the shared pool of daemon worker threads, which terminate when idle. */
+    static synchronized ExecutorService getDecodeExecutor() {
+        if( null == decodeExecutor ) {
+            decodeExecutor = DaemonThreadPool.create("TextureIO-Decoder", decodeThreadCount, 5, new LinkedBlockingQueue<Runnable>());
+        }
+        return decodeExecutor;
+    }
+
+    private static TextureData[] invokeDecodeTasks(List<Callable<TextureData>> tasks) throws IOException {
+        final TextureData[] res = new TextureData[tasks.size()];
+        if( 1 >= tasks.size() || 1 == decodeThreadCount ) {
+            // no concurrency, decode on the calling thread
+            for(int i=0; i<res.length; i++) {
+                try {
+                    res[i] = tasks.get(i).call();
+                } catch (IOException ioe) {
+                    throw ioe;
+                } catch (RuntimeException re) {
+                    throw re;
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            return res;
+        }
+        final List<Future<TextureData>> futures;
+        try {
+            futures = getDecodeExecutor().invokeAll(tasks);
+        } catch (InterruptedException ie) {
+            throw (IOException) new IOException("Interrupted while decoding textures").initCause(ie);
+        }
+        for(int i=0; i<res.length; i++) {
+            try {
+                res[i] = futures.get(i).get();
+            } catch (InterruptedException ie) {
+                throw (IOException) new IOException("Interrupted while decoding textures").initCause(ie);
+            } catch (ExecutionException ee) {
+                final Throwable t = ee.getCause();
+                if( t instanceof IOException ) {
+                    throw (IOException) t;
+                } else if( t instanceof RuntimeException ) {
+                    throw (RuntimeException) t;
+                } else if( t instanceof Error ) {
+                    throw (Error) t;
+                }
+                throw new RuntimeException(t);
+            }
+        }
+        return res;
+    }
+
     static {
         // ImageIO provider, the fall-back, must be the first one added
         if(GLProfile.isAWTAvailable()) {
@@ -900,8 +1072,23 @@ public class TextureIO {
     }
 
     //----------------------------------------------------------------------
-    // DDS provider -- supports files only for now
+    // DDS provider -- files and file URLs are memory-mapped and their
+    // mipmap levels handed to TextureData without copying
     static class DDSTextureProvider implements TextureProvider {
+        // Compressed internal formats not exposed by all GL profiles
+        private static final int GL_COMPRESSED_SRGB_ALPHA_S3TC_DXT1_EXT     = 0x8C4D;
+        private static final int GL_COMPRESSED_SRGB_ALPHA_S3TC_DXT3_EXT     = 0x8C4E;
+        private static final int GL_COMPRESSED_SRGB_ALPHA_S3TC_DXT5_EXT     = 0x8C4F;
+        private static final int GL_COMPRESSED_RED_RGTC1                    = 0x8DBB;
+        private static final int GL_COMPRESSED_SIGNED_RED_RGTC1             = 0x8DBC;
+        private static final int GL_COMPRESSED_RG_RGTC2                     = 0x8DBD;
+        private static final int GL_COMPRESSED_SIGNED_RG_RGTC2              = 0x8DBE;
+        private static final int GL_COMPRESSED_RGBA_BPTC_UNORM              = 0x8E8C;
+        private static final int GL_COMPRESSED_SRGB_ALPHA_BPTC_UNORM        = 0x8E8D;
+        private static final int GL_COMPRESSED_RGB_BPTC_SIGNED_FLOAT        = 0x8E8E;
+        private static final int GL_COMPRESSED_RGB_BPTC_UNSIGNED_FLOAT      = 0x8E8F;
+        private static final int GL_SRGB8_ALPHA8                            = 0x8C43;
+
         public TextureData newTextureData(GLProfile glp, File file,
                                           int internalFormat,
                                           int pixelFormat,
@@ -923,8 +1110,8 @@ public class TextureIO {
                                           String fileSuffix) throws IOException {
             if (DDS.equals(fileSuffix) ||
                 DDSImage.isDDSImage(stream)) {
-                byte[] data = IOUtil.copyStream2ByteArray(stream);
-                ByteBuffer buf = ByteBuffer.wrap(data);
+                // direct, so the compressed levels are uploaded w/o further copies
+                ByteBuffer buf = IOUtil.copyStream2ByteBuffer(stream);
                 DDSImage image = DDSImage.read(buf);
                 return newTextureData(glp, image, internalFormat, pixelFormat, mipmap);
             }
@@ -937,6 +1124,19 @@ public class TextureIO {
                                           int pixelFormat,
                                           boolean mipmap,
                                           String fileSuffix) throws IOException {
+            if ("file".equals(url.getProtocol())) {
+                File file = null;
+                try {
+                    file = new File(url.toURI());
+                } catch (URISyntaxException use) {
+                    // fall back to the stream
+                } catch (IllegalArgumentException iae) {
+                    // fall back to the stream
+                }
+                if (null != file && file.isFile()) {
+                    return newTextureData(glp, file, internalFormat, pixelFormat, mipmap, fileSuffix);
+                }
+            }
             InputStream stream = new BufferedInputStream(url.openStream());
             try {
                 return newTextureData(glp, stream, internalFormat, pixelFormat, mipmap, fileSuffix);
@@ -960,7 +1160,9 @@ public class TextureIO {
                     break;
                 }
             }
-            if (info.isCompressed()) {
+            if (image.hasDX10Header()) {
+                internalFormat = getDX10InternalFormat(image, internalFormat);
+            } else if (info.isCompressed()) {
                 switch (info.getCompressionFormat()) {
                 case DDSImage.D3DFMT_DXT1:
                     internalFormat = GL.GL_COMPRESSED_RGB_S3TC_DXT1_EXT;
@@ -993,10 +1195,8 @@ public class TextureIO {
                 };
             TextureData data;
             if (mipmap && image.getNumMipMaps() > 0) {
-                Buffer[] mipmapData = new Buffer[image.getNumMipMaps()];
-                for (int i = 0; i < image.getNumMipMaps(); i++) {
-                    mipmapData[i] = image.getMipMap(i).getData();
-                }
+                // zero-copy slices of the (mapped) file
+                Buffer[] mipmapData = image.getMipMapData(0);
                 data = new TextureData(glp, internalFormat,
                                        info.getWidth(),
                                        info.getHeight(),
@@ -1025,6 +1225,34 @@ public class TextureIO {
             }
             return data;
         }
+
+        /** Maps the DXGI format of a DX10 extended header to the GL
+            internal format, keeping a user supplied uncompressed one. */
+        private static int getDX10InternalFormat(DDSImage image, int internalFormat) {
+            final int dxgiFormat = image.getDXGIFormat();
+            switch (dxgiFormat) {
+            case DDSImage.DXGI_FORMAT_BC1_UNORM:      return GL.GL_COMPRESSED_RGBA_S3TC_DXT1_EXT;
+            case DDSImage.DXGI_FORMAT_BC1_UNORM_SRGB: return GL_COMPRESSED_SRGB_ALPHA_S3TC_DXT1_EXT;
+            case DDSImage.DXGI_FORMAT_BC2_UNORM:      return GL.GL_COMPRESSED_RGBA_S3TC_DXT3_EXT;
+            case DDSImage.DXGI_FORMAT_BC2_UNORM_SRGB: return GL_COMPRESSED_SRGB_ALPHA_S3TC_DXT3_EXT;
+            case DDSImage.DXGI_FORMAT_BC3_UNORM:      return GL.GL_COMPRESSED_RGBA_S3TC_DXT5_EXT;
+            case DDSImage.DXGI_FORMAT_BC3_UNORM_SRGB: return GL_COMPRESSED_SRGB_ALPHA_S3TC_DXT5_EXT;
+            case DDSImage.DXGI_FORMAT_BC4_UNORM:      return GL_COMPRESSED_RED_RGTC1;
+            case DDSImage.DXGI_FORMAT_BC4_SNORM:      return GL_COMPRESSED_SIGNED_RED_RGTC1;
+            case DDSImage.DXGI_FORMAT_BC5_UNORM:      return GL_COMPRESSED_RG_RGTC2;
+            case DDSImage.DXGI_FORMAT_BC5_SNORM:      return GL_COMPRESSED_SIGNED_RG_RGTC2;
+            case DDSImage.DXGI_FORMAT_BC6H_UF16:      return GL_COMPRESSED_RGB_BPTC_UNSIGNED_FLOAT;
+            case DDSImage.DXGI_FORMAT_BC6H_SF16:      return GL_COMPRESSED_RGB_BPTC_SIGNED_FLOAT;
+            case DDSImage.DXGI_FORMAT_BC7_UNORM:      return GL_COMPRESSED_RGBA_BPTC_UNORM;
+            case DDSImage.DXGI_FORMAT_BC7_UNORM_SRGB: return GL_COMPRESSED_SRGB_ALPHA_BPTC_UNORM;
+            case DDSImage.DXGI_FORMAT_R8G8B8A8_UNORM:
+                return 0 != internalFormat ? internalFormat : GL.GL_RGBA;
+            case DDSImage.DXGI_FORMAT_R8G8B8A8_UNORM_SRGB:
+                return 0 != internalFormat ? internalFormat : GL_SRGB8_ALPHA8;
+            default:
+                throw new RuntimeException("Unsupported DDS DX10 DXGI format " + dxgiFormat);
+            }
+        }
     }
 
     //----------------------------------------------------------------------
@@ -1102,38 +1330,68 @@ public class TextureIO {
     //----------------------------------------------------------------------
     // TGA (Targa) image provider
     static class TGATextureProvider extends StreamBasedTextureProvider {
+        public TextureData newTextureData(GLProfile glp, File file,
+                                          int internalFormat,
+                                          int pixelFormat,
+                                          boolean mipmap,
+                                          String fileSuffix) throws IOException {
+            if (TGA.equals((fileSuffix != null) ? fileSuffix : IOUtil.getFileSuffix(file))) {
+                // memory mapped, decoded w/o intermediate copies
+                return newTextureData(glp, TGAImage.read(glp, file), internalFormat, pixelFormat, mipmap);
+            }
+            return null;
+        }
+
         public TextureData newTextureData(GLProfile glp, InputStream stream,
                                           int internalFormat,
                                           int pixelFormat,
                                           boolean mipmap,
                                           String fileSuffix) throws IOException {
             if (TGA.equals(fileSuffix)) {
-                TGAImage image = TGAImage.read(glp, stream);
-                if (pixelFormat == 0) {
-                    pixelFormat = image.getGLFormat();
-                }
-                if (internalFormat == 0) {
-                    if(glp.isGL2GL3()) {
-                        internalFormat = (image.getBytesPerPixel()==4)?GL.GL_RGBA8:GL.GL_RGB8;
-                    } else {
-                        internalFormat = (image.getBytesPerPixel()==4)?GL.GL_RGBA:GL.GL_RGB;
-                    }
-                }
-                return new TextureData(glp, internalFormat,
-                                       image.getWidth(),
-                                       image.getHeight(),
-                                       0,
-                                       pixelFormat,
-                                       GL.GL_UNSIGNED_BYTE,
-                                       mipmap,
-                                       false,
-                                       false,
-                                       image.getData(),
-                                       null);
+                return newTextureData(glp, TGAImage.read(glp, stream), internalFormat, pixelFormat, mipmap);
             }
 
             return null;
         }
+
+        private TextureData newTextureData(GLProfile glp, TGAImage image,
+                                           int internalFormat,
+                                           int pixelFormat,
+                                           boolean mipmap) {
+            if (pixelFormat == 0) {
+                pixelFormat = image.getGLFormat();
+            }
+            if (internalFormat == 0) {
+                final boolean is16Bit = GL.GL_UNSIGNED_SHORT == image.getGLType();
+                switch(image.getGLFormat()) {
+                    case GL.GL_RGBA:
+                        internalFormat = glp.isGL2GL3() ? ( is16Bit ? GL2GL3.GL_RGBA16 : GL.GL_RGBA8 ) : GL.GL_RGBA;
+                        break;
+                    case GL.GL_BGRA:
+                        // ES w/ GL_EXT_texture_format_BGRA8888 requires a matching internal format
+                        internalFormat = glp.isGL2GL3() ? GL.GL_RGBA8 : GL.GL_BGRA;
+                        break;
+                    case GL.GL_RGB:
+                    case GL2GL3.GL_BGR: // GL2GL3 only
+                        internalFormat = glp.isGL2GL3() ? ( is16Bit ? GL2GL3.GL_RGB16 : GL.GL_RGB8 ) : GL.GL_RGB;
+                        break;
+                    default:
+                        // GL_LUMINANCE, GL_LUMINANCE_ALPHA
+                        internalFormat = image.getGLFormat();
+                }
+            }
+            return new TextureData(glp, internalFormat,
+                                   image.getWidth(),
+                                   image.getHeight(),
+                                   0,
+                                   pixelFormat,
+                                   GL.GL_UNSIGNED_BYTE,
+                                   mipmap,
+                                   false,
+                                   false,
+                                   image.getData(),
+                                   null);
+        }
     }
 
     //----------------------------------------------------------------------
@@ -1150,10 +1408,18 @@ public class TextureIO {
                     pixelFormat = image.getGLFormat();
                 }
                 if (internalFormat == 0) {
-                    if(glp.isGL2GL3()) {
-                        internalFormat = (image.getBytesPerPixel()==4)?GL.GL_RGBA8:GL.GL_RGB8;
-                    } else {
-                        internalFormat = (image.getBytesPerPixel()==4)?GL.GL_RGBA:GL.GL_RGB;
+                    final boolean is16Bit = GL.GL_UNSIGNED_SHORT == image.getGLType();
+                    switch(image.getGLFormat()) {
+                        case GL.GL_RGBA:
+                            internalFormat = glp.isGL2GL3() ? ( is16Bit ? GL2GL3.GL_RGBA16 : GL.GL_RGBA8 ) : GL.GL_RGBA;
+                            break;
+                        case GL.GL_RGB:
+                            internalFormat = glp.isGL2GL3() ? ( is16Bit ? GL2GL3.GL_RGB16 : GL.GL_RGB8 ) : GL.GL_RGB;
+                            break;
+                        default:
+                            // GL_LUMINANCE, GL_LUMINANCE_ALPHA: 
+                            // unsized on GL2GL3, ES requires the internal format to match the pixel format
+                            internalFormat = image.getGLFormat();
                     }
                 }
                 return new TextureData(glp, internalFormat,
@@ -1291,19 +1557,13 @@ public class TextureIO {
                     
                     if( pixelFormat == GL.GL_RGB || pixelFormat == GL.GL_RGBA ) { 
                         // Must reverse order of red and blue channels to get correct results
-                        int skip = ((pixelFormat == GL.GL_RGB) ? 3 : 4);
-                        for (int i = 0; i < buf.remaining(); i += skip) {
-                            byte red  = buf.get(i + 0);
-                            byte blue = buf.get(i + 2);
-                            buf.put(i + 0, blue);
-                            buf.put(i + 2, red);
-                        }
+                        TGAImage.swapBGR(buf, (pixelFormat == GL.GL_RGB) ? 3 : 4);
                     }
 
                     TGAImage image = TGAImage.createFromData(data.getWidth(),
                                                              data.getHeight(),
                                                              (pixelFormat == GL.GL_RGBA || pixelFormat == GL.GL_BGRA),
-                                                             false, buf);
+                                                             false, tgaCompressionEnabled, buf);
                     image.write(file);
                     return true;
                 }
@@ -1362,7 +1622,10 @@ public class TextureIO {
                     
                     PNGImage image = PNGImage.createFromData(data.getWidth(), data.getHeight(), -1f, -1f,
                                                              bytesPerPixel, reversedChannels, buf);
-                    image.write(file, true);
+                    // compress row blocks concurrently, if worthwhile
+                    final boolean parallel = 1 < decodeThreadCount &&
+                                             PARALLEL_PNG_WRITE_MIN_PIXELS <= data.getWidth() * data.getHeight();
+                    image.write(file, true, parallel ? getDecodeExecutor() : null);
                     return true;
                 }
                 throw new IOException("PNG writer doesn't support this pixel format 0x"+Integer.toHexString(pixelFormat)+
@@ -0,0 +1,490 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util.texture;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GLException;
+import javax.media.opengl.GLProfile;
+
+/**
+ * Asynchronous texture loader, decoding {@link TextureData} on a worker pool
+ * and uploading the decoded data on the GL thread in bounded slices.
+ * <p>
+ * Decoding uses the {@link TextureIO} texture providers on the shared {@link TextureIO} worker pool,
+ * see {@link TextureIO#getDecodeThreadCount()}, or on a user supplied executor.
+ * Decoded data is queued until {@link #upload(GL)} is called on the GL thread, 
+ * usually once per frame from within {@link javax.media.opengl.GLEventListener#display(javax.media.opengl.GLAutoDrawable) display}.
+ * Each {@link #upload(GL)} call stops after exceeding its {@link #setUploadBudget(long, int) time or byte budget}.
+ * Large uncompressed textures w/o mipmaps are uploaded in row bands spanning multiple calls.
+ * </p>
+ * <p>
+ * Completion is signaled via the returned {@link Future} and the optional {@link Listener},
+ * which is always called on the GL thread from within {@link #upload(GL)}.
+ * Waiting on a returned {@link Future} on the GL thread driving {@link #upload(GL)} would block forever.
+ * A {@link Listener} throwing an exception does not abort the batch, 
+ * the exception is rethrown by {@link #upload(GL)} after the batch has been processed.
+ * </p>
+ */
+public class TextureLoader {
+
+    /** Notified on the GL thread from within {@link TextureLoader#upload(GL)}. */
+    public static interface Listener {
+        /** The texture of the given source has been created and uploaded completely. */
+        void textureLoaded(Object source, Texture texture);
+
+        /** Decoding or uploading the texture of the given source failed. */
+        void textureFailed(Object source, Throwable cause);
+    }
+
+    private final GLProfile glp;
+    private final ExecutorService executor;
+    private final ConcurrentLinkedQueue<Request> readyQueue = new ConcurrentLinkedQueue<Request>();
+    /** Requests submitted for decoding and not yet decoded, cancelled by {@link #dispose(GL)}. */
+    private final Set<Request> decoding = Collections.newSetFromMap(new ConcurrentHashMap<Request, Boolean>());
+    private final AtomicInteger pendingDecodes = new AtomicInteger();
+    private final AtomicInteger pendingUploads = new AtomicInteger();
+    private volatile long uploadBudgetNanos = 4000000L;
+    private volatile int uploadBudgetBytes = 4 * 1024 * 1024;
+    private volatile boolean precomputeMipmaps = false;
+    /** Partially uploaded request, only accessed on the GL thread. */
+    private Request current = null;
+
+    /**
+     * Creates a loader decoding on the shared {@link TextureIO} worker pool.
+     * @param glp the OpenGL Profile the texture data shall be created for
+     */
+    public TextureLoader(GLProfile glp) {
+        this(glp, TextureIO.getDecodeExecutor());
+    }
+
+    /**
+     * Creates a loader decoding on the given executor.
+     * @param glp the OpenGL Profile the texture data shall be created for
+     * @param executor the executor running the decode tasks
+     */
+    public TextureLoader(GLProfile glp, ExecutorService executor) {
+        if( null == executor ) {
+            throw new IllegalArgumentException("Null executor");
+        }
+        this.glp = glp;
+        this.executor = executor;
+    }
+
+    /**
+     * Sets the budget of a single {@link #upload(GL)} call. 
+     * The call returns as soon as one of both is exceeded, 
+     * however, at least one slice is uploaded per call to guarantee progress.
+     * @param nanos time budget in nanoseconds, defaults to 4ms
+     * @param bytes byte budget, defaults to 4 MiB
+     */
+    public void setUploadBudget(long nanos, int bytes) {
+        uploadBudgetNanos = Math.max(0, nanos);
+        uploadBudgetBytes = Math.max(1, bytes);
+    }
+
+    /** Returns the time budget of a single {@link #upload(GL)} call in nanoseconds. */
+    public long getUploadBudgetNanos() { return uploadBudgetNanos; }
+
+    /** Returns the byte budget of a single {@link #upload(GL)} call. */
+    public int getUploadBudgetBytes() { return uploadBudgetBytes; }
+
+    /**
+     * If enabled, the mipmaps of data requesting {@link TextureData#getMipmap() mipmaps}
+     * are generated on the worker thread via {@link MipmapGenerator}, if supported.
+     * Otherwise mipmap generation is left to {@link Texture} on the GL thread, which is the default.
+     */
+    public void setPrecomputeMipmaps(boolean v) { precomputeMipmaps = v; }
+
+    /** Returns whether mipmaps are generated on the worker thread, see {@link #setPrecomputeMipmaps(boolean)}. */
+    public boolean getPrecomputeMipmaps() { return precomputeMipmaps; }
+
+    /** Returns the number of requests still being decoded. */
+    public int getPendingDecodeCount() { return pendingDecodes.get(); }
+
+    /** Returns the number of decoded requests waiting for or being in upload. */
+    public int getPendingUploadCount() { return pendingUploads.get(); }
+
+    /** Returns true if no request is being decoded nor waiting for upload. */
+    public boolean isIdle() { return 0 == pendingDecodes.get() && 0 == pendingUploads.get(); }
+
+    /**
+     * Loads the texture from the given file asynchronously, see {@link TextureIO#newTextureData(GLProfile, File, boolean, String)}.
+     * @param listener optional listener, may be <code>null</code>
+     */
+    public Future<Texture> load(final File file, final boolean mipmap, final String fileSuffix, Listener listener) {
+        return load(file, new Callable<TextureData>() {
+            public TextureData call() throws IOException {
+                return TextureIO.newTextureData(glp, file, mipmap, fileSuffix);
+            } }, listener);
+    }
+
+    /**
+     * Loads the texture from the given URL asynchronously, see {@link TextureIO#newTextureData(GLProfile, URL, boolean, String)}.
+     * @param listener optional listener, may be <code>null</code>
+     */
+    public Future<Texture> load(final URL url, final boolean mipmap, final String fileSuffix, Listener listener) {
+        return load(url, new Callable<TextureData>() {
+            public TextureData call() throws IOException {
+                return TextureIO.newTextureData(glp, url, mipmap, fileSuffix);
+            } }, listener);
+    }
+
+    /**
+     * Loads a texture asynchronously using a custom decoder.
+     * @param source the source passed to the listener
+     * @param decoder called on a worker thread, shall return the decoded data or <code>null</code> if the format is unknown
+     * @param listener optional listener, may be <code>null</code>
+     */
+    public Future<Texture> load(Object source, final Callable<TextureData> decoder, Listener listener) {
+        final Request req = new Request(source, listener);
+        pendingDecodes.incrementAndGet();
+        decoding.add(req);
+        executor.execute(new Runnable() {
+            public void run() {
+                try {
+                    if( !req.isCancelled() ) {
+                        decode(req, decoder);
+                    }
+                } finally {
+                    decoding.remove(req);
+                    pendingDecodes.decrementAndGet();
+                }
+                if( !req.isCancelled() ) {
+                    pendingUploads.incrementAndGet();
+                    readyQueue.add(req);
+                    if( req.isCancelled() && readyQueue.remove(req) ) {
+                        // cancelled concurrently, e.g. by dispose(..) after draining the queue
+                        pendingUploads.decrementAndGet();
+                        dropDecoded(req);
+                    }
+                } else {
+                    dropDecoded(req);
+                }
+            } } );
+        return req;
+    }
+
+    /**
+     * Queues the already decoded data for upload.
+     * @param listener optional listener, may be <code>null</code>
+     */
+    public Future<Texture> load(TextureData data, Listener listener) {
+        final Request req = new Request(data, listener);
+        req.data = data;
+        req.sourceData = data;
+        pendingUploads.incrementAndGet();
+        readyQueue.add(req);
+        return req;
+    }
+
+    private static void dropDecoded(Request req) {
+        if( null != req.sourceData ) {
+            req.sourceData.flush();
+        }
+        req.data = null;
+        req.sourceData = null;
+    }
+
+    private void decode(Request req, Callable<TextureData> decoder) {
+        try {
+            final TextureData data = decoder.call();
+            if( null == data ) {
+                throw new IOException("No suitable reader for given source: "+req.source);
+            }
+            req.sourceData = data;
+            if( precomputeMipmaps && data.getMipmap() && MipmapGenerator.isSupported(data) ) {
+                req.data = MipmapGenerator.createMipmapData(data);
+            } else {
+                req.data = data;
+            }
+        } catch (Throwable t) {
+            req.error = t;
+        }
+    }
+
+    /**
+     * Uploads queued texture data, must be called on the GL thread w/ the given GL context current.
+     * <p>
+     * Returns after the {@link #setUploadBudget(long, int) budget} is exceeded or the queue is empty. 
+     * Completed and failed requests are signaled to their {@link Listener} from within this call.
+     * </p>
+     * @return the number of requests completed or failed by this call
+     * @throws GLException if a {@link Listener} threw an exception, which is the cause. 
+     *         Thrown after the batch has been processed.
+     */
+    public int upload(GL gl) throws GLException {
+        final long t0 = System.nanoTime();
+        final long budgetNanos = uploadBudgetNanos;
+        final int budgetBytes = uploadBudgetBytes;
+        long bytes = 0;
+        int done = 0;
+        Throwable listenerError = null;
+        do {
+            if( null == current ) {
+                current = readyQueue.poll();
+                if( null == current ) {
+                    break;
+                }
+            }
+            final Request req = current;
+            if( req.isCancelled() ) {
+                disposeRequest(gl, req);
+                continue;
+            }
+            if( null == req.error ) {
+                try {
+                    bytes += uploadSlice(gl, req, budgetBytes - bytes);
+                } catch (Throwable t) {
+                    req.error = t;
+                }
+            }
+            try {
+                if( null != req.error ) {
+                    disposeRequest(gl, req);
+                    done++;
+                    req.setFailed();
+                } else if( req.isUploaded() ) {
+                    releaseRequest(req);
+                    done++;
+                    req.setDone();
+                }
+            } catch (Throwable t) {
+                if( null == listenerError ) {
+                    listenerError = t;
+                }
+            }
+        } while( bytes < budgetBytes && System.nanoTime() - t0 < budgetNanos );
+        if( null != listenerError ) {
+            throw new GLException("TextureLoader.Listener failed", listenerError);
+        }
+        return done;
+    }
+
+    /**
+     * Cancels all pending requests and releases partially uploaded textures, 
+     * must be called on the GL thread w/ the given GL context current.
+     * Requests waiting for a decode worker are cancelled and never decoded,
+     * requests currently being decoded are cancelled and dropped once decoded.
+     */
+    public void dispose(GL gl) {
+        for(Iterator<Request> it = decoding.iterator(); it.hasNext(); ) {
+            it.next().cancel(false);
+        }
+        if( null != current ) {
+            current.cancel(false);
+            disposeRequest(gl, current);
+        }
+        Request req;
+        while( null != ( req = readyQueue.poll() ) ) {
+            current = req;
+            req.cancel(false);
+            disposeRequest(gl, req);
+        }
+    }
+
+    private void releaseRequest(Request req) {
+        if( null != req.sourceData ) {
+            req.sourceData.flush();
+        }
+        req.data = null;
+        req.sourceData = null;
+        current = null;
+        pendingUploads.decrementAndGet();
+    }
+
+    private void disposeRequest(GL gl, Request req) {
+        if( null != req.texture ) {
+            try {
+                req.texture.destroy(gl);
+            } catch (GLException gle) { }
+            req.texture = null;
+        }
+        releaseRequest(req);
+    }
+
+    private static boolean isSliceable(TextureData data) {
+        return !data.isDataCompressed() && !data.getMipmap() &&
+               null == data.getMipmapData() && null != data.getBuffer() &&
+               0 == data.getBorder() && 1 < data.getHeight();
+    }
+
+    /** Uploads the next slice of the given request, returns the estimated number of bytes uploaded. */
+    private int uploadSlice(GL gl, Request req, long remainingBytes) {
+        final TextureData data = req.data;
+        final int size = data.getEstimatedMemorySize();
+        if( null == req.texture ) {
+            if( !isSliceable(data) || size <= remainingBytes ) {
+                req.texture = createTexture(gl, data);
+                if( null != data.getMipmapData() && 1 < data.getMipmapData().length ) {
+                    // levels were precomputed, see setPrecomputeMipmaps(..)
+                    setMipmapFilter(gl, req.texture);
+                }
+                req.uploadedRows = data.getHeight();
+                return size;
+            }
+            // allocate the storage only, filled in row bands below
+            req.texture = createTexture(gl, new TextureData(data.getGLProfile(), data.getInternalFormat(), 
+                                                            data.getWidth(), data.getHeight(), 0, 
+                                                            data.getPixelFormat(), data.getPixelType(), 
+                                                            false, false, data.getMustFlipVertically(), null, null));
+        }
+        final int height = data.getHeight();
+        final int rowBytes = Math.max(1, size / height);
+        final int rows = (int) Math.max(1, Math.min(height - req.uploadedRows, remainingBytes / rowBytes));
+        updateRows(gl, req.texture, data, req.uploadedRows, rows);
+        req.uploadedRows += rows;
+        return rows * rowBytes;
+    }
+
+    /** Creates the texture object from the given data, see {@link Texture#Texture(GL, TextureData)}. */
+    protected Texture createTexture(GL gl, TextureData data) {
+        return new Texture(gl, data);
+    }
+
+    /** Updates the given rows of the texture, see {@link Texture#updateSubImage(GL, TextureData, int, int, int, int, int, int, int)}. */
+    protected void updateRows(GL gl, Texture texture, TextureData data, int y, int rows) {
+        texture.updateSubImage(gl, data, 0, 0, y, 0, y, data.getWidth(), rows);
+    }
+
+    /** Selects trilinear filtering for a texture w/ precomputed mipmap levels. */
+    protected void setMipmapFilter(GL gl, Texture texture) {
+        texture.setTexParameteri(gl, GL.GL_TEXTURE_MIN_FILTER, GL.GL_LINEAR_MIPMAP_LINEAR);
+    }
+
+    private static final int PENDING = 0, DONE = 1, FAILED = 2, CANCELLED = 3;
+
+    private static class Request implements Future<Texture> {
+        final Object source;
+        final Listener listener;
+        volatile TextureData data;
+        volatile TextureData sourceData;
+        volatile Throwable error;
+        Texture texture;
+        int uploadedRows;
+        private int state = PENDING;
+        private Texture result;
+
+        Request(Object source, Listener listener) {
+            this.source = source;
+            this.listener = listener;
+        }
+
+        boolean isUploaded() {
+            return null != texture && uploadedRows >= data.getHeight();
+        }
+
+        void setDone() {
+            final Texture t = texture;
+            texture = null;
+            synchronized(this) {
+                if( PENDING != state ) {
+                    return;
+                }
+                result = t;
+                state = DONE;
+                notifyAll();
+            }
+            if( null != listener ) {
+                listener.textureLoaded(source, t);
+            }
+        }
+
+        void setFailed() {
+            synchronized(this) {
+                if( PENDING != state ) {
+                    return;
+                }
+                state = FAILED;
+                notifyAll();
+            }
+            if( null != listener ) {
+                listener.textureFailed(source, error);
+            }
+        }
+
+        public synchronized boolean cancel(boolean mayInterruptIfRunning) {
+            if( PENDING != state ) {
+                return false;
+            }
+            state = CANCELLED;
+            notifyAll();
+            return true;
+        }
+
+        public synchronized boolean isCancelled() { return CANCELLED == state; }
+
+        public synchronized boolean isDone() { return PENDING != state; }
+
+        public synchronized Texture get() throws InterruptedException, ExecutionException {
+            while( PENDING == state ) {
+                wait();
+            }
+            return getResult();
+        }
+
+        public synchronized Texture get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            final long deadline = System.nanoTime() + unit.toNanos(timeout);
+            while( PENDING == state ) {
+                final long left = deadline - System.nanoTime();
+                if( 0 >= left ) {
+                    throw new TimeoutException("Texture not loaded: "+source);
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, left);
+            }
+            return getResult();
+        }
+
+        private Texture getResult() throws ExecutionException {
+            switch( state ) {
+                case CANCELLED:
+                    throw new CancellationException("Texture loading cancelled: "+source);
+                case FAILED:
+                    throw new ExecutionException("Texture loading failed: "+source, error);
+                default:
+                    return result;
+            }
+        }
+    }
+}
@@ -58,7 +58,14 @@ import com.jogamp.opengl.util.GLBuffers;
 /** A reader and writer for DirectDraw Surface (.dds) files, which are
     used to describe textures. These files can contain multiple mipmap
     levels in one file. This class is currently minimal and does not
-    support all of the possible file formats. */
+    support all of the possible file formats. <P>
+
+    Files read via {@link #read(File)} are memory-mapped, and the
+    buffers returned by {@link #getMipMap(int, int)} are slices of that
+    mapping, i.e. mipmap levels and cubemap faces are handed out
+    without copying. Files carrying the DX10 extended header are
+    supported for the block compressed DXGI formats BC1 through BC7;
+    only the first element of a texture array is exposed. */
 
 public class DDSImage {
 
@@ -143,6 +150,10 @@ public class DDSImage {
     public static final int DDSCAPS2_CUBEMAP_NEGATIVEY = 0x00002000;
     public static final int DDSCAPS2_CUBEMAP_POSITIVEZ = 0x00004000;
     public static final int DDSCAPS2_CUBEMAP_NEGATIVEZ = 0x00008000;
+    public static final int DDSCAPS2_CUBEMAP_ALLFACES  = 0x0000FC00;
+
+    // Selected bits in the DX10 extended header's misc flags
+    public static final int DDS_RESOURCE_MISC_TEXTURECUBE = 0x00000004;
 
     // Known pixel formats
     public static final int D3DFMT_UNKNOWN   =  0;
@@ -155,6 +166,28 @@ public class DDSImage {
     public static final int D3DFMT_DXT3      =  0x33545844;
     public static final int D3DFMT_DXT4      =  0x34545844;
     public static final int D3DFMT_DXT5      =  0x35545844;
+    /** FourCC code announcing the DX10 extended header; the actual
+        format is then given by {@link #getDXGIFormat}. */
+    public static final int D3DFMT_DX10      =  0x30315844;
+
+    // Known DXGI formats of the DX10 extended header
+    public static final int DXGI_FORMAT_UNKNOWN             =  0;
+    public static final int DXGI_FORMAT_R8G8B8A8_UNORM      = 28;
+    public static final int DXGI_FORMAT_R8G8B8A8_UNORM_SRGB = 29;
+    public static final int DXGI_FORMAT_BC1_UNORM           = 71;
+    public static final int DXGI_FORMAT_BC1_UNORM_SRGB      = 72;
+    public static final int DXGI_FORMAT_BC2_UNORM           = 74;
+    public static final int DXGI_FORMAT_BC2_UNORM_SRGB      = 75;
+    public static final int DXGI_FORMAT_BC3_UNORM           = 77;
+    public static final int DXGI_FORMAT_BC3_UNORM_SRGB      = 78;
+    public static final int DXGI_FORMAT_BC4_UNORM           = 80;
+    public static final int DXGI_FORMAT_BC4_SNORM           = 81;
+    public static final int DXGI_FORMAT_BC5_UNORM           = 83;
+    public static final int DXGI_FORMAT_BC5_SNORM           = 84;
+    public static final int DXGI_FORMAT_BC6H_UF16           = 95;
+    public static final int DXGI_FORMAT_BC6H_SF16           = 96;
+    public static final int DXGI_FORMAT_BC7_UNORM           = 98;
+    public static final int DXGI_FORMAT_BC7_UNORM_SRGB      = 99;
 
     /** Reads a DirectDraw surface from the specified file name,
         returning the resulting DDSImage.
@@ -349,6 +382,9 @@ public class DDSImage {
      * @return true if cubemap or false otherwise
      */
     public boolean isCubemap() {
+        if (header.hasDX10 && (header.miscFlag & DDS_RESOURCE_MISC_TEXTURECUBE) != 0) {
+            return true;
+        }
         return ((header.ddsCaps1 & DDSCAPS_COMPLEX) != 0) && ((header.ddsCaps2 & DDSCAPS2_CUBEMAP) != 0);
     }
 
@@ -358,20 +394,77 @@ public class DDSImage {
      * @return true if side present or false otherwise
      */
     public boolean isCubemapSidePresent(int side) {
+        if (header.hasDX10 && (header.miscFlag & DDS_RESOURCE_MISC_TEXTURECUBE) != 0) {
+            // DX10 cubemaps always store all six faces
+            return (DDSCAPS2_CUBEMAP_ALLFACES & side) != 0;
+        }
         return isCubemap() && (header.ddsCaps2 & side) != 0;
     }
 
     /** Indicates whether this texture is compressed. */
     public boolean isCompressed() {
+        if (hasDX10Header()) {
+            return isDXGICompressedFormat(header.dxgiFormat);
+        }
         return (isPixelFormatFlagSet(DDPF_FOURCC));
     }
 
     /** If this surface is compressed, returns the kind of compression
-        used (DXT1..DXT5). */
+        used (DXT1..DXT5, or DX10 in which case {@link #getDXGIFormat}
+        holds the actual format). */
     public int getCompressionFormat() {
         return header.pfFourCC;
     }
 
+    /** Indicates whether this file carries the DX10 extended header. */
+    public boolean hasDX10Header() {
+        return header.hasDX10;
+    }
+
+    /** Returns the DXGI_FORMAT_* of the DX10 extended header, or
+        DXGI_FORMAT_UNKNOWN if this file has no such header. */
+    public int getDXGIFormat() {
+        return header.hasDX10 ? header.dxgiFormat : DXGI_FORMAT_UNKNOWN;
+    }
+
+    /** Number of texture array elements given by the DX10 extended
+        header, 1 otherwise. Only the first element is accessible. */
+    public int getArraySize() {
+        return ( header.hasDX10 && header.arraySize > 1 ) ? header.arraySize : 1;
+    }
+
+    /** Indicates whether the given DXGI_FORMAT_* constant is one of the
+        block compressed formats BC1..BC7 */
+    public static boolean isDXGICompressedFormat(int dxgiFormat) {
+        return getDXGIBlockSize(dxgiFormat) > 0;
+    }
+
+    /** Returns the size in bytes of one 4x4 block of the given block
+        compressed DXGI_FORMAT_*, or 0 if the format is not block
+        compressed. */
+    public static int getDXGIBlockSize(int dxgiFormat) {
+        switch (dxgiFormat) {
+        case DXGI_FORMAT_BC1_UNORM:
+        case DXGI_FORMAT_BC1_UNORM_SRGB:
+        case DXGI_FORMAT_BC4_UNORM:
+        case DXGI_FORMAT_BC4_SNORM:
+            return 8;
+        case DXGI_FORMAT_BC2_UNORM:
+        case DXGI_FORMAT_BC2_UNORM_SRGB:
+        case DXGI_FORMAT_BC3_UNORM:
+        case DXGI_FORMAT_BC3_UNORM_SRGB:
+        case DXGI_FORMAT_BC5_UNORM:
+        case DXGI_FORMAT_BC5_SNORM:
+        case DXGI_FORMAT_BC6H_UF16:
+        case DXGI_FORMAT_BC6H_SF16:
+        case DXGI_FORMAT_BC7_UNORM:
+        case DXGI_FORMAT_BC7_UNORM_SRGB:
+            return 16;
+        default:
+            return 0;
+        }
+    }
+
     /** Width of the texture (or the top-most mipmap if mipmaps are
         present) */
     public int getWidth() {
@@ -385,8 +478,18 @@ public class DDSImage {
     }
 
     /** Total number of bits per pixel. Only valid if DDPF_RGB is
-        present. For A8R8G8B8, would be 32. */
+        present or the DX10 extended header names an uncompressed
+        format. For A8R8G8B8, would be 32. */
     public int getDepth() {
+        if (header.hasDX10) {
+            switch (header.dxgiFormat) {
+            case DXGI_FORMAT_R8G8B8A8_UNORM:
+            case DXGI_FORMAT_R8G8B8A8_UNORM_SRGB:
+                return 32;
+            default:
+                return 0;
+            }
+        }
         return header.pfRGBBitCount;
     }
 
@@ -408,6 +511,12 @@ public class DDSImage {
 
     /**
      * Gets the <i>i</i>th mipmap data (0..getNumMipMaps() - 1)
+     * <p>
+     * The returned data is a view into this image's buffer,
+     * which is the memory mapped file if read via {@link #read(File)}.
+     * No data is copied and the image's buffer state is not touched,
+     * hence this method may be called from multiple threads.
+     * </p>
      * @param side Cubemap side or 0 for 2D texture
      * @param map Mipmap index
      * @return Image object
@@ -425,18 +534,24 @@ public class DDSImage {
         }
 
         // Figure out how far to seek
-        int seek = Header.writtenSize();
+        int seek = header.dataOffset();
         if (isCubemap()) {
             seek += sideShiftInBytes(side);
         }
         for (int i = 0; i < map; i++) {
             seek += mipMapSizeInBytes(i);
         }
-        buf.limit(seek + mipMapSizeInBytes(map));
-        buf.position(seek);
-        ByteBuffer next = buf.slice();
-        buf.position(0);
-        buf.limit(buf.capacity());
+        final int size = mipMapSizeInBytes(map);
+        if (seek + size > buf.capacity()) {
+            throw new RuntimeException("Truncated DDS data: mipmap " + map + " of side " + side +
+                                       " ends at " + (seek + size) + ", data size " + buf.capacity());
+        }
+        // Slice a private view, leaving the shared buffer's state untouched
+        ByteBuffer next = buf.duplicate();
+        next.limit(seek + size);
+        next.position(seek);
+        next = next.slice();
+        next.order(ByteOrder.LITTLE_ENDIAN);
         return new ImageInfo(next, mipMapWidth(map), mipMapHeight(map), isCompressed(), getCompressionFormat());
     }
 
@@ -466,6 +581,22 @@ public class DDSImage {
         return result;
     }
 
+    /**
+     * Returns the data of all mipmap levels of the given side, as
+     * zero-copy slices of this image's buffer suitable for
+     * {@link com.jogamp.opengl.util.texture.TextureData#getMipmapData()}.
+     * @param side Cubemap side or 0 for 2D texture
+     * @return Mipmap data, one buffer per level
+     */
+    public ByteBuffer[] getMipMapData( int side ) {
+        ImageInfo[] infos = getAllMipMaps(side);
+        ByteBuffer[] result = new ByteBuffer[infos.length];
+        for (int i = 0; i < infos.length; i++) {
+            result[i] = infos[i].getData();
+        }
+        return result;
+    }
+
     /** Converts e.g. DXT1 compression format constant (see {@link
         #getCompressionFormat}) into "DXT1".
         @param compressionFormat Compression format constant
@@ -522,6 +653,10 @@ public class DDSImage {
             String name = getCompressionFormatName(fmt);
             tty.println("Compression format: 0x" + Integer.toHexString(fmt) + " (" + name + ")");
         }
+        if (hasDX10Header()) {
+            tty.println("DX10 header: dxgiFormat " + header.dxgiFormat + ", resourceDimension " + header.resourceDimension +
+                        ", miscFlag 0x" + Integer.toHexString(header.miscFlag) + ", arraySize " + header.arraySize);
+        }
         tty.println("Width: " + header.width + " Height: " + header.height);
         tty.println("header.pitchOrLinearSize: " + header.pitchOrLinearSize);
         tty.println("header.pfRBitMask: 0x" + Integer.toHexString(header.pfRBitMask));
@@ -628,6 +763,14 @@ public class DDSImage {
         int ddsCapsReserved1;
         int ddsCapsReserved2;
         int textureStage;           // stage in multitexture cascade
+        // NOTE: following entries are from the optional DDS_HEADER_DXT10
+        // data structure, present if pfFourCC is D3DFMT_DX10
+        boolean hasDX10;
+        int dxgiFormat;             // DXGI_FORMAT_*
+        int resourceDimension;      // D3D10_RESOURCE_DIMENSION
+        int miscFlag;               // DDS_RESOURCE_MISC_*
+        int arraySize;              // number of texture array elements
+        int miscFlags2;             // alpha mode
 
         void read(ByteBuffer buf) throws IOException {
             int magic                     = buf.getInt();
@@ -668,6 +811,22 @@ public class DDSImage {
             ddsCapsReserved1              = buf.getInt();
             ddsCapsReserved2              = buf.getInt();
             textureStage                  = buf.getInt();
+            hasDX10 = (pfFlags & DDPF_FOURCC) != 0 && pfFourCC == D3DFMT_DX10;
+            if (hasDX10) {
+                if (buf.remaining() < dx10Size()) {
+                    throw new IOException("Truncated DX10 extended header");
+                }
+                dxgiFormat                = buf.getInt();
+                resourceDimension         = buf.getInt();
+                miscFlag                  = buf.getInt();
+                arraySize                 = buf.getInt();
+                miscFlags2                = buf.getInt();
+            }
+        }
+
+        /** Offset of the first mipmap's data within the file */
+        int dataOffset() {
+            return writtenSize() + ( hasDX10 ? dx10Size() : 0 );
         }
 
         // buf must be in little-endian byte order
@@ -717,6 +876,10 @@ public class DDSImage {
         private static int writtenSize() {
             return 128;
         }
+
+        private static int dx10Size() {
+            return 20;
+        }
     }
 
     private DDSImage() {
@@ -756,7 +919,7 @@ public class DDSImage {
         case D3DFMT_DXT3:
         case D3DFMT_DXT4:
         case D3DFMT_DXT5:
-            topmostMipmapSize = computeCompressedBlockSize(width, height, 1, d3dFormat);
+            topmostMipmapSize = computeCompressedBlockSize(width, height, 1, d3dFormat == D3DFMT_DXT1 ? 8 : 16);
             pitchOrLinearSize = topmostMipmapSize;
             isCompressed = true;
             break;
@@ -835,7 +998,7 @@ public class DDSImage {
                 depth = 1;
             }
 
-            header.pitchOrLinearSize = computeCompressedBlockSize(getWidth(), getHeight(), depth, getCompressionFormat());
+            header.pitchOrLinearSize = computeCompressedBlockSize(getWidth(), getHeight(), depth, getBlockSize());
             header.flags |= DDSD_LINEARSIZE;
         }
     }
@@ -843,13 +1006,16 @@ public class DDSImage {
     private static int computeCompressedBlockSize(int width,
                                                   int height,
                                                   int depth,
-                                                  int compressionFormat) {
-        int blockSize = ((width + 3)/4) * ((height + 3)/4) * ((depth + 3)/4);
-        switch (compressionFormat) {
-        case D3DFMT_DXT1:  blockSize *=  8; break;
-        default:           blockSize *= 16; break;
+                                                  int bytesPerBlock) {
+        return ((width + 3)/4) * ((height + 3)/4) * ((depth + 3)/4) * bytesPerBlock;
+    }
+
+    /** Size in bytes of one 4x4 block of this compressed image */
+    private int getBlockSize() {
+        if (header.hasDX10) {
+            return getDXGIBlockSize(header.dxgiFormat);
         }
-        return blockSize;
+        return (getCompressionFormat() == D3DFMT_DXT1 ? 8 : 16);
     }
 
     private int mipMapWidth(int map) {
@@ -872,8 +1038,7 @@ public class DDSImage {
         int width  = mipMapWidth(map);
         int height = mipMapHeight(map);
         if (isCompressed()) {
-            int blockSize = (getCompressionFormat() == D3DFMT_DXT1 ? 8 : 16);
-            return ((width+3)/4)*((height+3)/4)*blockSize;
+            return ((width+3)/4)*((height+3)/4)*getBlockSize();
         } else {
             return width * height * (getDepth() / 8);
         }
@@ -910,8 +1075,10 @@ public class DDSImage {
             if ((temp & side) != 0) {
                 return shift;
             }
-
-            shift += sideSize;
+            // Only sides present in the file occupy space
+            if (isCubemapSidePresent(temp)) {
+                shift += sideSize;
+            }
         }
 
         throw new RuntimeException("Illegal side: " + side);
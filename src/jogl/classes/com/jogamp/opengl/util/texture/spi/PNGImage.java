@@ -7,6 +7,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.ExecutorService;
 
 import javax.media.opengl.GL;
 
@@ -14,6 +16,9 @@ import jogamp.opengl.util.pngj.ImageInfo;
 import jogamp.opengl.util.pngj.ImageLine;
 import jogamp.opengl.util.pngj.PngReader;
 import jogamp.opengl.util.pngj.PngWriter;
+import jogamp.opengl.util.pngj.chunks.ChunkHelper;
+import jogamp.opengl.util.pngj.chunks.PngChunkPLTE;
+import jogamp.opengl.util.pngj.chunks.PngChunkTRNS;
 import jogamp.opengl.util.pngj.chunks.PngChunkTextVar;
 
 import com.jogamp.common.nio.Buffers;
@@ -29,21 +34,27 @@ public class PNGImage {
         return new PNGImage(width, height, dpiX, dpiY, bytesPerPixel, reversedChannels, data);
     }
     
-    /** Reads a PNG image from the specified InputStream. */
+    /** 
+     * Reads a PNG image from the specified InputStream.
+     * <p>
+     * Supports all PNG color types, bit depths and interlace methods.
+     * Indexed images are expanded to RGB, or RGBA if a tRNS chunk is present,
+     * packed grayscale samples to 8 bit luminance and 16 bit samples are reduced to 8 bit.
+     * </p> 
+     */
     public static PNGImage read(InputStream in) throws IOException {
-        return new PNGImage(in);
+        return new PNGImage(in, false);
+    }
+    
+    /** 
+     * Reads a PNG image from the specified InputStream, see {@link #read(InputStream)}.
+     * @param keep16Bit if true, 16 bit samples are kept and stored as {@link GL#GL_UNSIGNED_SHORT}
+     *                  in native byte order, otherwise they are reduced to 8 bit. 
+     */
+    public static PNGImage read(InputStream in, boolean keep16Bit) throws IOException {
+        return new PNGImage(in, keep16Bit);
     }
     
-    /** Reverse read and store, implicitly flip image to GL coords. */
-    private static final int getPixelRGBA8(ByteBuffer d, int dOff, ImageLine line, int lineOff, boolean hasAlpha) {
-        if(hasAlpha) {
-            d.put(dOff--, (byte)line.scanline[lineOff + 3]); // A
-        }
-        d.put(dOff--, (byte)line.scanline[lineOff + 2]); // B
-        d.put(dOff--, (byte)line.scanline[lineOff + 1]); // G        
-        d.put(dOff--, (byte)line.scanline[lineOff    ]); // R
-        return dOff;
-    }    
     /** Reverse read and store, implicitly flip image from GL coords. Handle reversed channels (BGR[A])*/
     private static int setPixelRGBA8(ImageLine line, int lineOff, ByteBuffer d, int dOff, boolean hasAlpha, boolean reversedChannels) {
         if(reversedChannels) {
@@ -76,58 +87,163 @@ public class PNGImage {
             throw new InternalError("XXX: bytesPerPixel "+bytesPerPixel);
         }
         this.bytesPerPixel = bytesPerPixel;
+        this.glType = GL.GL_UNSIGNED_BYTE;
         this.reversedChannels = reversedChannels;
         this.data = data;        
     }
     
-    private PNGImage(InputStream in) {
+    private PNGImage(InputStream in, boolean keep16Bit) {
         final PngReader pngr = new PngReader(new BufferedInputStream(in), null);
-        final int channels = pngr.imgInfo.channels;
-        if ( ! ( 1 == channels || 3 == channels || 4 == channels ) ) {
-            throw new RuntimeException("PNGImage can only handle Lum/RGB/RGBA [1/3/4 channels] images for now. Channels "+channels);
-        }
-        bytesPerPixel=pngr.imgInfo.bytesPixel;
-        if ( ! ( 1 == bytesPerPixel || 3 == bytesPerPixel || 4 == bytesPerPixel ) ) {
-            throw new RuntimeException("PNGImage can only handle Lum/RGB/RGBA [1/3/4 bpp] images for now. BytesPerPixel "+bytesPerPixel);
+        final ImageInfo imgInfo = pngr.imgInfo;
+        final int bitDepth = imgInfo.bitDepth;
+        final PngChunkTRNS trns = (PngChunkTRNS) pngr.getMetadata().getChunk1(ChunkHelper.tRNS);
+        // Palette expanded to RGB[A], a tRNS color key of Lum/RGB is expanded to an alpha channel
+        final byte[] palette;
+        final int[] colorKey;
+        final int channels;
+        if( imgInfo.indexed ) {
+            final PngChunkPLTE plte = (PngChunkPLTE) pngr.getMetadata().getChunk1(ChunkHelper.PLTE);
+            if( null == plte ) {
+                throw new RuntimeException("PNGImage: Indexed image w/o PLTE chunk");
+            }
+            palette = new byte[256 * 4];
+            for(int i=0; i<plte.getNentries(); i++) {
+                final int rgb = plte.getEntry(i);
+                palette[i*4    ] = (byte) ( rgb >> 16 );
+                palette[i*4 + 1] = (byte) ( rgb >>  8 );
+                palette[i*4 + 2] = (byte) ( rgb       );
+                palette[i*4 + 3] = (byte) 0xff;
+            }
+            if( null != trns ) {
+                final int[] alpha = trns.getPalletteAlpha();
+                for(int i=0; i<alpha.length && i<256; i++) {
+                    palette[i*4 + 3] = (byte) alpha[i];
+                }
+            }
+            colorKey = null;
+            channels = null != trns ? 4 : 3;
+        } else {
+            palette = null;
+            if( null != trns && !imgInfo.alpha ) {
+                colorKey = imgInfo.greyscale ? new int[] { trns.getGray() } : trns.getRGB();
+                channels = imgInfo.channels + 1;
+            } else {
+                colorKey = null;
+                channels = imgInfo.channels;
+            }
         }
-        if(channels != bytesPerPixel) {
-            throw new RuntimeException("PNGImage currently only handles Channels [1/3/4] == BytePerPixel [1/3/4], channels: "+channels+", bytesPerPixel "+bytesPerPixel);
+        final int bytesPerChannel = 16 == bitDepth && keep16Bit ? 2 : 1;
+        bytesPerPixel = channels * bytesPerChannel;
+        glType = 2 == bytesPerChannel ? GL.GL_UNSIGNED_SHORT : GL.GL_UNSIGNED_BYTE;
+        switch(channels) {
+            case 1: glFormat = GL.GL_LUMINANCE; break;
+            case 2: glFormat = GL.GL_LUMINANCE_ALPHA; break;
+            case 3: glFormat = GL.GL_RGB; break;
+            case 4: glFormat = GL.GL_RGBA; break;
+            default: throw new InternalError("XXX: channels: "+channels+", bytesPerPixel "+bytesPerPixel);
         }
-        pixelWidth=pngr.imgInfo.cols;
-        pixelHeight=pngr.imgInfo.rows;
+        pixelWidth=imgInfo.cols;
+        pixelHeight=imgInfo.rows;
         dpi = new double[2];
         {
             final double[] dpi2 = pngr.getMetadata().getDpi();
             dpi[0]=dpi2[0];
             dpi[1]=dpi2[1];
         }
-        switch(channels) {
-            case 1: glFormat = GL.GL_LUMINANCE; break;
-            case 3: glFormat = GL.GL_RGB; break;
-            case 4: glFormat = GL.GL_RGBA; break;
-            default: throw new InternalError("XXX: channels: "+channels+", bytesPerPixel "+bytesPerPixel);
-        }
         data = Buffers.newDirectByteBuffer(bytesPerPixel * pixelWidth * pixelHeight);
         reversedChannels = false; // RGB[A]
-        final boolean hasAlpha = 4 == channels;
-        int dataOff = bytesPerPixel * pixelWidth * pixelHeight - 1; // start at end-of-buffer, reverse store
+        final int rowBytes = bytesPerPixel * pixelWidth;
+        // 8 bit samples are stored as is
+        final boolean direct = 8 == bitDepth && null == palette && null == colorKey;
+        final byte[] rowOut = direct ? null : new byte[rowBytes];
         for (int row = 0; row < pixelHeight; row++) {
-            final ImageLine l1 = pngr.readRow(row);
-            int lineOff = ( pixelWidth - 1 ) * bytesPerPixel ;      // start w/ last pixel in line, reverse read
-            if(1 == channels) {
-                for (int j = pixelWidth - 1; j >= 0; j--) {
-                    data.put(dataOff--, (byte)l1.scanline[lineOff--]); // Luminance, 1 bytesPerPixel
-                }
+            // unfiltered row bytes start at index 1, channels already in RGB[A] order
+            final byte[] rowb = pngr.readRowRaw(row);
+            // bulk store bottom-to-top, implicitly flip image to GL coords
+            data.position( ( pixelHeight - 1 - row ) * rowBytes );
+            if( direct ) {
+                data.put(rowb, 1, rowBytes);
             } else {
-                for (int j = pixelWidth - 1; j >= 0; j--) {
-                    dataOff = getPixelRGBA8(data, dataOff, l1, lineOff, hasAlpha);
-                    lineOff -= bytesPerPixel;
-                }
+                convertRow(imgInfo, rowb, rowOut, palette, colorKey, channels, bytesPerChannel);
+                data.put(rowOut, 0, rowBytes);
             }
         }
+        data.rewind();
         pngr.end();
     }
-    private final int pixelWidth, pixelHeight, glFormat, bytesPerPixel;
+    
+    /** 
+     * Converts one raw PNG row to 8 or 16 bit per channel Lum, LumA, RGB or RGBA,
+     * expanding packed samples, palette indices and tRNS color keys.
+     * 16 bit channels are stored in native byte order. 
+     */
+    private static void convertRow(ImageInfo imgInfo, byte[] rowb, byte[] out, byte[] palette, int[] colorKey, int channels, int bytesPerChannel) {
+        final int bitDepth = imgInfo.bitDepth;
+        final int inChannels = imgInfo.channels;
+        final int cols = imgInfo.cols;
+        int d = 0;
+        if( 8 > bitDepth || null != palette ) {
+            // single channel of 1-2-4-8 bits: gray or palette index
+            final int max = ( 1 << bitDepth ) - 1;
+            for(int x=0, bit=0; x<cols; x++, bit+=bitDepth) {
+                final int v = ( rowb[1 + ( bit >> 3 )] >> ( 8 - bitDepth - ( bit & 7 ) ) ) & max;
+                if( null != palette ) {
+                    final int p = v * 4;
+                    out[d++] = palette[p];
+                    out[d++] = palette[p+1];
+                    out[d++] = palette[p+2];
+                    if( 4 == channels ) {
+                        out[d++] = palette[p+3];
+                    }
+                } else {
+                    out[d++] = (byte) ( v * 255 / max );
+                    if( null != colorKey ) {
+                        out[d++] = v == colorKey[0] ? 0 : (byte)0xff;
+                    }
+                }
+            }
+        } else if( 8 == bitDepth ) {
+            // color key
+            for(int x=0, s=1; x<cols; x++) {
+                boolean transparent = true;
+                for(int c=0; c<inChannels; c++) {
+                    final byte v = rowb[s++];
+                    transparent &= ( v & 0xff ) == colorKey[c];
+                    out[d++] = v;
+                }
+                out[d++] = transparent ? 0 : (byte)0xff;
+            }
+        } else {
+            // 16 bit big endian samples
+            final boolean littleEndian = ByteOrder.LITTLE_ENDIAN == ByteOrder.nativeOrder();
+            for(int x=0, s=1; x<cols; x++) {
+                boolean transparent = null != colorKey;
+                for(int c=0; c<inChannels; c++) {
+                    final byte hi = rowb[s++];
+                    final byte lo = rowb[s++];
+                    if( transparent ) {
+                        transparent = ( ( hi & 0xff ) << 8 | ( lo & 0xff ) ) == colorKey[c];
+                    }
+                    if( 1 == bytesPerChannel ) {
+                        out[d++] = hi;
+                    } else if( littleEndian ) {
+                        out[d++] = lo;
+                        out[d++] = hi;
+                    } else {
+                        out[d++] = hi;
+                        out[d++] = lo;
+                    }
+                }
+                if( null != colorKey ) {
+                    final byte a = transparent ? 0 : (byte)0xff;
+                    for(int k=0; k<bytesPerChannel; k++) {
+                        out[d++] = a;
+                    }
+                }
+            }
+        }
+    }
+    private final int pixelWidth, pixelHeight, glFormat, glType, bytesPerPixel;
     private boolean reversedChannels;
     private final double[] dpi;
     private final ByteBuffer data;
@@ -147,8 +263,8 @@ public class PNGImage {
     /** Returns the OpenGL format for this texture; e.g. GL.GL_BGR or GL.GL_BGRA. */
     public int getGLFormat() { return glFormat; }
     
-    /** Returns the OpenGL data type: GL.GL_UNSIGNED_BYTE. */
-    public int getGLType() { return GL.GL_UNSIGNED_BYTE; }
+    /** Returns the OpenGL data type: GL.GL_UNSIGNED_BYTE, or GL.GL_UNSIGNED_SHORT for 16 bit images read w/ <code>keep16Bit</code>. */
+    public int getGLType() { return glType; }
 
     /** Returns the bytes per pixel */
     public int getBytesPerPixel() { return bytesPerPixel; }
@@ -157,12 +273,22 @@ public class PNGImage {
         (bottom-to-top) order for calls to glTexImage2D. */
     public ByteBuffer getData()  { return data; }
 
-    public void write(File out, boolean allowOverwrite) throws IOException {        
+    public void write(File out, boolean allowOverwrite) throws IOException {
+        write(out, allowOverwrite, null);
+    }
+
+    /**
+     * Writes this image as a PNG file.
+     * @param executor if not null, row blocks are filtered and compressed concurrently on this pool,
+     *                 see {@link PngWriter#setParallelEncoding(ExecutorService, int)}.
+     */
+    public void write(File out, boolean allowOverwrite, ExecutorService executor) throws IOException {
         final ImageInfo imi = new ImageInfo(pixelWidth, pixelHeight, 8, (4 == bytesPerPixel) ? true : false); // 8 bits per channel, no alpha 
         // open image for writing to a output stream
         final OutputStream outs = new BufferedOutputStream(IOUtil.getFileOutputStream(out, allowOverwrite));
         try {
             final PngWriter png = new PngWriter(outs, imi); 
+            png.setParallelEncoding(executor, 0);
             // add some optional metadata (chunks)
             png.getMetadata().setDpi(dpi[0], dpi[1]);
             png.getMetadata().setTimeNow(0); // 0 seconds fron now = now
@@ -42,9 +42,11 @@ package com.jogamp.opengl.util.texture.spi;
 import java.io.*;
 import java.nio.*;
 import java.nio.channels.*;
+import java.util.Arrays;
 import javax.media.opengl.*;
 
 import com.jogamp.common.util.IOUtil;
+import com.jogamp.opengl.util.GLBuffers;
 
 /**
  * Targa image reader and writer adapted from sources of the <a href =
@@ -65,6 +67,17 @@ import com.jogamp.common.util.IOUtil;
  *
  * <P>
  *
+ * True color (24 and 32 bit), grayscale (8 and 16 bit) and color
+ * mapped images (8 bit indices into a 24 or 32 bit color map) are
+ * decoded, each uncompressed or run-length encoded. The image is
+ * decoded from a ByteBuffer, a memory mapped one if read from a
+ * file, straight into a direct ByteBuffer; uncompressed bottom-to-top
+ * images not requiring a swizzle are handed out as a slice of the
+ * source without any copy. True color images can be written
+ * run-length encoded, see {@link #createFromData(int, int, boolean, boolean, boolean, ByteBuffer)}.
+ *
+ * <P>
+ *
  * @author    Robin Luiten
  * @author    Kenneth Russell
  * @version    $Revision: 1768 $
@@ -142,30 +155,37 @@ public class TGAImage {
             tgaType = TYPE_OLD; // dont try and get footer.
         }
 
-        Header(LEDataInputStream in) throws IOException {
+        Header(ByteBuffer in) throws IOException {
             tgaType = TYPE_OLD; // dont try and get footer.
+            if (in.remaining() < 18) {
+                throw new IOException("TGADecoder Truncated header");
+            }
+            in.order(ByteOrder.LITTLE_ENDIAN);
 
             // initial header fields
-            idLength = in.readUnsignedByte();    
-            colorMapType = in.readUnsignedByte();
-            imageType = in.readUnsignedByte();    
+            idLength = in.get() & 0xFF;
+            colorMapType = in.get() & 0xFF;
+            imageType = in.get() & 0xFF;
 
             // color map header fields
-            firstEntryIndex = in.readUnsignedShort();
-            colorMapLength = in.readUnsignedShort();
-            colorMapEntrySize = in.readByte();
+            firstEntryIndex = in.getShort() & 0xFFFF;
+            colorMapLength = in.getShort() & 0xFFFF;
+            colorMapEntrySize = in.get();
 
             // TGA image specification fields
-            xOrigin = in.readUnsignedShort();
-            yOrigin = in.readUnsignedShort();
-            width = in.readUnsignedShort();
-            height = in.readUnsignedShort();
-            pixelDepth = in.readByte();
-            imageDescriptor = in.readByte();
+            xOrigin = in.getShort() & 0xFFFF;
+            yOrigin = in.getShort() & 0xFFFF;
+            width = in.getShort() & 0xFFFF;
+            height = in.getShort() & 0xFFFF;
+            pixelDepth = in.get();
+            imageDescriptor = in.get();
 
             if (idLength > 0) {
+                if (in.remaining() < idLength) {
+                    throw new IOException("TGADecoder Truncated image ID");
+                }
                 imageIDbuf = new byte[idLength];
-                in.read(imageIDbuf, 0, idLength);
+                in.get(imageIDbuf, 0, idLength);
                 imageID = new String(imageIDbuf, "US-ASCII");
             }
         }
@@ -245,104 +265,276 @@ public class TGAImage {
 
 
     /**
-     * Identifies the image type of the tga image data and loads
-     * it into the JimiImage structure. This was taken from the
-     * prototype and modified for the new Jimi structure
+     * Identifies the image type of the tga image data and decodes it
+     * from the given buffer, positioned right behind the header.
      */
-    private void decodeImage(GLProfile glp, LEDataInputStream dIn) throws IOException {
+    private void decodeImage(GLProfile glp, ByteBuffer src) throws IOException {
+        final int pixelDepth = header.pixelDepth() & 0xFF;
+        final int colorMapEntryBytes = ( ( header.colorMapEntrySize() & 0xFF ) + 7 ) / 8;
+        final boolean colorMapped;
+        final int srcBpp;  // bytes per stored pixel
         switch (header.imageType()) {
         case Header.UCOLORMAPPED:
-            throw new IOException("TGADecoder Uncompressed Colormapped images not supported");
+        case Header.COLORMAPPED:
+            if (8 != pixelDepth || 0 == header.colorMapType() ||
+                (3 != colorMapEntryBytes && 4 != colorMapEntryBytes)) {
+                throw new IOException("TGADecoder Colormapped images only supported w/ 8-bit indices into a 24 or 32-bit color map");
+            }
+            colorMapped = true;
+            srcBpp = 1;
+            bpp = colorMapEntryBytes;
+            break;
 
         case Header.UTRUECOLOR:    // pixelDepth 15, 16, 24 and 32
-            switch (header.pixelDepth) {
-            case 16:
-                throw new IOException("TGADecoder Compressed 16-bit True Color images not supported");
-
-            case 24:
-            case 32:
-                decodeRGBImageU24_32(glp, dIn);
-                break;
+        case Header.TRUECOLOR:
+            if (24 != pixelDepth && 32 != pixelDepth) {
+                throw new IOException("TGADecoder "+pixelDepth+"-bit True Color images not supported");
             }
+            colorMapped = false;
+            srcBpp = bpp = pixelDepth / 8;
             break;
 
         case Header.UBLACKWHITE:
-            throw new IOException("TGADecoder Uncompressed Grayscale images not supported");
-
-        case Header.COLORMAPPED:
-            throw new IOException("TGADecoder Compressed Colormapped images not supported");
-
-        case Header.TRUECOLOR:
-            throw new IOException("TGADecoder Compressed True Color images not supported");
-
         case Header.BLACKWHITE:
-            throw new IOException("TGADecoder Compressed Grayscale images not supported");
+            if (8 != pixelDepth && 16 != pixelDepth) {
+                throw new IOException("TGADecoder "+pixelDepth+"-bit Grayscale images not supported");
+            }
+            colorMapped = false;
+            srcBpp = bpp = pixelDepth / 8;
+            break;
+
+        default:
+            throw new IOException("TGADecoder image type "+header.imageType()+" not supported");
         }
-    }
-  
-    /**
-     * This assumes that the body is for a 24 bit or 32 bit for a
-     * RGB or ARGB image respectively.
-     */
-    private void decodeRGBImageU24_32(GLProfile glp, LEDataInputStream dIn) throws IOException {
-        int i;    // row index
-        int y;    // output row index
-        int rawWidth = header.width() * (header.pixelDepth() / 8);
-        byte[] rawBuf = new byte[rawWidth];
-        byte[] tmpData = new byte[rawWidth * header.height()];
-
-        for (i = 0; i < header.height(); ++i) {
-            dIn.readFully(rawBuf, 0, rawWidth);
-
-            if (header.topToBottom())
-                y = header.height - i - 1; // range 0 to (header.height - 1)
-            else
-                y = i;
-
-            System.arraycopy(rawBuf, 0, tmpData, y * rawWidth, rawBuf.length);
+        final boolean rle = header.imageType() >= Header.COLORMAPPED;
+
+        // The color map is stored even for non color mapped images
+        byte[] colorMap = null;
+        if (0 != header.colorMapType()) {
+            final int colorMapBytes = header.colorMapLength() * colorMapEntryBytes;
+            if (src.remaining() < colorMapBytes) {
+                throw new IOException("TGADecoder Truncated color map");
+            }
+            if (colorMapped) {
+                colorMap = new byte[colorMapBytes];
+                src.get(colorMap);
+            } else {
+                src.position(src.position() + colorMapBytes);
+            }
         }
 
-        if (header.pixelDepth() == 24) {
-            bpp=3;
-            if(glp.isGL2GL3()) {
+        final boolean swizzle;
+        if (1 == bpp || 2 == bpp) {
+            format = 1 == bpp ? GL.GL_LUMINANCE : GL.GL_LUMINANCE_ALPHA;
+            swizzle = false;
+        } else if (3 == bpp) {
+            if(null != glp && glp.isGL2GL3()) {
                 format = GL2GL3.GL_BGR;
+                swizzle = false;
             } else {
                 format = GL.GL_RGB;
-                swapBGR(tmpData, rawWidth, header.height(), bpp);
+                swizzle = true;
             }
         } else {
-            assert header.pixelDepth() == 32;
-            bpp=4;
-            boolean useBGRA = glp.isGL2GL3();
-            if(!useBGRA) {
+            boolean useBGRA = null != glp && glp.isGL2GL3();
+            if(!useBGRA && null != glp) {
                 final GLContext ctx = GLContext.getCurrent();
                 useBGRA = null != ctx && ctx.isTextureFormatBGRA8888Available();
             }
             if( useBGRA ) {
                 format = GL.GL_BGRA;
+                swizzle = false;
             } else {
                 format = GL.GL_RGBA;
-                swapBGR(tmpData, rawWidth, header.height(), bpp);
+                swizzle = true;
+            }
+        }
+
+        final int width = header.width();
+        final int height = header.height();
+        final int srcRowBytes = width * srcBpp;
+        final int rowBytes = width * bpp;
+
+        if (!rle && !colorMapped && !swizzle && !header.topToBottom()) {
+            // Already in GL layout, hand out the source w/o copying
+            if (src.remaining() < rowBytes * height) {
+                throw new IOException("TGADecoder Truncated image data");
             }
+            final ByteBuffer slice = src.slice();
+            slice.limit(rowBytes * height);
+            data = slice;
+            return;
         }
 
-        data = ByteBuffer.wrap(tmpData);
+        final ByteBuffer dst = GLBuffers.newDirectByteBuffer(rowBytes * height);
+        final byte[] srcRow = new byte[srcRowBytes];
+        final byte[] row = colorMapped ? new byte[rowBytes] : srcRow;
+        final RLEDecoder rleDecoder = rle ? new RLEDecoder(srcBpp) : null;
+        try {
+            for (int i = 0; i < height; ++i) {
+                if (rle) {
+                    rleDecoder.decode(src, srcRow, srcRowBytes);
+                } else {
+                    src.get(srcRow, 0, srcRowBytes);
+                }
+                if (colorMapped) {
+                    final int first = header.firstEntryIndex();
+                    final int entries = header.colorMapLength();
+                    for (int x = 0, o = 0; x < width; x++, o += bpp) {
+                        final int idx = ( srcRow[x] & 0xFF ) - first;
+                        if (0 > idx || idx >= entries) {
+                            throw new IOException("TGADecoder color map index "+(idx+first)+" out of range");
+                        }
+                        System.arraycopy(colorMap, idx * bpp, row, o, bpp);
+                    }
+                }
+                if (swizzle) {
+                    // while the row is hot in the cache
+                    swapBGR(row, rowBytes, bpp);
+                }
+                final int y = header.topToBottom() ? height - i - 1 : i; // range 0 to (header.height - 1)
+                dst.position(y * rowBytes);
+                dst.put(row, 0, rowBytes);
+            }
+        } catch (BufferUnderflowException bue) {
+            throw new IOException("TGADecoder Truncated image data");
+        }
+        dst.clear();
+        data = dst;
     }
 
-    private static void swapBGR(byte[] data, int bWidth, int height, int bpp) {
-        byte r,b;
-        int k;
-        for(int i=0; i<height; ++i) {
-            for(int j=0; j<bWidth; j+=bpp) {
-                k=i*bWidth+j;
-                b=data[k+0];
-                r=data[k+2];
-                data[k+0]=r;
-                data[k+2]=b;
+    private static void swapBGR(byte[] row, int rowBytes, int bpp) {
+        for (int j = 0; j < rowBytes; j += bpp) {
+            final byte b = row[j];
+            row[j] = row[j+2];
+            row[j+2] = b;
+        }
+    }
+
+    /** Decodes run-length encoded packets, which may span rows. */
+    private static class RLEDecoder {
+        private final int pixelBytes;
+        private final byte[] pixel;
+        private int count;
+        private boolean repeat;
+
+        RLEDecoder(int pixelBytes) {
+            this.pixelBytes = pixelBytes;
+            this.pixel = new byte[pixelBytes];
+        }
+
+        void decode(ByteBuffer src, byte[] row, int rowBytes) {
+            int off = 0;
+            while (off < rowBytes) {
+                if (0 == count) {
+                    final int c = src.get() & 0xFF;
+                    repeat = 0 != ( c & 0x80 );
+                    count = ( c & 0x7F ) + 1;
+                    if (repeat) {
+                        src.get(pixel, 0, pixelBytes);
+                    }
+                }
+                final int n = Math.min(count, ( rowBytes - off ) / pixelBytes);
+                final int bytes = n * pixelBytes;
+                if (!repeat) {
+                    src.get(row, off, bytes);
+                } else if (1 == pixelBytes) {
+                    Arrays.fill(row, off, off + bytes, pixel[0]);
+                } else {
+                    System.arraycopy(pixel, 0, row, off, pixelBytes);
+                    // double the filled span until the run is complete
+                    for (int done = pixelBytes; done < bytes; done *= 2) {
+                        System.arraycopy(row, off, row, off + done, Math.min(done, bytes - done));
+                    }
+                }
+                off += bytes;
+                count -= n;
             }
         }
     }
 
+    /**
+     * Swaps the red and blue channel of all pixels between the given
+     * buffer's position and limit, i.e. converts BGR(A) to RGB(A) and
+     * vice versa. 32-bit pixels are processed as ints.
+     * The buffer's position and limit are not changed.
+     * @param buf the pixel data
+     * @param bpp bytes per pixel, 3 or 4
+     */
+    public static void swapBGR(ByteBuffer buf, int bpp) {
+        final int start = buf.position();
+        final int end = buf.limit();
+        if (4 == bpp) {
+            final ByteBuffer le = buf.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = start; i + 4 <= end; i += 4) {
+                final int v = le.getInt(i); // 0xAARRGGBB for BGRA
+                le.putInt(i, ( v & 0xFF00FF00 ) | ( ( v >>> 16 ) & 0xFF ) | ( ( v & 0xFF ) << 16 ));
+            }
+        } else if (3 == bpp) {
+            final ByteBuffer dup = buf.duplicate();
+            final byte[] chunk = new byte[3 * 1024];
+            for (int i = start; i < end; ) {
+                final int n = Math.min(chunk.length, ( ( end - i ) / 3 ) * 3);
+                if (0 == n) {
+                    break;
+                }
+                dup.position(i);
+                dup.get(chunk, 0, n);
+                swapBGR(chunk, n, 3);
+                dup.position(i);
+                dup.put(chunk, 0, n);
+                i += n;
+            }
+        } else {
+            throw new IllegalArgumentException("Unsupported bytes per pixel "+bpp);
+        }
+    }
+
+    /**
+     * Run-length encodes one row of pixels. Packets never span rows.
+     * @return the number of bytes written
+     */
+    private static int encodeRLERow(byte[] row, int width, int bpp, byte[] out, int outOff) {
+        int o = outOff;
+        int x = 0;
+        while (x < width) {
+            // length of the run of identical pixels starting at x
+            int run = 1;
+            while (x + run < width && run < 128 && samePixel(row, x, x + run, bpp)) {
+                run++;
+            }
+            if (run > 1) {
+                out[o++] = (byte) ( 0x80 | ( run - 1 ) );
+                System.arraycopy(row, x * bpp, out, o, bpp);
+                o += bpp;
+                x += run;
+            } else {
+                // raw packet up to the start of the next run
+                int raw = 1;
+                while (x + raw < width && raw < 128 &&
+                       !( x + raw + 1 < width && samePixel(row, x + raw, x + raw + 1, bpp) )) {
+                    raw++;
+                }
+                out[o++] = (byte) ( raw - 1 );
+                System.arraycopy(row, x * bpp, out, o, raw * bpp);
+                o += raw * bpp;
+                x += raw;
+            }
+        }
+        return o - outOff;
+    }
+
+    private static boolean samePixel(byte[] row, int a, int b, int bpp) {
+        a *= bpp;
+        b *= bpp;
+        for (int i = 0; i < bpp; i++) {
+            if (row[a + i] != row[b + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /** Returns the width of the image. */
     public int getWidth()    { return header.width(); }
 
@@ -352,6 +544,9 @@ public class TGAImage {
     /** Returns the OpenGL format for this texture; e.g. GL.GL_BGR or GL.GL_BGRA. */
     public int getGLFormat() { return format; }
 
+    /** Returns the OpenGL data type: GL.GL_UNSIGNED_BYTE. */
+    public int getGLType() { return GL.GL_UNSIGNED_BYTE; }
+
     /** Returns the bytes per pixel */
     public int getBytesPerPixel() { return bpp; }
 
@@ -359,18 +554,40 @@ public class TGAImage {
         (bottom-to-top) order for calls to glTexImage2D. */
     public ByteBuffer getData()  { return data; }
 
-    /** Reads a Targa image from the specified file. */
+    /** Reads a Targa image from the specified file.
+        If <code>glp</code> is null, the data is delivered in RGB(A) order. */
     public static TGAImage read(GLProfile glp, String filename) throws IOException {
-        return read(glp, new FileInputStream(filename));
+        return read(glp, new File(filename));
     }
 
-    /** Reads a Targa image from the specified InputStream. */
+    /** Reads a Targa image from the specified file, which is memory
+        mapped and decoded w/o intermediate copies.
+        If <code>glp</code> is null, the data is delivered in RGB(A) order. */
+    public static TGAImage read(GLProfile glp, File file) throws IOException {
+        final FileInputStream fis = new FileInputStream(file);
+        try {
+            final FileChannel chan = fis.getChannel();
+            final ByteBuffer buf = chan.map(FileChannel.MapMode.READ_ONLY, 0, chan.size());
+            return read(glp, buf);
+        } finally {
+            fis.close();
+        }
+    }
+
+    /** Reads a Targa image from the specified InputStream.
+        If <code>glp</code> is null, the data is delivered in RGB(A) order. */
     public static TGAImage read(GLProfile glp, InputStream in) throws IOException {
-        LEDataInputStream dIn = new LEDataInputStream(new BufferedInputStream(in));
+        return read(glp, IOUtil.copyStream2ByteBuffer(new BufferedInputStream(in)));
+    }
 
-        Header header = new Header(dIn);
+    /** Reads a Targa image from the specified buffer's position.
+        The resulting data may share the given buffer's content.
+        If <code>glp</code> is null, the data is delivered in RGB(A) order. */
+    public static TGAImage read(GLProfile glp, ByteBuffer buf) throws IOException {
+        final ByteBuffer src = buf.duplicate();
+        Header header = new Header(src);
         TGAImage res = new TGAImage(header);
-        res.decodeImage(glp, dIn);
+        res.decodeImage(glp, src);
         return res;
     }
 
@@ -388,7 +605,11 @@ public class TGAImage {
         header.write(buf);
         buf.rewind();
         chan.write(buf);
-        chan.write(data);
+        if (Header.TRUECOLOR == header.imageType()) {
+            chan.write(encodeRLE());
+        } else {
+            chan.write(data);
+        }
         chan.force(true);
         chan.close();
         stream.close();
@@ -404,8 +625,22 @@ public class TGAImage {
                                           boolean hasAlpha,
                                           boolean topToBottom,
                                           ByteBuffer data) {
+        return createFromData(width, height, hasAlpha, topToBottom, false, data);
+    }
+
+    /** Creates a TGAImage from data supplied by the end user. Shares
+        data with the passed ByteBuffer. Assumes the data is already in
+        the correct byte order for writing to disk, i.e., BGR or
+        BGRA. If <code>compressed</code> is true, the image is written
+        run-length encoded. */
+    public static TGAImage createFromData(int width,
+                                          int height,
+                                          boolean hasAlpha,
+                                          boolean topToBottom,
+                                          boolean compressed,
+                                          ByteBuffer data) {
         Header header = new Header();
-        header.imageType = Header.UTRUECOLOR;
+        header.imageType = compressed ? Header.TRUECOLOR : Header.UTRUECOLOR;
         header.width = width;
         header.height = height;
         header.pixelDepth = (byte) (hasAlpha ? 32 : 24);
@@ -413,6 +648,25 @@ public class TGAImage {
         // Note ID not supported
         TGAImage ret = new TGAImage(header);
         ret.data = data;
+        ret.bpp = hasAlpha ? 4 : 3;
         return ret;
     }
+
+    /** Run-length encodes this image's data, from its position on. */
+    private ByteBuffer encodeRLE() {
+        final int width = header.width();
+        final int height = header.height();
+        final int rowBytes = width * bpp;
+        final byte[] row = new byte[rowBytes];
+        // worst case: one packet header per pixel
+        final byte[] out = new byte[rowBytes + width];
+        final ByteBuffer res = GLBuffers.newDirectByteBuffer(height * ( rowBytes + width ));
+        final ByteBuffer src = data.duplicate();
+        for (int y = 0; y < height; y++) {
+            src.get(row, 0, rowBytes);
+            res.put(out, 0, encodeRLERow(row, width, bpp, out, 0));
+        }
+        res.flip();
+        return res;
+    }
 }
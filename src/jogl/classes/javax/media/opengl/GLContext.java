@@ -107,6 +107,11 @@ public abstract class GLContext {
   public static final boolean DEBUG_GL = Debug.isPropertyDefined("jogl.debug.DebugGL", true);
   /** Reflects property jogl.debug.TraceGL. If true, the trace pipeline is enabled at context creation. */
   public static final boolean TRACE_GL = Debug.isPropertyDefined("jogl.debug.TraceGL", true);
+  /** 
+   * Reflects property jogl.debug.ProfileGL. If true, the profile pipeline is enabled at context creation
+   * as the outermost pipeline, see {@link com.jogamp.opengl.util.GLCallProfiler}.
+   */
+  public static final boolean PROFILE_GL = Debug.isPropertyDefined("jogl.debug.ProfileGL", true);
 
   /** Indicates that the context was not made current during the last call to {@link #makeCurrent makeCurrent}. */
   public static final int CONTEXT_NOT_CURRENT = 0;
@@ -1072,6 +1077,28 @@ public abstract class GLContext {
       }
   }
 
+  /**
+   * Removes all mapped GL versions of the given device and clears its <i>set</i> state,
+   * allowing the versions to be mapped again, e.g. after a stale cached mapping has been detected.
+   */
+  protected static void resetAvailableGLVersions(AbstractGraphicsDevice device) {
+      final String devKey = device.getUniqueID();
+      synchronized ( deviceVersionsAvailableSet ) {
+          deviceVersionsAvailableSet.remove(devKey);
+      }
+      final String keyPrefix = devKey + "-";
+      synchronized(deviceVersionAvailable) {
+          for(Iterator<String> i = deviceVersionAvailable.keySet().iterator(); i.hasNext(); ) {
+              if( i.next().startsWith(keyPrefix) ) {
+                  i.remove();
+              }
+          }
+      }
+      if (DEBUG) {
+          System.err.println(getThreadName() + ": GLContext.resetAvailableGLVersions: "+devKey);
+      }
+  }
+
   protected static String getDeviceVersionAvailableKey(AbstractGraphicsDevice device, int major, int profile) {
       return device.getUniqueID() + "-" + toHexString(composeBits(major, profile, 0));
   }
@@ -41,6 +41,7 @@ import jogamp.nativewindow.NWJNILibLoader;
 import jogamp.opengl.Debug;
 import jogamp.opengl.GLContextImpl;
 import jogamp.opengl.GLDrawableFactoryImpl;
+import jogamp.opengl.GLStartupTiming;
 import jogamp.opengl.DesktopGLDynamicLookupHelper;
 
 import com.jogamp.common.GlueGenVersion;
@@ -122,6 +123,7 @@ public class GLProfile {
                 // since this skips checking further access
                 AccessController.doPrivileged(new PrivilegedAction<Object>() {
                     public Object run() {
+                        final long t0 = System.nanoTime();
                         Platform.initSingleton();
                         
                         // Performance hack to trigger classloading of the GL classes impl, which makes up to 12%, 800ms down to 700ms
@@ -154,7 +156,9 @@ public class GLProfile {
                            }
                            JNILibLoaderBase.addNativeJarLibs(classesFromJavaJars, "-all", new String[] { "-noawt", "-mobile", "-core" } );
                         }
+                        GLStartupTiming.add("GLProfile.initSingleton.platform", t0);
                         initProfilesForDefaultDevices();
+                        GLStartupTiming.add("GLProfile.initSingleton", t0);
                         return null;
                     }
                 });
@@ -169,6 +173,9 @@ public class GLProfile {
                 System.err.println(JoglVersion.getDefaultOpenGLInfo(defaultDevice, null, true));
             }
         }        
+        if( justInitialized && ( DEBUG || GLStartupTiming.DEBUG ) ) {
+            System.err.println(GLStartupTiming.toString(null).toString());
+        }
     }
     
     /**
@@ -200,6 +207,7 @@ public class GLProfile {
                     Thread.dumpStack();
                 }                    
                 GLDrawableFactory.shutdown();
+                GLStartupTiming.reset();
             }
         } finally {
             initLock.unlock();
@@ -1365,7 +1373,9 @@ public class GLProfile {
      * Tries the profiles implementation and native libraries.
      */
     private static void initProfilesForDefaultDevices() {
+        long t0 = System.nanoTime();
         NativeWindowFactory.initSingleton();
+        t0 = GLStartupTiming.add("NativeWindowFactory.initSingleton", t0);
         if(DEBUG) {
             System.err.println("GLProfile.init - thread: " + Thread.currentThread().getName());
             System.err.println(VersionUtil.getPlatformInfo());
@@ -1394,6 +1404,7 @@ public class GLProfile {
         //   which will register at GLContext ..
         //
         GLDrawableFactory.initSingleton();
+        t0 = GLStartupTiming.add("GLDrawableFactory.initSingleton", t0);
         
         Throwable t=null;
         // if successfull it has a shared dummy drawable and context created
@@ -1429,6 +1440,7 @@ public class GLProfile {
         } else {
             defaultDesktopDevice = desktopFactory.getDefaultDevice();
         }
+        t0 = GLStartupTiming.add("GLDrawableFactory.desktop", t0);
 
         if ( ReflectionUtil.isClassAvailable("jogamp.opengl.egl.EGLDrawableFactory", classloader) ) {
             t=null;
@@ -1467,6 +1479,7 @@ public class GLProfile {
         } else {
             defaultEGLDevice = eglFactory.getDefaultDevice();            
         }
+        GLStartupTiming.add("GLDrawableFactory.egl", t0);
 
         if( null != defaultDesktopDevice ) {
             defaultDevice = defaultDesktopDevice;
@@ -1542,6 +1555,7 @@ public class GLProfile {
             return null != map.get(GL_DEFAULT);
         }
 
+        final long tDevice = System.nanoTime();
         boolean addedDesktopProfile = false;
         boolean addedEGLProfile = false;
 
@@ -1550,6 +1564,7 @@ public class GLProfile {
         if( deviceIsDesktopCompatible ) {
             // 1st pretend we have all Desktop and EGL profiles ..
             computeProfileMap(device, true /* desktopCtxUndef*/, true  /* esCtxUndef */);
+            final long t0 = System.nanoTime();
 
             // Triggers eager initialization of share context in GLDrawableFactory for the device,
             // hence querying all available GLProfiles
@@ -1561,6 +1576,7 @@ public class GLProfile {
             if(null != sharedResourceThread) {
                 initLock.removeOwner(sharedResourceThread);
             }
+            GLStartupTiming.add("GLProfile.sharedResource.desktop "+device.getConnection(), t0);
             if (DEBUG) {
                 System.err.println("GLProfile.initProfilesForDevice: "+device+": desktop Shared Ctx "+desktopSharedCtxAvail);
             }
@@ -1578,6 +1594,7 @@ public class GLProfile {
         if( deviceIsEGLCompatible && ( hasGLES2Impl || hasGLES1Impl ) ) {
             // 1st pretend we have all EGL profiles ..
             computeProfileMap(device, false /* desktopCtxUndef*/, true /* esCtxUndef */);
+            final long t0 = System.nanoTime();
 
             // Triggers eager initialization of share context in GLDrawableFactory for the device,
             // hence querying all available GLProfiles
@@ -1589,6 +1606,7 @@ public class GLProfile {
             if(null != sharedResourceThread) {
                 initLock.removeOwner(sharedResourceThread);
             }
+            GLStartupTiming.add("GLProfile.sharedResource.egl "+device.getConnection(), t0);
             if(!eglSharedCtxAvail) {
                 // Remark: On Windows there is a libEGL.dll delivered w/ Chrome 15.0.874.121m and Firefox 8.0.1
                 // but it seems even EGL.eglInitialize(eglDisplay, null, null) 
@@ -1619,6 +1637,7 @@ public class GLProfile {
         if(!GLContext.getAvailableGLVersionsSet(device)) {
             GLContext.setAvailableGLVersionsSet(device);
         }
+        GLStartupTiming.add("GLProfile.initProfilesForDevice "+device.getConnection(), tDevice);
 
         if (DEBUG) {
             System.err.println("GLProfile.initProfilesForDevice: "+device.getConnection()+": added profile(s): desktop "+addedDesktopProfile+", egl "+addedEGLProfile);
@@ -1687,6 +1706,7 @@ public class GLProfile {
         if (DEBUG) {
             System.err.println("GLProfile.init map "+device.getConnection()+", desktopCtxUndef "+desktopCtxUndef+", esCtxUndef "+esCtxUndef);
         }
+        final long t0 = System.nanoTime();
         final boolean isHardwareRasterizer[] = new boolean[1];
         GLProfile defaultGLProfileAny = null;
         GLProfile defaultGLProfileHW = null;
@@ -1732,6 +1752,7 @@ public class GLProfile {
             _mappedProfiles.put(GL_DEFAULT, defaultGLProfileAny);
         }
         setProfileMap(device, _mappedProfiles);
+        GLStartupTiming.add("GLProfile.profileMap "+device.getConnection(), t0);
         return _mappedProfiles.size() > 0;
     }
 
@@ -33,6 +33,7 @@ import javax.media.opengl.GLException;
 import jogamp.graph.curve.opengl.shader.AttributeNames;
 import jogamp.graph.curve.text.GlyphString;
 
+import com.jogamp.graph.curve.Region;
 import com.jogamp.graph.curve.opengl.RenderState;
 import com.jogamp.graph.curve.opengl.TextRenderer;
 import com.jogamp.graph.font.Font;
@@ -84,10 +85,12 @@ public class TextRendererImpl01 extends TextRenderer {
         if(!isInitialized()){
             throw new GLException("TextRendererImpl01: not initialized!");
         }
-        GlyphString glyphString = getCachedGlyphString(font, str, fontSize);
+        // the multipass region is bound to its texture size
+        final int texWidth = Region.isVBAA(renderModes) && null != texSize ? texSize[0] : 0;
+        GlyphString glyphString = getCachedGlyphString(font, str, fontSize, texWidth);
         if(null == glyphString) {
             glyphString = createString(gl, font, fontSize, str);
-            addCachedGlyphString(gl, font, str, fontSize, glyphString);
+            addCachedGlyphString(gl, font, str, fontSize, texWidth, glyphString);
         }
         
         glyphString.renderString3D(gl, rs, vp_width, vp_height, texSize);
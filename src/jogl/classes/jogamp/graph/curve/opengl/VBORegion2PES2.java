@@ -28,6 +28,8 @@
 package jogamp.graph.curve.opengl;
 
 import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
 
 import javax.media.opengl.GL2ES2;
 // FIXME: Subsume GL2GL3.GL_DRAW_FRAMEBUFFER -> GL2ES2.GL_DRAW_FRAMEBUFFER ! 
@@ -39,8 +41,8 @@ import jogamp.graph.curve.opengl.shader.AttributeNames;
 import jogamp.graph.curve.opengl.shader.UniformNames;
 
 import com.jogamp.common.nio.Buffers;
-import com.jogamp.graph.geom.Triangle;
 import com.jogamp.graph.geom.Vertex;
+import com.jogamp.graph.geom.VertexStore;
 
 import com.jogamp.graph.curve.opengl.GLRegion;
 import com.jogamp.graph.curve.opengl.RenderState;
@@ -58,6 +60,8 @@ public class VBORegion2PES2  extends GLRegion {
     private GLArrayDataServer verticeFboAttr;
     private GLArrayDataServer texCoordFboAttr;
     private GLArrayDataServer indicesFbo;
+    private short[] indexScratch = null;
+    private int[] intIndexScratch = null;
     
     
     private FBObject fbo;
@@ -105,7 +109,7 @@ public class VBORegion2PES2  extends GLRegion {
             st.ownAttribute(verticeFboAttr, true);
             
             
-            indicesTxt = GLArrayDataServer.createData(3, GL2ES2.GL_SHORT, initialElementCount, GL.GL_STATIC_DRAW, GL.GL_ELEMENT_ARRAY_BUFFER);                
+            indicesTxt = createIndices(gl, false, initialElementCount);                
             
             verticeTxtAttr = GLArrayDataServer.createGLSL(AttributeNames.VERTEX_ATTR_NAME, 3, GL2ES2.GL_FLOAT, 
                                                           false, initialElementCount, GL.GL_STATIC_DRAW);
@@ -119,29 +123,51 @@ public class VBORegion2PES2  extends GLRegion {
                 System.err.println("VBORegion2PES2 Create: " + this);
             }                    
         }
-        // process triangles
-        indicesTxt.seal(gl, false);
-        indicesTxt.rewind();        
+        // assign the object vertices' ids, the vertex store's vertices follow them
         for(int i=0; i<triangles.size(); i++) {
-            final Triangle t = triangles.get(i);
-            final Vertex[] t_vertices = t.getVertices();
-            
+            final Vertex[] t_vertices = triangles.get(i).getVertices();
             if(t_vertices[0].getId() == Integer.MAX_VALUE){
                 t_vertices[0].setId(numVertices++);
                 t_vertices[1].setId(numVertices++);
                 t_vertices[2].setId(numVertices++);
-                
+
                 vertices.add(t_vertices[0]);
                 vertices.add(t_vertices[1]);
                 vertices.add(t_vertices[2]);
-                
+            }
+        }
+        // switch to 32 bit indices if 16 bit indices would wrap
+        final boolean intIndices = vertices.size() + store.getVertexCount() > VertexStore.MAX_SHORT_INDEX_VERTICES;
+        if( intIndices != ( GL.GL_UNSIGNED_INT == getIndexType(indicesTxt) ) ) {
+            indicesTxt.destroy(gl);
+            indicesTxt = createIndices(gl, intIndices, triangles.size() + store.getTriangleCount());
+        }
+
+        // process triangles
+        indicesTxt.seal(gl, false);
+        indicesTxt.rewind();
+        for(int i=0; i<triangles.size(); i++) {
+            final Vertex[] t_vertices = triangles.get(i).getVertices();
+            if( intIndices ) {
+                indicesTxt.puti(t_vertices[0].getId());
+                indicesTxt.puti(t_vertices[1].getId());
+                indicesTxt.puti(t_vertices[2].getId());
+            } else {
                 indicesTxt.puts((short) t_vertices[0].getId());
                 indicesTxt.puts((short) t_vertices[1].getId());
                 indicesTxt.puts((short) t_vertices[2].getId());
+            }
+        }
+        // bulk put the vertex store's indices
+        if( 0 < store.getTriangleCount() ) {
+            if( intIndices ) {
+                final IntBuffer storeIndices = store.getIntIndices(vertices.size(), intIndexScratch);
+                intIndexScratch = storeIndices.array();
+                indicesTxt.put(storeIndices);
             } else {
-                indicesTxt.puts((short) t_vertices[0].getId());
-                indicesTxt.puts((short) t_vertices[1].getId());
-                indicesTxt.puts((short) t_vertices[2].getId());                
+                final ShortBuffer storeIndices = store.getShortIndices(vertices.size(), indexScratch);
+                indexScratch = storeIndices.array();
+                indicesTxt.put(storeIndices);
             }
         }
         indicesTxt.seal(gl, true);
@@ -164,6 +190,11 @@ public class VBORegion2PES2  extends GLRegion {
             texCoordTxtAttr.putf(tex[0]);
             texCoordTxtAttr.putf(tex[1]);            
         }
+        if( 0 < store.getVertexCount() ) {
+            verticeTxtAttr.put(store.getCoordsBuffer());
+            texCoordTxtAttr.put(store.getTexCoordsBuffer());
+            box.resize(store.getBounds());
+        }
         texCoordTxtAttr.seal(gl, true);
         texCoordTxtAttr.enableBuffer(gl, false);
         verticeTxtAttr.seal(gl, true);     
@@ -289,13 +320,29 @@ public class VBORegion2PES2  extends GLRegion {
         texCoordTxtAttr.enableBuffer(gl, true);
         indicesTxt.bindBuffer(gl, true); // keeps VBO binding
         
-        gl.glDrawElements(GL2ES2.GL_TRIANGLES, indicesTxt.getElementCount() * indicesTxt.getComponentCount(), GL2ES2.GL_UNSIGNED_SHORT, 0);
+        gl.glDrawElements(GL2ES2.GL_TRIANGLES, indicesTxt.getElementCount() * indicesTxt.getComponentCount(), getIndexType(indicesTxt), 0);
         
         indicesTxt.bindBuffer(gl, false);        
         texCoordTxtAttr.enableBuffer(gl, false);
         verticeTxtAttr.enableBuffer(gl, false);       
     }
     
+    @Override
+    public long getSizeInBytes() {
+        long bytes = 0;
+        final GLArrayDataServer[] buffers = { verticeTxtAttr, texCoordTxtAttr, indicesTxt, verticeFboAttr, texCoordFboAttr, indicesFbo };
+        for(int i=0; i<buffers.length; i++) {
+            if(null != buffers[i]) {
+                bytes += buffers[i].getSizeInBytes();
+            }
+        }
+        if(null != fbo) {
+            // RGBA8 texture and 24bit depth renderbuffer
+            bytes += (long) fbo.getWidth() * (long) fbo.getHeight() * ( 4 + 3 );
+        }
+        return bytes;
+    }
+    
     public void destroy(GL2ES2 gl, RenderState rs) {
         if(DEBUG_INSTANCE) {
             System.err.println("VBORegion2PES2 Destroy: " + this);
@@ -336,5 +383,6 @@ public class VBORegion2PES2  extends GLRegion {
         }
         triangles.clear();
         vertices.clear();        
+        store.clear();
     }       
 }
@@ -27,6 +27,9 @@
  */
 package jogamp.graph.curve.opengl;
 
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+
 import javax.media.opengl.GL;
 import javax.media.opengl.GL2ES2;
 
@@ -35,7 +38,7 @@ import jogamp.graph.curve.opengl.shader.AttributeNames;
 import com.jogamp.graph.curve.opengl.GLRegion;
 import com.jogamp.graph.curve.opengl.RenderState;
 import com.jogamp.graph.geom.Vertex;
-import com.jogamp.graph.geom.Triangle;
+import com.jogamp.graph.geom.VertexStore;
 import com.jogamp.opengl.util.GLArrayDataServer;
 import com.jogamp.opengl.util.glsl.ShaderState;
 
@@ -43,6 +46,8 @@ public class VBORegionSPES2 extends GLRegion {
     private GLArrayDataServer verticeAttr = null;
     private GLArrayDataServer texCoordAttr = null;
     private GLArrayDataServer indices = null;
+    private short[] indexScratch = null;
+    private int[] intIndexScratch = null;
 
     protected VBORegionSPES2(int renderModes) { 
         super(renderModes);
@@ -57,7 +62,7 @@ public class VBORegionSPES2 extends GLRegion {
             final int initialElementCount = 256;
             final ShaderState st = rs.getShaderState();
 
-            indices = GLArrayDataServer.createData(3, GL2ES2.GL_SHORT, initialElementCount, GL.GL_STATIC_DRAW, GL.GL_ELEMENT_ARRAY_BUFFER);
+            indices = createIndices(gl, false, initialElementCount);
 
             verticeAttr = GLArrayDataServer.createGLSL(AttributeNames.VERTEX_ATTR_NAME, 3, GL2ES2.GL_FLOAT, 
                     false, initialElementCount, GL.GL_STATIC_DRAW);         
@@ -72,13 +77,9 @@ public class VBORegionSPES2 extends GLRegion {
             }
         }
 
-        // process triangles
-        indices.seal(gl, false);
-        indices.rewind();        
+        // assign the object vertices' ids, the vertex store's vertices follow them
         for(int i=0; i<triangles.size(); i++) {
-            final Triangle t = triangles.get(i);
-            final Vertex[] t_vertices = t.getVertices();
-
+            final Vertex[] t_vertices = triangles.get(i).getVertices();
             if(t_vertices[0].getId() == Integer.MAX_VALUE){
                 t_vertices[0].setId(numVertices++);
                 t_vertices[1].setId(numVertices++);
@@ -87,16 +88,42 @@ public class VBORegionSPES2 extends GLRegion {
                 vertices.add(t_vertices[0]);
                 vertices.add(t_vertices[1]);
                 vertices.add(t_vertices[2]);
+            }
+        }
+        // switch to 32 bit indices if 16 bit indices would wrap
+        final boolean intIndices = vertices.size() + store.getVertexCount() > VertexStore.MAX_SHORT_INDEX_VERTICES;
+        if( intIndices != ( GL.GL_UNSIGNED_INT == getIndexType(indices) ) ) {
+            indices.destroy(gl);
+            indices = createIndices(gl, intIndices, triangles.size() + store.getTriangleCount());
+        }
 
-                indices.puts((short) t_vertices[0].getId());
-                indices.puts((short) t_vertices[1].getId());
-                indices.puts((short) t_vertices[2].getId());
+        // process triangles
+        indices.seal(gl, false);
+        indices.rewind();
+        for(int i=0; i<triangles.size(); i++) {
+            final Vertex[] t_vertices = triangles.get(i).getVertices();
+            if( intIndices ) {
+                indices.puti(t_vertices[0].getId());
+                indices.puti(t_vertices[1].getId());
+                indices.puti(t_vertices[2].getId());
             } else {
                 indices.puts((short) t_vertices[0].getId());
                 indices.puts((short) t_vertices[1].getId());
                 indices.puts((short) t_vertices[2].getId());
             }
         }
+        // bulk put the vertex store's indices
+        if( 0 < store.getTriangleCount() ) {
+            if( intIndices ) {
+                final IntBuffer storeIndices = store.getIntIndices(vertices.size(), intIndexScratch);
+                intIndexScratch = storeIndices.array();
+                indices.put(storeIndices);
+            } else {
+                final ShortBuffer storeIndices = store.getShortIndices(vertices.size(), indexScratch);
+                indexScratch = storeIndices.array();
+                indices.put(storeIndices);
+            }
+        }
         indices.seal(gl, true);
         indices.enableBuffer(gl, false);
 
@@ -117,6 +144,11 @@ public class VBORegionSPES2 extends GLRegion {
             texCoordAttr.putf(tex[0]);
             texCoordAttr.putf(tex[1]);
         }
+        if( 0 < store.getVertexCount() ) {
+            verticeAttr.put(store.getCoordsBuffer());
+            texCoordAttr.put(store.getTexCoordsBuffer());
+            box.resize(store.getBounds());
+        }
         verticeAttr.seal(gl, true);        
         verticeAttr.enableBuffer(gl, false);
         texCoordAttr.seal(gl, true);
@@ -130,13 +162,28 @@ public class VBORegionSPES2 extends GLRegion {
         texCoordAttr.enableBuffer(gl, true);        
         indices.bindBuffer(gl, true); // keeps VBO binding
         
-        gl.glDrawElements(GL2ES2.GL_TRIANGLES, indices.getElementCount() * indices.getComponentCount(), GL2ES2.GL_UNSIGNED_SHORT, 0);
+        gl.glDrawElements(GL2ES2.GL_TRIANGLES, indices.getElementCount() * indices.getComponentCount(), getIndexType(indices), 0);
         
         indices.bindBuffer(gl, false);
         texCoordAttr.enableBuffer(gl, false);
         verticeAttr.enableBuffer(gl, false);       
     }    
 
+    @Override
+    public long getSizeInBytes() {
+        long bytes = 0;
+        if(null != indices) {
+            bytes += indices.getSizeInBytes();
+        }
+        if(null != verticeAttr) {
+            bytes += verticeAttr.getSizeInBytes();
+        }
+        if(null != texCoordAttr) {
+            bytes += texCoordAttr.getSizeInBytes();
+        }
+        return bytes;
+    }
+    
     public final void destroy(GL2ES2 gl, RenderState rs) {
         if(DEBUG_INSTANCE) {
             System.err.println("VBORegionSPES2 Destroy: " + this);
@@ -35,6 +35,7 @@ import com.jogamp.graph.curve.tess.Triangulator;
 import com.jogamp.graph.geom.Outline;
 import com.jogamp.graph.geom.Triangle;
 import com.jogamp.graph.geom.Vertex;
+import com.jogamp.graph.geom.VertexStore;
 import com.jogamp.graph.math.VectorUtil;
 
 import jogamp.opengl.Debug;
@@ -51,6 +52,7 @@ public class CDTriangulator2D implements Triangulator{
     private float sharpness = 0.5f;
     private ArrayList<Loop> loops;
     private ArrayList<Vertex> vertices;
+    private ArrayList<Outline> outlines;
     
     private ArrayList<Triangle> triangles;
     private int maxTriID = 0;
@@ -68,12 +70,14 @@ public class CDTriangulator2D implements Triangulator{
     public void reset() {
         maxTriID = 0;
         vertices = new ArrayList<Vertex>();
+        outlines = new ArrayList<Outline>();
         triangles = new ArrayList<Triangle>(3);
         loops = new ArrayList<Loop>();
     }
     
     public void addCurve(Outline polyline) {
         Loop loop = null;
+        outlines.add(polyline);
         
         if(!loops.isEmpty()) {
             loop = getContainerLoop(polyline);
@@ -131,6 +135,36 @@ public class CDTriangulator2D implements Triangulator{
         return triangles;
     }
 
+    public void generate(VertexStore store) {
+        final ArrayList<Triangle> triangles = generate();
+        
+        // outline vertices are shared by the triangles
+        int vertexCount = 0;
+        for(int i=0; i<outlines.size(); i++) {
+            vertexCount += outlines.get(i).getVertexCount();
+        }
+        store.ensureCapacity(vertexCount, triangles.size());
+        for(int i=0; i<outlines.size(); i++) {
+            final ArrayList<Vertex> outlineVertices = outlines.get(i).getVertices();
+            for(int j=0; j<outlineVertices.size(); j++) {
+                final Vertex v = outlineVertices.get(j);
+                v.setId(store.addVertex(v));
+            }
+        }
+        // curve triangles own their cloned vertices w/ blank id
+        for(int i=0; i<triangles.size(); i++) {
+            final Vertex[] t_vertices = triangles.get(i).getVertices();
+            if(t_vertices[0].getId() == Integer.MAX_VALUE){
+                final int a = store.addVertex(t_vertices[0]);
+                final int b = store.addVertex(t_vertices[1]);
+                final int c = store.addVertex(t_vertices[2]);
+                store.addTriangle(a, b, c);
+            } else {
+                store.addTriangle(t_vertices[0].getId(), t_vertices[1].getId(), t_vertices[2].getId());
+            }
+        }
+    }
+    
     private GraphOutline extractBoundaryTriangles(GraphOutline outline, boolean hole) {
         GraphOutline innerOutline = new GraphOutline();
         ArrayList<GraphVertex> outVertices = outline.getGraphPoint();
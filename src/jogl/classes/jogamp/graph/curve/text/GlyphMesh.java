@@ -0,0 +1,96 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.graph.curve.text;
+
+import com.jogamp.graph.curve.OutlineShape;
+import com.jogamp.graph.curve.Region;
+import com.jogamp.graph.geom.VertexStore;
+
+/**
+ * Triangulated mesh of a single glyph in font units.
+ * <p>
+ * The mesh is created once per glyph and cached by the font,
+ * {@link GlyphString} instances it at each pen position by translation and scale only,
+ * hence a glyph is triangulated only once regardless of its occurrences.
+ * </p>
+ * <p>
+ * The mesh is held in a {@link VertexStore} and instanced into the region's vertex store,
+ * w/o creating any vertex or triangle objects.
+ * </p>
+ */
+public final class GlyphMesh {
+    private final VertexStore store;
+
+    private GlyphMesh(VertexStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Triangulates the given glyph shape.
+     * <p>
+     * The shape is transformed to {@link OutlineShape.VerticesState#QUADRATIC_NURBS} and shall not be used otherwise.
+     * </p>
+     * @param shape the glyph's outline shape in font units
+     * @return the new mesh or null if the shape has less than 3 vertices
+     */
+    public static GlyphMesh create(OutlineShape shape) {
+        final GlyphShape glyphShape = new GlyphShape(shape.vertexFactory(), shape);
+        if( glyphShape.getNumVertices() < 3 ) {
+            return null;
+        }
+        final VertexStore store = new VertexStore(glyphShape.getNumVertices(), glyphShape.getNumVertices());
+        glyphShape.getShape().triangulate(store);
+        return new GlyphMesh(store);
+    }
+
+    public final int getVertexCount() { return store.getVertexCount(); }
+
+    public final int getTriangleCount() { return store.getTriangleCount(); }
+
+    /**
+     * Adds the triangles and vertices of this mesh to the given region's vertex store,
+     * transformed by <code>scale</code> and translated to the pen position <code>tx</code>, <code>ty</code>.
+     * @param region the target region
+     * @param scale scale from font units to the target size
+     * @param tx pen position x
+     * @param ty pen position y
+     * @see Region#addInstance(VertexStore, float, float, float)
+     */
+    public void addInstance(Region region, float scale, float tx, float ty) {
+        region.addInstance(store, scale, tx, ty);
+    }
+
+    /** Returns the estimated heap footprint in bytes */
+    public int getByteSize() {
+        return 16 + store.getByteSize();
+    }
+
+    public String toString() {
+        return "GlyphMesh["+store+"]";
+    }
+}
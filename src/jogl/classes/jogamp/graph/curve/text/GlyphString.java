@@ -54,6 +54,10 @@ public class GlyphString {
     public static final int STATIC_FONT_SIZE = 10;
     
     private ArrayList<GlyphShape> glyphs = new ArrayList<GlyphShape>();
+    /** Cached glyph meshes instanced at pen positions, alternative to {@link #glyphs} */
+    private ArrayList<GlyphMesh> meshes = new ArrayList<GlyphMesh>();
+    private float[] meshOffsets = null;
+    private float meshScale;
     private CharSequence str;
     private String fontname;
     private GLRegion region;
@@ -62,7 +66,7 @@ public class GlyphString {
 
     /**
      * <p>Uses {@link #STATIC_FONT_SIZE}.</p>
-     * <p>No caching is performed.</p>
+     * <p>See {@link #createString(OutlineShape, Factory, Font, int, String)} regarding caching.</p>
      * 
      * @param shape is not null, add all {@link GlyphShape}'s {@link Outline} to this instance.
      * @param vertexFactory vertex impl factory {@link Factory}
@@ -75,7 +79,9 @@ public class GlyphString {
     }
     
     /**
-     * <p>No caching is performed.</p>
+     * <p>If <code>shape</code> is null, the triangulated glyph meshes cached by the font 
+     * are instanced at their pen positions, hence each glyph is triangulated only once.
+     * Otherwise no caching is performed and each glyph occurrence is triangulated.</p>
      * 
      * @param shape is not null, add all {@link GlyphShape}'s {@link Outline} to this instance.
      * @param vertexFactory vertex impl factory {@link Factory}
@@ -85,6 +91,11 @@ public class GlyphString {
      * @return the created {@link GlyphString} instance
      */
     public static GlyphString createString(OutlineShape shape, Factory<? extends Vertex> vertexFactory, Font font, int fontSize, String str) {
+        if(null == shape) {
+            GlyphString glyphString = new GlyphString(font.getName(Font.NAME_UNIQUNAME), str);
+            glyphString.createFromGlyphMeshes((FontInt)font, fontSize);
+            return glyphString;
+        }
     	ArrayList<OutlineShape> shapes = ((FontInt)font).getOutlineShapes(str, fontSize, vertexFactory);
         
         GlyphString glyphString = new GlyphString(font.getName(Font.NAME_UNIQUNAME), str);
@@ -134,6 +145,30 @@ public class GlyphString {
         }
     }
     
+    /**Lays out this string w/ the given font and collects the font's cached {@link GlyphMesh}es 
+     * to be instanced at their pen positions by {@link #createRegion(GL2ES2, int)}.
+     * @param font the target {@link Font}
+     * @param fontSize font size
+     */
+    public void createFromGlyphMeshes(FontInt font, int fontSize) {
+        final int len = str.length();
+        final FontInt.GlyphInt[] layoutGlyphs = new FontInt.GlyphInt[len];
+        final float[] layoutOffsets = new float[2*len];
+        final int count = font.layoutString(str, fontSize, layoutGlyphs, layoutOffsets);
+        meshScale = font.getMetrics().getScale(fontSize);
+        meshOffsets = new float[2*count];
+        meshes.ensureCapacity(count);
+        for(int i=0; i<count; i++) {
+            final GlyphMesh mesh = layoutGlyphs[i].getMesh();
+            if(null == mesh) {
+                continue;
+            }
+            meshOffsets[2*meshes.size()]   = layoutOffsets[2*i];
+            meshOffsets[2*meshes.size()+1] = layoutOffsets[2*i+1];
+            meshes.add(mesh);
+        }
+    }
+    
     
     /** Generate a OGL Region to represent this Object.
      * @param gl the current gl object
@@ -143,7 +178,14 @@ public class GlyphString {
     public GLRegion createRegion(GL2ES2 gl, int renderModes){
         region = RegionFactory.create(renderModes);
         // region.setFlipped(true);
-        
+        addToRegion(region);
+        return region;
+    }
+    
+    /** Adds the triangles and vertices of all glyphs to the given region.
+     * @param region the target region
+     */
+    public void addToRegion(Region region) {
         int numVertices = region.getNumVertices();
         
         for(int i=0; i< glyphs.size(); i++) {
@@ -158,7 +200,9 @@ public class GlyphString {
                 region.addVertex(gVert);
             }
         }
-        return region;
+        for(int i=0; i< meshes.size(); i++) {
+            meshes.get(i).addInstance(region, meshScale, meshOffsets[2*i], meshOffsets[2*i+1]);
+        }
     }
     
     /** Generate a Hashcode for this object 
@@ -205,9 +249,18 @@ public class GlyphString {
             throw new InternalError("destroy called w/o GL context, but has a region");
         }
         glyphs.clear();
+        meshes.clear();
     }
     
     public AABBox getBounds(){
         return region.getBounds();
     }
+    
+    /** 
+     * @return the estimated GPU memory in bytes held by the associated region,
+     *         see {@link GLRegion#getSizeInBytes()}. 
+     */
+    public long getSizeInBytes() {
+        return null != region ? region.getSizeInBytes() : 0;
+    }
 }
@@ -29,6 +29,7 @@ package jogamp.graph.font;
 
 import java.util.ArrayList;
 
+import jogamp.graph.curve.text.GlyphMesh;
 import jogamp.graph.geom.plane.Path2D;
 
 import com.jogamp.graph.curve.OutlineShape;
@@ -41,7 +42,24 @@ public interface FontInt extends Font {
     public interface GlyphInt extends Font.Glyph {
         public Path2D getPath();  // unscaled path
         public Path2D getPath(float pixelSize);         
+        /** Returns the lazily created and cached triangulated mesh of the unscaled path, or null if the glyph has no area. */
+        public GlyphMesh getMesh();
     }
 
     public ArrayList<OutlineShape> getOutlineShapes(CharSequence string, float pixelSize, Factory<? extends Vertex> vertexFactory);
+
+    /**
+     * Lays out the string like {@link #getOutlineShapes(CharSequence, float, Factory)},
+     * i.e. w/ kerning and ligatures, w/o creating any outline.
+     * <p>
+     * A visible glyph's shape at its pen position is its unscaled path, scaled by {@link Font.Metrics#getScale(float)}
+     * and translated by its offset.
+     * </p>
+     * @param string the text
+     * @param pixelSize the font size
+     * @param glyphs receives the visible glyphs, shall be at least of the string's length 
+     * @param offsets receives the pen position x/y of each visible glyph, shall be at least of twice the string's length
+     * @return the number of visible glyphs
+     */
+    public int layoutString(CharSequence string, float pixelSize, GlyphInt[] glyphs, float[] offsets);
 }
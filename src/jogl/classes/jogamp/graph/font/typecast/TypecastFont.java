@@ -40,7 +40,6 @@ import jogamp.graph.font.typecast.ot.table.ID;
 import jogamp.graph.geom.plane.AffineTransform;
 import jogamp.graph.geom.plane.Path2D;
 
-import com.jogamp.common.util.IntObjectHashMap;
 import com.jogamp.graph.curve.OutlineShape;
 import com.jogamp.graph.font.Font;
 import com.jogamp.graph.font.FontFactory;
@@ -58,8 +57,8 @@ class TypecastFont implements FontInt {
     final CmapFormat cmapFormat;
     int cmapentries;
     
-    // FIXME: Add cache size to limit memory usage ??    
-    IntObjectHashMap char2Glyph; 
+    final TypecastGlyphCache glyphCache; 
+    TypecastLayout layout;
 
     public TypecastFont(OTFontCollection fontset) {
         this.fontset = fontset;
@@ -145,7 +144,7 @@ class TypecastFont implements FontInt {
                 }
             }
         }
-        char2Glyph = new IntObjectHashMap(cmapentries + cmapentries/4);
+        glyphCache = new TypecastGlyphCache(Math.min(cmapentries, TypecastGlyphCache.DEFAULT_MAX_ENTRIES) * 5 / 4 + 1);
     }
     
     public StringBuilder getName(StringBuilder sb, int nameIndex) {
@@ -174,8 +173,19 @@ class TypecastFont implements FontInt {
         return metrics;
     }
 
+    /** Returns the lazily created kerning and ligature layout data of this font */
+    final TypecastLayout getLayout() {
+        if (layout == null) {
+            layout = new TypecastLayout(font);
+            if(DEBUG) {
+                System.err.println("Layout: "+layout);
+            }
+        }
+        return layout;
+    }
+
     public Glyph getGlyph(char symbol) {
-        TypecastGlyph result = (TypecastGlyph) char2Glyph.get(symbol);        
+        TypecastGlyph result = glyphCache.get(symbol);
         if (null == result) {
             // final short code = (short) char2Code.get(symbol);
             short code = (short) cmapFormat.mapCharCode(symbol);
@@ -187,54 +197,84 @@ class TypecastFont implements FontInt {
                     default:   code = Glyph.ID_UNKNOWN;
                 }
             }
-            
-            jogamp.graph.font.typecast.ot.OTGlyph glyph = font.getGlyph(code);
-            if(null == glyph) {
-                glyph = font.getGlyph(Glyph.ID_UNKNOWN);
-            }
-            if(null == glyph) {
-                throw new RuntimeException("Could not retrieve glyph for symbol: <"+symbol+"> "+(int)symbol+" -> glyph id "+code);
-            }
-            Path2D path = TypecastRenderer.buildPath(glyph);
-            result = new TypecastGlyph(this, symbol, code, glyph.getBBox(), glyph.getAdvanceWidth(), path);
-            if(DEBUG) {
-                System.err.println("New glyph: " + (int)symbol + " ( " + (char)symbol +" ) -> " + code + ", contours " + glyph.getPointCount() + ": " + path);
-            }
-            final HdmxTable hdmx = font.getHdmxTable();            
-            if (null!= result && null != hdmx) {
-                /*if(DEBUG) {
-                    System.err.println("hdmx "+hdmx);
-                }*/
-                for (int i=0; i<hdmx.getNumberOfRecords(); i++)
-                {
-                    final HdmxTable.DeviceRecord dr = hdmx.getRecord(i); 
-                    result.addAdvance(dr.getWidth(code), dr.getPixelSize());
-                    /* if(DEBUG) {
-                        System.err.println("hdmx advance : pixelsize = "+dr.getWidth(code)+" : "+ dr.getPixelSize());
-                    } */
-                }
-            }            
-            char2Glyph.put(symbol, result);
+            result = glyphCache.put(createGlyph(symbol, code));
+        }
+        return result;
+    }
+    
+    /** Returns the unsigned glyph ID of <code>symbol</code> */
+    final int getGlyphID(char symbol) {
+        return ((TypecastGlyph)getGlyph(symbol)).getID() & 0xffff;
+    }
+    
+    /**
+     * Returns the glyph of a ligature substituted by the {@link TypecastLayout}.
+     * @param code the ligature glyph ID
+     * @param symbol the first symbol of the substituted sequence
+     */
+    final TypecastGlyph getLigatureGlyph(int code, char symbol) {
+        TypecastGlyph result = glyphCache.getLigature(code);
+        if (null == result) {
+            result = createGlyph(symbol, (short)code);
+            result.cacheKey = TypecastGlyphCache.getLigatureKey(code);
+            result = glyphCache.put(result);
         }
         return result;
     }
+    
+    private TypecastGlyph createGlyph(char symbol, short code) {
+        jogamp.graph.font.typecast.ot.OTGlyph glyph = font.getGlyph(code);
+        if(null == glyph) {
+            glyph = font.getGlyph(Glyph.ID_UNKNOWN);
+        }
+        if(null == glyph) {
+            throw new RuntimeException("Could not retrieve glyph for symbol: <"+symbol+"> "+(int)symbol+" -> glyph id "+code);
+        }
+        Path2D path = TypecastRenderer.buildPath(glyph);
+        TypecastGlyph result = new TypecastGlyph(this, symbol, code, glyph.getBBox(), glyph.getAdvanceWidth(), path);
+        if(DEBUG) {
+            System.err.println("New glyph: " + (int)symbol + " ( " + (char)symbol +" ) -> " + code + ", contours " + glyph.getPointCount() + ": " + path);
+        }
+        final HdmxTable hdmx = font.getHdmxTable();            
+        if (null != hdmx) {
+            /*if(DEBUG) {
+                System.err.println("hdmx "+hdmx);
+            }*/
+            for (int i=0; i<hdmx.getNumberOfRecords(); i++)
+            {
+                final HdmxTable.DeviceRecord dr = hdmx.getRecord(i); 
+                result.addAdvance(dr.getWidth(code), dr.getPixelSize());
+                /* if(DEBUG) {
+                    System.err.println("hdmx advance : pixelsize = "+dr.getWidth(code)+" : "+ dr.getPixelSize());
+                } */
+            }
+        }            
+        return result;
+    }
+    
+    public GlyphCache getGlyphCache() {
+        return glyphCache;
+    }
    
     public ArrayList<OutlineShape> getOutlineShapes(CharSequence string, float pixelSize, Factory<? extends Vertex> vertexFactory) {
     	AffineTransform transform = new AffineTransform(vertexFactory);
     	return TypecastRenderer.getOutlineShapes(this, string, pixelSize, transform, vertexFactory);
     }
 
+    public int layoutString(CharSequence string, float pixelSize, GlyphInt[] glyphs, float[] offsets) {
+        return TypecastRenderer.layoutString(this, string, pixelSize, glyphs, offsets);
+    }
+
     public float getStringWidth(CharSequence string, float pixelSize) {
+        final float scale = getMetrics().getScale(pixelSize);
         float width = 0;
-        final int len = string.length();
-        for (int i=0; i< len; i++)
+        final TypecastLayout.GlyphIterator iter = new TypecastLayout.GlyphIterator(this, string);
+        while ( iter.next() )
         {
-            char character = string.charAt(i);
-            if (character == '\n') {
+            if ( iter.isLineFeed() ) {
                 width = 0;
             } else {
-                Glyph glyph = getGlyph(character);
-                width += glyph.getAdvance(pixelSize, false);
+                width += iter.getKerning() * scale + iter.getGlyph().getAdvance(pixelSize, false);
             }
         }
 
@@ -266,19 +306,19 @@ class TypecastFont implements FontInt {
         final float ascent = metrics.getAscent(pixelSize);
         final float descent = metrics.getDescent(pixelSize);
         final float advanceY = lineGap - descent + ascent;
+        final float scale = metrics.getScale(pixelSize);
         float totalHeight = 0;
         float totalWidth = 0;
         float curLineWidth = 0;
-        for (int i=0; i<string.length(); i++) {
-            char character = string.charAt(i);
-            if (character == '\n') {
+        final TypecastLayout.GlyphIterator iter = new TypecastLayout.GlyphIterator(this, string);
+        while ( iter.next() ) {
+            if ( iter.isLineFeed() ) {
                 totalWidth = Math.max(curLineWidth, totalWidth);
                 curLineWidth = 0;
                 totalHeight -= advanceY;
                 continue;
             }
-            Glyph glyph = getGlyph(character);
-            curLineWidth += glyph.getAdvance(pixelSize, true);
+            curLineWidth += iter.getKerning() * scale + iter.getGlyph().getAdvance(pixelSize, true);
         }
         if (curLineWidth > 0) {
             totalHeight -= advanceY;
@@ -37,18 +37,27 @@ import javax.media.opengl.GLException;
 
 import jogamp.graph.font.FontConstructor;
 import jogamp.graph.font.typecast.ot.OTFontCollection;
+import jogamp.opengl.Debug;
 
 import com.jogamp.common.util.IOUtil;
 import com.jogamp.graph.font.Font;
 
 public class TypecastFontConstructor implements FontConstructor  {
+    /** 
+     * If <code>true</code>, font files are read and parsed completely at creation,
+     * otherwise (default) they are mapped into memory and parsed lazily.
+     * <p>
+     * Property <code>jogl.font.typecast.eager</code>.
+     * </p>
+     */
+    static final boolean EAGER_LOADING = Debug.isPropertyDefined("jogl.font.typecast.eager", true);
 
     public Font create(final File ffile) throws IOException {
         Object o = AccessController.doPrivileged(new PrivilegedAction<Object>() {
             public Object run() {
                 OTFontCollection fontset;        
                 try {
-                    fontset = OTFontCollection.create(ffile);
+                    fontset = OTFontCollection.create(ffile, !EAGER_LOADING);
                     return new TypecastFont(fontset);
                 } catch (IOException e) {
                     return e;
@@ -78,7 +87,10 @@ public class TypecastFontConstructor implements FontConstructor  {
                         throw new GLException("Font of stream "+fconn.getURL()+" was zero bytes");
                     }
                     f = create(tf);
-                    tf.delete();
+                    if( !tf.delete() ) {
+                        // still mapped on platforms not allowing to delete mapped files
+                        tf.deleteOnExit();
+                    }
                 } catch (IOException e) {
                     e.printStackTrace();
                 }
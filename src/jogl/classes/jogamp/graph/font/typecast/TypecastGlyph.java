@@ -27,21 +27,23 @@
  */
 package jogamp.graph.font.typecast;
 
-import java.util.HashMap;
-
+import jogamp.graph.curve.text.GlyphMesh;
 import jogamp.graph.font.FontInt;
 import jogamp.graph.geom.plane.AffineTransform;
 import jogamp.graph.geom.plane.Path2D;
 
 import com.jogamp.graph.font.Font;
 import com.jogamp.graph.geom.AABBox;
+import com.jogamp.graph.geom.opengl.SVertex;
 
 public class TypecastGlyph implements FontInt.GlyphInt {
     public class Advance
     {
         final Font      font;
         final float     advance; 
-        HashMap<Float, Float> size2advance = new HashMap<Float, Float>(); 
+        /** Device advances, e.g. from the 'hdmx' table, as pairs of pixel size and advance */
+        float[]   size2advance = null;
+        int       sizeCount = 0;
         
         public Advance(Font font, float advance)
         {
@@ -50,7 +52,8 @@ public class TypecastGlyph implements FontInt.GlyphInt {
         }
         
         public void reset() {
-            size2advance.clear();
+            size2advance = null;
+            sizeCount = 0;
         }
         
         public float getScale(float pixelSize)
@@ -60,30 +63,56 @@ public class TypecastGlyph implements FontInt.GlyphInt {
         
         public void add(float advance, float size)
         {
-            size2advance.put(size, advance);
+            for(int i=0; i<sizeCount; i++) {
+                if( size2advance[2*i] == size ) {
+                    size2advance[2*i+1] = advance;
+                    return;
+                }
+            }
+            if( null == size2advance ) {
+                size2advance = new float[2*4];
+            } else if( size2advance.length == 2*sizeCount ) {
+                final float[] tmp = new float[2*2*sizeCount];
+                System.arraycopy(size2advance, 0, tmp, 0, 2*sizeCount);
+                size2advance = tmp;
+            }
+            size2advance[2*sizeCount]   = size;
+            size2advance[2*sizeCount+1] = advance;
+            sizeCount++;
         }
         
         public float get(float size, boolean useFrationalMetrics)
         {
-            Float fo = size2advance.get(size);
-            if(null == fo) {            
-                float value = (this.advance * getScale(size));
-                if (useFrationalMetrics == false) {
-                    //value = (float)Math.ceil(value);
-                    // value = (int)value;
-                    value = (int) ( value + 0.5f ) ; // TODO: check 
+            for(int i=0; i<sizeCount; i++) {
+                if( size2advance[2*i] == size ) {
+                    return size2advance[2*i+1];
                 }
-                size2advance.put(size, value);
-                return value;
             }
-            return fo.floatValue();
+            float value = (this.advance * getScale(size));
+            if (useFrationalMetrics == false) {
+                //value = (float)Math.ceil(value);
+                // value = (int)value;
+                value = (int) ( value + 0.5f ) ; // TODO: check 
+            }
+            return value;
+        }
+        
+        /** Returns the estimated heap footprint in bytes */
+        int getByteSize() {
+            return 32 + ( null != size2advance ? 16 + 4 * size2advance.length : 0 );
         }
         
         public String toString()
         {
-            return "\nAdvance:"+
-                "\n  advance: "+this.advance+
-                "\n advances: \n"+size2advance;
+            final StringBuilder sb = new StringBuilder();
+            sb.append("\nAdvance:").append("\n  advance: ").append(this.advance).append("\n advances: \n{");
+            for(int i=0; i<sizeCount; i++) {
+                if( 0 < i ) {
+                    sb.append(", ");
+                }
+                sb.append(size2advance[2*i]).append("=").append(size2advance[2*i+1]);
+            }
+            return sb.append("}").toString();
         }
     }
     
@@ -122,6 +151,10 @@ public class TypecastGlyph implements FontInt.GlyphInt {
             return this.advance.get(size, useFrationalMetrics);
         }
         
+        int getByteSize() {
+            return 16 + 48 + this.advance.getByteSize();
+        }
+        
         public String toString()
         {
             return "\nMetrics:"+
@@ -143,16 +176,27 @@ public class TypecastGlyph implements FontInt.GlyphInt {
     protected Path2D path; // in EM units
     protected Path2D pathSized;
     protected float numberSized;
+    protected volatile GlyphMesh mesh; // in EM units
+    protected boolean meshValid; // guarded by this
+    
+    // TypecastGlyphCache state
+    TypecastGlyph lruPrev;
+    TypecastGlyph lruNext;
+    int cacheBytes;
+    /** the symbol, or {@link TypecastGlyphCache#getLigatureKey(int)} for ligature glyphs */
+    int cacheKey;
     
     protected TypecastGlyph(Font font, char symbol) {
         this.font = font;
         this.symbol = symbol;
+        this.cacheKey = symbol;
     }
     
     protected TypecastGlyph(Font font,
                             char symbol, short id, AABBox bbox, int advance, Path2D path) {
         this.font = font;
         this.symbol = symbol;
+        this.cacheKey = symbol;
         this.advance = advance;
         
         init(id, bbox, advance);
@@ -168,9 +212,11 @@ public class TypecastGlyph implements FontInt.GlyphInt {
         this.metrics = new Metrics(this.font, bbox, this.advance);
     }
     
-    public void reset(Path2D path) {
+    public synchronized void reset(Path2D path) {
         this.path = path;
         this.metrics.reset();
+        this.meshValid = false;
+        this.mesh = null;
     }
     
     public Font getFont() {
@@ -229,4 +275,35 @@ public class TypecastGlyph implements FontInt.GlyphInt {
         }        
         return this.pathSized;
     }    
+    
+    public GlyphMesh getMesh() {
+        final GlyphMesh m;
+        final boolean created;
+        synchronized(this) {
+            created = !meshValid;
+            if( created ) {
+                // only flagged valid after success, a failed triangulation is retried
+                if( null != path ) {
+                    mesh = GlyphMesh.create(TypecastRenderer.getOutlineShape(path, null, SVertex.factory()));
+                }
+                meshValid = true;
+            }
+            m = mesh;
+        }
+        // outside of the glyph lock, the cache locks itself and sizes its glyphs
+        if( created && font instanceof TypecastFont ) {
+            ((TypecastFont)font).glyphCache.resize(this);
+        }
+        return m;
+    }
+    
+    /**
+     * Returns the estimated heap footprint of this glyph in bytes,
+     * assuming its {@link #getPath(float) sized path} has been created.
+     */
+    public int getByteSize() {
+        final int pathBytes = null != path ? path.getByteSize() : 0;
+        final int meshBytes = null != mesh ? mesh.getByteSize() : 0;
+        return 48 + 2 * pathBytes + meshBytes + ( null != metrics ? metrics.getByteSize() : 0 );
+    }
 }
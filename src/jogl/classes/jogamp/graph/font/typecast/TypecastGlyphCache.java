@@ -0,0 +1,245 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.graph.font.typecast;
+
+import jogamp.opengl.Debug;
+
+import com.jogamp.common.util.IntObjectHashMap;
+import com.jogamp.graph.font.Font;
+
+/**
+ * Bounded least recently used {@link TypecastGlyph} cache, keyed by symbol.
+ * Ligature glyphs, which have no symbol of their own, are keyed by their glyph ID
+ * above the symbol range, see {@link #getLigatureKey(int)}.
+ * <p>
+ * The recently used order is maintained by a doubly linked list
+ * threaded through the cached glyphs, hence lookup, insertion and eviction are O(1).
+ * </p>
+ * <p>
+ * Since a lookup reorders the list, all methods are synchronized on this cache,
+ * allowing concurrent glyph lookups on a shared {@link Font}.
+ * </p>
+ * <p>
+ * The default limits may be set via the properties
+ * <code>jogl.font.glyphcache.entries</code> and <code>jogl.font.glyphcache.bytes</code>.
+ * </p>
+ */
+final class TypecastGlyphCache implements Font.GlyphCache {
+    static final int DEFAULT_MAX_ENTRIES = getIntProperty("jogl.font.glyphcache.entries", 1024);
+    static final long DEFAULT_MAX_BYTES = getLongProperty("jogl.font.glyphcache.bytes", 8 * 1024 * 1024);
+    
+    /** Keys of ligature glyphs, above the 16 bit symbol range */
+    private static final int LIGATURE_KEY = 1 << 16;
+    
+    private final IntObjectHashMap key2Glyph;
+    /** most recently used */
+    private TypecastGlyph head;
+    /** least recently used */
+    private TypecastGlyph tail;
+    
+    private int maxEntries;
+    private long maxBytes;
+    private long byteCount;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    
+    TypecastGlyphCache(int initialCapacity) {
+        key2Glyph = new IntObjectHashMap(initialCapacity);
+        maxEntries = Math.max(1, DEFAULT_MAX_ENTRIES);
+        maxBytes = DEFAULT_MAX_BYTES;
+    }
+    
+    private static int getIntProperty(String property, int defaultValue) {
+        final long v = getLongProperty(property, defaultValue);
+        if( Integer.MIN_VALUE > v || v > Integer.MAX_VALUE ) {
+            System.err.println("TypecastGlyphCache: Invalid value of property "+property+": "+v);
+            return defaultValue;
+        }
+        return (int) v;
+    }
+    
+    private static long getLongProperty(String property, long defaultValue) {
+        final String s = Debug.getProperty(property, true);
+        if( null != s ) {
+            try {
+                return Long.parseLong(s);
+            } catch (NumberFormatException nfe) {
+                System.err.println("TypecastGlyphCache: Invalid value of property "+property+": "+s);
+            }
+        }
+        return defaultValue;
+    }
+    
+    /** Returns the cache key of the ligature glyph <code>glyphID</code> */
+    static int getLigatureKey(int glyphID) {
+        return LIGATURE_KEY | glyphID;
+    }
+    
+    /** Returns the cached glyph for <code>symbol</code> and marks it most recently used, or <code>null</code>. */
+    final TypecastGlyph get(char symbol) {
+        return getByKey(symbol);
+    }
+    
+    /** Returns the cached ligature glyph <code>glyphID</code> and marks it most recently used, or <code>null</code>. */
+    final TypecastGlyph getLigature(int glyphID) {
+        return getByKey(getLigatureKey(glyphID));
+    }
+    
+    private synchronized TypecastGlyph getByKey(int key) {
+        final TypecastGlyph glyph = (TypecastGlyph) key2Glyph.get(key);
+        if( null != glyph ) {
+            hitCount++;
+            if( head != glyph ) {
+                unlink(glyph);
+                linkFirst(glyph);
+            }
+        } else {
+            missCount++;
+        }
+        return glyph;
+    }
+    
+    /** 
+     * Adds the new <code>glyph</code> as most recently used, evicting glyphs exceeding the limits.
+     * If a glyph w/ the same key has been added concurrently, the latter is kept instead.
+     * @return the cached glyph, i.e. the given one or the concurrently added one.
+     */
+    final synchronized TypecastGlyph put(TypecastGlyph glyph) {
+        final TypecastGlyph old = (TypecastGlyph) key2Glyph.get(glyph.cacheKey);
+        if( null != old ) {
+            if( head != old ) {
+                unlink(old);
+                linkFirst(old);
+            }
+            return old;
+        }
+        key2Glyph.put(glyph.cacheKey, glyph);
+        glyph.cacheBytes = glyph.getByteSize();
+        byteCount += glyph.cacheBytes;
+        linkFirst(glyph);
+        trim();
+        return glyph;
+    }
+    
+    /** Updates the accounted size of <code>glyph</code> if cached, e.g. after its mesh has been created. */
+    final synchronized void resize(TypecastGlyph glyph) {
+        if( glyph == key2Glyph.get(glyph.cacheKey) ) {
+            final int bytes = glyph.getByteSize();
+            byteCount += bytes - glyph.cacheBytes;
+            glyph.cacheBytes = bytes;
+            trim();
+        }
+    }
+    
+    private final void trim() {
+        // never evict the most recently used glyph
+        while( tail != head && ( key2Glyph.size() > maxEntries || byteCount > maxBytes ) ) {
+            final TypecastGlyph glyph = tail;
+            key2Glyph.remove(glyph.cacheKey);
+            remove(glyph);
+            evictionCount++;
+        }
+    }
+    
+    private final void remove(TypecastGlyph glyph) {
+        unlink(glyph);
+        byteCount -= glyph.cacheBytes;
+        glyph.cacheBytes = 0;
+    }
+    
+    private final void linkFirst(TypecastGlyph glyph) {
+        glyph.lruPrev = null;
+        glyph.lruNext = head;
+        if( null != head ) {
+            head.lruPrev = glyph;
+        } else {
+            tail = glyph;
+        }
+        head = glyph;
+    }
+    
+    private final void unlink(TypecastGlyph glyph) {
+        final TypecastGlyph prev = glyph.lruPrev;
+        final TypecastGlyph next = glyph.lruNext;
+        if( null != prev ) {
+            prev.lruNext = next;
+        } else {
+            head = next;
+        }
+        if( null != next ) {
+            next.lruPrev = prev;
+        } else {
+            tail = prev;
+        }
+        glyph.lruPrev = null;
+        glyph.lruNext = null;
+    }
+    
+    public final synchronized int getMaxEntries() { return maxEntries; }
+    
+    public final synchronized long getMaxBytes() { return maxBytes; }
+    
+    public final synchronized void setLimits(int maxEntries, long maxBytes) {
+        if( 1 > maxEntries || 0 > maxBytes ) {
+            throw new IllegalArgumentException("Invalid limits: entries "+maxEntries+", bytes "+maxBytes);
+        }
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        trim();
+    }
+    
+    public final synchronized int getEntryCount() { return key2Glyph.size(); }
+    
+    public final synchronized long getByteCount() { return byteCount; }
+    
+    public final synchronized long getHitCount() { return hitCount; }
+    
+    public final synchronized long getMissCount() { return missCount; }
+    
+    public final synchronized long getEvictionCount() { return evictionCount; }
+    
+    public final synchronized void resetStats() {
+        hitCount = 0;
+        missCount = 0;
+        evictionCount = 0;
+    }
+    
+    public final synchronized void clear() {
+        while( null != head ) {
+            remove(head);
+        }
+        key2Glyph.clear();
+        byteCount = 0;
+    }
+    
+    public final synchronized String toString() {
+        return "GlyphCache[entries "+getEntryCount()+"/"+maxEntries+", bytes "+byteCount+"/"+maxBytes+
+               ", hits "+hitCount+", misses "+missCount+", evictions "+evictionCount+"]";
+    }
+}
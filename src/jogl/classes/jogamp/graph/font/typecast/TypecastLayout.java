@@ -0,0 +1,428 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.graph.font.typecast;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import jogamp.graph.font.typecast.ot.OTFont;
+import jogamp.graph.font.typecast.ot.table.FeatureList;
+import jogamp.graph.font.typecast.ot.table.GsubTable;
+import jogamp.graph.font.typecast.ot.table.KernSubtable;
+import jogamp.graph.font.typecast.ot.table.KernTable;
+import jogamp.graph.font.typecast.ot.table.KerningPair;
+import jogamp.graph.font.typecast.ot.table.Ligature;
+import jogamp.graph.font.typecast.ot.table.LigatureSet;
+import jogamp.graph.font.typecast.ot.table.LigatureSubstFormat1;
+import jogamp.graph.font.typecast.ot.table.Lookup;
+import jogamp.graph.font.typecast.ot.table.LookupList;
+import jogamp.graph.font.typecast.ot.table.LookupSubtable;
+import jogamp.graph.font.typecast.ot.table.Table;
+import jogamp.opengl.Debug;
+
+/**
+ * Per font text layout data, i.e. pair kerning from the 'kern' table
+ * and ligature substitution from the GSUB 'liga' feature.
+ * <p>
+ * Both are flattened into primitive open addressing hash tables keyed by glyph ID,
+ * the kerning table by the glyph ID pair <code>left &lt;&lt; 16 | right</code>.
+ * Hence a lookup is O(1) and laying out a string does not allocate any objects per glyph.
+ * </p>
+ * <p>
+ * The layout of a string is walked via a {@link GlyphIterator}.
+ * </p>
+ * <p>
+ * Layout may be disabled via the property <code>jogl.font.typecast.nolayout</code>.
+ * </p>
+ */
+final class TypecastLayout {
+    static final boolean DISABLED = Debug.isPropertyDefined("jogl.font.typecast.nolayout", true);
+
+    private static final int EMPTY = -1;
+    private static final int LIGA = ('l'<<24) | ('i'<<16) | ('g'<<8) | 'a';
+
+    /** Kerning hash, keys are glyph ID pairs, values in font units */
+    private int[] kernKeys;
+    private short[] kernValues;
+    private int kernShift;
+    private int kernCount;
+    /** The pair <code>0xFFFF, 0xFFFF</code> equals the {@link #EMPTY} key, hence is stored aside */
+    private boolean kernHasEmptyKey;
+    private short kernEmptyKeyValue;
+
+    /** Ligature hash, keys are first glyph IDs, values are offsets into {@link #ligData} */
+    private int[] ligKeys;
+    private int[] ligOffsets;
+    private int ligShift;
+    /**
+     * Packed ligatures, per first glyph: <code>count, { length, ligatureGlyph, component_1 .. component_length-1 }</code>
+     */
+    private int[] ligData;
+    private int ligCount;
+
+    TypecastLayout(OTFont font) {
+        if( !DISABLED ) {
+            try {
+                initKerning((KernTable) font.getTable(Table.kern));
+            } catch (RuntimeException e) {
+                // malformed or unsupported table, lay out w/o kerning
+                kernKeys = null;
+                kernCount = 0;
+                if(TypecastFont.DEBUG) {
+                    e.printStackTrace();
+                }
+            }
+            try {
+                initLigatures((GsubTable) font.getTable(Table.GSUB));
+            } catch (RuntimeException e) {
+                // malformed or unsupported table, lay out w/o ligatures
+                ligKeys = null;
+                ligCount = 0;
+                if(TypecastFont.DEBUG) {
+                    e.printStackTrace();
+                }
+            }
+        }
+        if( null == kernKeys ) {
+            kernKeys = new int[] { EMPTY };
+            kernValues = new short[1];
+            kernShift = 32;
+        }
+        if( null == ligKeys ) {
+            ligKeys = new int[] { EMPTY };
+            ligOffsets = new int[1];
+            ligShift = 32;
+            ligData = new int[0];
+        }
+    }
+
+    private static int hash(int key, int shift) {
+        // Fibonacci hashing, shift of 32 maps to the single slot of an empty table
+        return 32 == shift ? 0 : ( key * 0x9E3779B9 ) >>> shift;
+    }
+
+    private static int shiftFor(int count) {
+        // load factor <= 0.5
+        int capacity = 2;
+        int shift = 31;
+        while( capacity < 2 * count ) {
+            capacity <<= 1;
+            shift--;
+        }
+        return shift;
+    }
+
+    private void initKerning(KernTable kern) {
+        if( null == kern ) {
+            return;
+        }
+        int pairs = 0;
+        for(int i=0; i<kern.getSubtableCount(); i++) {
+            final KernSubtable st = kern.getSubtable(i);
+            if( null != st && st.isHorizontal() ) {
+                pairs += st.getKerningPairCount();
+            }
+        }
+        if( 0 == pairs ) {
+            return;
+        }
+        kernShift = shiftFor(pairs);
+        kernKeys = new int[1 << (32 - kernShift)];
+        kernValues = new short[kernKeys.length];
+        Arrays.fill(kernKeys, EMPTY);
+        for(int i=0; i<kern.getSubtableCount(); i++) {
+            final KernSubtable st = kern.getSubtable(i);
+            if( null == st || !st.isHorizontal() ) {
+                continue;
+            }
+            final boolean override = 0 != ( st.getCoverage() & KernSubtable.OVERRIDE );
+            for(int j=0; j<st.getKerningPairCount(); j++) {
+                final KerningPair kp = st.getKerningPair(j);
+                final int key = ( kp.getLeft() << 16 ) | kp.getRight();
+                if( EMPTY == key ) {
+                    if( !kernHasEmptyKey ) {
+                        kernHasEmptyKey = true;
+                        kernEmptyKeyValue = kp.getValue();
+                        kernCount++;
+                    } else if( override ) {
+                        kernEmptyKeyValue = kp.getValue();
+                    } else {
+                        kernEmptyKeyValue += kp.getValue();
+                    }
+                    continue;
+                }
+                final int slot = findSlot(kernKeys, kernShift, key);
+                if( EMPTY == kernKeys[slot] ) {
+                    kernKeys[slot] = key;
+                    kernValues[slot] = kp.getValue();
+                    kernCount++;
+                } else if( override ) {
+                    kernValues[slot] = kp.getValue();
+                } else {
+                    // values of multiple subtables accumulate
+                    kernValues[slot] += kp.getValue();
+                }
+            }
+        }
+    }
+
+    private void initLigatures(GsubTable gsub) {
+        if( null == gsub ) {
+            return;
+        }
+        final FeatureList features = gsub.getFeatureList();
+        final LookupList lookups = gsub.getLookupList();
+        final boolean[] ligaLookups = new boolean[lookups.getLookupCount()];
+        for(int i=0; i<features.getFeatureCount(); i++) {
+            if( LIGA == features.getFeatureRecord(i).getTag() ) {
+                for(int j=0; j<features.getFeature(i).getLookupCount(); j++) {
+                    final int idx = features.getFeature(i).getLookupListIndex(j);
+                    if( idx < ligaLookups.length ) {
+                        ligaLookups[idx] = true;
+                    }
+                }
+            }
+        }
+        // first glyph -> ligatures, in lookup order and order of preference
+        final HashMap<Integer, ArrayList<Ligature>> first2Ligs = new HashMap<Integer, ArrayList<Ligature>>();
+        final ArrayList<Integer> firstGlyphs = new ArrayList<Integer>();
+        int dataSize = 0;
+        for(int i=0; i<ligaLookups.length; i++) {
+            final Lookup lookup = lookups.getLookup(i);
+            if( !ligaLookups[i] || 4 != lookup.getType() ) {
+                continue;
+            }
+            for(int j=0; j<lookup.getSubtableCount(); j++) {
+                final LookupSubtable st = lookup.getSubtable(j);
+                if( !( st instanceof LigatureSubstFormat1 ) ) {
+                    continue;
+                }
+                final LigatureSubstFormat1 ls = (LigatureSubstFormat1) st;
+                final int[] coverage = ls.getCoverage().getGlyphIds();
+                final int n = Math.min(coverage.length, ls.getLigatureSetCount());
+                for(int k=0; k<n; k++) {
+                    final Integer first = Integer.valueOf(coverage[k]);
+                    ArrayList<Ligature> ligs = first2Ligs.get(first);
+                    if( null == ligs ) {
+                        ligs = new ArrayList<Ligature>();
+                        first2Ligs.put(first, ligs);
+                        firstGlyphs.add(first);
+                        dataSize++;
+                    }
+                    final LigatureSet set = ls.getLigatureSet(k);
+                    for(int l=0; l<set.getLigatureCount(); l++) {
+                        final Ligature lig = set.getLigature(l);
+                        ligs.add(lig);
+                        dataSize += 1 + lig.getGlyphCount();
+                    }
+                }
+            }
+        }
+        if( 0 == firstGlyphs.size() ) {
+            return;
+        }
+        ligShift = shiftFor(firstGlyphs.size());
+        ligKeys = new int[1 << (32 - ligShift)];
+        ligOffsets = new int[ligKeys.length];
+        ligData = new int[dataSize];
+        Arrays.fill(ligKeys, EMPTY);
+        int offset = 0;
+        for(int i=0; i<firstGlyphs.size(); i++) {
+            final Integer first = firstGlyphs.get(i);
+            final ArrayList<Ligature> ligs = first2Ligs.get(first);
+            final int slot = findSlot(ligKeys, ligShift, first.intValue());
+            ligKeys[slot] = first.intValue();
+            ligOffsets[slot] = offset;
+            ligData[offset++] = ligs.size();
+            for(int j=0; j<ligs.size(); j++) {
+                final Ligature lig = ligs.get(j);
+                ligData[offset++] = lig.getGlyphCount();
+                for(int k=0; k<lig.getGlyphCount(); k++) {
+                    ligData[offset++] = lig.getGlyphId(k);
+                }
+                ligCount++;
+            }
+        }
+    }
+
+    /** Returns the slot of <code>key</code> or the empty slot it shall be stored in */
+    private static int findSlot(int[] keys, int shift, int key) {
+        final int mask = keys.length - 1;
+        int slot = hash(key, shift);
+        while( EMPTY != keys[slot] && key != keys[slot] ) {
+            slot = ( slot + 1 ) & mask;
+        }
+        return slot;
+    }
+
+    /** Returns the number of kerning pairs */
+    final int getKerningPairCount() { return kernCount; }
+
+    /** Returns the number of ligatures */
+    final int getLigatureCount() { return ligCount; }
+
+    /**
+     * Returns the horizontal kerning adjustment of the given glyph ID pair in font units,
+     * or 0 if none exists or one of the glyph IDs is negative.
+     */
+    final int getKerning(int left, int right) {
+        if( 0 > left || 0 > right ) {
+            return 0;
+        }
+        final int key = ( left << 16 ) | right;
+        if( EMPTY == key ) {
+            return kernHasEmptyKey ? kernEmptyKeyValue : 0;
+        }
+        final int slot = findSlot(kernKeys, kernShift, key);
+        return EMPTY != kernKeys[slot] ? kernValues[slot] : 0;
+    }
+
+    /**
+     * Finds the longest preferred ligature starting with glyph <code>firstID</code>
+     * at position <code>start</code> of <code>string</code>.
+     * @return the ligature handle for {@link #getLigatureGlyphID(int)} and {@link #getLigatureLength(int)},
+     *         or -1 if none matches.
+     */
+    final int findLigature(TypecastFont font, CharSequence string, int start, int end, int firstID) {
+        if( 0 == ligCount ) {
+            return -1;
+        }
+        final int slot = findSlot(ligKeys, ligShift, firstID);
+        if( EMPTY == ligKeys[slot] ) {
+            return -1;
+        }
+        int offset = ligOffsets[slot];
+        final int count = ligData[offset++];
+        for(int i=0; i<count; i++) {
+            final int length = ligData[offset];
+            if( start + length <= end ) {
+                int k = 1;
+                while( k < length &&
+                       ligData[offset + 1 + k] == font.getGlyphID(string.charAt(start + k)) ) {
+                    k++;
+                }
+                if( k == length ) {
+                    return offset;
+                }
+            }
+            offset += 1 + length;
+        }
+        return -1;
+    }
+
+    /** Returns the substituted glyph ID of a ligature handle returned by {@link #findLigature(TypecastFont, CharSequence, int, int, int)} */
+    final int getLigatureGlyphID(int handle) {
+        return ligData[handle + 1];
+    }
+
+    /** Returns the number of substituted glyphs of a ligature handle returned by {@link #findLigature(TypecastFont, CharSequence, int, int, int)} */
+    final int getLigatureLength(int handle) {
+        return ligData[handle];
+    }
+
+    public final String toString() {
+        return "TypecastLayout[kerning pairs "+kernCount+", ligatures "+ligCount+"]";
+    }
+
+    /**
+     * Walks the glyphs of a string w/ ligature substitution and pair kerning applied,
+     * shared by the path creation, layout and measurement of a {@link TypecastFont}.
+     * <p>
+     * A line feed yields no glyph and starts a new line, i.e. the next glyph is not kerned.
+     * </p>
+     */
+    static final class GlyphIterator {
+        private final TypecastFont font;
+        private final TypecastLayout layout;
+        private final CharSequence string;
+        private final int len;
+        private int next;
+        private int start;
+        private int prevID;
+        private int kerning;
+        private TypecastGlyph glyph;
+
+        GlyphIterator(TypecastFont font, CharSequence string) {
+            this.font = font;
+            this.layout = font.getLayout();
+            this.string = string;
+            this.len = string.length();
+            this.next = 0;
+            this.prevID = -1;
+        }
+
+        /** Moves to the next glyph or line feed, returns false at the end of the string. */
+        final boolean next() {
+            if( next >= len ) {
+                glyph = null;
+                return false;
+            }
+            start = next;
+            final char character = string.charAt(start);
+            if( '\n' == character ) {
+                glyph = null;
+                kerning = 0;
+                prevID = -1;
+                next++;
+                return true;
+            }
+            TypecastGlyph g = (TypecastGlyph) font.getGlyph(character);
+            final int lig = layout.findLigature(font, string, start, len, g.getID() & 0xffff);
+            if( 0 <= lig ) {
+                g = font.getLigatureGlyph(layout.getLigatureGlyphID(lig), character);
+                next += layout.getLigatureLength(lig);
+            } else {
+                next++;
+            }
+            final int id = g.getID() & 0xffff;
+            kerning = layout.getKerning(prevID, id);
+            prevID = id;
+            glyph = g;
+            return true;
+        }
+
+        /** Returns true if the current position is a line feed */
+        final boolean isLineFeed() { return null == glyph; }
+
+        /** Returns the current glyph, or null for a line feed */
+        final TypecastGlyph getGlyph() { return glyph; }
+
+        /** Returns the first symbol of the current glyph */
+        final char getSymbol() { return string.charAt(start); }
+
+        /** Returns the string index of the first symbol of the current glyph */
+        final int getStart() { return start; }
+
+        /** Returns the number of symbols of the current glyph, more than one for a ligature */
+        final int getLength() { return next - start; }
+
+        /** Returns the kerning of the current glyph against the previous one of the line in font units */
+        final int getKerning() { return kerning; }
+    }
+}
@@ -29,7 +29,7 @@ package jogamp.graph.font.typecast;
 
 import java.util.ArrayList;
 
-import jogamp.graph.font.FontInt.GlyphInt;
+import jogamp.graph.font.FontInt;
 import jogamp.graph.font.typecast.ot.OTGlyph;
 import jogamp.graph.font.typecast.ot.Point;
 import jogamp.graph.geom.plane.AffineTransform;
@@ -63,26 +63,29 @@ public class TypecastRenderer {
             transform = new AffineTransform();
         }
         AffineTransform t = new AffineTransform();
+        final float scale = metrics.getScale(pixelSize);
 
         float advanceY = lineGap - descent + ascent;
         float y = 0;
-        for (int i=0; i<string.length(); i++)
+        final TypecastLayout.GlyphIterator iter = new TypecastLayout.GlyphIterator(font, string);
+        while ( iter.next() )
         {
+            // substituted ligature components remain w/o path
+            final int i = iter.getStart();
             p[i] = new Path2D();
-            p[i].reset();
-            t.setTransform(transform);
-            char character = string.charAt(i);
-            if (character == '\n') {
+            if ( iter.isLineFeed() ) {
                 y += advanceY;
                 advanceTotal = 0;
                 continue;
-            } else if (character == ' ') {
+            }
+            advanceTotal += iter.getKerning() * scale;
+            if ( ' ' == iter.getSymbol() ) {
                 advanceTotal += font.getAdvanceWidth(Glyph.ID_SPACE, pixelSize);
                 continue;
             }        
-            Glyph glyph = font.getGlyph(character);
-            Path2D gp = ((GlyphInt)glyph).getPath();
-            float scale = metrics.getScale(pixelSize);
+            final TypecastGlyph glyph = iter.getGlyph();
+            Path2D gp = glyph.getPath();
+            t.setTransform(transform);
             t.translate(advanceTotal, y);
             t.scale(scale, scale);
             p[i].append(gp.iterator(t), false);
@@ -90,6 +93,44 @@ public class TypecastRenderer {
         }
     }
 
+    /** 
+     * Implementation of {@link FontInt#layoutString(CharSequence, float, jogamp.graph.font.FontInt.GlyphInt[], float[])},
+     * using the same pen positions as {@link #getOutlineShapes(TypecastFont, CharSequence, float, AffineTransform, Factory)}.
+     */
+    static int layoutString(TypecastFont font, CharSequence string, float pixelSize, FontInt.GlyphInt[] glyphs, float[] offsets) {
+        if (string == null) {
+            return 0;
+        }
+        final Font.Metrics metrics = font.getMetrics();
+        final float advanceY = metrics.getLineGap(pixelSize) - metrics.getDescent(pixelSize) + metrics.getAscent(pixelSize);
+        final float scale = metrics.getScale(pixelSize);
+
+        float advanceTotal = 0;
+        float y = 0;
+        int count = 0;
+        final TypecastLayout.GlyphIterator iter = new TypecastLayout.GlyphIterator(font, string);
+        while ( iter.next() )
+        {
+            if ( iter.isLineFeed() ) {
+                y += advanceY;
+                advanceTotal = 0;
+                continue;
+            }
+            advanceTotal += iter.getKerning() * scale;
+            if ( ' ' == iter.getSymbol() ) {
+                advanceTotal += font.getAdvanceWidth(Glyph.ID_SPACE, pixelSize);
+                continue;
+            }        
+            final TypecastGlyph glyph = iter.getGlyph();
+            glyphs[count] = glyph;
+            offsets[2*count] = advanceTotal;
+            offsets[2*count+1] = y;
+            count++;
+            advanceTotal += glyph.getAdvance(pixelSize, true); 
+        }
+        return count;
+    }
+
     public static ArrayList<OutlineShape> getOutlineShapes(TypecastFont font, CharSequence string, float pixelSize, AffineTransform transform, Factory<? extends Vertex> vertexFactory) {
         Path2D[] paths = new Path2D[string.length()];
         getPaths(font, string, pixelSize, transform, paths);
@@ -100,20 +141,25 @@ public class TypecastRenderer {
             if(paths[index] == null){
                 continue;
             }
-            OutlineShape shape = new OutlineShape(vertexFactory);
-            shapes.add(shape);
-            PathIterator iterator = paths[index].iterator(transform);
-            if(null != iterator){
-                while(!iterator.isDone()){
-                    float[] coords = new float[6];
-                    int segmentType = iterator.currentSegment(coords);
-                    addPathVertexToOutline(shape, vertexFactory, coords, segmentType);
-                    iterator.next();
-                }
-            }
+            shapes.add(getOutlineShape(paths[index], transform, vertexFactory));
         }
         return shapes;
     }
+
+    /** Returns a new {@link OutlineShape} of the given path, optionally transformed. */
+    static OutlineShape getOutlineShape(Path2D path, AffineTransform transform, Factory<? extends Vertex> vertexFactory) {
+        OutlineShape shape = new OutlineShape(vertexFactory);
+        PathIterator iterator = path.iterator(transform);
+        if(null != iterator){
+            while(!iterator.isDone()){
+                float[] coords = new float[6];
+                int segmentType = iterator.currentSegment(coords);
+                addPathVertexToOutline(shape, vertexFactory, coords, segmentType);
+                iterator.next();
+            }
+        }
+        return shape;
+    }
     private static void addPathVertexToOutline(OutlineShape shape, Factory<? extends Vertex> vertexFactory, float[] coords, int segmentType){
         switch(segmentType) {
         case PathIterator.SEG_MOVETO:
@@ -0,0 +1,107 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.graph.font.typecast.ot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * An {@link InputStream} reading from a {@link ByteBuffer},
+ * e.g. a read-only {@link java.nio.MappedByteBuffer} of a font file.
+ * <p>
+ * The stream operates on its own duplicate of the given buffer,
+ * i.e. the source buffer's position, limit and mark are not modified.
+ * </p>
+ * <p>
+ * {@link #mark(int)}, {@link #reset()} and {@link #skip(long)} are O(1),
+ * which allows the table reader to randomly seek within the data.
+ * </p>
+ */
+public class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer _buf;
+    private int _mark;
+
+    /**
+     * @param buf the source data, read from its current position up to its limit.
+     */
+    public ByteBufferInputStream(ByteBuffer buf) {
+        _buf = buf.duplicate();
+        _mark = _buf.position();
+    }
+
+    public final int available() {
+        return _buf.remaining();
+    }
+
+    public final boolean markSupported() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The <code>readlimit</code> is ignored, the mark never becomes invalid.
+     * </p>
+     */
+    public final synchronized void mark(int readlimit) {
+        _mark = _buf.position();
+    }
+
+    public final synchronized void reset() throws IOException {
+        _buf.position(_mark);
+    }
+
+    public final long skip(long n) throws IOException {
+        if( 0 >= n ) {
+            return 0;
+        }
+        final int s = (int) Math.min(_buf.remaining(), n);
+        _buf.position(_buf.position() + s);
+        return s;
+    }
+
+    public final int read() {
+        if( !_buf.hasRemaining() ) {
+            return -1;
+        }
+        return _buf.get() & 0xff;
+    }
+
+    public final int read(byte[] b, int off, int len) {
+        if( 0 == len ) {
+            return 0;
+        }
+        final int n = Math.min(_buf.remaining(), len);
+        if( 0 == n ) {
+            return -1;
+        }
+        _buf.get(b, off, n);
+        return n;
+    }
+}
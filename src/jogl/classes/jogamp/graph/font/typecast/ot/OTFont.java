@@ -52,6 +52,7 @@ package jogamp.graph.font.typecast.ot;
 
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import jogamp.graph.font.typecast.ot.table.CmapTable;
 import jogamp.graph.font.typecast.ot.table.DirectoryEntry;
@@ -74,6 +75,12 @@ import jogamp.graph.font.typecast.ot.table.VheaTable;
 
 /**
  * The TrueType font.
+ * <p>
+ * If read from a {@link ByteBuffer}, see {@link #read(ByteBuffer, int, int)},
+ * only the table directory and the prerequisite tables are parsed up front.
+ * All other tables are parsed on first access, which is thread safe,
+ * since fonts are shared via the FontFactory.
+ * </p>
  * @version $Id: OTFont.java,v 1.6 2007-01-31 01:49:18 davidsch Exp $
  * @author <a href="mailto:davidsch@dev.java.net">David Schweinsberg</a>, Sven Gothel
  */
@@ -82,18 +89,22 @@ public class OTFont {
     private OTFontCollection _fc;
     private TableDirectory _tableDirectory = null;
     private Table[] _tables;
-    private Os2Table _os2;
-    private CmapTable _cmap;
-    private GlyfTable _glyf;
+    private volatile Os2Table _os2;
+    private volatile CmapTable _cmap;
+    private volatile GlyfTable _glyf;
     private HeadTable _head;
     private HheaTable _hhea;
-    private HdmxTable _hdmx;
-    private HmtxTable _hmtx;
+    private volatile HdmxTable _hdmx;
+    private volatile HmtxTable _hmtx;
     private LocaTable _loca;
     private MaxpTable _maxp;
-    private NameTable _name;
-    private PostTable _post;
+    private volatile NameTable _name;
+    private volatile PostTable _post;
     private VheaTable _vhea;
+    
+    // lazy mode only
+    private ByteBuffer _buffer = null;
+    private int _tablesOrigin = 0;
 
     /**
      * Constructor
@@ -105,35 +116,52 @@ public class OTFont {
         if(null == sb) {
             sb = new StringBuilder();
         }        
-        return _name.getRecordsRecordString(sb, nameIndex);
+        return getNameTable().getRecordsRecordString(sb, nameIndex);
     }
     
     public StringBuilder getAllNames(StringBuilder sb, String separator) {
-        if(null != _name) {
+        final NameTable name = getNameTable();
+        if(null != name) {
             if(null == sb) {
                 sb = new StringBuilder();
             }
-            for(int i=0; i<_name.getNumberOfNameRecords(); i++) {
-                _name.getRecord(i).getRecordString(sb).append(separator);
+            for(int i=0; i<name.getNumberOfNameRecords(); i++) {
+                name.getRecord(i).getRecordString(sb).append(separator);
             }
         }
         return sb;  
     }
     
-    public Table getTable(int tableType) {
+    public synchronized Table getTable(int tableType) {
         for (int i = 0; i < _tables.length; i++) {
             if ((_tables[i] != null) && (_tables[i].getType() == tableType)) {
                 return _tables[i];
             }
         }
+        if (null != _buffer) {
+            // Lazy mode: _tables is indexed like the table directory
+            for (int i = 0; i < _tableDirectory.getNumTables(); i++) {
+                final DirectoryEntry entry = _tableDirectory.getEntry(i);
+                if (entry.getTag() == tableType) {
+                    _tables[i] = readTable(entry);
+                    return _tables[i];
+                }
+            }
+        }
         return null;
     }
 
     public Os2Table getOS2Table() {
+        if (null == _os2) {
+            _os2 = (Os2Table) getTable(Table.OS_2);
+        }
         return _os2;
     }
     
     public CmapTable getCmapTable() {
+        if (null == _cmap) {
+            _cmap = (CmapTable) getTable(Table.cmap);
+        }
         return _cmap;
     }
     
@@ -146,10 +174,16 @@ public class OTFont {
     }
     
     public HdmxTable getHdmxTable() {
+        if (null == _hdmx) {
+            _hdmx = (HdmxTable) getTable(Table.hdmx);
+        }
         return _hdmx;
     }
     
     public HmtxTable getHmtxTable() {
+        if (null == _hmtx) {
+            _hmtx = (HmtxTable) getTable(Table.hmtx);
+        }
         return _hmtx;
     }
     
@@ -162,10 +196,16 @@ public class OTFont {
     }
 
     public NameTable getNameTable() {
+        if (null == _name) {
+            _name = (NameTable) getTable(Table.name);
+        }
         return _name;
     }
 
     public PostTable getPostTable() {
+        if (null == _post) {
+            _post = (PostTable) getTable(Table.post);
+        }
         return _post;
     }
 
@@ -173,6 +213,13 @@ public class OTFont {
         return _vhea;
     }
 
+    public GlyfTable getGlyfTable() {
+        if (null == _glyf) {
+            _glyf = (GlyfTable) getTable(Table.glyf);
+        }
+        return _glyf;
+    }
+
     public int getAscent() {
         return _hhea.getAscender();
     }
@@ -187,12 +234,14 @@ public class OTFont {
 
     public OTGlyph getGlyph(int i) {
         
-        final GlyfDescript _glyfDescr = _glyf.getDescription(i); 
+        final GlyfTable glyf = getGlyfTable();
+        final GlyfDescript _glyfDescr = null != glyf ? glyf.getDescription(i) : null; 
+        final HmtxTable hmtx = getHmtxTable();
         return (null != _glyfDescr)
             ? new OTGlyph(
                 _glyfDescr,
-                _hmtx.getLeftSideBearing(i),
-                _hmtx.getAdvanceWidth(i))
+                hmtx.getLeftSideBearing(i),
+                hmtx.getAdvanceWidth(i))
             : null;
     }
     
@@ -213,6 +262,15 @@ public class OTFont {
         return TableFactory.create(_fc, this, entry, dis);
     }
 
+    /** Lazy mode: Parses the table described by <code>entry</code> from the font data buffer. */
+    private Table readTable(DirectoryEntry entry) {
+        try {
+            return TableFactory.create(_fc, this, entry, _buffer, _tablesOrigin);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read table "+entry, e);
+        }
+    }
+
     /**
      * @param dis OpenType/TrueType font file data.
      * @param directoryOffset The Table Directory offset within the file.  For a
@@ -283,6 +341,39 @@ public class OTFont {
         _glyf = (GlyfTable) getTable(Table.glyf);
     }
 
+    /**
+     * Reads the font in lazy mode, i.e. only the table directory and the
+     * prerequisite tables 'head', 'hhea', 'maxp', 'loca' and 'vhea' are parsed.
+     * All other tables are parsed on first access via {@link #getTable(int)}
+     * and glyph descriptions of the 'glyf' table are decoded on demand.
+     * <p>
+     * The <code>buffer</code> is referenced by this font and must not be modified.
+     * </p>
+     * @param buffer OpenType/TrueType font file data, e.g. a read-only {@link java.nio.MappedByteBuffer}
+     * @param directoryOffset The Table Directory offset within the file, see {@link #read(DataInputStream, int, int)}.
+     * @param tablesOrigin The point the table offsets are calculated from, see {@link #read(DataInputStream, int, int)}.
+     */
+    protected void read(
+            ByteBuffer buffer,
+            int directoryOffset,
+            int tablesOrigin) throws IOException {
+        
+        // Load the table directory
+        final ByteBuffer dirBuffer = buffer.duplicate();
+        dirBuffer.position(directoryOffset);
+        _tableDirectory = new TableDirectory(new DataInputStream(new ByteBufferInputStream(dirBuffer)));
+        _tables = new Table[_tableDirectory.getNumTables()];
+        _buffer = buffer;
+        _tablesOrigin = tablesOrigin;
+        
+        // Load some prerequisite tables, all others are loaded on demand
+        _head = (HeadTable) getTable(Table.head);
+        _hhea = (HheaTable) getTable(Table.hhea);
+        _maxp = (MaxpTable) getTable(Table.maxp);
+        _loca = (LocaTable) getTable(Table.loca);
+        _vhea = (VheaTable) getTable(Table.vhea);
+    }
+
     public String toString() {
         if (_tableDirectory != null) {
             return _tableDirectory.toString();
@@ -25,6 +25,8 @@ import java.io.BufferedInputStream;
 import java.io.DataInputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 import java.util.ArrayList;
 
@@ -50,17 +52,31 @@ public class OTFontCollection {
     private OTFont[] _fonts;
     private ArrayList<Table> _tables = new ArrayList<Table>();
     private boolean _resourceFork = false;
+    private ByteBuffer _buffer = null;
 
     /** Creates new FontCollection */
     protected OTFontCollection() {
     }
 
     /**
+     * Reads the font collection eagerly, i.e. all tables and glyph descriptions
+     * are parsed at creation.
      * @param file The OpenType font file
      */
     public static OTFontCollection create(File file) throws IOException {
+        return create(file, false);
+    }
+
+    /**
+     * @param file The OpenType font file
+     * @param mapped if <code>true</code>, the file is mapped into memory read-only, 
+     *               tables are parsed on first access and glyph descriptions are decoded on demand,
+     *               see {@link OTFont#read(ByteBuffer, int, int)}.
+     *               Otherwise the font collection is read eagerly.
+     */
+    public static OTFontCollection create(File file, boolean mapped) throws IOException {
         OTFontCollection fc = new OTFontCollection();
-        fc.read(file);
+        fc.read(file, mapped);
         return fc;
     }
 
@@ -99,10 +115,19 @@ public class OTFontCollection {
         _tables.add(table);
     }
 
+    /**
+     * Returns <code>true</code> if the font data is mapped into memory
+     * and parsed lazily, see {@link #create(File, boolean)}.
+     */
+    public boolean isMapped() {
+        return null != _buffer;
+    }
+
     /**
      * @param file The OpenType font file
+     * @param mapped see {@link #create(File, boolean)}
      */
-    protected void read(File file) throws IOException {
+    protected void read(File file, boolean mapped) throws IOException {
         _pathName = file.getPath();
         _fileName = file.getName();
 
@@ -120,9 +145,22 @@ public class OTFontCollection {
             _resourceFork = true;
         }
 
-        DataInputStream dis = new DataInputStream(
-            new BufferedInputStream(
-                new FileInputStream(file), (int) file.length()));
+        final DataInputStream dis;
+        if (mapped) {
+            final FileInputStream fis = new FileInputStream(file);
+            try {
+                final FileChannel fch = fis.getChannel();
+                _buffer = fch.map(FileChannel.MapMode.READ_ONLY, 0, fch.size());
+            } finally {
+                // the mapping stays valid after closing the channel
+                fis.close();
+            }
+            dis = new DataInputStream(new ByteBufferInputStream(_buffer));
+        } else {
+            dis = new DataInputStream(
+                new BufferedInputStream(
+                    new FileInputStream(file), (int) file.length()));
+        }
         dis.mark((int) file.length());
 
         if (_resourceFork || _pathName.endsWith(".dfont")) {
@@ -145,7 +183,7 @@ public class OTFontCollection {
                 _fonts[i] = new OTFont(this);
                 int offset = resourceHeader.getDataOffset() +
                         resourceReference.getDataOffset() + 4;
-                _fonts[i].read(dis, offset, offset);
+                readFont(_fonts[i], dis, offset, offset);
             }
 
         } else if (TTCHeader.isTTC(dis)) {
@@ -156,15 +194,23 @@ public class OTFontCollection {
             _fonts = new OTFont[_ttcHeader.getDirectoryCount()];
             for (int i = 0; i < _ttcHeader.getDirectoryCount(); i++) {
                 _fonts[i] = new OTFont(this);
-                _fonts[i].read(dis, _ttcHeader.getTableDirectory(i), 0);
+                readFont(_fonts[i], dis, _ttcHeader.getTableDirectory(i), 0);
             }
         } else {
 
             // This is a standalone font file
             _fonts = new OTFont[1];
             _fonts[0] = new OTFont(this);
-            _fonts[0].read(dis, 0, 0);
+            readFont(_fonts[0], dis, 0, 0);
         }
         dis.close();
     }
+
+    private void readFont(OTFont font, DataInputStream dis, int directoryOffset, int tablesOrigin) throws IOException {
+        if (null != _buffer) {
+            font.read(_buffer, directoryOffset, tablesOrigin);
+        } else {
+            font.read(dis, directoryOffset, tablesOrigin);
+        }
+    }
 }
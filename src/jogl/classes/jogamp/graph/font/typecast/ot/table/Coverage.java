@@ -68,6 +68,12 @@ public abstract class Coverage {
      * can't be found.
      */
     public abstract int findGlyph(int glyphId);
+
+    /**
+     * @return The IDs of all glyphs within the coverage, indexed by their
+     * coverage index.
+     */
+    public abstract int[] getGlyphIds();
     
     protected static Coverage read(DataInput di) throws IOException {
         Coverage c = null;
@@ -85,4 +85,8 @@ public class CoverageFormat1 extends Coverage {
         return -1;
     }
 
+    public int[] getGlyphIds() {
+        return _glyphIds;
+    }
+
 }
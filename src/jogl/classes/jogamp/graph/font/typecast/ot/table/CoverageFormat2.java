@@ -86,4 +86,20 @@ public class CoverageFormat2 extends Coverage {
         return -1;
     }
 
+    public int[] getGlyphIds() {
+        int count = 0;
+        for (int i = 0; i < _rangeCount; i++) {
+            count = Math.max(count, _rangeRecords[i].getStartCoverageIndex()
+                    + _rangeRecords[i].getEnd() - _rangeRecords[i].getStart() + 1);
+        }
+        int[] glyphIds = new int[count];
+        for (int i = 0; i < _rangeCount; i++) {
+            RangeRecord rr = _rangeRecords[i];
+            for (int g = rr.getStart(); g <= rr.getEnd(); g++) {
+                glyphIds[rr.getStartCoverageIndex() + g - rr.getStart()] = g;
+            }
+        }
+        return glyphIds;
+    }
+
 }
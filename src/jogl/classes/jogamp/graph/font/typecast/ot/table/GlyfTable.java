@@ -54,16 +54,48 @@ import java.io.ByteArrayInputStream;
 import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import jogamp.graph.font.typecast.ot.ByteBufferInputStream;
 
 /**
+ * The 'glyf' table.
+ * <p>
+ * If backed by a {@link ByteBuffer}, e.g. a mapped font file,
+ * glyph descriptions are decoded on demand
+ * and kept in a bounded direct mapped cache of {@link #CACHE_SIZE} entries.
+ * Otherwise all glyph descriptions are decoded at construction.
+ * </p>
  * @version $Id: GlyfTable.java,v 1.6 2010-08-10 11:46:30 davidsch Exp $
  * @author <a href="mailto:davidsch@dev.java.net">David Schweinsberg</a>
  */
 public class GlyfTable implements Table {
 
+    /** Number of lazily decoded glyph descriptions kept, must be a power of two. */
+    public static final int CACHE_SIZE = 256;
+
     private DirectoryEntry _de;
     private GlyfDescript[] _descript;
 
+    // lazy mode only
+    private final ByteBuffer _data;
+    private final LocaTable _loca;
+    private final int _numGlyphs;
+    private final CacheEntry[] _cache;
+
+    /**
+     * Lazy mode: Immutable pair of glyph id and its description,
+     * published as one reference so concurrent lookups never see a description w/ the wrong id.
+     */
+    private static class CacheEntry {
+        final int id;
+        final GlyfDescript descript;
+        CacheEntry(int id, GlyfDescript descript) {
+            this.id = id;
+            this.descript = descript;
+        }
+    }
+
     protected GlyfTable(
             DirectoryEntry de,
             DataInput di,
@@ -71,6 +103,10 @@ public class GlyfTable implements Table {
             LocaTable loca) throws IOException {
         _de = (DirectoryEntry) de.clone();
         _descript = new GlyfDescript[maxp.getNumGlyphs()];
+        _data = null;
+        _loca = null;
+        _numGlyphs = maxp.getNumGlyphs();
+        _cache = null;
         
         // Buffer the whole table so we can randomly access it
         byte[] buf = new byte[de.getLength()];
@@ -108,12 +144,72 @@ public class GlyfTable implements Table {
         }
     }
 
+    /**
+     * Creates a lazy table backed by <code>data</code>,
+     * which covers this table's bytes only.
+     * Glyph descriptions are decoded on demand by {@link #getDescription(int)}.
+     */
+    protected GlyfTable(
+            DirectoryEntry de,
+            ByteBuffer data,
+            MaxpTable maxp,
+            LocaTable loca) {
+        _de = (DirectoryEntry) de.clone();
+        _descript = null;
+        _data = data;
+        _loca = loca;
+        _numGlyphs = maxp.getNumGlyphs();
+        _cache = new CacheEntry[CACHE_SIZE];
+    }
+
     public GlyfDescript getDescription(int i) {
-        if (i < _descript.length) {
-            return _descript[i];
-        } else {
+        if (null == _data) {
+            if (i < _descript.length) {
+                return _descript[i];
+            } else {
+                return null;
+            }
+        }
+        if (0 > i || i >= _numGlyphs) {
             return null;
         }
+        final int slot = i & ( CACHE_SIZE - 1 );
+        final CacheEntry ce = _cache[slot];
+        if (null != ce && ce.id == i) {
+            return ce.descript;
+        }
+        final GlyfDescript gd;
+        try {
+            gd = readDescription(i);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read glyph description "+i+" of "+_de, e);
+        }
+        // racing threads may both decode i, either result is valid
+        _cache[slot] = new CacheEntry(i, gd);
+        return gd;
+    }
+
+    /** Lazy mode: Decodes the simple or composite glyph description <code>i</code>. */
+    private GlyfDescript readDescription(int i) throws IOException {
+        final int offset = _loca.getOffset(i);
+        final int len = _loca.getOffset(i + 1) - offset;
+        if (len <= 0 || offset >= _data.limit()) {
+            return null;
+        }
+        final ByteBuffer bb = _data.duplicate();
+        bb.position(offset);
+        final DataInputStream dis = new DataInputStream(new ByteBufferInputStream(bb));
+        final short numberOfContours = dis.readShort();
+        if (numberOfContours >= 0) {
+            return new GlyfSimpleDescript(this, i, numberOfContours, dis);
+        } else {
+            return new GlyfCompositeDescript(this, i, dis);
+        }
+    }
+
+    /** Returns the number of glyphs of this table, as given by the 'maxp' table. */
+    public int getNumGlyphs() {
+        return _numGlyphs;
     }
 
     public int getType() {
@@ -18,6 +18,14 @@ import java.io.IOException;
  */
 public abstract class KernSubtable {
 
+    // Coverage bit enumeration
+    public static final int HORIZONTAL = 0x0001;
+    public static final int MINIMUM = 0x0002;
+    public static final int CROSS_STREAM = 0x0004;
+    public static final int OVERRIDE = 0x0008;
+
+    private int coverage;
+
     /** Creates new KernSubtable */
     protected KernSubtable() {
     }
@@ -26,6 +34,18 @@ public abstract class KernSubtable {
 
     public abstract KerningPair getKerningPair(int i);
 
+    public int getCoverage() {
+        return coverage;
+    }
+
+    /**
+     * @return true if this subtable holds plain horizontal kerning values,
+     * i.e. neither minimum nor cross-stream values.
+     */
+    public boolean isHorizontal() {
+        return (coverage & (HORIZONTAL | MINIMUM | CROSS_STREAM)) == HORIZONTAL;
+    }
+
     public static KernSubtable read(DataInput di) throws IOException {
         KernSubtable table = null;
         int version = di.readUnsignedShort();
@@ -43,6 +63,9 @@ public abstract class KernSubtable {
         default:
             break;
         }
+        if (table != null) {
+            table.coverage = coverage;
+        }
         return table;
     }
 
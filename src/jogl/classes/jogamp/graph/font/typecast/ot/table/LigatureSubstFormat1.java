@@ -89,6 +89,18 @@ public class LigatureSubstFormat1 extends LigatureSubst {
         return 1;
     }
 
+    public Coverage getCoverage() {
+        return _coverage;
+    }
+
+    public int getLigatureSetCount() {
+        return _ligSetCount;
+    }
+
+    public LigatureSet getLigatureSet(int i) {
+        return _ligatureSets[i];
+    }
+
     public String getTypeAsString() {
         return "LigatureSubstFormat1";
     }    
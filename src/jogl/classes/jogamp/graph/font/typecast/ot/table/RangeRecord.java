@@ -72,6 +72,18 @@ public class RangeRecord {
         _startCoverageIndex = di.readUnsignedShort();
     }
 
+    public int getStart() {
+        return _start;
+    }
+
+    public int getEnd() {
+        return _end;
+    }
+
+    public int getStartCoverageIndex() {
+        return _startCoverageIndex;
+    }
+
     public boolean isInRange(int glyphId) {
         return (_start <= glyphId && glyphId <= _end);
     }
@@ -52,7 +52,9 @@ package jogamp.graph.font.typecast.ot.table;
 
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
+import jogamp.graph.font.typecast.ot.ByteBufferInputStream;
 import jogamp.graph.font.typecast.ot.OTFont;
 import jogamp.graph.font.typecast.ot.OTFontCollection;
 
@@ -182,4 +184,45 @@ public class TableFactory {
         }
         return t;
     }
+
+    /**
+     * Creates the table described by <code>de</code> from the font data <code>buffer</code>.
+     * <p>
+     * The 'glyf' table is created in lazy mode, i.e. it keeps a slice of <code>buffer</code>
+     * and decodes glyph descriptions on demand. All other tables are parsed right away.
+     * </p>
+     * @param buffer the complete font file data, e.g. a read-only {@link java.nio.MappedByteBuffer}
+     * @param tablesOrigin the point the table offsets are calculated from
+     */
+    public static Table create(
+            OTFontCollection fc,
+            OTFont font,
+            DirectoryEntry de,
+            ByteBuffer buffer,
+            int tablesOrigin) throws IOException {
+        final ByteBuffer data = buffer.duplicate();
+        final int offset = tablesOrigin + de.getOffset();
+        if (offset < 0 || offset > data.capacity()) {
+            throw new IOException("Table "+de+" exceeds font data of "+data.capacity()+" bytes");
+        }
+        data.limit(Math.min(data.capacity(), offset + de.getLength()));
+        data.position(offset);
+
+        if (de.getTag() != Table.glyf) {
+            return create(fc, font, de, new DataInputStream(new ByteBufferInputStream(data)));
+        }
+        
+        // First, if we have a font collection, look for the table there
+        if (fc != null) {
+            final Table t = fc.getTable(de);
+            if (t != null) {
+                return t;
+            }
+        }
+        final Table t = new GlyfTable(de, data.slice(), font.getMaxpTable(), font.getLocaTable());
+        if (fc != null) {
+            fc.addTable(t);
+        }
+        return t;
+    }
 }
@@ -246,6 +246,14 @@ public final class Path2D implements Cloneable {
         return typeSize;
     }
     
+    /** 
+     * Returns the estimated heap footprint of this path in bytes,
+     * i.e. its type and point buffers including their capacity.
+     */
+    final public int getByteSize() {
+        return 48 + 16 + types.length + 16 + 4 * points.length;
+    }
+    
     final public boolean isClosed() {
         return typeSize > 0 && types[typeSize - 1] == PathIterator.SEG_CLOSE ;
     }
@@ -107,6 +107,12 @@ public class GLBufferStateTracker {
     }
   }
 
+  /** Returns true if the binding for the specified target is known, 
+      i.e. {@link #getBoundBufferObject(int, GL)} will not query the GL. */
+  public final boolean isBoundBufferObjectKnown(int target) {
+    return 0xFFFFFFFF != bindingMap.get(target);
+  }
+
   /** Note: returns an unspecified value if the binding for the
       specified target (e.g. GL_ARRAY_BUFFER) is currently unknown.
       You must use isBoundBufferObjectKnown() to see whether the
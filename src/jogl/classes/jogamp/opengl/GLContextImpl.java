@@ -86,6 +86,7 @@ public abstract class GLContextImpl extends GLContext {
   // OpenGL functions.
   private ProcAddressTable glProcAddressTable;
 
+  private String glVendor;
   private String glRenderer;
   private String glRendererLowerCase;
   private String glVersion;
@@ -163,6 +164,7 @@ public abstract class GLContextImpl extends GLContext {
       contextFQN = null;
       additionalCtxCreationFlags = 0;
 
+      glVendor = "";
       glRenderer = "";
       glRendererLowerCase = glRenderer;       
       
@@ -524,6 +526,9 @@ public abstract class GLContextImpl extends GLContext {
         if(TRACE_GL) {
             gl = gl.getContext().setGL( GLPipelineFactory.create("javax.media.opengl.Trace", null, gl, new Object[] { System.err } ) );
         }
+        if(PROFILE_GL) {
+            gl = gl.getContext().setGL( GLPipelineFactory.create("javax.media.opengl.Profile", null, gl, null) );
+        }
         
         contextRealized(true);
         
@@ -701,6 +706,11 @@ public abstract class GLContextImpl extends GLContext {
    * This method will also query all available native OpenGL context when first called,<br>
    * usually the first call should happen with the shared GLContext of the DrawableFactory.<br>
    *
+   * If the {@link GLProbeCache} is enabled, the available versions are mapped from the cache instead
+   * and validated against the GL vendor, renderer and version of the created context,
+   * where the version is only compared if the cache holds one for the same requested profile.
+   * In case the validation fails, all available versions are queried again and the cache gets updated.<br>
+   *
    * The implementation makes the context current, if successful<br>
    *
    * @see #makeCurrentImpl
@@ -719,10 +729,16 @@ public abstract class GLContextImpl extends GLContext {
                GLContext.getAvailableGLVersionsSet(device));
     }
 
+    GLProbeCache.Entry cachedVersions = null;
+    boolean mappedVersions = false;
     if ( !GLContext.getAvailableGLVersionsSet(device) ) {
-        if(!mapGLVersions(device)) {
-            // none of the ARB context creation calls was successful, bail out
-            return 0;
+        cachedVersions = mapGLVersionsFromCache(device);
+        if( null == cachedVersions ) {
+            if(!mapGLVersions(device)) {
+                // none of the ARB context creation calls was successful, bail out
+                return 0;
+            }
+            mappedVersions = true;
         }
     }
 
@@ -730,6 +746,37 @@ public abstract class GLContextImpl extends GLContext {
     final int[] reqMajorCTP = new int[] { 0, 0 };
     getRequestMajorAndCompat(glCaps.getGLProfile(), reqMajorCTP);
     
+    long _ctx = createContextARBMapped(share, direct, device, reqMajorCTP);
+
+    if( null != cachedVersions &&
+        ( 0 == _ctx || !cachedVersions.matches(reqMajorCTP[0], reqMajorCTP[1], glVendor, glRenderer, glVersion) ) ) {
+        // stale cache entry, e.g. driver or hardware changed
+        if (DEBUG) {
+            System.err.println(getThreadName() + ": createContextARB: stale "+cachedVersions+" for "+device+", has "+glVendor+", "+glRenderer+", "+glVersion);
+        }
+        if( 0 != _ctx ) {
+            destroyContextARBImpl(_ctx);
+            resetStates();
+        }
+        GLProbeCache.getDefault().remove(device.getUniqueID());
+        GLContext.resetAvailableGLVersions(device);
+        if(!mapGLVersions(device)) {
+            return 0;
+        }
+        mappedVersions = true;
+        _ctx = createContextARBMapped(share, direct, device, reqMajorCTP);
+    }
+    if( mappedVersions && 0 != _ctx ) {
+        storeGLVersionsToCache(device, reqMajorCTP);
+    } else if( null != cachedVersions && null == cachedVersions.getVersion(reqMajorCTP[0], reqMajorCTP[1]) ) {
+        // validated by vendor and renderer, remember the version of this request for the next validation
+        cachedVersions.addVersion(reqMajorCTP[0], reqMajorCTP[1], glVersion);
+        GLProbeCache.getDefault().put(device.getUniqueID(), cachedVersions);
+    }
+    return _ctx;
+  }
+
+  private final long createContextARBMapped(final long share, final boolean direct, AbstractGraphicsDevice device, int[] reqMajorCTP) {
     int _major[] = { 0 };
     int _minor[] = { 0 };
     int _ctp[] = { 0 };
@@ -744,10 +791,69 @@ public abstract class GLContextImpl extends GLContext {
     }
     return _ctx;
   }
+
+  /**
+   * Maps the available GL versions of the given device from the {@link GLProbeCache}, if enabled and cached.
+   * @return the cache entry used, which needs to be validated by the caller, or <code>null</code> if not mapped.
+   */
+  private final GLProbeCache.Entry mapGLVersionsFromCache(AbstractGraphicsDevice device) {
+    final GLProbeCache cache = GLProbeCache.getDefault();
+    if( null == cache ) {
+        return null;
+    }
+    synchronized (GLContext.deviceVersionAvailable) {
+        final long t0 = System.nanoTime();
+        final GLProbeCache.Entry entry = cache.get(device.getUniqueID());
+        if( null == entry ) {
+            return null;
+        }
+        try {
+            for(int i=0; i<entry.getMappingCount(); i++) {
+                final int[] m = entry.getMapping(i);
+                final int bits32 = m[2];
+                GLContext.mapAvailableGLVersion(device, m[0], m[1], ( bits32 & 0xFF000000 ) >> 24, ( bits32 & 0x00FF0000 ) >> 16, bits32 & 0x0000FFFF);
+            }
+        } catch (GLException gle) {
+            // invalid profile bits
+            if(DEBUG) {
+                System.err.println(getThreadName() + ": createContextARB-MapVersionsFromCache: invalid "+entry+": "+gle.getMessage());
+            }
+            cache.remove(device.getUniqueID());
+            GLContext.resetAvailableGLVersions(device);
+            return null;
+        }
+        GLContext.setAvailableGLVersionsSet(device);
+        GLStartupTiming.add("GLContext.mapGLVersions(cached) "+device.getConnection(), t0);
+        if(DEBUG) {
+            System.err.println(getThreadName() + ": createContextARB-MapVersionsFromCache: "+device+" -> "+entry);
+        }
+        return entry;
+    }
+  }
+
+  private final void storeGLVersionsToCache(AbstractGraphicsDevice device, int[] reqMajorCTP) {
+    final GLProbeCache cache = GLProbeCache.getDefault();
+    if( null == cache ) {
+        return;
+    }
+    final GLProbeCache.Entry entry = new GLProbeCache.Entry(reqMajorCTP[0], reqMajorCTP[1], glVendor, glRenderer, glVersion);
+    for(int major=4; major>=2; major--) {
+        for(int p=0; p<2; p++) {
+            final int profile = 0 == p ? CTX_PROFILE_COMPAT : CTX_PROFILE_CORE;
+            final Integer valI = GLContext.getAvailableGLVersion(device, major, profile);
+            if( null != valI ) {
+                entry.addMapping(major, profile, valI.intValue());
+            }
+        }
+    }
+    if( 0 < entry.getMappingCount() ) {
+        cache.put(device.getUniqueID(), entry);
+    }
+  }
   
   private final boolean mapGLVersions(AbstractGraphicsDevice device) {
     synchronized (GLContext.deviceVersionAvailable) {
-        final long t0 = ( DEBUG ) ? System.nanoTime() : 0;
+        final long t0 = System.nanoTime();
         boolean success = false;
         // Following GLProfile.GL_PROFILE_LIST_ALL order of profile detection { GL4bc, GL3bc, GL2, GL4, GL3, GL2GL3, GLES2, GL2ES2, GLES1, GL2ES1 }
         boolean hasGL4bc = false;
@@ -816,8 +922,8 @@ public abstract class GLContextImpl extends GLContext {
         if(success) {
             // only claim GL versions set [and hence detected] if ARB context creation was successful
             GLContext.setAvailableGLVersionsSet(device);
+            final long t1 = GLStartupTiming.add("GLContext.mapGLVersions "+device.getConnection(), t0);
             if(DEBUG) {
-                final long t1 = System.nanoTime();
                 System.err.println("GLContextImpl.mapGLVersions: "+device+", profileAliasing: "+PROFILE_ALIASING+", total "+(t1-t0)/1e6 +"ms");
                 System.err.println(GLContext.dumpAvailableGLVersions(null).toString());                
             }
@@ -1105,6 +1211,9 @@ public abstract class GLContextImpl extends GLContext {
         glRenderer = _glRenderer;
         glRendererLowerCase = glRenderer.toLowerCase();
         
+        final String _glVendor = glGetStringInt(GL.GL_VENDOR, _glGetString);
+        glVendor = null != _glVendor ? _glVendor : "";
+        
         final String _glVersion = glGetStringInt(GL.GL_VERSION, _glGetString);
         if(null == _glVersion) {
             // FIXME
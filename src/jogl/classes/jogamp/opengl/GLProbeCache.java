@@ -0,0 +1,481 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.opengl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.StringTokenizer;
+
+import javax.media.opengl.GLContext;
+
+import com.jogamp.common.os.Platform;
+
+/**
+ * Optional persistent cache of the GL versions probed per device,
+ * allowing to skip creation of the temporary contexts otherwise required
+ * to map all available desktop GL versions at startup.
+ * <p>
+ * The cache is enabled via property <code>jogl.probecache</code>,
+ * the file location defaults to <code>${user.home}/.jogamp/jogl/glprobe.properties</code>
+ * and may be set via property <code>jogl.probecache.file</code>.
+ * </p>
+ * <p>
+ * An {@link Entry} is stored per {@link javax.media.nativewindow.AbstractGraphicsDevice#getUniqueID() device},
+ * together with the GL vendor and renderer strings of the context created right after probing
+ * and its GL version string keyed by the requested major version and profile.
+ * The file as a whole is discarded if the platform, the JOGL implementation version or
+ * the profile aliasing mode has changed.
+ * Users of an entry shall validate it against the strings of the first context created w/ the cached versions,
+ * see {@link Entry#matches(int, int, String, String, String)}, and probe again on mismatch.
+ * </p>
+ * <p>
+ * The JOGL implementation version is read from the package manifest.
+ * If JOGL is not packaged, e.g. running from a build directory, the modification time
+ * of the <code>GLContext</code> class file is used instead, so a rebuild discards the file as well.
+ * </p>
+ */
+public class GLProbeCache {
+    protected static final boolean DEBUG = Debug.debug("GLProbeCache");
+
+    private static final String FORMAT = "2";
+    private static final String KEY_FORMAT = "format";
+    private static final String KEY_PLATFORM = "platform";
+    private static final String KEY_JOGL = "jogl";
+    private static final String KEY_ALIASING = "aliasing";
+    private static final String SUFFIX_VENDOR = ".vendor";
+    private static final String SUFFIX_RENDERER = ".renderer";
+    private static final String SUFFIX_VERSION = ".version.";
+    private static final String SUFFIX_MAPPING = ".mapping";
+
+    private static final GLProbeCache defaultCache;
+
+    static {
+        if( Debug.isPropertyDefined("jogl.probecache", true) ) {
+            final String fname = Debug.getProperty("jogl.probecache.file", true);
+            final File file;
+            if( null != fname ) {
+                file = new File(fname);
+            } else {
+                final String home = AccessController.doPrivileged(new PrivilegedAction<String>() {
+                    public String run() {
+                        return System.getProperty("user.home");
+                    }
+                });
+                file = new File(home+File.separator+".jogamp"+File.separator+"jogl"+File.separator+"glprobe.properties");
+            }
+            final String joglVersion = getImplementationVersion();
+            if( null != joglVersion ) {
+                defaultCache = new GLProbeCache(file, getPlatformString(), joglVersion, GLContext.PROFILE_ALIASING);
+            } else {
+                if( DEBUG ) {
+                    System.err.println("GLProbeCache: Disabled, JOGL implementation version unknown");
+                }
+                defaultCache = null;
+            }
+        } else {
+            defaultCache = null;
+        }
+    }
+
+    /**
+     * Returns the cache enabled via property <code>jogl.probecache</code>, otherwise <code>null</code>.
+     */
+    public static GLProbeCache getDefault() {
+        return defaultCache;
+    }
+
+    /**
+     * Probed GL versions of one device, i.e. tuples of requested major version, requested profile and
+     * the resulting version bits as mapped via <code>GLContext.mapAvailableGLVersion(..)</code>,
+     * as well as the identity of the contexts used for validation.
+     */
+    public static class Entry {
+        private final String vendor, renderer;
+        /** GL_VERSION per requested major version and profile, see {@link #getRequestKey(int, int)} */
+        private final Map<String, String> versions = new LinkedHashMap<String, String>();
+        private final ArrayList<int[]> mapping = new ArrayList<int[]>();
+
+        /**
+         * @param reqMajor major version requested for the validating context
+         * @param reqProfile profile requested for the validating context
+         * @param vendor GL_VENDOR of the validating context
+         * @param renderer GL_RENDERER of the validating context
+         * @param version GL_VERSION of the validating context
+         */
+        public Entry(int reqMajor, int reqProfile, String vendor, String renderer, String version) {
+            this(vendor, renderer);
+            addVersion(reqMajor, reqProfile, version);
+        }
+
+        private Entry(String vendor, String renderer) {
+            this.vendor = null != vendor ? vendor : "";
+            this.renderer = null != renderer ? renderer : "";
+        }
+
+        public final void addMapping(int reqMajor, int reqProfile, int versionBits) {
+            mapping.add(new int[] { reqMajor, reqProfile, versionBits });
+        }
+        public final int getMappingCount() { return mapping.size(); }
+        /** Returns the i-th mapping as <code>{ reqMajor, reqProfile, versionBits }</code>. */
+        public final int[] getMapping(int i) { return mapping.get(i); }
+
+        /** Adds or replaces the GL_VERSION of a validating context created w/ the given request. */
+        public final void addVersion(int reqMajor, int reqProfile, String version) {
+            versions.put(getRequestKey(reqMajor, reqProfile), null != version ? version : "");
+        }
+
+        public final String getVendor() { return vendor; }
+        public final String getRenderer() { return renderer; }
+        /** Returns the GL_VERSION validated for the given request, or <code>null</code> if none has been added. */
+        public final String getVersion(int reqMajor, int reqProfile) { return versions.get(getRequestKey(reqMajor, reqProfile)); }
+
+        /**
+         * Returns <code>true</code> if the identity of the validating context
+         * equals the one this entry has been stored with, otherwise <code>false</code>.
+         * <p>
+         * The GL_VERSION string depends on the requested profile, e.g. <code>3.0 Mesa 9.2.0</code>
+         * and <code>3.3 (Core Profile) Mesa 9.2.0</code> on the same driver,
+         * hence it is only compared against the one added for the same request.
+         * If there is none, vendor and renderer decide and the caller shall {@link #addVersion(int, int, String) add}
+         * the version of the validating context.
+         * </p>
+         */
+        public final boolean matches(int reqMajor, int reqProfile, String vendor, String renderer, String version) {
+            if( !this.vendor.equals(null != vendor ? vendor : "") ||
+                !this.renderer.equals(null != renderer ? renderer : "") ) {
+                return false;
+            }
+            final String v = getVersion(reqMajor, reqProfile);
+            return null == v || v.equals(null != version ? version : "");
+        }
+
+        public String toString() {
+            return "GLProbeCache.Entry["+vendor+", "+renderer+", "+versions+", "+mappingToString()+"]";
+        }
+
+        private static final String getRequestKey(int reqMajor, int reqProfile) {
+            return reqMajor+":"+Integer.toHexString(reqProfile);
+        }
+
+        private final boolean parseVersion(String request, String version) {
+            final int c0 = request.indexOf(':');
+            if( 0 > c0 ) {
+                return false;
+            }
+            try {
+                addVersion(Integer.parseInt(request.substring(0, c0)), (int) Long.parseLong(request.substring(c0+1), 16), version);
+            } catch (NumberFormatException nfe) {
+                return false;
+            }
+            return true;
+        }
+
+        private final String mappingToString() {
+            final StringBuilder sb = new StringBuilder();
+            for(int i=0; i<mapping.size(); i++) {
+                final int[] m = mapping.get(i);
+                if( 0 < i ) {
+                    sb.append(',');
+                }
+                sb.append(m[0]).append(':').append(Integer.toHexString(m[1])).append(':').append(Integer.toHexString(m[2]));
+            }
+            return sb.toString();
+        }
+
+        private final boolean parseMapping(String s) {
+            final StringTokenizer tok = new StringTokenizer(s, ",");
+            try {
+                while( tok.hasMoreTokens() ) {
+                    final String t = tok.nextToken();
+                    final int c0 = t.indexOf(':');
+                    final int c1 = t.indexOf(':', c0+1);
+                    if( 0 > c0 || 0 > c1 ) {
+                        return false;
+                    }
+                    addMapping(Integer.parseInt(t.substring(0, c0)),
+                               (int) Long.parseLong(t.substring(c0+1, c1), 16),
+                               (int) Long.parseLong(t.substring(c1+1), 16));
+                }
+            } catch (NumberFormatException nfe) {
+                return false;
+            }
+            return 0 < mapping.size();
+        }
+    }
+
+    private final File file;
+    private final String platform;
+    private final String joglVersion;
+    private final String aliasing;
+    private Properties props = null;
+
+    /**
+     * @param file the file backing this cache
+     * @param platform platform identity, a cached file w/ a different one is discarded
+     * @param joglVersion JOGL implementation version, a cached file w/ a different one is discarded
+     * @param profileAliasing profile aliasing mode, a cached file w/ a different one is discarded
+     */
+    public GLProbeCache(File file, String platform, String joglVersion, boolean profileAliasing) {
+        this.file = file;
+        this.platform = String.valueOf(platform);
+        this.joglVersion = String.valueOf(joglVersion);
+        this.aliasing = String.valueOf(profileAliasing);
+    }
+
+    public final File getFile() { return file; }
+
+    /**
+     * Returns the cached entry for the given device key, or <code>null</code> if none exists or is not parsable.
+     */
+    public synchronized Entry get(String deviceKey) {
+        final Properties p = getProperties();
+        final String mapping = p.getProperty(deviceKey+SUFFIX_MAPPING);
+        if( null == mapping ) {
+            return null;
+        }
+        final Entry e = new Entry(p.getProperty(deviceKey+SUFFIX_VENDOR), p.getProperty(deviceKey+SUFFIX_RENDERER));
+        final String versionPrefix = deviceKey+SUFFIX_VERSION;
+        for(Iterator<String> i = p.stringPropertyNames().iterator(); i.hasNext(); ) {
+            final String key = i.next();
+            if( key.startsWith(versionPrefix) &&
+                !e.parseVersion(key.substring(versionPrefix.length()), p.getProperty(key)) ) {
+                return null;
+            }
+        }
+        if( 0 == e.versions.size() || !e.parseMapping(mapping) ) {
+            return null;
+        }
+        if( DEBUG ) {
+            System.err.println("GLProbeCache.get: "+deviceKey+" -> "+e);
+        }
+        return e;
+    }
+
+    /**
+     * Stores the given entry for the device key and writes the cache file.
+     * @return <code>true</code> if the file has been written, otherwise <code>false</code>.
+     */
+    public synchronized boolean put(String deviceKey, Entry e) {
+        final Properties p = getProperties();
+        removeVersions(p, deviceKey);
+        p.setProperty(deviceKey+SUFFIX_VENDOR, e.vendor);
+        p.setProperty(deviceKey+SUFFIX_RENDERER, e.renderer);
+        for(Iterator<Map.Entry<String, String>> i = e.versions.entrySet().iterator(); i.hasNext(); ) {
+            final Map.Entry<String, String> v = i.next();
+            p.setProperty(deviceKey+SUFFIX_VERSION+v.getKey(), v.getValue());
+        }
+        p.setProperty(deviceKey+SUFFIX_MAPPING, e.mappingToString());
+        if( DEBUG ) {
+            System.err.println("GLProbeCache.put: "+deviceKey+" -> "+e);
+        }
+        return write();
+    }
+
+    /**
+     * Removes the entry for the device key and writes the cache file, if such entry exists.
+     */
+    public synchronized void remove(String deviceKey) {
+        final Properties p = getProperties();
+        if( null != p.remove(deviceKey+SUFFIX_MAPPING) ) {
+            p.remove(deviceKey+SUFFIX_VENDOR);
+            p.remove(deviceKey+SUFFIX_RENDERER);
+            removeVersions(p, deviceKey);
+            if( DEBUG ) {
+                System.err.println("GLProbeCache.remove: "+deviceKey);
+            }
+            write();
+        }
+    }
+
+    private static final void removeVersions(Properties p, String deviceKey) {
+        final String versionPrefix = deviceKey+SUFFIX_VERSION;
+        for(Iterator<String> i = p.stringPropertyNames().iterator(); i.hasNext(); ) {
+            final String key = i.next();
+            if( key.startsWith(versionPrefix) ) {
+                p.remove(key);
+            }
+        }
+    }
+
+    private final Properties getProperties() {
+        if( null == props ) {
+            props = read();
+        }
+        return props;
+    }
+
+    private final Properties read() {
+        final Properties p = new Properties();
+        InputStream in = null;
+        try {
+            in = new BufferedInputStream(new FileInputStream(file));
+            p.load(in);
+        } catch (IOException ioe) { // incl. FileNotFoundException
+            if( DEBUG ) {
+                System.err.println("GLProbeCache: Could not read "+file+": "+ioe.getMessage());
+            }
+            p.clear();
+        } catch (IllegalArgumentException iae) { // malformed unicode escape
+            p.clear();
+        } catch (SecurityException se) {
+            p.clear();
+        } finally {
+            close(in);
+        }
+        if( !FORMAT.equals(p.getProperty(KEY_FORMAT)) ||
+            !platform.equals(p.getProperty(KEY_PLATFORM)) ||
+            !joglVersion.equals(p.getProperty(KEY_JOGL)) ||
+            !aliasing.equals(p.getProperty(KEY_ALIASING)) ) {
+            if( DEBUG && !p.isEmpty() ) {
+                System.err.println("GLProbeCache: Discarding stale "+file+": "+p.getProperty(KEY_PLATFORM)+", jogl "+p.getProperty(KEY_JOGL));
+            }
+            p.clear();
+        }
+        p.setProperty(KEY_FORMAT, FORMAT);
+        p.setProperty(KEY_PLATFORM, platform);
+        p.setProperty(KEY_JOGL, joglVersion);
+        p.setProperty(KEY_ALIASING, aliasing);
+        return p;
+    }
+
+    /** Writes to a temporary file first and renames it, so concurrent readers never see a partial file. */
+    private final boolean write() {
+        final File dir = file.getAbsoluteFile().getParentFile();
+        File tmp = null;
+        OutputStream out = null;
+        try {
+            if( null != dir && !dir.isDirectory() && !dir.mkdirs() ) {
+                throw new IOException("Could not create "+dir);
+            }
+            tmp = File.createTempFile("glprobe", ".tmp", dir);
+            out = new BufferedOutputStream(new FileOutputStream(tmp));
+            props.store(out, "JOGL GL probe cache");
+            out.close();
+            out = null;
+            if( !tmp.renameTo(file) ) {
+                // non atomic fallback, i.e. Windows won't rename onto an existing file
+                file.delete();
+                if( !tmp.renameTo(file) ) {
+                    throw new IOException("Could not rename "+tmp+" to "+file);
+                }
+            }
+            tmp = null;
+            return true;
+        } catch (IOException ioe) {
+            if( DEBUG ) {
+                System.err.println("GLProbeCache: Could not write "+file+": "+ioe.getMessage());
+            }
+            return false;
+        } catch (SecurityException se) {
+            if( DEBUG ) {
+                System.err.println("GLProbeCache: Could not write "+file+": "+se.getMessage());
+            }
+            return false;
+        } finally {
+            close(out);
+            if( null != tmp ) {
+                tmp.delete();
+            }
+        }
+    }
+
+    private static final void close(java.io.Closeable c) {
+        if( null != c ) {
+            try {
+                c.close();
+            } catch (IOException ioe) { }
+        }
+    }
+
+    private static final String getPlatformString() {
+        return Platform.getOSName()+" "+Platform.getOSVersion()+" "+Platform.getArchName();
+    }
+
+    /**
+     * Returns the JOGL implementation version of the package manifest,
+     * or the modification time of the <code>GLContext</code> class file if not packaged,
+     * or <code>null</code> if neither is available.
+     */
+    private static final String getImplementationVersion() {
+        final Package pkg = GLContext.class.getPackage();
+        final String version = null != pkg ? pkg.getImplementationVersion() : null;
+        if( null != version ) {
+            return version;
+        }
+        final URL url = GLContext.class.getResource("GLContext.class");
+        if( null == url ) {
+            return null;
+        }
+        return AccessController.doPrivileged(new PrivilegedAction<String>() {
+            public String run() {
+                InputStream in = null;
+                try {
+                    final URLConnection conn = url.openConnection();
+                    final long lastModified = conn.getLastModified();
+                    in = conn.getInputStream(); // release the resource opened to query the header
+                    return 0 < lastModified ? "class-"+lastModified : null;
+                } catch (IOException ioe) {
+                    return null;
+                } catch (SecurityException se) {
+                    return null;
+                } finally {
+                    close(in);
+                }
+            }
+        });
+    }
+
+    public synchronized String toString() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("GLProbeCache[").append(file);
+        if( null != props ) {
+            for(Iterator<Object> i = props.keySet().iterator(); i.hasNext(); ) {
+                final String key = (String) i.next();
+                if( key.endsWith(SUFFIX_MAPPING) ) {
+                    sb.append(", ").append(key.substring(0, key.length()-SUFFIX_MAPPING.length()));
+                }
+            }
+        }
+        return sb.append("]").toString();
+    }
+}
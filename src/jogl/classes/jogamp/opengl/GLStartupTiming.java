@@ -0,0 +1,104 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.opengl;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.jogamp.common.os.Platform;
+
+/**
+ * Records the duration of the JOGL startup phases, i.e. the GLProfile initialization,
+ * the GLDrawableFactory shared resource creation and the GL version mapping per device.
+ * <p>
+ * Phases may nest, e.g. the GL version mapping is part of the shared resource creation.
+ * Durations of phases w/ the same name are accumulated.
+ * </p>
+ * <p>
+ * The phases are dumped after the GLProfile initialization if property <code>jogl.debug.StartupTiming</code> is set.
+ * </p>
+ */
+public class GLStartupTiming {
+    public static final boolean DEBUG = Debug.debug("StartupTiming");
+
+    /** phase -> { accumulated nanoseconds, count } */
+    private static final LinkedHashMap<String, long[]> phases = new LinkedHashMap<String, long[]>();
+
+    /**
+     * Adds the duration from <code>t0</code> until now to the given phase.
+     * @param phase phase name, should contain the device connection if device specific
+     * @param t0 start of the phase in {@link System#nanoTime()}
+     * @return the current time in {@link System#nanoTime()}, usable as start of the next phase
+     */
+    public static long add(String phase, long t0) {
+        final long t1 = System.nanoTime();
+        synchronized( phases ) {
+            long[] v = phases.get(phase);
+            if( null == v ) {
+                v = new long[2];
+                phases.put(phase, v);
+            }
+            v[0] += t1 - t0;
+            v[1]++;
+        }
+        return t1;
+    }
+
+    /** Returns the accumulated duration of the given phase in nanoseconds, or <code>-1</code> if not recorded. */
+    public static long get(String phase) {
+        synchronized( phases ) {
+            final long[] v = phases.get(phase);
+            return null != v ? v[0] : -1;
+        }
+    }
+
+    public static void reset() {
+        synchronized( phases ) {
+            phases.clear();
+        }
+    }
+
+    public static StringBuilder toString(StringBuilder sb) {
+        if( null == sb ) {
+            sb = new StringBuilder();
+        }
+        sb.append("GLStartupTiming:");
+        synchronized( phases ) {
+            for(Iterator<Map.Entry<String, long[]>> i = phases.entrySet().iterator(); i.hasNext(); ) {
+                final Map.Entry<String, long[]> e = i.next();
+                final long[] v = e.getValue();
+                sb.append(Platform.getNewline()).append("  ").append(e.getKey()).append(": ").append(v[0]/1e6).append(" ms");
+                if( 1 < v[1] ) {
+                    sb.append(" (").append(v[1]).append("x)");
+                }
+            }
+        }
+        return sb;
+    }
+}
@@ -47,6 +47,8 @@ package jogamp.opengl.glu.mipmap;
 import javax.media.opengl.GL;
 import java.nio.*;
 
+import com.jogamp.opengl.util.texture.MipmapGenerator;
+
 /**
  *
  * @author  Administrator
@@ -73,14 +75,10 @@ public class HalveImage {
     for( i = 0; i < newheight; i++ ) {
       for( j = 0; j < newwidth; j++ ) {
         for( k = 0; k < components; k++ ) {
-          datain.position( t );
-          temp = datain.get();
-          datain.position( t + components );
-          temp += datain.get();
-          datain.position( t + delta );
-          temp += datain.get();
-          datain.position( t + delta + components );
-          temp +=datain.get();
+          temp = datain.get( t );
+          temp += datain.get( t + components );
+          temp += datain.get( t + delta );
+          temp +=datain.get( t + delta + components );
           temp += 2;
           temp /= 4;
           dataout.put( temp );
@@ -95,10 +93,7 @@ public class HalveImage {
   public static void halveImage_ubyte( int components, int width, int height,
                                       ByteBuffer datain, ByteBuffer dataout,
                                       int element_size, int ysize, int group_size ) {
-    int i, j, k;
     int newwidth, newheight;
-    int s;
-    int t;
     
     // Handle case where there is only 1 column/row
     if( width == 1 || height == 1 ) {
@@ -109,29 +104,11 @@ public class HalveImage {
     
     newwidth = width / 2;
     newheight = height / 2;
-    s = 0;
-    t = 0;
     
-    int temp = 0;
-    // piece of cake
-    for( i = 0; i < newheight; i++ ) {
-      for( j = 0; j < newwidth; j++ ) {
-        for( k = 0; k < components; k++ ) {
-          datain.position( t );
-          temp = ( 0x000000FF & datain.get() );
-          datain.position( t + group_size );
-          temp += ( 0x000000FF & datain.get() );
-          datain.position( t + ysize );
-          temp += ( 0x000000FF & datain.get() );
-          datain.position( t + ysize + group_size );
-          temp += ( 0x000000FF & datain.get() ) + 2;
-          dataout.put( (byte)(temp / 4) );
-          t += element_size;
-        }
-        t += group_size;
-      }
-      t += ysize;
-    }
+    // bulk array based 2x2 box filter, output is tightly packed
+    MipmapGenerator.halveImage( group_size, width, height, datain, 0, ysize,
+                                dataout, dataout.position(), newwidth * group_size );
+    dataout.position( dataout.position() + newheight * newwidth * group_size );
   }
   
   public static void halve1Dimage_ubyte( int components, int width, int height,
@@ -154,10 +131,8 @@ public class HalveImage {
       for( jj = 0; jj < halfWidth; jj++ ) {
         int kk;
         for( kk = 0; kk < components; kk++ ) {
-          datain.position( src );
-          temp = ( 0x000000FF & datain.get() );
-          datain.position( src + group_size );
-          temp += ( 0x000000FF & datain.get() );
+          temp = ( 0x000000FF & datain.get( src ) );
+          temp += ( 0x000000FF & datain.get( src + group_size ) );
           temp /= 2;
           dataout.put( (byte)temp );
           /*
@@ -181,10 +156,8 @@ public class HalveImage {
       for( jj = 0; jj < halfHeight; jj++ ) {
         int kk;
         for( kk = 0; kk < components; kk++ ) {
-          datain.position( src );
-          temp = ( 0x000000FF & datain.get() );
-          datain.position( src + ysize );
-          temp += ( 0x000000FF & datain.get() );
+          temp = ( 0x000000FF & datain.get( src ) );
+          temp += ( 0x000000FF & datain.get( src + ysize ) );
           temp /= 2;
           dataout.put( (byte)temp );
           /*
@@ -226,14 +199,10 @@ public class HalveImage {
     for( i = 0; i < newheight; i++ ) {
       for( j = 0; j < newwidth; j++ ) {
         for( k = 0; k < components; k++ ) {
-          datain.position( t );
-          temp = datain.get();
-          datain.position( t + group_size );
-          temp += datain.get();
-          datain.position( t + ysize );
-          temp += datain.get();
-          datain.position( t + ysize + group_size );
-          temp += datain.get();
+          temp = datain.get( t );
+          temp += datain.get( t + group_size );
+          temp += datain.get( t + ysize );
+          temp += datain.get( t + ysize + group_size );
           temp += 2;
           temp /= 4;
           dataout.put( temp );
@@ -265,10 +234,8 @@ public class HalveImage {
       for( jj = 0; jj < halfWidth; jj++ ) {
         int kk;
         for( kk = 0; kk < components; kk++ ) {
-          datain.position( src );
-          temp = datain.get();
-          datain.position( src + group_size );
-          temp += datain.get();
+          temp = datain.get( src );
+          temp += datain.get( src + group_size );
           temp /= 2;
           dataout.put( temp );
           src += element_size;
@@ -288,10 +255,8 @@ public class HalveImage {
       for( jj = 0; jj < halfHeight; jj++ ) {
         int kk;
         for( kk = 0; kk < components; kk++ ) {
-          datain.position( src );
-          temp = datain.get();
-          datain.position( src + ysize );
-          temp += datain.get();
+          temp = datain.get( src );
+          temp += datain.get( src + ysize );
           temp /= 2;
           src += element_size;
           dest++;
@@ -328,14 +293,10 @@ public class HalveImage {
       for( i = 0; i < newheight; i++ ) {
         for( j = 0; j < newwidth; j++ ) {
           for( k = 0; k < components; k++ ) {
-            datain.position( t );
-            temp = ( 0x0000FFFF & datain.getShort() );
-            datain.position( t + group_size );
-            temp += ( 0x0000FFFF & datain.getShort() );
-            datain.position( t + ysize );
-            temp += ( 0x0000FFFF & datain.getShort() );
-            datain.position( t + ysize + group_size );
-            temp += ( 0x0000FFFF & datain.getShort() );
+            temp = ( 0x0000FFFF & datain.getShort( t ) );
+            temp += ( 0x0000FFFF & datain.getShort( t + group_size ) );
+            temp += ( 0x0000FFFF & datain.getShort( t + ysize ) );
+            temp += ( 0x0000FFFF & datain.getShort( t + ysize + group_size ) );
             dataout.put( (short)( ( temp + 2 ) / 4 ) );
             t += element_size;
           }
@@ -347,14 +308,10 @@ public class HalveImage {
       for( i = 0; i < newheight; i++ ) {
         for( j = 0; j < newwidth; j++ ) {
           for( k = 0; k < components; k++ ) {
-            datain.position( t );
-            temp = ( 0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES( datain.getShort() ) );
-            datain.position( t + group_size );
-            temp += ( 0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES( datain.getShort() ) );
-            datain.position( t + ysize );
-            temp += ( 0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES( datain.getShort() ) );
-            datain.position( t + ysize + group_size );
-            temp += ( 0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES( datain.getShort() ) );
+            temp = ( 0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES( datain.getShort( t ) ) );
+            temp += ( 0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES( datain.getShort( t + group_size ) ) );
+            temp += ( 0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES( datain.getShort( t + ysize ) ) );
+            temp += ( 0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES( datain.getShort( t + ysize + group_size ) ) );
             dataout.put( (short)( ( temp + 2 ) / 4 ) );
             t += element_size;
           }
@@ -386,15 +343,11 @@ public class HalveImage {
         for( kk = 0; kk < halfHeight; kk++ ) {
           int[] ushort = new int[BOX2];
           if( myswap_bytes ) {
-            datain.position( src );
-            ushort[0] = ( 0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES( datain.getShort() ) );
-            datain.position( src + group_size );
-            ushort[1] = (0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES( datain.getShort() ) );
+            ushort[0] = ( 0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES( datain.getShort( src ) ) );
+            ushort[1] = (0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES( datain.getShort( src + group_size ) ) );
           } else {
-            datain.position( src );
-            ushort[0] = (0x0000FFFF & datain.getShort() );
-            datain.position( src + group_size );
-            ushort[1] = (0x0000FFFF & datain.getShort() );
+            ushort[0] = (0x0000FFFF & datain.getShort( src ) );
+            ushort[1] = (0x0000FFFF & datain.getShort( src + group_size ) );
           }
           dataout.put( (short)( (ushort[0] + ushort[1]) / 2 ) );
           src += element_size;
@@ -416,15 +369,11 @@ public class HalveImage {
         for( kk = 0; kk < components; kk++ ) {
           int[] ushort = new int[BOX2];
           if( myswap_bytes ) {
-            datain.position( src );
-            ushort[0] = ( 0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES( datain.getShort() ) );
-            datain.position( src + ysize );
-            ushort[0] = ( 0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES( datain.getShort() ) );
+            ushort[0] = ( 0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES( datain.getShort( src ) ) );
+            ushort[0] = ( 0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES( datain.getShort( src + ysize ) ) );
           } else {
-            datain.position( src );
-            ushort[0] = ( 0x0000FFFF & datain.getShort() );
-            datain.position( src + ysize );
-            ushort[1] = ( 0x0000FFFF & datain.getShort() );
+            ushort[0] = ( 0x0000FFFF & datain.getShort( src ) );
+            ushort[1] = ( 0x0000FFFF & datain.getShort( src + ysize ) );
           }
           dataout.put( (short)((ushort[0] + ushort[1]) / 2) );
           src += element_size;
@@ -462,14 +411,10 @@ public class HalveImage {
       for( i = 0; i < newheight; i++ ) {
         for( j = 0; j < newwidth; j++ ) {
           for( k = 0; k < components; k++ ) {
-            datain.position( t );
-            temp = datain.getShort();
-            datain.position( t + group_size );
-            temp += datain.getShort();
-            datain.position( t + ysize );
-            temp += datain.getShort();
-            datain.position( t + ysize + group_size );
-            temp += datain.getShort();
+            temp = datain.getShort( t );
+            temp += datain.getShort( t + group_size );
+            temp += datain.getShort( t + ysize );
+            temp += datain.getShort( t + ysize + group_size );
             temp += 2;
             temp /= 4;
             dataout.put( (short)temp );
@@ -485,14 +430,10 @@ public class HalveImage {
           for( k = 0; k < components; k++ ) {
             short b;
             int buf;
-            datain.position( t );
-            temp = Mipmap.GLU_SWAP_2_BYTES( datain.getShort() );
-            datain.position( t + group_size );
-            temp += Mipmap.GLU_SWAP_2_BYTES( datain.getShort() );
-            datain.position( t + ysize );
-            temp += Mipmap.GLU_SWAP_2_BYTES( datain.getShort() );
-            datain.position( t + ysize + group_size );
-            temp += Mipmap.GLU_SWAP_2_BYTES( datain.getShort() );
+            temp = Mipmap.GLU_SWAP_2_BYTES( datain.getShort( t ) );
+            temp += Mipmap.GLU_SWAP_2_BYTES( datain.getShort( t + group_size ) );
+            temp += Mipmap.GLU_SWAP_2_BYTES( datain.getShort( t + ysize ) );
+            temp += Mipmap.GLU_SWAP_2_BYTES( datain.getShort( t + ysize + group_size ) );
             temp += 2;
             temp /= 4;
             dataout.put( temp );
@@ -526,15 +467,11 @@ public class HalveImage {
         for( kk = 0; kk < components; kk++ ) {
           short[] sshort = new short[BOX2];
           if( myswap_bytes ) {
-            datain.position( src );
-            sshort[0] = Mipmap.GLU_SWAP_2_BYTES( datain.getShort() );
-            datain.position( src + group_size );
-            sshort[1] = Mipmap.GLU_SWAP_2_BYTES( datain.getShort() );
+            sshort[0] = Mipmap.GLU_SWAP_2_BYTES( datain.getShort( src ) );
+            sshort[1] = Mipmap.GLU_SWAP_2_BYTES( datain.getShort( src + group_size ) );
           } else {
-            datain.position( src );
-            sshort[0] = datain.getShort();
-            datain.position( src + group_size );
-            sshort[1] = datain.getShort();
+            sshort[0] = datain.getShort( src );
+            sshort[1] = datain.getShort( src + group_size );
           }
           dataout.put( (short)(( sshort[0] + sshort[1] ) / 2) );
           src += element_size;
@@ -556,15 +493,11 @@ public class HalveImage {
         for( kk = 0; kk < components; kk++ ) {
           short[] sshort = new short[BOX2];
           if( myswap_bytes ) {
-            datain.position( src );
-            sshort[0] = Mipmap.GLU_SWAP_2_BYTES( datain.getShort() );
-            datain.position( src + ysize );
-            sshort[1] = Mipmap.GLU_SWAP_2_BYTES( datain.getShort() );
+            sshort[0] = Mipmap.GLU_SWAP_2_BYTES( datain.getShort( src ) );
+            sshort[1] = Mipmap.GLU_SWAP_2_BYTES( datain.getShort( src + ysize ) );
           } else {
-            datain.position( src );
-            sshort[0] = datain.getShort();
-            datain.position( src + ysize );
-            sshort[1] = datain.getShort();
+            sshort[0] = datain.getShort( src );
+            sshort[1] = datain.getShort( src + ysize );
           }
           dataout.put( (short)(( sshort[0] + sshort[1] ) / 2) );
           src += element_size;
@@ -603,14 +536,10 @@ public class HalveImage {
       for( i = 0; i < newheight; i++ ) {
         for( j = 0; j < newwidth; j++ ) {
           for( k = 0; k < components; k++ ) {
-            datain.position( t );
-            temp = (0x000000007FFFFFFFL & datain.getInt() );
-            datain.position( t + group_size );
-            temp += (0x000000007FFFFFFFL & datain.getInt() );
-            datain.position( t + ysize );
-            temp += (0x000000007FFFFFFFL & datain.getInt() );
-            datain.position( t + ysize + group_size );
-            temp += (0x000000007FFFFFFFL & datain.getInt() );
+            temp = (0x000000007FFFFFFFL & datain.getInt( t ) );
+            temp += (0x000000007FFFFFFFL & datain.getInt( t + group_size ) );
+            temp += (0x000000007FFFFFFFL & datain.getInt( t + ysize ) );
+            temp += (0x000000007FFFFFFFL & datain.getInt( t + ysize + group_size ) );
             dataout.put( (int)( ( temp / 4 ) + 0.5 ) );
             t += element_size;
           }
@@ -624,14 +553,10 @@ public class HalveImage {
           for( k = 0; k < components; k++ ) {
             // need to cast to double to hold large unsigned ints
             double buf;
-            datain.position( t );
-            buf = ( 0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt() ) );
-            datain.position( t + group_size );
-            buf += ( 0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt() ) );
-            datain.position( t + ysize );
-            buf += ( 0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt() ) );
-            datain.position( t + ysize + group_size );
-            buf += ( 0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt() ) );
+            buf = ( 0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt( t ) ) );
+            buf += ( 0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt( t + group_size ) ) );
+            buf += ( 0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt( t + ysize ) ) );
+            buf += ( 0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt( t + ysize + group_size ) ) );
             temp /= 4;
             temp += 0.5;
             dataout.put( (int)temp );
@@ -665,15 +590,11 @@ public class HalveImage {
         for( kk = 0; kk < halfHeight; kk++ ) {
           long[] uint = new long[BOX2];
           if( myswap_bytes ) {
-            datain.position( src );
-            uint[0] = ( 0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt() ) );
-            datain.position( src + group_size );
-            uint[1] = ( 0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt() ) );
+            uint[0] = ( 0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt( src ) ) );
+            uint[1] = ( 0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt( src + group_size ) ) );
           } else {
-            datain.position( src );
-            uint[0] = ( 0x00000000FFFFFFFF & datain.getInt() );
-            datain.position( src + group_size );
-            uint[1] = (0x00000000FFFFFFFF & datain.getInt() );
+            uint[0] = ( 0x00000000FFFFFFFF & datain.getInt( src ) );
+            uint[1] = (0x00000000FFFFFFFF & datain.getInt( src + group_size ) );
           }
           dataout.put( (int)( ( uint[0] + uint[1] ) / 2.0 ) );
           src += element_size;
@@ -695,15 +616,11 @@ public class HalveImage {
         for( kk = 0; kk < components; kk++ ) {
           long[] uint = new long[BOX2];
           if( myswap_bytes ) {
-            datain.position( src );
-            uint[0] = ( 0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt() ) );
-            datain.position( src + group_size );
-            uint[0] = ( 0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt() ) );
+            uint[0] = ( 0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt( src ) ) );
+            uint[0] = ( 0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt( src + group_size ) ) );
           } else {
-            datain.position( src );
-            uint[0] = ( 0x00000000FFFFFFFF & datain.getInt() );
-            datain.position( src + ysize );
-            uint[1] = ( 0x00000000FFFFFFFF & datain.getInt() );
+            uint[0] = ( 0x00000000FFFFFFFF & datain.getInt( src ) );
+            uint[1] = ( 0x00000000FFFFFFFF & datain.getInt( src + ysize ) );
           }
           dataout.put( (int)( ( uint[0] + uint[1] ) / 2.0 ) );
           src += element_size;
@@ -742,14 +659,10 @@ public class HalveImage {
       for( i = 0; i < newheight; i++ ) {
         for( j = 0; j < newwidth; j++ ) {
           for( k = 0; k < components; k++ ) {
-            datain.position( t );
-            temp = datain.getInt();
-            datain.position( t + group_size );
-            temp += datain.getInt();
-            datain.position( t + ysize );
-            temp += datain.getInt();
-            datain.position( t + ysize + group_size );
-            temp += datain.getInt();
+            temp = datain.getInt( t );
+            temp += datain.getInt( t + group_size );
+            temp += datain.getInt( t + ysize );
+            temp += datain.getInt( t + ysize + group_size );
             temp = (int)( ( temp / 4.0f ) + 0.5f );
             dataout.put( temp );
             t += element_size;
@@ -764,17 +677,13 @@ public class HalveImage {
           for( k = 0; k < components; k++ ) {
             long b;
             float buf;
-            datain.position( t );
-            b = ( 0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt() ) );
+            b = ( 0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt( t ) ) );
             buf = b;
-            datain.position( t + group_size );
-            b = ( 0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt() ) );
+            b = ( 0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt( t + group_size ) ) );
             buf += b;
-            datain.position( t + ysize );
-            b = ( 0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt() ) );
+            b = ( 0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt( t + ysize ) ) );
             buf += b;
-            datain.position( t + ysize + group_size );
-            b = ( 0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt() ) );
+            b = ( 0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt( t + ysize + group_size ) ) );
             buf += b;
             dataout.put( (int)( ( buf / 4.0f ) + 0.5f ) );
             t += element_size;
@@ -807,15 +716,11 @@ public class HalveImage {
         for( kk = 0; kk < components; kk++ ) {
           long[] uint = new long[BOX2];
           if( myswap_bytes ) {
-            datain.position( src );
-            uint[0] = ( 0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt() ) );
-            datain.position( src + group_size );
-            uint[1] = ( 0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt() ) );
+            uint[0] = ( 0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt( src ) ) );
+            uint[1] = ( 0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt( src + group_size ) ) );
           } else {
-            datain.position( src );
-            uint[0] = ( 0x00000000FFFFFFFF & datain.getInt() );
-            datain.position( src + group_size );
-            uint[1] = ( 0x00000000FFFFFFFF & datain.getInt() );
+            uint[0] = ( 0x00000000FFFFFFFF & datain.getInt( src ) );
+            uint[1] = ( 0x00000000FFFFFFFF & datain.getInt( src + group_size ) );
           }
           dataout.put( (int)( ( (float)uint[0] + (float)uint[1] ) / 2.0f) );
           src += element_size;
@@ -837,15 +742,11 @@ public class HalveImage {
         for( kk = 0; kk < components; kk++ ) {
           long[] uint = new long[BOX2];
           if( myswap_bytes ) {
-            datain.position( src );
-            uint[0] = ( 0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt() ) );
-            datain.position( src + ysize );
-            uint[1] = ( 0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt() ) );
+            uint[0] = ( 0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt( src ) ) );
+            uint[1] = ( 0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt( src + ysize ) ) );
           } else {
-            datain.position( src );
-            uint[0] = ( 0x00000000FFFFFFFF & datain.getInt() );
-            datain.position( src + ysize );
-            uint[1] = ( 0x00000000FFFFFFFF & datain.getInt() );
+            uint[0] = ( 0x00000000FFFFFFFF & datain.getInt( src ) );
+            uint[1] = ( 0x00000000FFFFFFFF & datain.getInt( src + ysize ) );
           }
           dataout.put( (int)(( (float)uint[0] + (float)uint[1] ) / 2.0f) );
           src += element_size;
@@ -883,13 +784,10 @@ public class HalveImage {
       for( i = 0; i < newheight; i++ ) {
         for( j = 0; j < newwidth; j++ ) {
           for( k = 0; k < components; k++ ) {
-            datain.position( t );
-            temp = datain.getFloat();
-            datain.position( t + group_size );
-            temp += datain.getFloat();
-            datain.position( t + ysize );
-            temp += datain.getFloat();
-            datain.position( t + ysize + group_size );
+            temp = datain.getFloat( t );
+            temp += datain.getFloat( t + group_size );
+            temp += datain.getFloat( t + ysize );
+            temp += datain.getFloat( t + ysize + group_size );
             temp /= 4.0f;
             dataout.put( temp );
             t += element_size;
@@ -903,14 +801,10 @@ public class HalveImage {
         for( j = 0; j < newwidth; j++ ) {
           for( k = 0; k < components; k++ ) {
             float buf;
-            datain.position( t );
-            buf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat() );
-            datain.position( t + group_size );
-            buf += Mipmap.GLU_SWAP_4_BYTES( datain.getFloat() );
-            datain.position( t + ysize );
-            buf += Mipmap.GLU_SWAP_4_BYTES( datain.getFloat() );
-            datain.position( t + ysize + group_size );
-            buf += Mipmap.GLU_SWAP_4_BYTES( datain.getFloat() );
+            buf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat( t ) );
+            buf += Mipmap.GLU_SWAP_4_BYTES( datain.getFloat( t + group_size ) );
+            buf += Mipmap.GLU_SWAP_4_BYTES( datain.getFloat( t + ysize ) );
+            buf += Mipmap.GLU_SWAP_4_BYTES( datain.getFloat( t + ysize + group_size ) );
             dataout.put( buf / 4.0f );
             t += element_size;
           }
@@ -942,15 +836,11 @@ public class HalveImage {
         for( kk = 0; kk < components; kk++ ) {
           float[] sfloat = new float[BOX2];
           if( myswap_bytes ) {
-            datain.position( src );
-            sfloat[0] = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat() );
-            datain.position( src + group_size );
-            sfloat[1] = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat() );
+            sfloat[0] = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat( src ) );
+            sfloat[1] = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat( src + group_size ) );
           } else {
-            datain.position( src );
-            sfloat[0] = datain.getFloat();
-            datain.position( src + group_size );
-            sfloat[1] = datain.getFloat();
+            sfloat[0] = datain.getFloat( src );
+            sfloat[1] = datain.getFloat( src + group_size );
           }
           dataout.put( (sfloat[0] + sfloat[1]) / 2.0f );
           src += element_size;
@@ -972,15 +862,11 @@ public class HalveImage {
         for( kk = 0; kk < components; kk++ ) {
           float[] sfloat = new float[BOX2];
           if( myswap_bytes ) {
-            datain.position( src );
-            sfloat[0] = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat() );
-            datain.position( src + ysize );
-            sfloat[1] = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat() );
+            sfloat[0] = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat( src ) );
+            sfloat[1] = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat( src + ysize ) );
           } else {
-            datain.position( src );
-            sfloat[0] = datain.getFloat();
-            datain.position( src + ysize );
-            sfloat[1] = datain.getFloat();
+            sfloat[0] = datain.getFloat( src );
+            sfloat[1] = datain.getFloat( src + ysize );
           }
           dataout.put( ( sfloat[0] + sfloat[1] ) / 2.0f );
           src += element_size;
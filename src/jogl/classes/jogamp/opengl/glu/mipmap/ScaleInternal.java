@@ -214,23 +214,20 @@ public class ScaleInternal {
           temp = xindex + lowy_int * ysize;
           percent = y_percent * ( 1 - lowx_float );
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
-            totals[k] += ( 0x000000FF & datain.get() ) * percent;
+            totals[k] += ( 0x000000FF & datain.get( temp_index ) ) * percent;
           }
           left = temp;
           for( l = lowx_int + 1; l < highx_int; l++ ) {
             temp += group_size;
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
-              totals[k] += ( 0x000000FF & datain.get() ) * y_percent;
+              totals[k] += ( 0x000000FF & datain.get( temp_index ) ) * y_percent;
             }
           }
           temp += group_size;
           right = temp;
           percent = y_percent * highx_float;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
-            totals[k] += ( 0x000000FF & datain.get() ) * percent;
+            totals[k] += ( 0x000000FF & datain.get( temp_index ) ) * percent;
           }
           
           // calculate the value for pixels in the last row
@@ -238,21 +235,18 @@ public class ScaleInternal {
           percent = y_percent * ( 1 - lowx_float );
           temp = xindex + highy_int * ysize;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
-            totals[k] += ( 0x000000FF & datain.get() ) * percent;
+            totals[k] += ( 0x000000FF & datain.get( temp_index ) ) * percent;
           }
           for( l = lowx_int + 1; l < highx_int; l++ ) {
             temp += group_size;
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
-              totals[k] += ( 0x000000FF & datain.get() ) * y_percent;
+              totals[k] += ( 0x000000FF & datain.get( temp_index ) ) * y_percent;
             }
           }
           temp += group_size;
           percent = y_percent * highx_float;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
-            totals[k] += ( 0x000000FF & datain.get() ) * percent;
+            totals[k] += ( 0x000000FF & datain.get( temp_index ) ) * percent;
           }
           
           // calculate the value for the pixels in the 1st and last column
@@ -261,10 +255,8 @@ public class ScaleInternal {
             right += ysize;
             for( k = 0; k < components; k++, left += element_size, right += element_size ) {
               float f = 0.0f;
-              datain.position( left );
-              f = ( 0x000000FF & datain.get() ) * ( 1.0f - lowx_float );
-              datain.position( right );
-              f += ( 0x000000FF & datain.get() ) * highx_float;
+              f = ( 0x000000FF & datain.get( left ) ) * ( 1.0f - lowx_float );
+              f += ( 0x000000FF & datain.get( right ) ) * highx_float;
               totals[k] += f;
             }
           }
@@ -273,49 +265,42 @@ public class ScaleInternal {
           percent = ( 1 - lowy_float) * x_percent;
           temp = xindex + (lowy_int * ysize);
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
-            totals[k] += ( 0x000000FF & datain.get() ) * percent;
+            totals[k] += ( 0x000000FF & datain.get( temp_index ) ) * percent;
           }
           for( m = lowy_int + 1; m < highy_int; m++ ) {
             temp += ysize;
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
-              totals[k] += ( 0x000000FF & datain.get() ) * x_percent;
+              totals[k] += ( 0x000000FF & datain.get( temp_index ) ) * x_percent;
             }
           }
           percent = x_percent * highy_float;
           temp += ysize;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
-            totals[k] += ( 0x000000FF & datain.get() ) * percent;
+            totals[k] += ( 0x000000FF & datain.get( temp_index ) ) * percent;
           }
         } else if( highx_int > lowx_int ) {
           y_percent = highy_float - lowy_float;
           percent = ( 1 - lowx_float ) * y_percent;
           temp = xindex + (lowy_int * ysize);
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
-            totals[k] += ( 0x000000FF & datain.get() ) * percent;
+            totals[k] += ( 0x000000FF & datain.get( temp_index ) ) * percent;
           }
           for( l = lowx_int + 1; l < highx_int; l++ ) {
             temp += group_size;
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
-              totals[k] += ( 0x000000FF & datain.get() ) * y_percent;
+              totals[k] += ( 0x000000FF & datain.get( temp_index ) ) * y_percent;
             }
           }
           temp += group_size;
           percent = y_percent * highx_float;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
-            totals[k] += ( 0x000000FF & datain.get() ) * percent;
+            totals[k] += ( 0x000000FF & datain.get( temp_index ) ) * percent;
           }
         } else {
           percent = ( highy_float - lowy_float ) * ( highx_float - lowx_float );
           temp = xindex + (lowy_int * ysize);
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
-            totals[k] += ( 0x000000FF & datain.get() ) * percent;
+            totals[k] += ( 0x000000FF & datain.get( temp_index ) ) * percent;
           }
         }
 
@@ -325,8 +310,7 @@ public class ScaleInternal {
           temp = temp0;
           for( l = lowx_int + 1; l < highx_int; l++ ) {
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
-              totals[k] += ( 0x000000FF & datain.get() );
+              totals[k] += ( 0x000000FF & datain.get( temp_index ) );
             }
             temp += group_size;
           }
@@ -432,23 +416,20 @@ public class ScaleInternal {
           temp = xindex + lowy_int * ysize;
           percent = y_percent * ( 1 - lowx_float );
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
-            totals[k] += datain.get() * percent;
+            totals[k] += datain.get( temp_index ) * percent;
           }
           left = temp;
           for( l = lowx_int + 1; l < highx_int; l++ ) {
             temp += group_size;
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
-              totals[k] += datain.get() * y_percent;
+              totals[k] += datain.get( temp_index ) * y_percent;
             }
           }
           temp += group_size;
           right = temp;
           percent = y_percent * highx_float;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
-            totals[k] += datain.get() * percent;
+            totals[k] += datain.get( temp_index ) * percent;
           }
           
           // calculate the value for pixels in the last row
@@ -456,21 +437,18 @@ public class ScaleInternal {
           percent = y_percent * ( 1 - lowx_float );
           temp = xindex + highy_int * ysize;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
-            totals[k] += datain.get() * percent;
+            totals[k] += datain.get( temp_index ) * percent;
           }
           for( l = lowx_int + 1; l < highx_int; l++ ) {
             temp += group_size;
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
-              totals[k] += datain.get() * y_percent;
+              totals[k] += datain.get( temp_index ) * y_percent;
             }
           }
           temp += group_size;
           percent = y_percent * highx_float;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
-            totals[k] += datain.get() * percent;
+            totals[k] += datain.get( temp_index ) * percent;
           }
           
           // calculate the value for the pixels in the 1st and last column
@@ -479,10 +457,8 @@ public class ScaleInternal {
             right += ysize;
             for( k = 0; k < components; k++, left += element_size, right += element_size ) {
               float f = 0.0f;
-              datain.position( left );
-              f = datain.get() * ( 1 - lowx_float );
-              datain.position( right );
-              f += datain.get() * highx_float;
+              f = datain.get( left ) * ( 1 - lowx_float );
+              f += datain.get( right ) * highx_float;
               totals[k] += f;
             }
           }
@@ -491,49 +467,42 @@ public class ScaleInternal {
           percent = ( 1 - lowy_float) * x_percent;
           temp = xindex + (lowy_int * ysize);
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
-            totals[k] += datain.get() * percent;
+            totals[k] += datain.get( temp_index ) * percent;
           }
           for( m = lowy_int + 1; m < highy_int; m++ ) {
             temp += ysize;
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
-              totals[k] += datain.get() * x_percent;
+              totals[k] += datain.get( temp_index ) * x_percent;
             }
           }
           percent = x_percent * highy_float;
           temp += ysize;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
-            totals[k] += datain.get() * percent;
+            totals[k] += datain.get( temp_index ) * percent;
           }
         } else if( highx_int > lowx_int ) {
           y_percent = highy_float - lowy_float;
           percent = ( 1 - lowx_float ) * y_percent;
           temp = xindex + (lowy_int * ysize);
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
-            totals[k] += datain.get() * percent;
+            totals[k] += datain.get( temp_index ) * percent;
           }
           for( l = lowx_int + 1; l < highx_int; l++ ) {
             temp += group_size;
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
-              totals[k] += datain.get() * y_percent;
+              totals[k] += datain.get( temp_index ) * y_percent;
             }
           }
           temp += group_size;
           percent = y_percent * highx_float;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
-            totals[k] += datain.get() * percent;
+            totals[k] += datain.get( temp_index ) * percent;
           }
         } else {
           percent = ( highy_float - lowy_float ) * ( highx_float - lowx_float );
           temp = xindex + (lowy_int * ysize);
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
-            totals[k] += datain.get() * percent;
+            totals[k] += datain.get( temp_index ) * percent;
           }
         }
         
@@ -543,8 +512,7 @@ public class ScaleInternal {
           temp = temp0;
           for( l = lowx_int + 1; l < highx_int; l++ ) {
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
-              totals[k] += datain.get();
+              totals[k] += datain.get( temp_index );
             }
             temp += group_size;
           }
@@ -650,22 +618,20 @@ public class ScaleInternal {
           temp = xindex + lowy_int * ysize;
           percent = y_percent * ( 1 - lowx_float );
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              totals[k] += ( 0x0000FFFF & ((int)Mipmap.GLU_SWAP_2_BYTES( datain.getShort() ))) * percent;
+              totals[k] += ( 0x0000FFFF & ((int)Mipmap.GLU_SWAP_2_BYTES( datain.getShort( temp_index ) ))) * percent;
             } else {
-              totals[k] += ( 0x0000FFFF & datain.getShort() ) * percent;
+              totals[k] += ( 0x0000FFFF & datain.getShort( temp_index ) ) * percent;
             }
           }
           left = temp;
           for( l = lowx_int + 1; l < highx_int; l++ ) {
             temp += group_size;
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
               if( myswap_bytes ) {
-                totals[k] += ( 0x0000FFFF & ((int)Mipmap.GLU_SWAP_2_BYTES( datain.getShort() ))) * y_percent;
+                totals[k] += ( 0x0000FFFF & ((int)Mipmap.GLU_SWAP_2_BYTES( datain.getShort( temp_index ) ))) * y_percent;
               } else {
-                totals[k] += ( 0x0000FFFF & datain.getShort()) * y_percent;
+                totals[k] += ( 0x0000FFFF & datain.getShort( temp_index )) * y_percent;
               }
             }
           }
@@ -673,11 +639,10 @@ public class ScaleInternal {
           right = temp;
           percent = y_percent * highx_float;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              totals[k] += ( 0x0000FFFF & (Mipmap.GLU_SWAP_2_BYTES( datain.getShort() ))) * percent;
+              totals[k] += ( 0x0000FFFF & (Mipmap.GLU_SWAP_2_BYTES( datain.getShort( temp_index ) ))) * percent;
             } else {
-              totals[k] += ( 0x0000FFFF & datain.getShort()) * percent;
+              totals[k] += ( 0x0000FFFF & datain.getShort( temp_index )) * percent;
             }
           }
           
@@ -686,32 +651,29 @@ public class ScaleInternal {
           percent = y_percent * ( 1 - lowx_float );
           temp = xindex + highy_int * ysize;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              totals[k] += ( 0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES( datain.getShort()) ) * percent;
+              totals[k] += ( 0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES( datain.getShort( temp_index )) ) * percent;
             } else {
-              totals[k] += ( 0x0000FFFF & datain.getShort() ) * percent;
+              totals[k] += ( 0x0000FFFF & datain.getShort( temp_index ) ) * percent;
             }
           }
           for( l = lowx_int + 1; l < highx_int; l++ ) {
             temp += group_size;
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
               if( myswap_bytes ) {
-                totals[k] += ( 0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES( datain.getShort()) ) * y_percent;
+                totals[k] += ( 0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES( datain.getShort( temp_index )) ) * y_percent;
               } else {
-                totals[k] += ( 0x0000FFFF & datain.getShort()) * y_percent;
+                totals[k] += ( 0x0000FFFF & datain.getShort( temp_index )) * y_percent;
               }
             }
           }
           temp += group_size;
           percent = y_percent * highx_float;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              totals[k] += ( 0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES( datain.getShort()) ) * percent;
+              totals[k] += ( 0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES( datain.getShort( temp_index )) ) * percent;
             } else {
-              totals[k] += ( 0x0000FFFF & datain.getShort()) * percent;
+              totals[k] += ( 0x0000FFFF & datain.getShort( temp_index )) * percent;
             }
           }
           
@@ -721,16 +683,12 @@ public class ScaleInternal {
             right += ysize;
             for( k = 0; k < components; k++, left += element_size, right += element_size ) {
               if( myswap_bytes ) {
-                datain.position( left );
-                float f = (0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES(datain.getShort())) * ( 1 - lowx_float );
-                datain.position( right );
-                f += ((0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES(datain.getShort())) * highx_float);
+                float f = (0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES(datain.getShort( left ))) * ( 1 - lowx_float );
+                f += ((0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES(datain.getShort( right ))) * highx_float);
                 totals[k] += f;
               } else {
-                datain.position( left );
-                float f = ((0x0000FFFF & datain.getShort()) * ( 1 - lowx_float ));
-                datain.position( right );
-                f += ((0x0000FFFF & datain.getShort()) * highx_float);
+                float f = ((0x0000FFFF & datain.getShort( left )) * ( 1 - lowx_float ));
+                f += ((0x0000FFFF & datain.getShort( right )) * highx_float);
                 totals[k] += f;
               }
             }
@@ -740,32 +698,29 @@ public class ScaleInternal {
           percent = ( 1 - lowy_float) * x_percent;
           temp = xindex + (lowy_int * ysize);
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              totals[k] += (0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES( datain.getShort() )) * percent;
+              totals[k] += (0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES( datain.getShort( temp_index ) )) * percent;
             } else {
-              totals[k] += (0x0000FFFF & datain.getShort()) * percent;
+              totals[k] += (0x0000FFFF & datain.getShort( temp_index )) * percent;
             }
           }
           for( m = lowy_int + 1; m < highy_int; m++ ) {
             temp += ysize;
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
               if( myswap_bytes ) {
-                totals[k] += (0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES( datain.getShort()) ) * x_percent;
+                totals[k] += (0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES( datain.getShort( temp_index )) ) * x_percent;
               } else {
-                totals[k] += (0x0000FFFF & datain.getShort()) * x_percent;
+                totals[k] += (0x0000FFFF & datain.getShort( temp_index )) * x_percent;
               }
             }
           }
           percent = x_percent * highy_float;
           temp += ysize;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              totals[k] += (0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES( datain.getShort() )) * percent;
+              totals[k] += (0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES( datain.getShort( temp_index ) )) * percent;
             } else {
-              totals[k] += (0x0000FFFF & datain.getShort()) * percent;
+              totals[k] += (0x0000FFFF & datain.getShort( temp_index )) * percent;
             }
           }
         } else if( highx_int > lowx_int ) {
@@ -773,43 +728,39 @@ public class ScaleInternal {
           percent = ( 1 - lowx_float ) * y_percent;
           temp = xindex + (lowy_int * ysize);
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              totals[k] += (0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES( datain.getShort()) ) * percent;
+              totals[k] += (0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES( datain.getShort( temp_index )) ) * percent;
             } else {
-              totals[k] += (0x0000FFFF & datain.getShort()) * percent;
+              totals[k] += (0x0000FFFF & datain.getShort( temp_index )) * percent;
             }
           }
           for( l = lowx_int + 1; l < highx_int; l++ ) {
             temp += group_size;
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
               if( myswap_bytes ) {
-                totals[k] += (0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES( datain.getShort()) ) * y_percent;
+                totals[k] += (0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES( datain.getShort( temp_index )) ) * y_percent;
               } else {
-                totals[k] += (0x0000FFFF & datain.getShort()) * y_percent;
+                totals[k] += (0x0000FFFF & datain.getShort( temp_index )) * y_percent;
               }
             }
           }
           temp += group_size;
           percent = y_percent * highx_float;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              totals[k] += (0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES( datain.getShort()) ) * percent;
+              totals[k] += (0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES( datain.getShort( temp_index )) ) * percent;
             } else {
-              totals[k] += (0x0000FFFF & datain.getShort()) * percent;
+              totals[k] += (0x0000FFFF & datain.getShort( temp_index )) * percent;
             }
           }
         } else {
           percent = ( highy_float - lowy_float ) * ( highx_float - lowx_float );
           temp = xindex + (lowy_int * ysize);
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              totals[k] += (0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES( datain.getShort()) ) * percent;
+              totals[k] += (0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES( datain.getShort( temp_index )) ) * percent;
             } else {
-              totals[k] += (0x0000FFFF & datain.getShort()) * percent;
+              totals[k] += (0x0000FFFF & datain.getShort( temp_index )) * percent;
             }
           }
         }
@@ -820,11 +771,10 @@ public class ScaleInternal {
           temp = temp0;
           for( l = lowx_int + 1; l < highx_int; l++ ) {
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
               if( myswap_bytes ) {
-                totals[k] += (0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES( datain.getShort()));
+                totals[k] += (0x0000FFFF & Mipmap.GLU_SWAP_2_BYTES( datain.getShort( temp_index )));
               } else {
-                totals[k] += (0x0000FFFF & datain.getShort());
+                totals[k] += (0x0000FFFF & datain.getShort( temp_index ));
               }
             }
             temp += group_size;
@@ -933,24 +883,22 @@ public class ScaleInternal {
           temp = xindex + lowy_int * ysize;
           percent = y_percent * ( 1 - lowx_float );
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              swapbuf = Mipmap.GLU_SWAP_2_BYTES( datain.getShort() );
+              swapbuf = Mipmap.GLU_SWAP_2_BYTES( datain.getShort( temp_index ) );
               totals[k] += swapbuf * percent;
             } else {
-              totals[k] += datain.getShort() * percent;
+              totals[k] += datain.getShort( temp_index ) * percent;
             }
           }
           left = temp;
           for( l = lowx_int + 1; l < highx_int; l++ ) {
             temp += group_size;
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
               if( myswap_bytes ) {
-                swapbuf = Mipmap.GLU_SWAP_2_BYTES( datain.getShort() );
+                swapbuf = Mipmap.GLU_SWAP_2_BYTES( datain.getShort( temp_index ) );
                 totals[k] += swapbuf * y_percent;
               } else {
-                totals[k] += datain.getShort() * y_percent;
+                totals[k] += datain.getShort( temp_index ) * y_percent;
               }
             }
           }
@@ -958,12 +906,11 @@ public class ScaleInternal {
           right = temp;
           percent = y_percent * highx_float;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              swapbuf = Mipmap.GLU_SWAP_2_BYTES( datain.getShort() );
+              swapbuf = Mipmap.GLU_SWAP_2_BYTES( datain.getShort( temp_index ) );
               totals[k] += swapbuf * percent;
             } else {
-              totals[k] += datain.getShort() * percent;
+              totals[k] += datain.getShort( temp_index ) * percent;
             }
           }
           
@@ -972,35 +919,32 @@ public class ScaleInternal {
           percent = y_percent * ( 1 - lowx_float );
           temp = xindex + highy_int * ysize;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              swapbuf = Mipmap.GLU_SWAP_2_BYTES( datain.getShort() );
+              swapbuf = Mipmap.GLU_SWAP_2_BYTES( datain.getShort( temp_index ) );
               totals[k] += swapbuf * percent;
             } else {
-              totals[k] += datain.getShort() * percent;
+              totals[k] += datain.getShort( temp_index ) * percent;
             }
           }
           for( l = lowx_int + 1; l < highx_int; l++ ) {
             temp += group_size;
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
               if( myswap_bytes ) {
-                swapbuf = Mipmap.GLU_SWAP_2_BYTES( datain.getShort() );
+                swapbuf = Mipmap.GLU_SWAP_2_BYTES( datain.getShort( temp_index ) );
                 totals[k] += swapbuf * y_percent;
               } else {
-                totals[k] += datain.getShort() * y_percent;
+                totals[k] += datain.getShort( temp_index ) * y_percent;
               }
             }
           }
           temp += group_size;
           percent = y_percent * highx_float;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              swapbuf = Mipmap.GLU_SWAP_2_BYTES( datain.getShort() );
+              swapbuf = Mipmap.GLU_SWAP_2_BYTES( datain.getShort( temp_index ) );
               totals[k] += swapbuf * percent;
             } else {
-              totals[k] += datain.getShort() * percent;
+              totals[k] += datain.getShort( temp_index ) * percent;
             }
           }
           
@@ -1010,17 +954,13 @@ public class ScaleInternal {
             right += ysize;
             for( k = 0; k < components; k++, left += element_size, right += element_size ) {
               if( myswap_bytes ) {
-                datain.position( left );
-                swapbuf = Mipmap.GLU_SWAP_2_BYTES( datain.getShort() );
+                swapbuf = Mipmap.GLU_SWAP_2_BYTES( datain.getShort( left ) );
                 totals[k] += swapbuf * ( 1 - lowx_float );
-                datain.position( right );
-                swapbuf = Mipmap.GLU_SWAP_2_BYTES( datain.getShort() );
+                swapbuf = Mipmap.GLU_SWAP_2_BYTES( datain.getShort( right ) );
                 totals[k] += swapbuf * highx_float;
               } else {
-                datain.position( left );
-                totals[k] += datain.getShort() * ( 1 - lowx_float );
-                datain.position( right );
-                totals[k] += datain.getShort() * highx_float;
+                totals[k] += datain.getShort( left ) * ( 1 - lowx_float );
+                totals[k] += datain.getShort( right ) * highx_float;
               }
             }
           }
@@ -1029,35 +969,32 @@ public class ScaleInternal {
           percent = ( 1 - lowy_float) * x_percent;
           temp = xindex + (lowy_int * ysize);
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              swapbuf = Mipmap.GLU_SWAP_2_BYTES( datain.getShort() );
+              swapbuf = Mipmap.GLU_SWAP_2_BYTES( datain.getShort( temp_index ) );
               totals[k] += swapbuf * percent;
             } else {
-              totals[k] += datain.getShort() * percent;
+              totals[k] += datain.getShort( temp_index ) * percent;
             }
           }
           for( m = lowy_int + 1; m < highy_int; m++ ) {
             temp += ysize;
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
               if( myswap_bytes ) {
-                swapbuf = Mipmap.GLU_SWAP_2_BYTES( datain.getShort());
+                swapbuf = Mipmap.GLU_SWAP_2_BYTES( datain.getShort( temp_index ));
                 totals[k] += swapbuf * x_percent;
               } else {
-                totals[k] += datain.getShort() * x_percent;
+                totals[k] += datain.getShort( temp_index ) * x_percent;
               }
             }
           }
           percent = x_percent * highy_float;
           temp += ysize;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              swapbuf = Mipmap.GLU_SWAP_2_BYTES( datain.getShort() );
+              swapbuf = Mipmap.GLU_SWAP_2_BYTES( datain.getShort( temp_index ) );
               totals[k] += swapbuf * percent;
             } else {
-              totals[k] += datain.getShort() * percent;
+              totals[k] += datain.getShort( temp_index ) * percent;
             }
           }
         } else if( highx_int > lowx_int ) {
@@ -1065,47 +1002,43 @@ public class ScaleInternal {
           percent = ( 1 - lowx_float ) * y_percent;
           temp = xindex + (lowy_int * ysize);
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              swapbuf = Mipmap.GLU_SWAP_2_BYTES( datain.getShort() );
+              swapbuf = Mipmap.GLU_SWAP_2_BYTES( datain.getShort( temp_index ) );
               totals[k] += swapbuf * percent;
             } else {
-              totals[k] += datain.getShort() * percent;
+              totals[k] += datain.getShort( temp_index ) * percent;
             }
           }
           for( l = lowx_int + 1; l < highx_int; l++ ) {
             temp += group_size;
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
               if( myswap_bytes ) {
-                swapbuf = Mipmap.GLU_SWAP_2_BYTES( datain.getShort() );
+                swapbuf = Mipmap.GLU_SWAP_2_BYTES( datain.getShort( temp_index ) );
                 totals[k] += swapbuf * y_percent;
               } else {
-                totals[k] += datain.getShort() * y_percent;
+                totals[k] += datain.getShort( temp_index ) * y_percent;
               }
             }
           }
           temp += group_size;
           percent = y_percent * highx_float;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              swapbuf = Mipmap.GLU_SWAP_2_BYTES( datain.getShort() );
+              swapbuf = Mipmap.GLU_SWAP_2_BYTES( datain.getShort( temp_index ) );
               totals[k] += swapbuf * percent;
             } else {
-              totals[k] += datain.getShort() * percent;
+              totals[k] += datain.getShort( temp_index ) * percent;
             }
           }
         } else {
           percent = ( highy_float - lowy_float ) * ( highx_float - lowx_float );
           temp = xindex + (lowy_int * ysize);
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              swapbuf = Mipmap.GLU_SWAP_2_BYTES( datain.getShort() );
+              swapbuf = Mipmap.GLU_SWAP_2_BYTES( datain.getShort( temp_index ) );
               totals[k] += swapbuf * percent;
             } else {
-              totals[k] += datain.getShort() * percent;
+              totals[k] += datain.getShort( temp_index ) * percent;
             }
           }
         }
@@ -1116,12 +1049,11 @@ public class ScaleInternal {
           temp = temp0;
           for( l = lowx_int + 1; l < highx_int; l++ ) {
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
               if( myswap_bytes ) {
-                swapbuf = Mipmap.GLU_SWAP_2_BYTES( datain.getShort() );
+                swapbuf = Mipmap.GLU_SWAP_2_BYTES( datain.getShort( temp_index ) );
                 totals[k] += swapbuf;
               } else {
-                totals[k] += datain.getShort();
+                totals[k] += datain.getShort( temp_index );
               }
             }
             temp += group_size;
@@ -1228,22 +1160,20 @@ public class ScaleInternal {
           temp = xindex + lowy_int * ysize;
           percent = y_percent * ( 1 - lowx_float );
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              totals[k] += (0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt()) ) * percent;
+              totals[k] += (0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt( temp_index )) ) * percent;
             } else {
-              totals[k] += (0x00000000FFFFFFFF & datain.getInt()) * percent;
+              totals[k] += (0x00000000FFFFFFFF & datain.getInt( temp_index )) * percent;
             }
           }
           left = temp;
           for( l = lowx_int + 1; l < highx_int; l++ ) {
             temp += group_size;
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
               if( myswap_bytes ) {
-                totals[k] += (0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt()) ) * y_percent;
+                totals[k] += (0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt( temp_index )) ) * y_percent;
               } else {
-                totals[k] += (0x00000000FFFFFFFF & datain.getInt()) * y_percent;
+                totals[k] += (0x00000000FFFFFFFF & datain.getInt( temp_index )) * y_percent;
               }
             }
           }
@@ -1251,11 +1181,10 @@ public class ScaleInternal {
           right = temp;
           percent = y_percent * highx_float;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              totals[k] += (0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt()) ) * percent;
+              totals[k] += (0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt( temp_index )) ) * percent;
             } else {
-              totals[k] += (0x00000000FFFFFFFF & datain.getInt()) * percent;
+              totals[k] += (0x00000000FFFFFFFF & datain.getInt( temp_index )) * percent;
             }
           }
           
@@ -1264,32 +1193,29 @@ public class ScaleInternal {
           percent = y_percent * ( 1 - lowx_float );
           temp = xindex + highy_int * ysize;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              totals[k] += (0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt()) ) * percent;
+              totals[k] += (0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt( temp_index )) ) * percent;
             } else {
-              totals[k] += (0x00000000FFFFFFFF & datain.getInt()) * percent;
+              totals[k] += (0x00000000FFFFFFFF & datain.getInt( temp_index )) * percent;
             }
           }
           for( l = lowx_int + 1; l < highx_int; l++ ) {
             temp += group_size;
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
               if( myswap_bytes ) {
-                totals[k] += (0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt()) ) * y_percent;
+                totals[k] += (0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt( temp_index )) ) * y_percent;
               } else {
-                totals[k] += (0x00000000FFFFFFFF & datain.getInt()) * y_percent;
+                totals[k] += (0x00000000FFFFFFFF & datain.getInt( temp_index )) * y_percent;
               }
             }
           }
           temp += group_size;
           percent = y_percent * highx_float;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              totals[k] += (0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt()) ) * percent;
+              totals[k] += (0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt( temp_index )) ) * percent;
             } else {
-              totals[k] += (0x00000000FFFFFFFF & datain.getInt()) * percent;
+              totals[k] += (0x00000000FFFFFFFF & datain.getInt( temp_index )) * percent;
             }
           }
           
@@ -1299,15 +1225,11 @@ public class ScaleInternal {
             right += ysize;
             for( k = 0; k < components; k++, left += element_size, right += element_size ) {
               if( myswap_bytes ) {
-                datain.position( left );
-                totals[k] += ((0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES(datain.getInt())) * ( 1 - lowx_float ));
-                datain.position( right );
-                totals[k] += ((0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES(datain.getInt())) * highx_float);
+                totals[k] += ((0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES(datain.getInt( left ))) * ( 1 - lowx_float ));
+                totals[k] += ((0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES(datain.getInt( right ))) * highx_float);
               } else {
-                datain.position( left );
-                totals[k] += ((0x00000000FFFFFFFF & datain.getInt()) * ( 1 - lowx_float ));
-                datain.position( right );
-                totals[k] += ((0x00000000FFFFFFFF & datain.getInt()) * highx_float);
+                totals[k] += ((0x00000000FFFFFFFF & datain.getInt( left )) * ( 1 - lowx_float ));
+                totals[k] += ((0x00000000FFFFFFFF & datain.getInt( right )) * highx_float);
               }
             }
           }
@@ -1316,32 +1238,29 @@ public class ScaleInternal {
           percent = ( 1 - lowy_float) * x_percent;
           temp = xindex + (lowy_int * ysize);
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              totals[k] += (0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt())) * percent;
+              totals[k] += (0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt( temp_index ))) * percent;
             } else {
-              totals[k] += (0x00000000FFFFFFFF & datain.getInt()) * percent;
+              totals[k] += (0x00000000FFFFFFFF & datain.getInt( temp_index )) * percent;
             }
           }
           for( m = lowy_int + 1; m < highy_int; m++ ) {
             temp += ysize;
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
               if( myswap_bytes ) {
-                totals[k] += (0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt())) * x_percent;
+                totals[k] += (0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt( temp_index ))) * x_percent;
               } else {
-                totals[k] += (0x00000000FFFFFFFF & datain.getInt()) * x_percent;
+                totals[k] += (0x00000000FFFFFFFF & datain.getInt( temp_index )) * x_percent;
               }
             }
           }
           percent = x_percent * highy_float;
           temp += ysize;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              totals[k] += (0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt())) * percent;
+              totals[k] += (0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt( temp_index ))) * percent;
             } else {
-              totals[k] += (0x00000000FFFFFFFF & datain.getInt()) * percent;
+              totals[k] += (0x00000000FFFFFFFF & datain.getInt( temp_index )) * percent;
             }
           }
         } else if( highx_int > lowx_int ) {
@@ -1349,32 +1268,29 @@ public class ScaleInternal {
           percent = ( 1 - lowx_float ) * y_percent;
           temp = xindex + (lowy_int * ysize);
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              totals[k] += (0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt())) * percent;
+              totals[k] += (0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt( temp_index ))) * percent;
             } else {
-              totals[k] += (0x00000000FFFFFFFF & datain.getInt()) * percent;
+              totals[k] += (0x00000000FFFFFFFF & datain.getInt( temp_index )) * percent;
             }
           }
           for( l = lowx_int + 1; l < highx_int; l++ ) {
             temp += group_size;
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
               if( myswap_bytes ) {
-                totals[k] += (0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt())) * y_percent;
+                totals[k] += (0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt( temp_index ))) * y_percent;
               } else {
-                totals[k] += (0x00000000FFFFFFFF & datain.getInt()) * y_percent;
+                totals[k] += (0x00000000FFFFFFFF & datain.getInt( temp_index )) * y_percent;
               }
             }
           }
           temp += group_size;
           percent = y_percent * highx_float;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              totals[k] += (0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt())) * percent;
+              totals[k] += (0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt( temp_index ))) * percent;
             } else {
-              totals[k] += (0x00000000FFFFFFFF & datain.getInt()) * percent;
+              totals[k] += (0x00000000FFFFFFFF & datain.getInt( temp_index )) * percent;
             }
           }
         } else {
@@ -1382,13 +1298,11 @@ public class ScaleInternal {
           temp = xindex + (lowy_int * ysize);
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
             long tempInt0 = ( 0xFFFFFFFFL & datain.getInt( temp_index ) );
-            datain.position( temp_index );
-            long tempInt1 = ( 0xFFFFFFFFL & datain.getInt() );
-            datain.position( temp_index );
+            long tempInt1 = ( 0xFFFFFFFFL & datain.getInt( temp_index ) );
             if( myswap_bytes ) {
-              totals[k] += (0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt())) * percent;
+              totals[k] += (0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt( temp_index ))) * percent;
             } else {
-              totals[k] += (0x00000000FFFFFFFF & datain.getInt()) * percent;
+              totals[k] += (0x00000000FFFFFFFF & datain.getInt( temp_index )) * percent;
             }
           }
         }
@@ -1399,11 +1313,10 @@ public class ScaleInternal {
           temp = temp0;
           for( l = lowx_int + 1; l < highx_int; l++ ) {
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
               if( myswap_bytes ) {
-                totals[k] += (0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt()));
+                totals[k] += (0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( datain.getInt( temp_index )));
               } else {
-                totals[k] += (0x00000000FFFFFFFF & datain.getInt());
+                totals[k] += (0x00000000FFFFFFFF & datain.getInt( temp_index ));
               }
             }
             temp += group_size;
@@ -1415,7 +1328,6 @@ public class ScaleInternal {
         float value = 0.0f;
         for( k = 0; k < components; k++ ) {
           value = totals[k] / area;
-          dataout.position( outindex + k );
           if( value >= UINT_MAX ) {
             dataout.put( (int)value );
           } else {
@@ -1518,24 +1430,22 @@ public class ScaleInternal {
           temp = xindex + lowy_int * ysize;
           percent = y_percent * ( 1 - lowx_float );
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getInt() );
+              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getInt( temp_index ) );
               totals[k] += swapbuf * percent;
             } else {
-              totals[k] += datain.getInt() * percent;
+              totals[k] += datain.getInt( temp_index ) * percent;
             }
           }
           left = temp;
           for( l = lowx_int + 1; l < highx_int; l++ ) {
             temp += group_size;
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
               if( myswap_bytes ) {
-                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getInt() );
+                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getInt( temp_index ) );
                 totals[k] += swapbuf * y_percent;
               } else {
-                totals[k] += datain.getInt() * y_percent;
+                totals[k] += datain.getInt( temp_index ) * y_percent;
               }
             }
           }
@@ -1543,12 +1453,11 @@ public class ScaleInternal {
           right = temp;
           percent = y_percent * highx_float;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getInt() );
+              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getInt( temp_index ) );
               totals[k] += swapbuf * percent;
             } else {
-              totals[k] += datain.getInt() * percent;
+              totals[k] += datain.getInt( temp_index ) * percent;
             }
           }
           
@@ -1557,35 +1466,32 @@ public class ScaleInternal {
           percent = y_percent * ( 1 - lowx_float );
           temp = xindex + highy_int * ysize;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getInt() );
+              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getInt( temp_index ) );
               totals[k] += swapbuf * percent;
             } else {
-              totals[k] += datain.getInt() * percent;
+              totals[k] += datain.getInt( temp_index ) * percent;
             }
           }
           for( l = lowx_int + 1; l < highx_int; l++ ) {
             temp += group_size;
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
               if( myswap_bytes ) {
-                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getInt() );
+                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getInt( temp_index ) );
                 totals[k] += swapbuf * y_percent;
               } else {
-                totals[k] += datain.getInt() * y_percent;
+                totals[k] += datain.getInt( temp_index ) * y_percent;
               }
             }
           }
           temp += group_size;
           percent = y_percent * highx_float;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getInt() );
+              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getInt( temp_index ) );
               totals[k] += swapbuf * percent;
             } else {
-              totals[k] += datain.getInt() * percent;
+              totals[k] += datain.getInt( temp_index ) * percent;
             }
           }
           
@@ -1595,17 +1501,13 @@ public class ScaleInternal {
             right += ysize;
             for( k = 0; k < components; k++, left += element_size, right += element_size ) {
               if( myswap_bytes ) {
-                datain.position( left );
-                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getInt() );
+                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getInt( left ) );
                 totals[k] += swapbuf * ( 1 - lowx_float );
-                datain.position( right );
-                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getInt() );
+                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getInt( right ) );
                 totals[k] += swapbuf * highx_float;
               } else {
-                datain.position( left );
-                totals[k] += (datain.getInt() * ( 1 - lowx_float ));
-                datain.position( right );
-                totals[k] += (datain.getInt() * highx_float);
+                totals[k] += (datain.getInt( left ) * ( 1 - lowx_float ));
+                totals[k] += (datain.getInt( right ) * highx_float);
               }
             }
           }
@@ -1614,35 +1516,32 @@ public class ScaleInternal {
           percent = ( 1 - lowy_float) * x_percent;
           temp = xindex + (lowy_int * ysize);
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getInt() );
+              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getInt( temp_index ) );
               totals[k] += swapbuf * percent;
             } else {
-              totals[k] += datain.getInt() * percent;
+              totals[k] += datain.getInt( temp_index ) * percent;
             }
           }
           for( m = lowy_int + 1; m < highy_int; m++ ) {
             temp += ysize;
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
               if( myswap_bytes ) {
-                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getInt() );
+                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getInt( temp_index ) );
                 totals[k] += swapbuf * x_percent;
               } else {
-                totals[k] += datain.getInt() * x_percent;
+                totals[k] += datain.getInt( temp_index ) * x_percent;
               }
             }
           }
           percent = x_percent * highy_float;
           temp += ysize;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getInt() );
+              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getInt( temp_index ) );
               totals[k] += swapbuf * percent;
             } else {
-              totals[k] += datain.getInt() * percent;
+              totals[k] += datain.getInt( temp_index ) * percent;
             }
           }
         } else if( highx_int > lowx_int ) {
@@ -1650,47 +1549,43 @@ public class ScaleInternal {
           percent = ( 1 - lowx_float ) * y_percent;
           temp = xindex + (lowy_int * ysize);
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getInt() );
+              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getInt( temp_index ) );
               totals[k] += swapbuf * percent;
             } else {
-              totals[k] += datain.getInt() * percent;
+              totals[k] += datain.getInt( temp_index ) * percent;
             }
           }
           for( l = lowx_int + 1; l < highx_int; l++ ) {
             temp += group_size;
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
               if( myswap_bytes ) {
-                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getInt() );
+                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getInt( temp_index ) );
                 totals[k] += swapbuf * y_percent;
               } else {
-                totals[k] += datain.getInt() * y_percent;
+                totals[k] += datain.getInt( temp_index ) * y_percent;
               }
             }
           }
           temp += group_size;
           percent = y_percent * highx_float;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getInt() );
+              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getInt( temp_index ) );
               totals[k] += swapbuf * percent;
             } else {
-              totals[k] += datain.getInt() * percent;
+              totals[k] += datain.getInt( temp_index ) * percent;
             }
           }
         } else {
           percent = ( highy_float - lowy_float ) * ( highx_float - lowx_float );
           temp = xindex + (lowy_int * ysize);
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getInt() );
+              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getInt( temp_index ) );
               totals[k] += swapbuf * percent;
             } else {
-              totals[k] += datain.getInt() * percent;
+              totals[k] += datain.getInt( temp_index ) * percent;
             }
           }
         }
@@ -1701,12 +1596,11 @@ public class ScaleInternal {
           temp = temp0;
           for( l = lowx_int + 1; l < highx_int; l++ ) {
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
               if( myswap_bytes ) {
-                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getInt() );
+                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getInt( temp_index ) );
                 totals[k] += swapbuf;
               } else {
-                totals[k] += datain.getInt();
+                totals[k] += datain.getInt( temp_index );
               }
             }
             temp += group_size;
@@ -1815,24 +1709,22 @@ public class ScaleInternal {
           temp = xindex + lowy_int * ysize;
           percent = y_percent * ( 1 - lowx_float );
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat() );
+              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat( temp_index ) );
               totals[k] += swapbuf * percent;
             } else {
-              totals[k] += datain.getFloat() * percent;
+              totals[k] += datain.getFloat( temp_index ) * percent;
             }
           }
           left = temp;
           for( l = lowx_int + 1; l < highx_int; l++ ) {
             temp += group_size;
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
               if( myswap_bytes ) {
-                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat() );
+                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat( temp_index ) );
                 totals[k] += swapbuf * y_percent;
               } else {
-                totals[k] += datain.getFloat() * y_percent;
+                totals[k] += datain.getFloat( temp_index ) * y_percent;
               }
             }
           }
@@ -1840,12 +1732,11 @@ public class ScaleInternal {
           right = temp;
           percent = y_percent * highx_float;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat() );
+              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat( temp_index ) );
               totals[k] += swapbuf * percent;
             } else {
-              totals[k] += datain.getFloat() * percent;
+              totals[k] += datain.getFloat( temp_index ) * percent;
             }
           }
           
@@ -1854,35 +1745,32 @@ public class ScaleInternal {
           percent = y_percent * ( 1 - lowx_float );
           temp = xindex + highy_int * ysize;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat() );
+              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat( temp_index ) );
               totals[k] += swapbuf * percent;
             } else {
-              totals[k] += datain.getFloat() * percent;
+              totals[k] += datain.getFloat( temp_index ) * percent;
             }
           }
           for( l = lowx_int + 1; l < highx_int; l++ ) {
             temp += group_size;
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
               if( myswap_bytes ) {
-                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat() );
+                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat( temp_index ) );
                 totals[k] += swapbuf * y_percent;
               } else {
-                totals[k] += datain.getFloat() * y_percent;
+                totals[k] += datain.getFloat( temp_index ) * y_percent;
               }
             }
           }
           temp += group_size;
           percent = y_percent * highx_float;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat() );
+              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat( temp_index ) );
               totals[k] += swapbuf * percent;
             } else {
-              totals[k] += datain.getFloat() * percent;
+              totals[k] += datain.getFloat( temp_index ) * percent;
             }
           }
           
@@ -1892,17 +1780,13 @@ public class ScaleInternal {
             right += ysize;
             for( k = 0; k < components; k++, left += element_size, right += element_size ) {
               if( myswap_bytes ) {
-                datain.position( left );
-                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat() );
+                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat( left ) );
                 totals[k] += swapbuf * ( 1 - lowx_float );
-                datain.position( right );
-                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat() );
+                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat( right ) );
                 totals[k] += swapbuf * highx_float;
               } else {
-                datain.position( left );
-                totals[k] += (datain.getFloat() * ( 1 - lowx_float ));
-                datain.position( right );
-                totals[k] += (datain.getFloat() * highx_float);
+                totals[k] += (datain.getFloat( left ) * ( 1 - lowx_float ));
+                totals[k] += (datain.getFloat( right ) * highx_float);
               }
             }
           }
@@ -1911,35 +1795,32 @@ public class ScaleInternal {
           percent = ( 1 - lowy_float) * x_percent;
           temp = xindex + (lowy_int * ysize);
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat() );
+              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat( temp_index ) );
               totals[k] += swapbuf * percent;
             } else {
-              totals[k] += datain.getFloat() * percent;
+              totals[k] += datain.getFloat( temp_index ) * percent;
             }
           }
           for( m = lowy_int + 1; m < highy_int; m++ ) {
             temp += ysize;
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
               if( myswap_bytes ) {
-                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat() );
+                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat( temp_index ) );
                 totals[k] += swapbuf * x_percent;
               } else {
-                totals[k] += datain.getFloat() * x_percent;
+                totals[k] += datain.getFloat( temp_index ) * x_percent;
               }
             }
           }
           percent = x_percent * highy_float;
           temp += ysize;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat() );
+              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat( temp_index ) );
               totals[k] += swapbuf * percent;
             } else {
-              totals[k] += datain.getFloat() * percent;
+              totals[k] += datain.getFloat( temp_index ) * percent;
             }
           }
         } else if( highx_int > lowx_int ) {
@@ -1947,47 +1828,43 @@ public class ScaleInternal {
           percent = ( 1 - lowx_float ) * y_percent;
           temp = xindex + (lowy_int * ysize);
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat() );
+              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat( temp_index ) );
               totals[k] += swapbuf * percent;
             } else {
-              totals[k] += datain.getFloat() * percent;
+              totals[k] += datain.getFloat( temp_index ) * percent;
             }
           }
           for( l = lowx_int + 1; l < highx_int; l++ ) {
             temp += group_size;
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
               if( myswap_bytes ) {
-                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat() );
+                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat( temp_index ) );
                 totals[k] += swapbuf * y_percent;
               } else {
-                totals[k] += datain.getFloat() * y_percent;
+                totals[k] += datain.getFloat( temp_index ) * y_percent;
               }
             }
           }
           temp += group_size;
           percent = y_percent * highx_float;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat() );
+              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat( temp_index ) );
               totals[k] += swapbuf * percent;
             } else {
-              totals[k] += datain.getFloat() * percent;
+              totals[k] += datain.getFloat( temp_index ) * percent;
             }
           }
         } else {
           percent = ( highy_float - lowy_float ) * ( highx_float - lowx_float );
           temp = xindex + (lowy_int * ysize);
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat() );
+              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat( temp_index ) );
               totals[k] += swapbuf * percent;
             } else {
-              totals[k] += datain.getFloat() * percent;
+              totals[k] += datain.getFloat( temp_index ) * percent;
             }
           }
         }
@@ -1998,12 +1875,11 @@ public class ScaleInternal {
           temp = temp0;
           for( l = lowx_int + 1; l < highx_int; l++ ) {
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
               if( myswap_bytes ) {
-                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat() );
+                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat( temp_index ) );
                 totals[k] += swapbuf;
               } else {
-                totals[k] += datain.getFloat();
+                totals[k] += datain.getFloat( temp_index );
               }
             }
             temp += group_size;
@@ -71,7 +71,7 @@ public class PngHelper {
 	}
 
 	public static int readInt2fromBytes(byte[] b, int offset) {
-		return ((b[offset] & 0xff) << 16) | ((b[offset + 1] & 0xff));
+		return ((b[offset] & 0xff) << 8) | ((b[offset + 1] & 0xff));
 	}
 
 	public static int readInt4fromBytes(byte[] b, int offset) {
@@ -4,6 +4,7 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.zip.Inflater;
 import java.util.zip.InflaterInputStream;
 
 import jogamp.opengl.util.pngj.PngIDatChunkInputStream.IdatChunkInfo;
@@ -27,9 +28,17 @@ public class PngReader {
 	protected final String filename; // not necesarily a file, can be a description - merely informative
 
 	private static int MAX_BYTES_CHUNKS_TO_LOAD = 640000;
+	private static final int INFLATER_BUFFER_SIZE = 16384;
+
+	// Adam7 passes: first column/row and column/row increment
+	private static final int[] ADAM7_X0 = { 0, 4, 0, 2, 0, 1, 0 };
+	private static final int[] ADAM7_Y0 = { 0, 0, 4, 0, 2, 0, 1 };
+	private static final int[] ADAM7_DX = { 8, 8, 4, 4, 2, 2, 1 };
+	private static final int[] ADAM7_DY = { 8, 8, 8, 4, 4, 2, 2 };
 	private ChunkLoadBehaviour chunkLoadBehaviour = ChunkLoadBehaviour.LOAD_CHUNK_ALWAYS;
 
 	private final InputStream is;
+	private Inflater inflater;
 	private InflaterInputStream idatIstream;
 	private PngIDatChunkInputStream iIdatCstream;
 
@@ -40,6 +49,13 @@ public class PngReader {
 
 	protected ImageLine imgLine;
 
+	/**
+	 * True if the image is Adam7 interlaced. All passes are read at once when the first row is requested and stored
+	 * in {@link #deinterlaced}, rows are then served from there.
+	 */
+	protected final boolean interlaced;
+	private byte[] deinterlaced = null;
+
 	// line as bytes, counting from 1 (index 0 is reserved for filter type)
 	protected byte[] rowb = null;
 	protected byte[] rowbprev = null; // rowb previous
@@ -94,8 +110,9 @@ public class PngReader {
 		boolean grayscale = (ihdr.getColormodel() == 0 || ihdr.getColormodel() == 4);
 		imgInfo = new ImageInfo(ihdr.getCols(), ihdr.getRows(), ihdr.getBitspc(), alpha, grayscale, palette);
 		imgLine = new ImageLine(imgInfo);
-		if (ihdr.getInterlaced() != 0)
-			throw new PngjUnsupportedException("PNG interlaced not supported by this library");
+		if (ihdr.getInterlaced() != 0 && ihdr.getInterlaced() != 1)
+			throw new PngjInputException("Invalid interlace method " + ihdr.getInterlaced());
+		interlaced = ihdr.getInterlaced() == 1;
 		if (ihdr.getFilmeth() != 0 || ihdr.getCompmeth() != 0)
 			throw new PngjInputException("compmethod o filtermethod unrecognized");
 		if (ihdr.getColormodel() < 0 || ihdr.getColormodel() > 6 || ihdr.getColormodel() == 1
@@ -193,7 +210,9 @@ public class PngReader {
 		if (idatLen < 0)
 			throw new PngjInputException("first idat chunk not found!");
 		iIdatCstream = new PngIDatChunkInputStream(is, idatLen, offset);
-		idatIstream = new InflaterInputStream(iIdatCstream);
+		// larger than default buffer, fewer reads across the IDAT chunks
+		inflater = new Inflater();
+		idatIstream = new InflaterInputStream(iIdatCstream, inflater, INFLATER_BUFFER_SIZE);
 	}
 
 	/**
@@ -266,6 +285,26 @@ public class PngReader {
 	 * @return The scanline in the same passwd buffer if it was allocated, a newly allocated one otherwise
 	 */
 	public int[] readRow(int[] buffer, int nrow) {
+		readRowRaw(nrow);
+		if (buffer == null || buffer.length < imgInfo.samplesPerRowP)
+			buffer = new int[imgInfo.samplesPerRowP];
+		convertRowFromBytes(buffer);
+		return buffer;
+	}
+
+	/**
+	 * Reads a line and returns it unfiltered, as raw bytes. This doesn't allocate, copy or convert anything.
+	 * <p>
+	 * The returned array is the internal row buffer, which is overwritten by the next read. The row starts at index 1
+	 * (index 0 holds the filter type) and is <code>imgInfo.bytesPerRow</code> bytes long, packed as in the PNG stream,
+	 * i.e. 16 bit samples are big endian and 1-2-4 bit samples are packed.
+	 * 
+	 * @param nrow
+	 *            Row number (0 is top). This is mostly for checking, because this library reads rows in sequence.
+	 * 
+	 * @return The internal row buffer
+	 */
+	public byte[] readRowRaw(int nrow) {
 		if (nrow < 0 || nrow >= imgInfo.rows)
 			throw new PngjInputException("invalid line");
 		if (nrow != rowNum + 1)
@@ -273,8 +312,13 @@ public class PngReader {
 		if (nrow == 0 && firstChunksNotYetRead())
 			readFirstChunks();
 		rowNum++;
-		if (buffer == null || buffer.length < imgInfo.samplesPerRowP)
-			buffer = new int[imgInfo.samplesPerRowP];
+		if (interlaced) {
+			if (deinterlaced == null)
+				readDeinterlaced();
+			System.arraycopy(deinterlaced, nrow * imgInfo.bytesPerRow, rowb, 1, imgInfo.bytesPerRow);
+			rowb[0] = rowbfilter[0] = 0;
+			return rowb;
+		}
 		// swap
 		byte[] tmp = rowb;
 		rowb = rowbprev;
@@ -282,10 +326,54 @@ public class PngReader {
 		// loads in rowbfilter "raw" bytes, with filter
 		PngHelper.readBytes(idatIstream, rowbfilter, 0, rowbfilter.length);
 		rowb[0] = 0;
-		unfilterRow();
+		unfilterRow(imgInfo.bytesPerRow);
 		rowb[0] = rowbfilter[0];
-		convertRowFromBytes(buffer);
-		return buffer;
+		return rowb;
+	}
+
+	/**
+	 * Reads the 7 reduced images of an Adam7 interlaced image and scatters their pixels into the full image.
+	 */
+	private void readDeinterlaced() {
+		final int bitsPixel = imgInfo.bitspPixel;
+		final int bytesPixel = imgInfo.bytesPixel;
+		final int bytesPerRow = imgInfo.bytesPerRow;
+		deinterlaced = new byte[imgInfo.rows * bytesPerRow];
+		for (int pass = 0; pass < 7; pass++) {
+			final int x0 = ADAM7_X0[pass], dx = ADAM7_DX[pass];
+			final int y0 = ADAM7_Y0[pass], dy = ADAM7_DY[pass];
+			final int pcols = (imgInfo.cols - x0 + dx - 1) / dx;
+			final int prows = (imgInfo.rows - y0 + dy - 1) / dy;
+			if (pcols == 0 || prows == 0)
+				continue; // empty pass, not even filter bytes are stored
+			final int pbytes = (bitsPixel * pcols + 7) / 8;
+			// the row before the first row of each pass is zero
+			Arrays.fill(rowb, 0, pbytes + 1, (byte) 0);
+			for (int r = 0, y = y0; r < prows; r++, y += dy) {
+				byte[] tmp = rowb;
+				rowb = rowbprev;
+				rowbprev = tmp;
+				PngHelper.readBytes(idatIstream, rowbfilter, 0, pbytes + 1);
+				rowb[0] = 0;
+				unfilterRow(pbytes);
+				final int rowOff = y * bytesPerRow;
+				if (bitsPixel >= 8) {
+					for (int c = 0, x = x0, s = 1; c < pcols; c++, x += dx) {
+						for (int k = 0, d = rowOff + x * bytesPixel; k < bytesPixel; k++) {
+							deinterlaced[d + k] = rowb[s++];
+						}
+					}
+				} else { // packed 1-2-4 bits, single channel
+					final int mask = (1 << bitsPixel) - 1;
+					for (int c = 0, x = x0; c < pcols; c++, x += dx) {
+						final int sbit = c * bitsPixel;
+						final int dbit = x * bitsPixel;
+						final int v = (rowb[1 + (sbit >> 3)] >> (8 - bitsPixel - (sbit & 7))) & mask;
+						deinterlaced[rowOff + (dbit >> 3)] |= v << (8 - bitsPixel - (dbit & 7));
+					}
+				}
+			}
+		}
 	}
 
 	/**
@@ -297,6 +385,7 @@ public class PngReader {
 			idatIstream.close();
 		} catch (Exception e) {
 		}
+		inflater.end();
 		readLastChunks();
 		try {
 			is.close();
@@ -319,68 +408,83 @@ public class PngReader {
 		}
 	}
 
-	private void unfilterRow() {
+	/**
+	 * @param nbytes
+	 *            bytes of the row, i.e. <code>imgInfo.bytesPerRow</code> or less for an interlaced pass
+	 */
+	private void unfilterRow(int nbytes) {
 		int ftn = rowbfilter[0];
 		FilterType ft = FilterType.getByVal(ftn);
 		if (ft == null)
 			throw new PngjInputException("Filter type " + ftn + " invalid");
 		switch (ft) {
 		case FILTER_NONE:
-			unfilterRowNone();
+			unfilterRowNone(nbytes);
 			break;
 		case FILTER_SUB:
-			unfilterRowSub();
+			unfilterRowSub(nbytes);
 			break;
 		case FILTER_UP:
-			unfilterRowUp();
+			unfilterRowUp(nbytes);
 			break;
 		case FILTER_AVERAGE:
-			unfilterRowAverage();
+			unfilterRowAverage(nbytes);
 			break;
 		case FILTER_PAETH:
-			unfilterRowPaeth();
+			unfilterRowPaeth(nbytes);
 			break;
 		default:
 			throw new PngjInputException("Filter type " + ftn + " not implemented");
 		}
 	}
 
-	private void unfilterRowNone() {
-		for (int i = 1; i <= imgInfo.bytesPerRow; i++) {
-			rowb[i] = (byte) (rowbfilter[i]);
-		}
+	private void unfilterRowNone(int nbytes) {
+		System.arraycopy(rowbfilter, 1, rowb, 1, nbytes);
 	}
 
-	private void unfilterRowSub() {
+	private void unfilterRowSub(int nbytes) {
 		int i, j;
 		for (i = 1; i <= imgInfo.bytesPixel; i++) {
 			rowb[i] = (byte) (rowbfilter[i]);
 		}
-		for (j = 1, i = imgInfo.bytesPixel + 1; i <= imgInfo.bytesPerRow; i++, j++) {
+		for (j = 1, i = imgInfo.bytesPixel + 1; i <= nbytes; i++, j++) {
 			rowb[i] = (byte) (rowbfilter[i] + rowb[j]);
 		}
 	}
 
-	private void unfilterRowUp() {
-		for (int i = 1; i <= imgInfo.bytesPerRow; i++) {
+	private void unfilterRowUp(int nbytes) {
+		for (int i = 1; i <= nbytes; i++) {
 			rowb[i] = (byte) (rowbfilter[i] + rowbprev[i]);
 		}
 	}
 
-	private void unfilterRowAverage() {
-		int i, j, x;
-		for (j = 1 - imgInfo.bytesPixel, i = 1; i <= imgInfo.bytesPerRow; i++, j++) {
-			x = j > 0 ? (rowb[j] & 0xff) : 0;
-			rowb[i] = (byte) (rowbfilter[i] + (x + (rowbprev[i] & 0xFF)) / 2);
+	private void unfilterRowAverage(int nbytes) {
+		int i, j;
+		// first pixel has no left neighbour
+		for (i = 1; i <= imgInfo.bytesPixel; i++) {
+			rowb[i] = (byte) (rowbfilter[i] + (rowbprev[i] & 0xFF) / 2);
+		}
+		for (j = 1, i = imgInfo.bytesPixel + 1; i <= nbytes; i++, j++) {
+			rowb[i] = (byte) (rowbfilter[i] + ((rowb[j] & 0xFF) + (rowbprev[i] & 0xFF)) / 2);
 		}
 	}
 
-	private void unfilterRowPaeth() {
-		int i, j, x, y;
-		for (j = 1 - imgInfo.bytesPixel, i = 1; i <= imgInfo.bytesPerRow; i++, j++) {
-			x = j > 0 ? (rowb[j] & 0xFF) : 0;
-			y = j > 0 ? (rowbprev[j] & 0xFF) : 0;
-			rowb[i] = (byte) (rowbfilter[i] + FilterType.filterPaethPredictor(x, rowbprev[i] & 0xFF, y));
+	private void unfilterRowPaeth(int nbytes) {
+		int i, j, a, b, c, p, pa, pb, pc;
+		// first pixel has no left neighbour, the predictor yields the upper one
+		for (i = 1; i <= imgInfo.bytesPixel; i++) {
+			rowb[i] = (byte) (rowbfilter[i] + rowbprev[i]);
+		}
+		// inlined FilterType.filterPaethPredictor()
+		for (j = 1, i = imgInfo.bytesPixel + 1; i <= nbytes; i++, j++) {
+			a = rowb[j] & 0xFF;
+			b = rowbprev[i] & 0xFF;
+			c = rowbprev[j] & 0xFF;
+			p = a + b - c;
+			pa = p >= a ? p - a : a - p;
+			pb = p >= b ? p - b : b - p;
+			pc = p >= c ? p - c : c - p;
+			rowb[i] = (byte) (rowbfilter[i] + (pa <= pb && pa <= pc ? a : (pb <= pc ? b : c)));
 		}
 	}
 
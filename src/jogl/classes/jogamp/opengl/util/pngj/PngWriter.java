@@ -3,7 +3,15 @@ package jogamp.opengl.util.pngj;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Arrays;
+import java.util.LinkedList;
 import java.util.List;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Adler32;
 import java.util.zip.Deflater;
 import java.util.zip.DeflaterOutputStream;
 
@@ -46,6 +54,36 @@ public class PngWriter {
 	private final ChunkList chunkList;
 	private final PngMetadata metadata; // high level wrapper over chunkList
 
+	// parallel encoding, see setParallelEncoding()
+	private static final int BLOCK_SIZE_DEFAULT = 128 * 1024; // bytes of filtered data per block
+	private static final int DICT_SIZE = 32 * 1024; // deflate window
+	private static final Method deflateFlushMethod; // Deflater.deflate(byte[], int, int, int), Java 7
+	private static final int SYNC_FLUSH; // Deflater.SYNC_FLUSH, Java 7
+	private static final boolean syncFlushAvailable;
+	private ExecutorService executor = null;
+	private int rowsPerBlock;
+	private int maxPendingBlocks;
+	private byte[] blockRaw = null; // raw rows of current block, layout as rowb (element 0 of each row unused)
+	private int blockRows = 0;
+	private byte[] blockPrevRaw = null; // last raw row of previous block, null for the first
+	private EncodeBlock lastBlock = null;
+	private final LinkedList<EncodeBlock> pendingBlocks = new LinkedList<EncodeBlock>();
+	private int adler32 = 1; // over all filtered data already written
+
+	static {
+		Method m = null;
+		int flush = 0;
+		try { // Deflater.SYNC_FLUSH needs Java 7
+			m = Deflater.class.getMethod("deflate", byte[].class, int.class, int.class, int.class);
+			flush = Deflater.class.getField("SYNC_FLUSH").getInt(null);
+		} catch (Exception e) {
+			m = null;
+		}
+		deflateFlushMethod = m;
+		SYNC_FLUSH = flush;
+		syncFlushAvailable = m != null;
+	}
+
 	public PngWriter(OutputStream outputStream, ImageInfo imgInfo) {
 		this(outputStream, imgInfo, "[NO FILENAME AVAILABLE]");
 	}
@@ -82,7 +120,9 @@ public class PngWriter {
 	 */
 	private void writeSignatureAndIHDR() {
 		currentChunkGroup = ChunkList.CHUNK_GROUP_0_IDHR;
-		if (datStreamDeflated == null) {
+		if (executor != null) {
+			blockRaw = new byte[rowsPerBlock * (imgInfo.bytesPerRow + 1)];
+		} else if (datStreamDeflated == null) {
 			Deflater def = new Deflater(compLevel);
 			def.setStrategy(deflaterStrategy);
 			datStreamDeflated = new DeflaterOutputStream(datStream, def, 8192);
@@ -121,6 +161,13 @@ public class PngWriter {
 		currentChunkGroup = ChunkList.CHUNK_GROUP_3_AFTERPLTE;
 		nw = chunkList.writeChunks(os, currentChunkGroup);
 		currentChunkGroup = ChunkList.CHUNK_GROUP_4_IDAT;
+		if (executor != null) { // zlib header, the blocks are raw deflate data
+			int flevel = compLevel < 2 ? 0 : (compLevel < 6 ? 1 : (compLevel == 6 ? 2 : 3));
+			int flg = flevel << 6;
+			flg += 31 - ((0x78 << 8 | flg) % 31);
+			datStream.write(0x78);
+			datStream.write(flg);
+		}
 	}
 
 	private void writeLastChunks() { // not including end
@@ -167,6 +214,13 @@ public class PngWriter {
 		rowb = rowbprev;
 		rowbprev = tmp;
 		convertRowToBytes();
+		if (executor != null) {
+			System.arraycopy(rowb, 1, blockRaw, blockRows * (imgInfo.bytesPerRow + 1) + 1, imgInfo.bytesPerRow);
+			blockRows++;
+			if (blockRows == rowsPerBlock || rowNum == imgInfo.rows - 1)
+				submitBlock(rowNum == imgInfo.rows - 1);
+			return;
+		}
 		filterRow(rown);
 		try {
 			datStreamDeflated.write(rowbfilter, 0, imgInfo.bytesPerRow + 1);
@@ -208,7 +262,11 @@ public class PngWriter {
 		if (rowNum != imgInfo.rows - 1)
 			throw new PngjOutputException("all rows have not been written");
 		try {
-			datStreamDeflated.finish();
+			if (executor != null) {
+				writeCompletedBlocks(true);
+				PngHelper.writeInt4(datStream, adler32);
+			} else
+				datStreamDeflated.finish();
 			datStream.flush();
 			writeLastChunks();
 			writeEndChunk();
@@ -220,7 +278,8 @@ public class PngWriter {
 
 	private int[] histox = new int[256]; // auxiliar buffer, only used by reportResultsForFilter
 
-	private void reportResultsForFilter(int rown, FilterType type, boolean tentative) {
+	private void reportResultsForFilter(FilterWriteStrategy filterStrat, byte[] rowbfilter, int[] histox, int rown,
+			FilterType type, boolean tentative) {
 		Arrays.fill(histox, 0);
 		int s = 0, v;
 		for (int i = 1; i <= imgInfo.bytesPerRow; i++) {
@@ -235,42 +294,51 @@ public class PngWriter {
 	}
 
 	private void filterRow(int rown) {
+		filterRow(filterStrat, rowb, rowbprev, rowbfilter, histox, rown);
+	}
+
+	/**
+	 * Filters one row, only reads imgInfo from this instance, so it can run concurrently on distinct buffers and
+	 * strategies.
+	 */
+	private void filterRow(FilterWriteStrategy filterStrat, byte[] rowb, byte[] rowbprev, byte[] rowbfilter,
+			int[] histox, int rown) {
 		// warning: filters operation rely on: "previos row" (rowbprev) is
 		// initialized to 0 the first time
 		if (filterStrat.shouldTestAll(rown)) {
-			filterRowNone();
-			reportResultsForFilter(rown, FilterType.FILTER_NONE, true);
-			filterRowSub();
-			reportResultsForFilter(rown, FilterType.FILTER_SUB, true);
-			filterRowUp();
-			reportResultsForFilter(rown, FilterType.FILTER_UP, true);
-			filterRowAverage();
-			reportResultsForFilter(rown, FilterType.FILTER_AVERAGE, true);
-			filterRowPaeth();
-			reportResultsForFilter(rown, FilterType.FILTER_PAETH, true);
+			filterRowNone(rowb, rowbfilter);
+			reportResultsForFilter(filterStrat, rowbfilter, histox, rown, FilterType.FILTER_NONE, true);
+			filterRowSub(rowb, rowbfilter);
+			reportResultsForFilter(filterStrat, rowbfilter, histox, rown, FilterType.FILTER_SUB, true);
+			filterRowUp(rowb, rowbprev, rowbfilter);
+			reportResultsForFilter(filterStrat, rowbfilter, histox, rown, FilterType.FILTER_UP, true);
+			filterRowAverage(rowb, rowbprev, rowbfilter);
+			reportResultsForFilter(filterStrat, rowbfilter, histox, rown, FilterType.FILTER_AVERAGE, true);
+			filterRowPaeth(rowb, rowbprev, rowbfilter);
+			reportResultsForFilter(filterStrat, rowbfilter, histox, rown, FilterType.FILTER_PAETH, true);
 		}
 		FilterType filterType = filterStrat.gimmeFilterType(rown, true);
 		rowbfilter[0] = (byte) filterType.val;
 		switch (filterType) {
 		case FILTER_NONE:
-			filterRowNone();
+			filterRowNone(rowb, rowbfilter);
 			break;
 		case FILTER_SUB:
-			filterRowSub();
+			filterRowSub(rowb, rowbfilter);
 			break;
 		case FILTER_UP:
-			filterRowUp();
+			filterRowUp(rowb, rowbprev, rowbfilter);
 			break;
 		case FILTER_AVERAGE:
-			filterRowAverage();
+			filterRowAverage(rowb, rowbprev, rowbfilter);
 			break;
 		case FILTER_PAETH:
-			filterRowPaeth();
+			filterRowPaeth(rowb, rowbprev, rowbfilter);
 			break;
 		default:
 			throw new PngjOutputException("Filter type " + filterType + " not implemented");
 		}
-		reportResultsForFilter(rown, filterType, false);
+		reportResultsForFilter(filterStrat, rowbfilter, histox, rown, filterType, false);
 	}
 
 	protected int sumRowbfilter() { // sums absolute value
@@ -283,13 +351,13 @@ public class PngWriter {
 		return s;
 	}
 
-	protected void filterRowNone() {
+	protected void filterRowNone(byte[] rowb, byte[] rowbfilter) {
 		for (int i = 1; i <= imgInfo.bytesPerRow; i++) {
 			rowbfilter[i] = (byte) rowb[i];
 		}
 	}
 
-	protected void filterRowSub() {
+	protected void filterRowSub(byte[] rowb, byte[] rowbfilter) {
 		int i, j;
 		for (i = 1; i <= imgInfo.bytesPixel; i++)
 			rowbfilter[i] = (byte) rowb[i];
@@ -298,20 +366,20 @@ public class PngWriter {
 		}
 	}
 
-	protected void filterRowUp() {
+	protected void filterRowUp(byte[] rowb, byte[] rowbprev, byte[] rowbfilter) {
 		for (int i = 1; i <= imgInfo.bytesPerRow; i++) {
 			rowbfilter[i] = (byte) (rowb[i] - rowbprev[i]);
 		}
 	}
 
-	protected void filterRowAverage() {
+	protected void filterRowAverage(byte[] rowb, byte[] rowbprev, byte[] rowbfilter) {
 		int i, j;
 		for (j = 1 - imgInfo.bytesPixel, i = 1; i <= imgInfo.bytesPerRow; i++, j++) {
 			rowbfilter[i] = (byte) (rowb[i] - ((rowbprev[i] & 0xFF) + (j > 0 ? (rowb[j] & 0xFF) : 0)) / 2);
 		}
 	}
 
-	protected void filterRowPaeth() {
+	protected void filterRowPaeth(byte[] rowb, byte[] rowbprev, byte[] rowbfilter) {
 		int i, j;
 		for (j = 1 - imgInfo.bytesPixel, i = 1; i <= imgInfo.bytesPerRow; i++, j++) {
 			rowbfilter[i] = (byte) (rowb[i] - FilterType.filterPaethPredictor(j > 0 ? (rowb[j] & 0xFF) : 0,
@@ -335,6 +403,207 @@ public class PngWriter {
 		}
 	}
 
+	/**
+	 * One block of consecutive rows, filtered and compressed on the executor.
+	 * <p>
+	 * Filtering only needs the last raw row of the previous block. Compression needs the filtered data of the
+	 * previous block, whose tail is the preset dictionary: it is only submitted once both this and the previous block
+	 * are filtered, hence no worker ever blocks on another task and a shared pool of any size can be used.
+	 */
+	private final class EncodeBlock implements Runnable {
+		final int firstRow;
+		final int nrows;
+		final boolean last;
+		final byte[] raw;
+		final byte[] prevRaw;
+		private EncodeBlock prev;
+		private EncodeBlock next; // guarded by this
+		private boolean filterDone = false; // guarded by this
+		private final AtomicInteger unfiltered; // this and the previous block, compression starts at zero
+		private volatile byte[] filtered;
+		private volatile Throwable filterError;
+		final FutureTask<Void> compressed;
+		int adler; // of filtered data, valid after filtered is set
+		byte[] out;
+		int outLen;
+
+		EncodeBlock(int firstRow, int nrows, boolean last, byte[] raw, byte[] prevRaw, EncodeBlock prev) {
+			this.firstRow = firstRow;
+			this.nrows = nrows;
+			this.last = last;
+			this.raw = raw;
+			this.prevRaw = prevRaw;
+			this.prev = prev;
+			this.unfiltered = new AtomicInteger(prev != null ? 2 : 1);
+			this.compressed = new FutureTask<Void>(this, null);
+		}
+
+		/** Submits the filter task, after linking to the previous block. */
+		void start() {
+			if (prev != null) {
+				final boolean prevDone;
+				synchronized (prev) {
+					prev.next = this;
+					prevDone = prev.filterDone;
+				}
+				if (prevDone)
+					unfiltered.decrementAndGet(); // cannot reach zero, this block is not filtered yet
+			}
+			executor.execute(new Runnable() {
+				public void run() {
+					try {
+						filtered = filterBlock();
+					} catch (Throwable t) {
+						filterError = t;
+					}
+					final EncodeBlock n;
+					synchronized (EncodeBlock.this) {
+						filterDone = true;
+						n = next;
+					}
+					if (n != null)
+						n.filterReady();
+					filterReady();
+				}
+			});
+		}
+
+		private void filterReady() {
+			if (unfiltered.decrementAndGet() == 0)
+				executor.execute(compressed);
+		}
+
+		private byte[] filterBlock() {
+			final int rowlen = imgInfo.bytesPerRow + 1;
+			final FilterWriteStrategy strat = new FilterWriteStrategy(imgInfo, filterStrat.configuredType);
+			final int[] histo = new int[256];
+			byte[] cur = new byte[rowlen];
+			byte[] prv = new byte[rowlen];
+			final byte[] filt = new byte[rowlen];
+			final byte[] res = new byte[nrows * rowlen];
+			if (prevRaw != null)
+				System.arraycopy(prevRaw, 0, prv, 0, rowlen);
+			for (int r = 0; r < nrows; r++) {
+				System.arraycopy(raw, r * rowlen, cur, 0, rowlen);
+				filterRow(strat, cur, prv, filt, histo, firstRow + r);
+				System.arraycopy(filt, 0, res, r * rowlen, rowlen);
+				byte[] tmp = prv;
+				prv = cur;
+				cur = tmp;
+			}
+			Adler32 a = new Adler32();
+			a.update(res, 0, res.length);
+			adler = (int) a.getValue();
+			return res;
+		}
+
+		public void run() {
+			if (filterError != null)
+				throw new PngjOutputException(filterError);
+			if (prev != null && prev.filterError != null)
+				throw new PngjOutputException("previous block failed");
+			final byte[] data = filtered;
+			final byte[] dict = prev != null ? prev.filtered : null;
+			prev = null; // don't retain the chain of blocks
+			Deflater def = new Deflater(compLevel, true);
+			try {
+				def.setStrategy(deflaterStrategy);
+				if (dict != null) {
+					int n = Math.min(dict.length, DICT_SIZE);
+					def.setDictionary(dict, dict.length - n, n);
+				}
+				def.setInput(data);
+				byte[] buf = new byte[data.length / 2 + 64];
+				int len = 0;
+				if (last)
+					def.finish();
+				while (last ? !def.finished() : !def.needsInput()) {
+					if (len == buf.length)
+						buf = Arrays.copyOf(buf, buf.length * 2);
+					len += def.deflate(buf, len, buf.length - len);
+				}
+				if (!last) { // ends the block on a byte boundary without resetting the window
+					do {
+						if (len == buf.length)
+							buf = Arrays.copyOf(buf, buf.length * 2);
+						len += deflateSyncFlush(def, buf, len, buf.length - len);
+					} while (len == buf.length);
+				}
+				out = buf;
+				outLen = len;
+			} finally {
+				def.end();
+			}
+		}
+	}
+
+	private void submitBlock(boolean last) {
+		final int rowlen = imgInfo.bytesPerRow + 1;
+		EncodeBlock b = new EncodeBlock(rowNum - blockRows + 1, blockRows, last, blockRaw, blockPrevRaw, lastBlock);
+		b.start();
+		pendingBlocks.addLast(b);
+		lastBlock = b;
+		blockPrevRaw = Arrays.copyOfRange(blockRaw, (blockRows - 1) * rowlen, blockRows * rowlen);
+		blockRaw = last ? null : new byte[rowsPerBlock * rowlen];
+		blockRows = 0;
+		writeCompletedBlocks(false);
+	}
+
+	private static int deflateSyncFlush(Deflater def, byte[] buf, int off, int len) {
+		try {
+			return ((Integer) deflateFlushMethod.invoke(def, buf, off, len, SYNC_FLUSH)).intValue();
+		} catch (IllegalAccessException e) {
+			throw new PngjOutputException(e);
+		} catch (InvocationTargetException e) {
+			throw new PngjOutputException(e.getCause());
+		}
+	}
+
+	/**
+	 * Writes the compressed blocks in order, as far as they are done. If wait is true, or there are too many blocks
+	 * in flight, waits for them.
+	 */
+	private void writeCompletedBlocks(boolean wait) {
+		while (!pendingBlocks.isEmpty()) {
+			EncodeBlock b = pendingBlocks.getFirst();
+			if (!wait && pendingBlocks.size() <= maxPendingBlocks && !b.compressed.isDone())
+				break;
+			try {
+				b.compressed.get();
+			} catch (InterruptedException e) {
+				throw new PngjOutputException(e);
+			} catch (ExecutionException e) {
+				throw new PngjOutputException("error compressing rows " + b.firstRow + "-"
+						+ (b.firstRow + b.nrows - 1), e.getCause());
+			}
+			datStream.write(b.out, 0, b.outLen);
+			adler32 = adler32Combine(adler32, b.adler, b.nrows * (imgInfo.bytesPerRow + 1));
+			pendingBlocks.removeFirst();
+		}
+	}
+
+	/**
+	 * Adler-32 of the concatenation of two sequences, given their checksums and the length of the second one (as
+	 * zlib's adler32_combine).
+	 */
+	static int adler32Combine(int adler1, int adler2, long len2) {
+		final long base = 65521;
+		long rem = len2 % base;
+		long sum1 = adler1 & 0xffff;
+		long sum2 = (rem * sum1) % base;
+		sum1 += (adler2 & 0xffff) + base - 1;
+		sum2 += ((adler1 >>> 16) & 0xffff) + ((adler2 >>> 16) & 0xffff) + base - rem;
+		if (sum1 >= base)
+			sum1 -= base;
+		if (sum1 >= base)
+			sum1 -= base;
+		if (sum2 >= (base << 1))
+			sum2 -= (base << 1);
+		if (sum2 >= base)
+			sum2 -= base;
+		return (int) (sum1 | (sum2 << 16));
+	}
+
 	// /// several getters / setters - all this setters are optional
 
 	/**
@@ -375,6 +644,50 @@ public class PngWriter {
 		this.compLevel = compLevel;
 	}
 
+	/**
+	 * Enables parallel encoding: rows are collected in blocks, which are filtered and compressed independently by the
+	 * given executor (each block flushed to a byte boundary, with the tail of the previous block as preset dictionary)
+	 * and written in order as IDAT chunks. The calling thread only converts rows and writes the output.
+	 * <p>
+	 * Workers never wait on each other, the executor may be shared and of any size, but must not reject tasks. This
+	 * must be called just after constructor, before starting writing. Ignored if the runtime lacks
+	 * <code>Deflater.SYNC_FLUSH</code> (Java 7), see {@link #isParallelEncodingAvailable()}.
+	 * <p>
+	 * Each block filters with a fresh strategy of the configured filter type, hence adaptive filter selection may
+	 * differ slightly from the serial writer, as may the compressed size.
+	 * 
+	 * @param executor
+	 *            Worker pool, or null to encode serially on the calling thread (default)
+	 * @param rowsPerBlock
+	 *            Rows per block, or 0 for about 128 KB of data per block
+	 */
+	public void setParallelEncoding(ExecutorService executor, int rowsPerBlock) {
+		if (currentChunkGroup >= ChunkList.CHUNK_GROUP_0_IDHR)
+			throw new PngjOutputException("parallel encoding must be set before writing");
+		if (executor == null || !syncFlushAvailable) {
+			this.executor = null;
+			return;
+		}
+		this.executor = executor;
+		this.rowsPerBlock = rowsPerBlock > 0 ? rowsPerBlock : Math.max(1, BLOCK_SIZE_DEFAULT
+				/ (imgInfo.bytesPerRow + 1));
+		this.maxPendingBlocks = 2 * Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * True if blocks are encoded in parallel, see {@link #setParallelEncoding(ExecutorService, int)}.
+	 */
+	public boolean isParallelEncoding() {
+		return executor != null;
+	}
+
+	/**
+	 * True if this runtime supports parallel encoding, which requires <code>Deflater.SYNC_FLUSH</code>.
+	 */
+	public static boolean isParallelEncodingAvailable() {
+		return syncFlushAvailable;
+	}
+
 	/**
 	 * copy chunks from reader - copy_mask : see ChunksToWrite.COPY_XXX
 	 * 
@@ -42,8 +42,8 @@ public class PngChunkTRNS extends PngChunk {
 		} else {
 			c = createEmptyChunk(6, true);
 			PngHelper.writeInt2tobytes(red, c.data, 0);
-			PngHelper.writeInt2tobytes(green, c.data, 0);
-			PngHelper.writeInt2tobytes(blue, c.data, 0);
+			PngHelper.writeInt2tobytes(green, c.data, 2);
+			PngHelper.writeInt2tobytes(blue, c.data, 4);
 		}
 		return c;
 	}
@@ -70,8 +70,8 @@ public class PngChunkTRNS extends PngChunk {
 		PngChunkTRNS otherx = (PngChunkTRNS) other;
 		gray = otherx.gray;
 		red = otherx.red;
-		green = otherx.red;
-		blue = otherx.red;
+		green = otherx.green;
+		blue = otherx.blue;
 		if (otherx.paletteAlpha != null) {
 			paletteAlpha = new int[otherx.paletteAlpha.length];
 			System.arraycopy(otherx.paletteAlpha, 0, paletteAlpha, 0, paletteAlpha.length);
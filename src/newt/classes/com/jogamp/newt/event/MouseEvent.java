@@ -66,8 +66,26 @@ public class MouseEvent extends InputEvent
     public MouseEvent(int eventType, Object source, long when,
             int modifiers, int x, int y, int clickCount, int button,
             int rotation)
+    {
+        this(eventType, source, when, modifiers, x, y, clickCount, button, rotation, 0, null, null);
+    }
+
+    /**
+     * Constructs a single pointer event carrying the older samples coalesced into it,
+     * see {@link com.jogamp.newt.opengl.GLWindow#setMouseMotionCoalescing(boolean)}.
+     * 
+     * @param historySize number of historical samples
+     * @param historyXY x/y pairs of the historical samples, oldest first, not copied
+     * @param historyWhen time of the historical samples, oldest first, not copied
+     */
+    public MouseEvent(int eventType, Object source, long when,
+            int modifiers, int x, int y, int clickCount, int button,
+            int rotation, int historySize, int[] historyXY, long[] historyWhen)
     {
         super(eventType, source, when, modifiers); 
+        if( 0 > historySize || 0 < historySize && ( historySize * 2 > historyXY.length || historySize > historyWhen.length ) ) {
+            throw new IllegalArgumentException("History arrays too small for "+historySize+" samples");
+        }
         this.x = new int[]{x};
         this.y = new int[]{y};
         this.pressure = new float[]{0};
@@ -75,6 +93,9 @@ public class MouseEvent extends InputEvent
         this.clickCount=clickCount;
         this.button=button;
         this.wheelRotation = rotation;
+        this.historySize = historySize;
+        this.historyXY = historyXY;
+        this.historyWhen = historyWhen;
     }
 
     public MouseEvent(int eventType, Object source, long when,
@@ -94,6 +115,9 @@ public class MouseEvent extends InputEvent
         this.clickCount=clickCount;
         this.button=button;
         this.wheelRotation = rotation;
+        this.historySize = 0;
+        this.historyXY = null;
+        this.historyWhen = null;
     }
     
     /**
@@ -141,6 +165,41 @@ public class MouseEvent extends InputEvent
         return y[index];
     }
     
+    /**
+     * Returns the number of older samples coalesced into this moved or dragged event,
+     * which positions are available via {@link #getHistoricalX(int)} and {@link #getHistoricalY(int)}.
+     * The current position of this event is not included.
+     * 
+     * @see com.jogamp.newt.opengl.GLWindow#setMouseMotionCoalescing(boolean)
+     */
+    public int getHistorySize() {
+        return historySize;
+    }
+
+    /** @return x-coord of the historical sample at pos, 0 is the oldest, see {@link #getHistorySize()} */
+    public int getHistoricalX(int pos) {
+        checkHistoryPos(pos);
+        return historyXY[pos*2];
+    }
+
+    /** @return y-coord of the historical sample at pos, 0 is the oldest, see {@link #getHistorySize()} */
+    public int getHistoricalY(int pos) {
+        checkHistoryPos(pos);
+        return historyXY[pos*2+1];
+    }
+
+    /** @return time of the historical sample at pos, 0 is the oldest, see {@link #getHistorySize()} */
+    public long getHistoricalWhen(int pos) {
+        checkHistoryPos(pos);
+        return historyWhen[pos];
+    }
+
+    private final void checkHistoryPos(int pos) {
+        if( 0 > pos || pos >= historySize ) {
+            throw new IndexOutOfBoundsException("History pos "+pos+" not within [0.."+historySize+"[");
+        }
+    }
+
     public float getPressure(){
         return pressure[0];
     }
@@ -215,6 +274,9 @@ public class MouseEvent extends InputEvent
     private final int x[], y[], clickCount, button, wheelRotation;
     private final float pressure[];
     private final int pointerids[];
+    private final int historySize;
+    private final int historyXY[];
+    private final long historyWhen[];
     
     public static final int EVENT_MOUSE_CLICKED  = 200;
     public static final int EVENT_MOUSE_ENTERED  = 201;
@@ -28,34 +28,35 @@
  
 package com.jogamp.newt.event;
 
-import java.util.LinkedList;
+import jogamp.newt.event.ConcurrentRingQueue;
 
+/**
+ * Lock-free NEWTEvent FIFO, allowing multiple threads to put and get events concurrently.
+ */
 public class NEWTEventFiFo
 {
-    private LinkedList/*<NEWTEvent>*/ events = new LinkedList/*<NEWTEvent>*/();
+    private final ConcurrentRingQueue<NEWTEvent> events = new ConcurrentRingQueue<NEWTEvent>(256);
 
-    /** Add NEWTEvent to tail */
-    public synchronized void put(NEWTEvent event) {
-        events.addLast(event);
-        notifyAll();
-    }
-
-    /** Remove NEWTEvent from head */
-    public synchronized NEWTEvent get() {
-        if (0 == events.size()) {
-            return null;
+    /** Add NEWTEvent to tail, notifies threads waiting on this FIFO */
+    public void put(NEWTEvent event) {
+        events.put(event);
+        synchronized(this) {
+            notifyAll();
         }
+    }
 
-        return (NEWTEvent) events.removeFirst();
+    /** Remove NEWTEvent from head, returns null if empty */
+    public NEWTEvent get() {
+        return events.poll();
     }
 
     /** Get NEWTEvents in queue */
-    public synchronized int size() {
+    public int size() {
         return events.size();
     }
 
     /** Clear all NEWTEvents from queue */
-    public synchronized void clear() {
+    public void clear() {
         events.clear();
     }
 
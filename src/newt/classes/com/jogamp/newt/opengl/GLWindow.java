@@ -704,6 +704,30 @@ public class GLWindow extends GLAutoDrawableBase implements GLAutoDrawable, Wind
         return window.getMouseListeners();
     }
 
+    /**
+     * Enables or disables coalescing of mouse motion, disabled by default.
+     * <p>
+     * If enabled, consecutive {@link com.jogamp.newt.event.MouseEvent#EVENT_MOUSE_MOVED moved}
+     * or {@link com.jogamp.newt.event.MouseEvent#EVENT_MOUSE_DRAGGED dragged} events of this window
+     * with equal modifiers and button, which are still pending in the event queue,
+     * are merged into one event at the newest position.
+     * The merged positions are available via the event's historical samples,
+     * see {@link com.jogamp.newt.event.MouseEvent#getHistorySize()}.
+     * </p>
+     * <p>
+     * Any other event of this window ends the merge run, hence the event order is preserved.
+     * Only non blocking enqueued events are merged.
+     * </p>
+     */
+    public final void setMouseMotionCoalescing(boolean enable) {
+        window.setMouseMotionCoalescing(enable);
+    }
+
+    /** @see #setMouseMotionCoalescing(boolean) */
+    public final boolean isMouseMotionCoalescing() {
+        return window.isMouseMotionCoalescing();
+    }
+
     //----------------------------------------------------------------------
     // NativeWindow completion
     //
@@ -37,10 +37,12 @@
 
 package jogamp.newt;
 
-import java.util.ArrayList;
+import java.util.concurrent.locks.LockSupport;
+
 import javax.media.nativewindow.NativeWindowException;
 
 import jogamp.common.util.locks.LockDebugUtil;
+import jogamp.newt.event.ConcurrentRingQueue;
 
 import com.jogamp.common.util.RunnableTask;
 import com.jogamp.common.util.locks.Lock;
@@ -53,7 +55,7 @@ public class DefaultEDTUtil implements EDTUtil {
     private final ThreadGroup threadGroup; 
     private final String name;
     private final Runnable dispatchMessages;
-    private EventDispatchThread edt = null;
+    private volatile EventDispatchThread edt = null;
     private int start_iter=0;
     private static long pollPeriod = EDTUtil.defaultEDTPollPeriod;
 
@@ -175,18 +177,16 @@ public class DefaultEDTUtil implements EDTUtil {
                     if( !stop && !edt.isRunning() ) {
                         startImpl();
                     }
-                    synchronized(edt.tasks) {
-                        wait = wait && edt.isRunning();
-                        rTask = new RunnableTask(task,
-                                                 wait ? rTaskLock : null,
-                                                 true /* always catch and report Exceptions, don't disturb EDT */);
-                        if(stop) {
-                            rTask.setAttachment(new Boolean(true)); // mark final task
-                        }
-                        // append task ..
-                        edt.tasks.add(rTask);
-                        edt.tasks.notifyAll();
+                    wait = wait && edt.isRunning();
+                    rTask = new RunnableTask(task,
+                                             wait ? rTaskLock : null,
+                                             true /* always catch and report Exceptions, don't disturb EDT */);
+                    if(stop) {
+                        rTask.setAttachment(new Boolean(true)); // mark final task
                     }
+                    // append task ..
+                    edt.tasks.put(rTask);
+                    LockSupport.unpark(edt);
                 }
             }
             if( wait ) {
@@ -217,19 +217,19 @@ public class DefaultEDTUtil implements EDTUtil {
         synchronized(edtLock) {
             _edt = edt;
         }
-        if(!_edt.isRunning() || _edt == Thread.currentThread()) {
+        if(!_edt.isRunning() || _edt == Thread.currentThread() || _edt.tasks.isEmpty()) {
             return;
         }
-        synchronized(_edt.tasks) {
-            while(_edt.isRunning() && _edt.tasks.size()>0) {
-                try {
-                    _edt.tasks.notifyAll();
-                    _edt.tasks.wait();
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-            }
-        }
+        // tasks are executed in order, hence all previous tasks are done when this one returns
+        invokeImpl(true, nopTask, false);
+    }
+    private static final Runnable nopTask = new Runnable() {
+        public void run() { }
+    };
+
+    /** Wakes up the EDT waiting for tasks, e.g. to dispatch new events right away. */
+    final void wakeUp() {
+        LockSupport.unpark(edt);
     }
 
     @Override
@@ -250,7 +250,7 @@ public class DefaultEDTUtil implements EDTUtil {
     class EventDispatchThread extends Thread {
         volatile boolean shouldStop = false;
         volatile boolean isRunning = false;
-        ArrayList<RunnableTask> tasks = new ArrayList<RunnableTask>(); // one shot tasks
+        final ConcurrentRingQueue<RunnableTask> tasks = new ConcurrentRingQueue<RunnableTask>(256); // one shot tasks
 
         public EventDispatchThread(ThreadGroup tg, String name) {
             super(tg, name);
@@ -293,21 +293,15 @@ public class DefaultEDTUtil implements EDTUtil {
                         dispatchMessages.run();
                     }
                     // wait and work on tasks
-                    RunnableTask task = null;
-                    synchronized(tasks) {
-                        // wait for tasks
-                        if(!shouldStop && tasks.size()==0) {
-                            try {
-                                tasks.wait(pollPeriod);
-                            } catch (InterruptedException e) {
-                                e.printStackTrace();
-                            }
+                    RunnableTask task = tasks.poll();
+                    if(null==task && !shouldStop) {
+                        // wait for tasks or events, unparked when enqueued
+                        LockSupport.parkNanos(this, pollPeriod * 1000000L);
+                        if(Thread.interrupted()) {
+                            new InterruptedException().printStackTrace();
                         }
                         // execute one task, if available
-                        if(tasks.size()>0) {
-                            task = tasks.remove(0);
-                            tasks.notifyAll();
-                        }
+                        task = tasks.poll();
                     }
                     if(null!=task) {
                         task.run();
@@ -328,28 +322,28 @@ public class DefaultEDTUtil implements EDTUtil {
                 }
             } finally {
                 if(DEBUG) {
-                    RunnableTask rt = ( tasks.size() > 0 ) ? tasks.get(0) : null ;
-                    System.err.println(getName()+": EDT run() END "+ getName()+", tasks: "+tasks.size()+", "+rt+", "+error); 
+                    System.err.println(getName()+": EDT run() END "+ getName()+", tasks: "+tasks.size()+", "+error); 
                 }
                 synchronized(edtLock) {
                     if(null==error) {
-                        synchronized(tasks) {
-                            // drain remaining tasks (stop not on EDT), 
-                            // while having tasks and no previous-task, or previous-task is non final
-                            RunnableTask task = null;
-                            while ( ( null == task || task.getAttachment() == null ) && tasks.size() > 0 ) {
-                                task = tasks.remove(0);
-                                task.run();
-                                tasks.notifyAll();
+                        // drain remaining tasks (stop not on EDT), 
+                        // while having tasks and no previous-task, or previous-task is non final
+                        RunnableTask task = null;
+                        while ( null == task || task.getAttachment() == null ) {
+                            final RunnableTask next = tasks.poll();
+                            if( null == next ) {
+                                break;
                             }
-                            if(DEBUG) {
-                                if(null!=task && task.getAttachment()==null) {
-                                    System.err.println(getName()+" Warning: EDT exit: Last task Not Final: "+tasks.size()+", "+task+" - "+edt);
-                                } else if(tasks.size()>0) {
-                                    System.err.println(getName()+" Warning: EDT exit: Remaining tasks Post Final: "+tasks.size());
-                                }
-                                Thread.dumpStack();
+                            task = next;
+                            task.run();
+                        }
+                        if(DEBUG) {
+                            if(null!=task && task.getAttachment()==null) {
+                                System.err.println(getName()+" Warning: EDT exit: Last task Not Final: "+tasks.size()+", "+task+" - "+edt);
+                            } else if(tasks.size()>0) {
+                                System.err.println(getName()+" Warning: EDT exit: Remaining tasks Post Final: "+tasks.size());
                             }
+                            Thread.dumpStack();
                         }
                     }
                     isRunning = !shouldStop;
@@ -36,12 +36,13 @@ package jogamp.newt;
 
 import com.jogamp.newt.Display;
 import com.jogamp.newt.NewtFactory;
+import com.jogamp.newt.Window;
 import com.jogamp.newt.event.NEWTEvent;
 import com.jogamp.newt.event.NEWTEventConsumer;
 
+import jogamp.newt.event.ConcurrentRingQueue;
 import jogamp.newt.event.NEWTEventTask;
 import com.jogamp.newt.util.EDTUtil;
-import java.util.ArrayList;
 
 import javax.media.nativewindow.AbstractGraphicsDevice;
 import javax.media.nativewindow.NativeWindowException;
@@ -362,9 +363,10 @@ public abstract class DisplayImpl extends Display {
     /** Dispatch native Toolkit messageges */
     protected abstract void dispatchMessagesNative();
 
-    private Object eventsLock = new Object();
-    private ArrayList<NEWTEventTask> events = new ArrayList<NEWTEventTask>();
-    private volatile boolean haveEvents = false;
+    /** lock-free event queue, producers are any thread, consumer is the EDT */
+    private final ConcurrentRingQueue<NEWTEventTask> events = new ConcurrentRingQueue<NEWTEventTask>(1024);
+    /** recycled NEWTEventTask of dispatched events w/o waiting caller */
+    private final ConcurrentRingQueue<NEWTEventTask> freeEventTasks = new ConcurrentRingQueue<NEWTEventTask>(64);
 
     class DispatchMessagesRunnable implements Runnable {
         public void run() {
@@ -386,8 +388,12 @@ public abstract class DisplayImpl extends Display {
             if(source instanceof NEWTEventConsumer) {
                 final NEWTEventConsumer consumer = (NEWTEventConsumer) source ;
                 if(!consumer.consumeEvent(event)) {
-                    // enqueue for later execution
-                    enqueueEvent(false, event);
+                    // enqueue for later execution, via the window to keep its motion coalescing in order
+                    if(source instanceof Window) {
+                        ((Window) source).enqueueEvent(false, event);
+                    } else {
+                        enqueueEvent(false, event);
+                    }
                 }
             } else {
                 throw new RuntimeException("Event source not NEWT: "+source.getClass().getName()+", "+source);
@@ -419,22 +425,17 @@ public abstract class DisplayImpl extends Display {
             return;
         }
 
-        ArrayList<NEWTEventTask> _events = null;
-
-        if(haveEvents) { // volatile: ok
-            synchronized(eventsLock) {
-                if(haveEvents) {
-                    // swap events list to free ASAP
-                    _events = events;
-                    events = new ArrayList<NEWTEventTask>();
-                    haveEvents = false;
-                }
-                eventsLock.notifyAll();
+        // only dispatch events queued so far, 
+        // events re-enqueued by their consumer are dispatched in the next round
+        for(int n = events.size(); n > 0; n--) {
+            final NEWTEventTask eventTask = events.poll();
+            if( null == eventTask ) {
+                break;
             }
-            if( null != _events ) {
-                for (int i=0; i < _events.size(); i++) {
-                    dispatchMessage(_events.get(i));
-                }
+            dispatchMessage(eventTask);
+            if( !eventTask.isCallerWaiting() ) {
+                eventTask.set(null, null);
+                freeEventTasks.offer(eventTask);
             }
         }
 
@@ -458,24 +459,39 @@ public abstract class DisplayImpl extends Display {
             return;
         }
         
+        if( !wait ) {
+            NEWTEventTask eTask = freeEventTasks.poll();
+            if( null == eTask ) {
+                eTask = new NEWTEventTask(e, null);
+            } else {
+                eTask.set(e, null);
+            }
+            events.put(eTask);
+            wakeUpEDT();
+            return;
+        }
+
         final Object lock = new Object();
-        final NEWTEventTask eTask = new NEWTEventTask(e, wait?lock:null);
+        final NEWTEventTask eTask = new NEWTEventTask(e, lock);
         synchronized(lock) {
-            synchronized(eventsLock) {
-                events.add(eTask);
-                haveEvents = true;
-                eventsLock.notifyAll();
+            events.put(eTask);
+            wakeUpEDT();
+            try {
+                lock.wait();
+            } catch (InterruptedException ie) {
+                throw new RuntimeException(ie);
             }
-            if( wait ) {
-                try {
-                    lock.wait();
-                } catch (InterruptedException ie) {
-                    throw new RuntimeException(ie);
-                }
-                if( null != eTask.getException() ) {
-                    throw eTask.getException();
-                }
-            }            
+            if( null != eTask.getException() ) {
+                throw eTask.getException();
+            }
+        }
+    }
+
+    /** Lets the EDT dispatch the events right away instead of after its poll period. */
+    private final void wakeUpEDT() {
+        final EDTUtil _edtUtil = edtUtil;
+        if( _edtUtil instanceof DefaultEDTUtil ) {
+            ((DefaultEDTUtil)_edtUtil).wakeUp();
         }
     }
 
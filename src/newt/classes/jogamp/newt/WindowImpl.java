@@ -35,6 +35,7 @@
 package jogamp.newt;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.lang.reflect.Method;
 
 import com.jogamp.common.util.ReflectionUtil;
@@ -57,6 +58,8 @@ import com.jogamp.newt.event.WindowEvent;
 import com.jogamp.newt.event.WindowListener;
 import com.jogamp.newt.event.WindowUpdateEvent;
 
+import jogamp.newt.event.MouseMotionCoalescer;
+
 import javax.media.nativewindow.AbstractGraphicsConfiguration;
 import javax.media.nativewindow.AbstractGraphicsDevice;
 import javax.media.nativewindow.CapabilitiesChooser;
@@ -119,16 +122,21 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
     private Object childWindowsLock = new Object();
     private ArrayList<NativeWindow> childWindows = new ArrayList<NativeWindow>();
 
-    private ArrayList<MouseListener> mouseListeners = new ArrayList<MouseListener>();
+    // copy-on-write listener arrays, dispatch iterates the current snapshot w/o locking or allocation
+    private volatile MouseListener[] mouseListeners = new MouseListener[0];
     private int  mouseButtonPressed = 0;  // current pressed mouse button number
     private long lastMousePressed = 0;    // last time when a mouse button was pressed
     private int  lastMouseClickCount = 0; // last mouse button click count
     private boolean mouseInWindow = false;// mouse entered window - is inside the window (may be synthetic)
     private Point lastMousePosition = new Point();
 
-    private ArrayList<KeyListener> keyListeners = new ArrayList<KeyListener>();
+    // mouse motion coalescing, see setMouseMotionCoalescing(..)
+    private volatile boolean mouseMotionCoalescing = false;
+    private final MouseMotionCoalescer motionCoalescer = new MouseMotionCoalescer(this);
+
+    private volatile KeyListener[] keyListeners = new KeyListener[0];
 
-    private ArrayList<WindowListener> windowListeners  = new ArrayList<WindowListener>();
+    private volatile WindowListener[] windowListeners = new WindowListener[0];
     private boolean repaintQueued = false;
 
     // Workaround for initialization order problems on Mac OS X
@@ -1544,17 +1552,20 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
         for (int i = 0; i < surfaceUpdatedHelper.size(); i++ ) {
           sb.append(surfaceUpdatedHelper.get(i)+", ");
         }
-        sb.append("], WindowListeners num "+windowListeners.size()+" [");
-        for (int i = 0; i < windowListeners.size(); i++ ) {
-          sb.append(windowListeners.get(i)+", ");
+        final WindowListener[] _windowListeners = windowListeners;
+        sb.append("], WindowListeners num "+_windowListeners.length+" [");
+        for (int i = 0; i < _windowListeners.length; i++ ) {
+          sb.append(_windowListeners[i]+", ");
         }
-        sb.append("], MouseListeners num "+mouseListeners.size()+" [");
-        for (int i = 0; i < mouseListeners.size(); i++ ) {
-          sb.append(mouseListeners.get(i)+", ");
+        final MouseListener[] _mouseListeners = mouseListeners;
+        sb.append("], MouseListeners num "+_mouseListeners.length+" [");
+        for (int i = 0; i < _mouseListeners.length; i++ ) {
+          sb.append(_mouseListeners[i]+", ");
         }
-        sb.append("], KeyListeners num "+keyListeners.size()+" [");
-        for (int i = 0; i < keyListeners.size(); i++ ) {
-          sb.append(keyListeners.get(i)+", ");
+        final KeyListener[] _keyListeners = keyListeners;
+        sb.append("], KeyListeners num "+_keyListeners.length+" [");
+        for (int i = 0; i < _keyListeners.length; i++ ) {
+          sb.append(_keyListeners[i]+", ");
         }
         sb.append("], windowLock "+windowLock+"]");
         return sb.toString();
@@ -1885,6 +1896,7 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
         boolean done = false;
 
         if(!enqueue) {
+            motionCoalescer.close(); // don't merge later samples into an event preceding this one
             done = consumeEvent(event);
             wait = done; // don't wait if event can't be consumed now
         }
@@ -1896,11 +1908,17 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
 
     public void enqueueEvent(boolean wait, com.jogamp.newt.event.NEWTEvent event) {
         if(isNativeValid()) {
+            if( mouseMotionCoalescing ) {
+                motionCoalescer.enqueued(wait, event);
+            }
             ((DisplayImpl)getScreen().getDisplay()).enqueueEvent(wait, event);
         }
     }
 
     public boolean consumeEvent(NEWTEvent e) {
+        if( e instanceof MouseEvent ) {
+            e = motionCoalescer.take((MouseEvent)e);
+        }
         switch(e.getEventType()) {
             // special repaint treatment
             case WindowEvent.EVENT_WINDOW_REPAINT:
@@ -1968,6 +1986,31 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
     }
 
     //
+    /** @return a copy of <code>listeners</code> w/ <code>l</code> inserted at <code>index</code>, -1 appends */
+    private static <T> T[] addListener(T[] listeners, int index, T l) throws IndexOutOfBoundsException {
+        if(0>index) { 
+            index = listeners.length; 
+        } else if(index > listeners.length) {
+            throw new IndexOutOfBoundsException("Index "+index+" not within [0.."+listeners.length+"]");
+        }
+        final T[] res = Arrays.copyOf(listeners, listeners.length+1);
+        System.arraycopy(listeners, index, res, index+1, listeners.length-index);
+        res[index] = l;
+        return res;
+    }
+
+    /** @return a copy of <code>listeners</code> w/o the first occurrence of <code>l</code>, or <code>listeners</code> if not contained */
+    private static <T> T[] removeListener(T[] listeners, T l) {
+        for(int i = 0; i < listeners.length; i++) {
+            if( l.equals(listeners[i]) ) {
+                final T[] res = Arrays.copyOf(listeners, listeners.length-1);
+                System.arraycopy(listeners, i+1, res, i, listeners.length-i-1);
+                return res;
+            }
+        }
+        return listeners;
+    }
+
     // MouseListener/Event Support
     //
     public void sendMouseEvent(int eventType, int modifiers,
@@ -2057,13 +2100,25 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
             }
             mouseButtonPressed=0;
         } else if(MouseEvent.EVENT_MOUSE_MOVED==eventType) {
+            final int motionType, motionButton, motionClickCount;
             if (mouseButtonPressed>0) {
-                e = new MouseEvent(MouseEvent.EVENT_MOUSE_DRAGGED, this, when,
-                                   modifiers, x, y, 1, mouseButtonPressed, 0);
+                motionType = MouseEvent.EVENT_MOUSE_DRAGGED;
+                motionButton = mouseButtonPressed;
+                motionClickCount = 1;
             } else {
-                e = new MouseEvent(eventType, this, when,
-                                   modifiers, x, y, 0, button, 0);
+                motionType = eventType;
+                motionButton = button;
+                motionClickCount = 0;
             }
+            if( enqueue && !wait && null == eEntered && mouseMotionCoalescing &&
+                motionCoalescer.merge(motionType, when, modifiers, x, y, motionButton) ) {
+                if(DEBUG_MOUSE_EVENT) {
+                    System.err.println("doMouseEvent: merged into pending "+MouseEvent.getEventTypeString(motionType)+" event");
+                }
+                return; // merged into pending event
+            }
+            e = new MouseEvent(motionType, this, when,
+                               modifiers, x, y, motionClickCount, motionButton, 0);
         } else if(MouseEvent.EVENT_MOUSE_WHEEL_MOVED==eventType) {
             e = new MouseEvent(eventType, this, when, modifiers, x, y, 0, button, rotation);
         } else {
@@ -2093,45 +2148,63 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
         if(l == null) {
             return;
         }
-        @SuppressWarnings("unchecked")
-        ArrayList<MouseListener> clonedListeners = (ArrayList<MouseListener>) mouseListeners.clone();
-        if(0>index) { 
-            index = clonedListeners.size(); 
-        }
-        clonedListeners.add(index, l);
-        mouseListeners = clonedListeners;
+        mouseListeners = addListener(mouseListeners, index, l);
     }
 
     public void removeMouseListener(MouseListener l) {
         if (l == null) {
             return;
         }
-        @SuppressWarnings("unchecked")
-        ArrayList<MouseListener> clonedListeners = (ArrayList<MouseListener>) mouseListeners.clone();
-        clonedListeners.remove(l);
-        mouseListeners = clonedListeners;
+        mouseListeners = removeListener(mouseListeners, l);
     }
 
     public MouseListener getMouseListener(int index) {
-        @SuppressWarnings("unchecked")
-        ArrayList<MouseListener> clonedListeners = (ArrayList<MouseListener>) mouseListeners.clone();
+        final MouseListener[] listeners = mouseListeners;
         if(0>index) { 
-            index = clonedListeners.size()-1; 
+            index = listeners.length-1; 
         }
-        return clonedListeners.get(index);
+        return listeners[index];
     }
 
     public MouseListener[] getMouseListeners() {
-        return mouseListeners.toArray(new MouseListener[mouseListeners.size()]);
+        return mouseListeners.clone();
+    }
+
+    /**
+     * Enables or disables coalescing of mouse motion, disabled by default.
+     * <p>
+     * If enabled, consecutive {@link MouseEvent#EVENT_MOUSE_MOVED moved} or {@link MouseEvent#EVENT_MOUSE_DRAGGED dragged}
+     * events of this window with equal modifiers and button, which are still pending in the event queue,
+     * are merged into one event at the newest position.
+     * The merged positions are available via the event's historical samples,
+     * see {@link MouseEvent#getHistorySize()}.
+     * </p>
+     * <p>
+     * Any other event of this window ends the merge run, hence the event order is preserved.
+     * Only non blocking enqueued events are merged.
+     * </p>
+     * @see MouseMotionCoalescer
+     */
+    public void setMouseMotionCoalescing(boolean enable) {
+        mouseMotionCoalescing = enable;
+        if(!enable) {
+            motionCoalescer.close(); // pending head is still completed at dispatch
+        }
+    }
+
+    /** @see #setMouseMotionCoalescing(boolean) */
+    public boolean isMouseMotionCoalescing() {
+        return mouseMotionCoalescing;
     }
 
     protected void consumeMouseEvent(MouseEvent e) {
         if(DEBUG_MOUSE_EVENT) {
             System.err.println("consumeMouseEvent: event:         "+e);
         }
+        final MouseListener[] listeners = mouseListeners;
         boolean consumed = false;
-        for(int i = 0; !consumed && i < mouseListeners.size(); i++ ) {
-            MouseListener l = mouseListeners.get(i);
+        for(int i = 0; !consumed && i < listeners.length; i++ ) {
+            final MouseListener l = listeners[i];
             switch(e.getEventType()) {
                 case MouseEvent.EVENT_MOUSE_CLICKED:
                     l.mouseClicked(e);
@@ -2213,36 +2286,26 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
         if(l == null) {
             return;
         }
-        @SuppressWarnings("unchecked")
-        ArrayList<KeyListener> clonedListeners = (ArrayList<KeyListener>) keyListeners.clone();
-        if(0>index) { 
-            index = clonedListeners.size();
-        }
-        clonedListeners.add(index, l);
-        keyListeners = clonedListeners;
+        keyListeners = addListener(keyListeners, index, l);
     }
 
     public void removeKeyListener(KeyListener l) {
         if (l == null) {
             return;
         }
-        @SuppressWarnings("unchecked")
-        ArrayList<KeyListener> clonedListeners = (ArrayList<KeyListener>) keyListeners.clone();
-        clonedListeners.remove(l);
-        keyListeners = clonedListeners;
+        keyListeners = removeListener(keyListeners, l);
     }
 
     public KeyListener getKeyListener(int index) {
-        @SuppressWarnings("unchecked")
-        ArrayList<KeyListener> clonedListeners = (ArrayList<KeyListener>) keyListeners.clone();
+        final KeyListener[] listeners = keyListeners;
         if(0>index) { 
-            index = clonedListeners.size()-1;
+            index = listeners.length-1;
         }
-        return clonedListeners.get(index);
+        return listeners[index];
     }
 
     public KeyListener[] getKeyListeners() {
-        return keyListeners.toArray(new KeyListener[keyListeners.size()]);
+        return keyListeners.clone();
     }
 
     private final boolean propagateKeyEvent(KeyEvent e, KeyListener l) {
@@ -2275,8 +2338,9 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
                 System.err.println("consumeKeyEvent: "+e);
             }
         }
-        for(int i = 0; !consumed && i < keyListeners.size(); i++ ) {
-            consumed = propagateKeyEvent(e, keyListeners.get(i));
+        final KeyListener[] listeners = keyListeners;
+        for(int i = 0; !consumed && i < listeners.length; i++ ) {
+            consumed = propagateKeyEvent(e, listeners[i]);
         }
     }
 
@@ -2301,44 +2365,35 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
         if(l == null) {
             return;
         }
-        @SuppressWarnings("unchecked")
-        ArrayList<WindowListener> clonedListeners = (ArrayList<WindowListener>) windowListeners.clone();
-        if(0>index) { 
-            index = clonedListeners.size(); 
-        }
-        clonedListeners.add(index, l);
-        windowListeners = clonedListeners;
+        windowListeners = addListener(windowListeners, index, l);
     }
 
     public final void removeWindowListener(WindowListener l) {
         if (l == null) {
             return;
         }
-        @SuppressWarnings("unchecked")
-        ArrayList<WindowListener> clonedListeners = (ArrayList<WindowListener>) windowListeners.clone();
-        clonedListeners.remove(l);
-        windowListeners = clonedListeners;
+        windowListeners = removeListener(windowListeners, l);
     }
 
     public WindowListener getWindowListener(int index) {
-        @SuppressWarnings("unchecked")
-        ArrayList<WindowListener> clonedListeners = (ArrayList<WindowListener>) windowListeners.clone();
+        final WindowListener[] listeners = windowListeners;
         if(0>index) { 
-            index = clonedListeners.size()-1; 
+            index = listeners.length-1; 
         }
-        return clonedListeners.get(index);
+        return listeners[index];
     }
 
     public WindowListener[] getWindowListeners() {
-        return windowListeners.toArray(new WindowListener[windowListeners.size()]);
+        return windowListeners.clone();
     }
 
     protected void consumeWindowEvent(WindowEvent e) {
         if(DEBUG_IMPLEMENTATION) {
             System.err.println("consumeWindowEvent: "+e+", visible "+isVisible()+" "+getX()+"/"+getY()+" "+getWidth()+"x"+getHeight());
         }
-        for(int i = 0; i < windowListeners.size(); i++ ) {
-            WindowListener l = windowListeners.get(i);
+        final WindowListener[] listeners = windowListeners;
+        for(int i = 0; i < listeners.length; i++ ) {
+            final WindowListener l = listeners[i];
             switch(e.getEventType()) {
                 case WindowEvent.EVENT_WINDOW_RESIZED:
                     l.windowResized(e);
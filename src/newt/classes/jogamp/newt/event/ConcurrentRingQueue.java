@@ -0,0 +1,173 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.newt.event;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free FIFO queue based on a bounded ring buffer,
+ * where each slot carries a sequence number to hand it over between producers and consumers.
+ * <p>
+ * {@link #put(Object)} never fails, if the ring is full the element is appended to a synchronized
+ * overflow list, which is used until drained by the consumer to preserve the order of each producer.
+ * The consumer only takes from the overflow list once the ring is drained,
+ * it waits for a slot claimed by a producer but not yet published.
+ * {@link #offer(Object)} only uses the ring and fails if it is full, e.g. for a pool of recyclable objects.
+ * Both shall not be mixed on the same queue.
+ * </p>
+ * <p>
+ * Any number of threads may produce and consume concurrently,
+ * the NEWT event and EDT task queues use it w/ a single consumer.
+ * </p>
+ */
+public class ConcurrentRingQueue<T> {
+    private final int mask;
+    private final Object[] items;
+    private final AtomicLongArray sequence;
+    private final AtomicLong tail = new AtomicLong(0); // next position to put
+    private final AtomicLong head = new AtomicLong(0); // next position to take
+    private final ArrayDeque<T> overflow = new ArrayDeque<T>();
+    private volatile boolean overflowing = false;
+
+    /**
+     * @param capacity ring capacity, rounded up to the next power of two
+     */
+    public ConcurrentRingQueue(int capacity) {
+        int n = 2;
+        while( n < capacity ) {
+            n <<= 1;
+        }
+        mask = n - 1;
+        items = new Object[n];
+        sequence = new AtomicLongArray(n);
+        for(int i=0; i<n; i++) {
+            sequence.set(i, i);
+        }
+    }
+
+    /** Returns the ring capacity. */
+    public final int capacity() { return mask + 1; }
+
+    /**
+     * Appends the element to the ring if not full.
+     * @return true if added, false if the ring is full
+     */
+    public final boolean offer(T e) {
+        long pos = tail.get();
+        while( true ) {
+            final int idx = (int) pos & mask;
+            final long dif = sequence.get(idx) - pos;
+            if( 0 == dif ) {
+                if( tail.compareAndSet(pos, pos + 1) ) {
+                    items[idx] = e;
+                    sequence.set(idx, pos + 1); // publish
+                    return true;
+                }
+                pos = tail.get();
+            } else if( 0 > dif ) {
+                return false; // full
+            } else {
+                pos = tail.get(); // other producer was faster
+            }
+        }
+    }
+
+    /** Appends the element to the ring, or to the overflow list if the ring is full or the latter not yet drained. */
+    public final void put(T e) {
+        if( !overflowing && offer(e) ) {
+            return;
+        }
+        synchronized(overflow) {
+            overflowing = true;
+            overflow.addLast(e);
+        }
+    }
+
+    /** Removes and returns the head element, or <code>null</code> if empty. */
+    @SuppressWarnings("unchecked")
+    public final T poll() {
+        long pos = head.get();
+        while( true ) {
+            final int idx = (int) pos & mask;
+            final long dif = sequence.get(idx) - ( pos + 1 );
+            if( 0 == dif ) {
+                if( head.compareAndSet(pos, pos + 1) ) {
+                    final T e = (T) items[idx];
+                    items[idx] = null;
+                    sequence.set(idx, pos + mask + 1); // release slot for next round
+                    return e;
+                }
+                pos = head.get();
+            } else if( 0 > dif ) {
+                if( pos == tail.get() ) {
+                    break; // ring empty
+                }
+                Thread.yield(); // slot claimed by a producer, but not yet published
+                pos = head.get();
+            } else {
+                pos = head.get(); // other consumer was faster
+            }
+        }
+        if( overflowing ) {
+            synchronized(overflow) {
+                final T e = overflow.pollFirst();
+                if( overflow.isEmpty() ) {
+                    overflowing = false;
+                }
+                return e;
+            }
+        }
+        return null;
+    }
+
+    /** Returns the number of queued elements, which is a snapshot only while producers or consumers are active. */
+    public final int size() {
+        int n = (int) Math.max(0, tail.get() - head.get());
+        if( overflowing ) {
+            synchronized(overflow) {
+                n += overflow.size();
+            }
+        }
+        return n;
+    }
+
+    public final boolean isEmpty() {
+        return 0 == size();
+    }
+
+    /** Removes all elements. */
+    public final void clear() {
+        while( null != poll() ) { }
+    }
+
+    public String toString() {
+        return "ConcurrentRingQueue[size "+size()+", capacity "+capacity()+", overflowing "+overflowing+"]";
+    }
+}
@@ -0,0 +1,144 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.newt.event;
+
+import java.util.Arrays;
+
+import com.jogamp.newt.event.MouseEvent;
+import com.jogamp.newt.event.NEWTEvent;
+
+/**
+ * Merges consecutive {@link MouseEvent#EVENT_MOUSE_MOVED moved} or {@link MouseEvent#EVENT_MOUSE_DRAGGED dragged}
+ * samples of one source into the pending event of the current run, which is dispatched at the newest position
+ * carrying the older samples as history, see {@link MouseEvent#getHistorySize()}.
+ * <p>
+ * The producer reports each {@link #enqueued(boolean, NEWTEvent) enqueued} event and tries to
+ * {@link #merge(int, long, int, int, int, int) merge} a new motion sample before creating an event,
+ * the consumer passes each mouse event through {@link #take(MouseEvent)} before dispatching it.
+ * Any other event of the source ends the run, hence the event order is preserved.
+ * </p>
+ * <p>
+ * This class is thread safe.
+ * </p>
+ */
+public class MouseMotionCoalescer {
+    private static final int MAX_HISTORY = 256;
+
+    private final Object source;
+    private MouseEvent head = null;   // queued MOVED/DRAGGED event of the current run, not yet dispatched
+    private boolean runOpen = false;  // further samples may be merged into head
+    private int  x, y;                // newest sample of the current run
+    private long when;
+    private int historySize = 0;      // older samples of the current run, oldest first
+    private int[] historyXY = new int[2*16];
+    private long[] historyWhen = new long[16];
+
+    /**
+     * @param source only non blocking motion events of this source open a run
+     */
+    public MouseMotionCoalescer(Object source) {
+        this.source = source;
+    }
+
+    /**
+     * Merges the given motion sample into the pending event of the current run,
+     * if the run is still open and matches type, modifiers and button.
+     * The previous newest sample is kept as history, the oldest are dropped beyond 256 samples.
+     * @return true if merged, i.e. no event shall be created
+     */
+    public synchronized boolean merge(int eventType, long when, int modifiers, int x, int y, int button) {
+        if( !runOpen || head.getEventType() != eventType ||
+            head.getModifiers() != modifiers || head.getButton() != button ) {
+            return false;
+        }
+        if( historySize == historyWhen.length ) {
+            if( historySize < MAX_HISTORY ) {
+                historyXY = Arrays.copyOf(historyXY, 4*historySize);
+                historyWhen = Arrays.copyOf(historyWhen, 2*historySize);
+            } else {
+                // drop oldest sample
+                historySize--;
+                System.arraycopy(historyXY, 2, historyXY, 0, 2*historySize);
+                System.arraycopy(historyWhen, 1, historyWhen, 0, historySize);
+            }
+        }
+        historyXY[2*historySize]   = this.x;
+        historyXY[2*historySize+1] = this.y;
+        historyWhen[historySize]   = this.when;
+        historySize++;
+        this.x = x;
+        this.y = y;
+        this.when = when;
+        return true;
+    }
+
+    /**
+     * Opens a new run if the given event is a non blocking MOVED or DRAGGED event of the source
+     * and no other run is pending, otherwise closes the current run to preserve event order.
+     */
+    public synchronized void enqueued(boolean wait, NEWTEvent event) {
+        final int eventType = event.getEventType();
+        if( !wait && null == head && event.getSource() == source &&
+            ( MouseEvent.EVENT_MOUSE_MOVED == eventType || MouseEvent.EVENT_MOUSE_DRAGGED == eventType ) ) {
+            final MouseEvent e = (MouseEvent) event;
+            head = e;
+            runOpen = true;
+            x = e.getX();
+            y = e.getY();
+            when = e.getWhen();
+            historySize = 0;
+        } else {
+            runOpen = false;
+        }
+    }
+
+    /** Closes the current run, e.g. before an event is consumed w/o being enqueued. The pending head is still completed by {@link #take(MouseEvent)}. */
+    public synchronized void close() {
+        runOpen = false;
+    }
+
+    /**
+     * @return the event to dispatch, i.e. if <code>e</code> is the pending head of a run
+     *         a new event at the newest position carrying the merged samples as history, otherwise <code>e</code>.
+     */
+    public synchronized MouseEvent take(MouseEvent e) {
+        if( e != head ) {
+            return e;
+        }
+        head = null;
+        runOpen = false;
+        if( 0 == historySize ) {
+            return e;
+        }
+        final int n = historySize;
+        historySize = 0;
+        return new MouseEvent(e.getEventType(), e.getSource(), when, e.getModifiers(),
+                              x, y, e.getClickCount(), e.getButton(), 0,
+                              n, Arrays.copyOf(historyXY, 2*n), Arrays.copyOf(historyWhen, n));
+    }
+}
@@ -40,6 +40,11 @@ public class NEWTEventTask {
     private RuntimeException exception;
 
     public NEWTEventTask(NEWTEvent event, Object notifyObject) {
+        set(event, notifyObject);
+    }
+
+    /** Reinitializes this instance, allowing to recycle it once dispatched. */
+    public final void set(NEWTEvent event, Object notifyObject) {
         this.event = event ;
         this.notifyObject = notifyObject ;
         this.exception = null;
@@ -0,0 +1,220 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.graph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.graph.curve.OutlineShape;
+import com.jogamp.graph.curve.tess.Triangulation;
+import com.jogamp.graph.curve.tess.Triangulator;
+import com.jogamp.graph.geom.Outline;
+import com.jogamp.graph.geom.Triangle;
+import com.jogamp.graph.geom.Vertex;
+import com.jogamp.graph.geom.VertexStore;
+import com.jogamp.graph.geom.opengl.SVertex;
+
+/**
+ * Validates the parallel {@link Triangulation#triangulate(java.util.Collection, ExecutorService)} 
+ * batch against sequential triangulation and benchmarks its scaling from 1 to N threads.
+ */
+public class TestBatchTriangulationNOUI {
+    static final int shapeCount = 2000;
+
+    /** Deterministic building like polygons of varying complexity, some w/ a hole. */
+    static List<OutlineShape> createShapes(int count) {
+        final Random rnd = new Random(4711);
+        final List<OutlineShape> shapes = new ArrayList<OutlineShape>(count);
+        for(int i=0; i<count; i++) {
+            final OutlineShape shape = new OutlineShape(SVertex.factory());
+            final float cx = rnd.nextFloat() * 1000f, cy = rnd.nextFloat() * 1000f;
+            final float r = 5f + rnd.nextFloat() * 20f;
+            final int n = 4 + rnd.nextInt(60);
+            for(int j=0; j<n; j++) {
+                final double a = 2.0 * Math.PI * j / n;
+                final float rj = r * ( 0.8f + 0.2f * rnd.nextFloat() );
+                shape.addVertex(cx + rj * (float)Math.cos(a), cy + rj * (float)Math.sin(a), 0 != j % 5);
+            }
+            shape.closeLastOutline();
+            if( 0 == i % 3 ) {
+                shape.addEmptyOutline();
+                final float h = r * 0.3f;
+                shape.addVertex(cx - h, cy - h, true);
+                shape.addVertex(cx - h, cy + h, true);
+                shape.addVertex(cx + h, cy + h, true);
+                shape.addVertex(cx + h, cy - h, true);
+                shape.closeLastOutline();
+            }
+            shapes.add(shape);
+        }
+        return shapes;
+    }
+
+    static void assertEquals(ArrayList<Triangle> expected, ArrayList<Triangle> actual) {
+        Assert.assertEquals(expected.size(), actual.size());
+        for(int i=0; i<expected.size(); i++) {
+            final Vertex[] e = expected.get(i).getVertices();
+            final Vertex[] a = actual.get(i).getVertices();
+            for(int j=0; j<3; j++) {
+                Assert.assertEquals(e[j].getX(), a[j].getX(), 0.0f);
+                Assert.assertEquals(e[j].getY(), a[j].getY(), 0.0f);
+            }
+        }
+    }
+
+    @Test
+    public void test01MatchesSequential() {
+        final List<OutlineShape> seqShapes = createShapes(shapeCount);
+        final List<ArrayList<Triangle>> expected = new ArrayList<ArrayList<Triangle>>(shapeCount);
+        for(int i=0; i<shapeCount; i++) {
+            expected.add(seqShapes.get(i).triangulate());
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<ArrayList<Triangle>> actual = Triangulation.triangulate(createShapes(shapeCount), executor);
+            Assert.assertEquals(shapeCount, actual.size());
+            for(int i=0; i<shapeCount; i++) {
+                assertEquals(expected.get(i), actual.get(i));
+            }
+            final VertexStore[] stores = Triangulation.triangulateToStores(createShapes(shapeCount), executor);
+            Assert.assertEquals(shapeCount, stores.length);
+            for(int i=0; i<shapeCount; i++) {
+                Assert.assertEquals(expected.get(i).size(), stores[i].getTriangleCount());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void test02SharedPool() {
+        Assert.assertEquals(0, Triangulation.triangulate(new ArrayList<OutlineShape>()).size());
+        final List<OutlineShape> seqShapes = createShapes(100);
+        final List<ArrayList<Triangle>> res = Triangulation.triangulate(createShapes(100));
+        Assert.assertEquals(100, res.size());
+        for(int i=0; i<100; i++) {
+            assertEquals(seqShapes.get(i).triangulate(), res.get(i));
+        }
+    }
+
+    @Test
+    public void test03ScalingBenchmark() {
+        final int maxThreads = Runtime.getRuntime().availableProcessors();
+        final List<Integer> threadCounts = new ArrayList<Integer>();
+        for(int threads=1; threads<maxThreads; threads*=2) {
+            threadCounts.add(threads);
+        }
+        threadCounts.add(maxThreads);
+        final int warmups = 3, loops = 5;
+        double t1 = 0;
+        for(int k=0; k<threadCounts.size(); k++) {
+            final int threads = threadCounts.get(k);
+            final ExecutorService executor = 1 < threads ? Executors.newFixedThreadPool(threads) : null;
+            try {
+                for(int i=0; i<warmups; i++) {
+                    Triangulation.triangulateToStores(createShapes(shapeCount), executor);
+                }
+                long t = 0;
+                for(int i=0; i<loops; i++) {
+                    final List<OutlineShape> shapes = createShapes(shapeCount);
+                    final long t0 = System.nanoTime();
+                    Triangulation.triangulateToStores(shapes, executor);
+                    t += System.nanoTime() - t0;
+                }
+                final double ms = t / 1e6 / loops;
+                if( 1 == threads ) {
+                    t1 = ms;
+                }
+                System.err.println(shapeCount+" shapes, "+threads+" threads: "+ms+" ms, speedup "+(t1/ms));
+            } finally {
+                if( null != executor ) {
+                    executor.shutdown();
+                }
+            }
+        }
+    }
+
+    /** Delegating {@link Triangulator} failing on demand, counting resets. */
+    static class FailingTriangulator implements Triangulator {
+        final Triangulator impl = Triangulation.create();
+        boolean fail = true;
+        int resets = 0;
+
+        public void addCurve(Outline outline) { impl.addCurve(outline); }
+        public ArrayList<Triangle> generate() {
+            if( fail ) {
+                throw new IllegalStateException("failing generate");
+            }
+            return impl.generate();
+        }
+        public void generate(VertexStore store) {
+            if( fail ) {
+                throw new IllegalStateException("failing generate");
+            }
+            impl.generate(store);
+        }
+        public void reset() { resets++; impl.reset(); }
+    }
+
+    @Test
+    public void test04ResetOnFailure() {
+        final List<OutlineShape> shapes = createShapes(2);
+        final FailingTriangulator triangulator = new FailingTriangulator();
+        try {
+            shapes.get(0).triangulate(triangulator);
+            Assert.fail("generate did not fail");
+        } catch (IllegalStateException ise) { }
+        Assert.assertEquals(1, triangulator.resets);
+        try {
+            shapes.get(0).triangulate(new VertexStore(), triangulator);
+            Assert.fail("generate did not fail");
+        } catch (IllegalStateException ise) { }
+        Assert.assertEquals(2, triangulator.resets);
+
+        // no outlines of the failed shape leak into the next triangulation
+        triangulator.fail = false;
+        final VertexStore store = new VertexStore();
+        createShapes(2).get(1).triangulate(store, triangulator);
+        final VertexStore expected = new VertexStore();
+        createShapes(2).get(1).triangulate(expected);
+        Assert.assertEquals(expected.getVertexCount(), store.getVertexCount());
+        Assert.assertEquals(expected.getTriangleCount(), store.getTriangleCount());
+        assertEquals(createShapes(2).get(1).triangulate(), shapes.get(1).triangulate(triangulator));
+        Assert.assertEquals(4, triangulator.resets);
+    }
+
+    public static void main(String args[]) {
+        org.junit.runner.JUnitCore.main(TestBatchTriangulationNOUI.class.getName());
+    }
+}
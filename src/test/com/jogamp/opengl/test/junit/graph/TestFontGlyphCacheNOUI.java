@@ -0,0 +1,165 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+ 
+package com.jogamp.opengl.test.junit.graph;
+
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.jogamp.graph.font.Font;
+import com.jogamp.graph.font.FontFactory;
+
+public class TestFontGlyphCacheNOUI {
+    static final String text = "The quick brown fox jumps over the lazy dog 0123456789";
+    static Font font;
+
+    @BeforeClass
+    public static void setup() throws IOException {
+        font = FontFactory.get(FontFactory.UBUNTU).getDefault();
+        Assert.assertNotNull(font);
+    }
+
+    @Test
+    public void test01LimitEntries() {
+        final Font.GlyphCache cache = font.getGlyphCache();
+        final int maxEntries = cache.getMaxEntries();
+        final long maxBytes = cache.getMaxBytes();
+        try {
+            cache.clear();
+            cache.resetStats();
+            cache.setLimits(8, Long.MAX_VALUE);
+            
+            final float width0 = font.getStringWidth(text, 24f);
+            Assert.assertTrue(cache.getEntryCount() <= 8);
+            Assert.assertTrue(0 < cache.getEvictionCount());
+            Assert.assertTrue(0 < cache.getMissCount());
+            Assert.assertEquals(cache.getMissCount() - cache.getEvictionCount(), cache.getEntryCount());
+            
+            // evicted glyphs are recreated transparently
+            final float width1 = font.getStringWidth(text, 24f);
+            Assert.assertEquals(width0, width1, 0f);
+            System.err.println(cache);
+        } finally {
+            cache.setLimits(maxEntries, maxBytes);
+        }
+    }
+
+    @Test
+    public void test02LimitBytesAndHits() {
+        final Font.GlyphCache cache = font.getGlyphCache();
+        final int maxEntries = cache.getMaxEntries();
+        final long maxBytes = cache.getMaxBytes();
+        try {
+            cache.clear();
+            cache.resetStats();
+            cache.setLimits(maxEntries, Long.MAX_VALUE);
+            
+            font.getStringWidth(text, 24f);
+            final long misses = cache.getMissCount();
+            final long bytes = cache.getByteCount();
+            Assert.assertTrue(0 < bytes);
+            Assert.assertEquals(0, cache.getEvictionCount());
+            
+            // 2nd pass is served by the cache completely
+            font.getStringWidth(text, 24f);
+            Assert.assertEquals(misses, cache.getMissCount());
+            Assert.assertTrue(0 < cache.getHitCount());
+            
+            cache.setLimits(maxEntries, bytes / 2);
+            Assert.assertTrue(cache.getByteCount() <= bytes / 2);
+            Assert.assertTrue(0 < cache.getEvictionCount());
+            
+            cache.clear();
+            Assert.assertEquals(0, cache.getEntryCount());
+            Assert.assertEquals(0, cache.getByteCount());
+            System.err.println(cache);
+        } finally {
+            cache.setLimits(maxEntries, maxBytes);
+        }
+    }
+
+    @Test
+    public void test03ConcurrentLookups() throws InterruptedException {
+        final Font.GlyphCache cache = font.getGlyphCache();
+        final int maxEntries = cache.getMaxEntries();
+        final long maxBytes = cache.getMaxBytes();
+        try {
+            cache.clear();
+            cache.setLimits(maxEntries, Long.MAX_VALUE);
+            final float width = font.getStringWidth(text, 24f);
+            font.getGlyph('#');
+            cache.clear();
+            font.getGlyph('#');
+            final long glyphBytes = cache.getByteCount();
+
+            // evict constantly while looking up from multiple threads
+            cache.setLimits(8, Long.MAX_VALUE);
+            final Thread[] threads = new Thread[4];
+            final Throwable[] errors = new Throwable[threads.length];
+            final boolean[] mismatch = new boolean[threads.length];
+            for(int i=0; i<threads.length; i++) {
+                final int idx = i;
+                threads[i] = new Thread(new Runnable() {
+                    public void run() {
+                        try {
+                            for(int j=0; j<200; j++) {
+                                if( width != font.getStringWidth(text, 24f) ) {
+                                    mismatch[idx] = true;
+                                }
+                            }
+                        } catch (Throwable t) {
+                            errors[idx] = t;
+                        }
+                    } }, "GlyphLookup-"+i);
+                threads[i].start();
+            }
+            for(int i=0; i<threads.length; i++) {
+                threads[i].join();
+                Assert.assertNull(errors[i]);
+                Assert.assertFalse(mismatch[i]);
+            }
+            Assert.assertTrue(cache.getEntryCount() <= 8);
+
+            // the accounting is consistent: only '#' remains
+            cache.setLimits(1, Long.MAX_VALUE);
+            font.getGlyph('#');
+            Assert.assertEquals(1, cache.getEntryCount());
+            Assert.assertEquals(glyphBytes, cache.getByteCount());
+            System.err.println(cache);
+        } finally {
+            cache.setLimits(maxEntries, maxBytes);
+        }
+    }
+
+    public static void main(String args[]) {
+        org.junit.runner.JUnitCore.main(TestFontGlyphCacheNOUI.class.getName());
+    }
+}
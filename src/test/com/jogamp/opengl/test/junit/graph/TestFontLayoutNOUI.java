@@ -0,0 +1,134 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.graph;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+import jogamp.graph.font.FontInt;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.jogamp.graph.curve.OutlineShape;
+import com.jogamp.graph.font.Font;
+import com.jogamp.graph.font.FontFactory;
+import com.jogamp.graph.geom.opengl.SVertex;
+
+/**
+ * Validates pair kerning and 'liga' ligature substitution of the text layout.
+ * <p>
+ * If layout is disabled via <code>jogl.font.typecast.nolayout</code>,
+ * e.g. by passing <code>-nolayout</code> to {@link #main(String[])},
+ * validates that neither kerning nor ligatures are applied.
+ * </p>
+ */
+public class TestFontLayoutNOUI {
+    static final float pixelSize = 48f;
+    static final String NOLAYOUT = "jogl.font.typecast.nolayout";
+    static Font font;
+    static boolean layout;
+
+    @BeforeClass
+    public static void setup() throws IOException {
+        layout = null == System.getProperty(NOLAYOUT);
+        font = FontFactory.get(FontFactory.UBUNTU).getDefault();
+        Assert.assertNotNull(font);
+    }
+
+    @Test
+    public void test01Kerning() {
+        // 'A' 'V' is a negative kerning pair in most fonts, incl. Ubuntu
+        final float wA = font.getStringWidth("A", pixelSize);
+        final float wV = font.getStringWidth("V", pixelSize);
+        final float wAV = font.getStringWidth("AV", pixelSize);
+        System.err.println("layout "+layout+": A "+wA+", V "+wV+", AV "+wAV);
+        
+        final float bAV = font.getStringBounds("AV", pixelSize).getWidth();
+        final float bA = font.getStringBounds("A", pixelSize).getWidth();
+        final float bV = font.getStringBounds("V", pixelSize).getWidth();
+        if( layout ) {
+            Assert.assertTrue(wAV < wA + wV);
+            Assert.assertTrue(bAV < bA + bV);
+        } else {
+            Assert.assertEquals(wA + wV, wAV, 1f); // rounded once
+            Assert.assertEquals(bA + bV, bAV, 0.001f);
+        }
+        // width and bounds apply the same, unrounded kerning
+        Assert.assertEquals(bAV, wAV, 2f);
+        
+        // kerning does not apply across lines
+        Assert.assertEquals(wV, font.getStringWidth("A\nV", pixelSize), 0f);
+    }
+
+    @Test
+    public void test02Ligature() {
+        // 'f' 'i' is substituted by a single ligature glyph
+        final ArrayList<OutlineShape> fi = ((FontInt)font).getOutlineShapes("fi", pixelSize, SVertex.factory());
+        final ArrayList<OutlineShape> fxi = ((FontInt)font).getOutlineShapes("fxi", pixelSize, SVertex.factory());
+        System.err.println("layout "+layout+": fi shapes "+fi.size()+", fxi shapes "+fxi.size());
+        Assert.assertEquals(layout ? 1 : 2, fi.size());
+        Assert.assertEquals(3, fxi.size());
+    }
+
+    @Test
+    public void test03LigatureCached() {
+        final Font.GlyphCache cache = font.getGlyphCache();
+        ((FontInt)font).getOutlineShapes("fi", pixelSize, SVertex.factory());
+        final long missCount = cache.getMissCount();
+        ((FontInt)font).getOutlineShapes("fi", pixelSize, SVertex.factory());
+        // ligature glyphs are served by the bounded glyph cache as well
+        Assert.assertEquals(missCount, cache.getMissCount());
+    }
+
+    @Test
+    public void test04LayoutConsistent() {
+        // outlines, glyph layout and measurement walk the same kerned and substituted glyphs
+        final String str = "AVfiTo";
+        final ArrayList<OutlineShape> shapes = ((FontInt)font).getOutlineShapes(str, pixelSize, SVertex.factory());
+        final FontInt.GlyphInt[] glyphs = new FontInt.GlyphInt[str.length()];
+        final float[] offsets = new float[2*str.length()];
+        final int count = ((FontInt)font).layoutString(str, pixelSize, glyphs, offsets);
+        System.err.println("layout "+layout+": shapes "+shapes.size()+", glyphs "+count);
+        Assert.assertEquals(shapes.size(), count);
+        Assert.assertEquals(layout ? 5 : 6, count);
+        final float width = offsets[2*(count-1)] + glyphs[count-1].getAdvance(pixelSize, true);
+        Assert.assertEquals(font.getStringBounds(str, pixelSize).getWidth(), width, 0.001f);
+    }
+
+    public static void main(String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-nolayout")) {
+                // before the font is loaded
+                System.setProperty(NOLAYOUT, "true");
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestFontLayoutNOUI.class.getName());
+    }
+}
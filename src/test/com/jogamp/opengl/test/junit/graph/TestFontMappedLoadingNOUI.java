@@ -0,0 +1,160 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+ 
+package com.jogamp.opengl.test.junit.graph;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URLConnection;
+
+import jogamp.graph.font.typecast.ot.OTFont;
+import jogamp.graph.font.typecast.ot.OTFontCollection;
+import jogamp.graph.font.typecast.ot.OTGlyph;
+import jogamp.graph.font.typecast.ot.Point;
+import jogamp.graph.font.typecast.ot.table.Table;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.jogamp.common.util.IOUtil;
+
+/**
+ * Validates the lazily parsed, memory mapped font loading mode
+ * against the eager stream based mode.
+ */
+public class TestFontMappedLoadingNOUI {
+    static File fontFile;
+
+    @BeforeClass
+    public static void setup() throws IOException {
+        final URLConnection conn = IOUtil.getResource(jogamp.graph.font.UbuntuFontLoader.class, "fonts/ubuntu/Ubuntu-R.ttf");
+        Assert.assertNotNull(conn);
+        fontFile = IOUtil.createTempFile( "jogl.font", ".ttf", false, null);
+        Assert.assertTrue(0 < IOUtil.copyURLConn2File(conn, fontFile));
+    }
+
+    @AfterClass
+    public static void cleanup() {
+        if( null != fontFile && !fontFile.delete() ) {
+            fontFile.deleteOnExit();
+        }
+    }
+
+    @Test
+    public void test01MappedEqualsEager() throws IOException {
+        final long t0 = System.nanoTime();
+        final OTFontCollection eagerSet = OTFontCollection.create(fontFile, false);
+        final long t1 = System.nanoTime();
+        final OTFontCollection mappedSet = OTFontCollection.create(fontFile, true);
+        final long t2 = System.nanoTime();
+        System.err.println("Font creation: eager "+(t1-t0)/1000000.0+" ms, mapped "+(t2-t1)/1000000.0+" ms");
+        Assert.assertFalse(eagerSet.isMapped());
+        Assert.assertTrue(mappedSet.isMapped());
+
+        final OTFont eager = eagerSet.getFont(0);
+        final OTFont mapped = mappedSet.getFont(0);
+        Assert.assertEquals(eager.getNumGlyphs(), mapped.getNumGlyphs());
+        Assert.assertEquals(eager.getAscent(), mapped.getAscent());
+        Assert.assertEquals(eager.getDescent(), mapped.getDescent());
+        Assert.assertEquals(eager.getAllNames(null, ",").toString(), mapped.getAllNames(null, ",").toString());
+        Assert.assertNotNull(mapped.getCmapTable());
+        Assert.assertNotNull(mapped.getTable(Table.GSUB));
+
+        // walk all glyphs twice to exercise the bounded glyph description cache
+        for(int loop=0; loop<2; loop++) {
+            for(int i=0; i<eager.getNumGlyphs(); i++) {
+                final OTGlyph ge = eager.getGlyph(i);
+                final OTGlyph gm = mapped.getGlyph(i);
+                if( null == ge ) {
+                    Assert.assertNull("Glyph "+i, gm);
+                    continue;
+                }
+                Assert.assertNotNull("Glyph "+i, gm);
+                Assert.assertEquals("Glyph "+i, ge.getAdvanceWidth(), gm.getAdvanceWidth());
+                Assert.assertEquals("Glyph "+i, ge.getPointCount(), gm.getPointCount());
+                for(int j=0; j<ge.getPointCount(); j++) {
+                    final Point pe = ge.getPoint(j);
+                    final Point pm = gm.getPoint(j);
+                    Assert.assertEquals("Glyph "+i+", point "+j, pe.x, pm.x);
+                    Assert.assertEquals("Glyph "+i+", point "+j, pe.y, pm.y);
+                    Assert.assertEquals("Glyph "+i+", point "+j, pe.onCurve, pm.onCurve);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test02ConcurrentLookups() throws Exception {
+        final OTFont eager = OTFontCollection.create(fontFile, false).getFont(0);
+        final OTFont mapped = OTFontCollection.create(fontFile, true).getFont(0);
+        final int numGlyphs = eager.getNumGlyphs();
+        final int[] pointCounts = new int[numGlyphs];
+        for(int i=0; i<numGlyphs; i++) {
+            final OTGlyph g = eager.getGlyph(i);
+            pointCounts[i] = null != g ? g.getPointCount() : -1;
+        }
+        final int threadCount = 4;
+        final Thread[] threads = new Thread[threadCount];
+        final Throwable[] errors = new Throwable[threadCount];
+        for(int t=0; t<threadCount; t++) {
+            final int tid = t;
+            threads[t] = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        // different strides collide on the same cache slots and lazily parsed tables
+                        final int stride = 1 + 2 * tid;
+                        for(int loop=0; loop<4; loop++) {
+                            for(int k=0; k<numGlyphs; k++) {
+                                final int i = ( k * stride + loop ) % numGlyphs;
+                                final OTGlyph g = mapped.getGlyph(i);
+                                Assert.assertEquals("Glyph "+i, pointCounts[i], null != g ? g.getPointCount() : -1);
+                            }
+                        }
+                    } catch (Throwable th) {
+                        errors[tid] = th;
+                    }
+                }
+            }, "TestFontMappedLoadingNOUI-"+t);
+        }
+        for(int t=0; t<threadCount; t++) {
+            threads[t].start();
+        }
+        for(int t=0; t<threadCount; t++) {
+            threads[t].join();
+            if( null != errors[t] ) {
+                throw new RuntimeException("Thread "+t, errors[t]);
+            }
+        }
+    }
+
+    public static void main(String args[]) {
+        org.junit.runner.JUnitCore.main(TestFontMappedLoadingNOUI.class.getName());
+    }
+}
@@ -0,0 +1,222 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.graph;
+
+import java.io.IOException;
+
+import jogamp.graph.curve.text.GlyphString;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.jogamp.graph.curve.OutlineShape;
+import com.jogamp.graph.curve.Region;
+import com.jogamp.graph.font.Font;
+import com.jogamp.graph.font.FontFactory;
+import com.jogamp.graph.geom.AABBox;
+import com.jogamp.graph.geom.Vertex;
+import com.jogamp.graph.geom.opengl.SVertex;
+
+/**
+ * Validates the {@link GlyphString} instancing of cached glyph meshes against 
+ * the per occurrence triangulation and compares cold vs warm layout of long strings.
+ */
+public class TestGlyphMeshCacheNOUI {
+    static final String text = "The quick brown fox jumps over the lazy dog 0123456789";
+    static final int fontSize = 24;
+    static Font font;
+
+    static class TestRegion extends Region {
+        TestRegion() { super(0); }
+        int getTriangleCount() { return triangles.size() + store.getTriangleCount(); }
+        int getVertexCount() { return vertices.size() + store.getVertexCount(); }
+        boolean hasValidIndices() {
+            final int[] indices = store.getIndices();
+            for(int i=0; i<3*store.getTriangleCount(); i++) {
+                if( 0 > indices[i] || indices[i] >= store.getVertexCount() ) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        AABBox getTriangleBounds() {
+            final AABBox box = new AABBox();
+            for(int i=0; i<triangles.size(); i++) {
+                final Vertex[] v = triangles.get(i).getVertices();
+                for(int j=0; j<3; j++) {
+                    box.resize(v[j].getX(), v[j].getY(), v[j].getZ());
+                }
+            }
+            if( 0 < store.getVertexCount() ) {
+                box.resize(store.getBounds());
+            }
+            return box;
+        }
+    }
+
+    @BeforeClass
+    public static void setup() throws IOException {
+        font = FontFactory.get(FontFactory.UBUNTU).getDefault();
+        Assert.assertNotNull(font);
+    }
+
+    static TestRegion createRegion(boolean meshes, String str) {
+        final OutlineShape shape = meshes ? null : new OutlineShape(SVertex.factory());
+        final GlyphString glyphString = GlyphString.createString(shape, SVertex.factory(), font, fontSize, str);
+        final TestRegion region = new TestRegion();
+        glyphString.addToRegion(region);
+        return region;
+    }
+
+    @Test
+    public void test01InstancedMatchesTriangulated() {
+        final TestRegion triangulated = createRegion(false, text);
+        final TestRegion instanced = createRegion(true, text);
+        System.err.println("triangulated: triangles "+triangulated.getTriangleCount()+", vertices "+triangulated.getVertexCount()+
+                           ", bounds "+triangulated.getTriangleBounds());
+        System.err.println("instanced:    triangles "+instanced.getTriangleCount()+", vertices "+instanced.getVertexCount()+
+                           ", bounds "+instanced.getTriangleBounds());
+        // meshes are triangulated in font units w/o rounding, which may subdivide more curve overlaps
+        Assert.assertTrue(0 < instanced.getTriangleCount());
+        Assert.assertTrue(instanced.hasValidIndices());
+        final AABBox b0 = triangulated.getTriangleBounds();
+        final AABBox b1 = instanced.getTriangleBounds();
+        for(int i=0; i<3; i++) {
+            Assert.assertEquals(b0.getLow()[i], b1.getLow()[i], 0.01f);
+            Assert.assertEquals(b0.getHigh()[i], b1.getHigh()[i], 0.01f);
+        }
+    }
+
+    @Test
+    public void test02RepeatedGlyphs() {
+        final TestRegion one = createRegion(true, "a");
+        final TestRegion four = createRegion(true, "aaaa");
+        Assert.assertEquals(4*one.getTriangleCount(), four.getTriangleCount());
+        Assert.assertEquals(4*one.getVertexCount(), four.getVertexCount());
+        // each instance has its own vertices, indices rebased into the shared store
+        Assert.assertTrue(four.hasValidIndices());
+    }
+
+    @Test
+    public void test03ColdWarmBenchmark() {
+        final StringBuilder sb = new StringBuilder();
+        for(int i=0; i<20; i++) {
+            sb.append(text).append('\n');
+        }
+        final String longText = sb.toString();
+        final int loops = 5;
+        
+        long tTriangulated = 0, tCold = 0, tWarm = 0;
+        for(int i=0; i<loops; i++) {
+            long t0 = System.nanoTime();
+            createRegion(false, longText);
+            long t1 = System.nanoTime();
+            font.getGlyphCache().clear();
+            long t2 = System.nanoTime();
+            final TestRegion cold = createRegion(true, longText);
+            long t3 = System.nanoTime();
+            final TestRegion warm = createRegion(true, longText);
+            long t4 = System.nanoTime();
+            if( 0 < i ) { // warm up JIT
+                tTriangulated += t1 - t0;
+                tCold += t3 - t2;
+                tWarm += t4 - t3;
+            }
+            // cached meshes are instanced unchanged
+            Assert.assertEquals(cold.getTriangleCount(), warm.getTriangleCount());
+            Assert.assertEquals(cold.getVertexCount(), warm.getVertexCount());
+            Assert.assertTrue(warm.hasValidIndices());
+        }
+        // timings are reported only, they depend on the machine and its load
+        final int n = loops - 1;
+        System.err.println("Layout of "+longText.length()+" chars: per occurrence triangulation "+tTriangulated/n/1000000.0+
+                           " ms, cold meshes "+tCold/n/1000000.0+" ms, warm meshes "+tWarm/n/1000000.0+" ms");
+        System.err.println(font.getGlyphCache());
+    }
+
+    @Test
+    public void test04LigatureMeshAccounted() {
+        final Font.GlyphCache cache = font.getGlyphCache();
+        cache.clear();
+        createRegion(false, "fi");
+        final long bytesOutlines = cache.getByteCount();
+        createRegion(true, "fi");
+        final long bytesMeshes = cache.getByteCount();
+        System.err.println("'fi' cached bytes: outlines "+bytesOutlines+", w/ meshes "+bytesMeshes);
+        // the mesh of the (ligature) glyph is added to the cache size
+        Assert.assertTrue(bytesMeshes > bytesOutlines);
+        createRegion(true, "fi");
+        Assert.assertEquals(bytesMeshes, cache.getByteCount());
+        cache.clear();
+        Assert.assertEquals(0, cache.getByteCount());
+    }
+
+    @Test
+    public void test05ConcurrentMeshes() throws InterruptedException {
+        final Font.GlyphCache cache = font.getGlyphCache();
+        cache.clear();
+        final TestRegion expected = createRegion(true, text);
+        final long expectedBytes = cache.getByteCount();
+        cache.clear();
+
+        final int threadCount = 4;
+        final TestRegion[] regions = new TestRegion[threadCount];
+        final Throwable[] errors = new Throwable[threadCount];
+        final Thread[] threads = new Thread[threadCount];
+        for(int i=0; i<threadCount; i++) {
+            final int idx = i;
+            threads[i] = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        regions[idx] = createRegion(true, text);
+                    } catch (Throwable t) {
+                        errors[idx] = t;
+                    }
+                } }, "MeshBuilder-"+i);
+        }
+        for(int i=0; i<threadCount; i++) {
+            threads[i].start();
+        }
+        for(int i=0; i<threadCount; i++) {
+            threads[i].join();
+        }
+        for(int i=0; i<threadCount; i++) {
+            Assert.assertNull(errors[i]);
+            // no glyph is seen w/o its mesh while another thread builds it
+            Assert.assertEquals(expected.getTriangleCount(), regions[i].getTriangleCount());
+            Assert.assertEquals(expected.getVertexCount(), regions[i].getVertexCount());
+        }
+        // each mesh is accounted once
+        Assert.assertEquals(expectedBytes, cache.getByteCount());
+    }
+
+    public static void main(String args[]) {
+        org.junit.runner.JUnitCore.main(TestGlyphMeshCacheNOUI.class.getName());
+    }
+}
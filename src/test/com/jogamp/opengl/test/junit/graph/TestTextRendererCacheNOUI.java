@@ -0,0 +1,184 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+ 
+package com.jogamp.opengl.test.junit.graph;
+
+import java.io.IOException;
+
+import javax.media.opengl.GL2ES2;
+
+import jogamp.graph.curve.text.GlyphString;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.jogamp.graph.curve.opengl.TextRenderer;
+import com.jogamp.graph.font.Font;
+import com.jogamp.graph.font.FontFactory;
+import com.jogamp.graph.font.FontSet;
+
+/**
+ * Exercises the {@link TextRenderer} GlyphString cache w/o a GL context,
+ * using region-less GlyphString's.
+ */
+public class TestTextRendererCacheNOUI {
+    static Font font0, font1;
+
+    @BeforeClass
+    public static void setup() throws IOException {
+        font0 = FontFactory.get(FontFactory.UBUNTU).get(FontSet.FAMILY_REGULAR, 0);
+        font1 = FontFactory.get(FontFactory.UBUNTU).get(FontSet.FAMILY_LIGHT, 0);
+        Assert.assertNotNull(font0);
+        Assert.assertNotNull(font1);
+        Assert.assertFalse(font0.equals(font1));
+    }
+
+    /** Exposes the protected cache operations, no shader program is ever created. */
+    static class CacheTextRenderer extends TextRenderer {
+        CacheTextRenderer() {
+            super(null, 0);
+        }
+
+        @Override
+        protected boolean initShaderProgram(GL2ES2 gl) {
+            return false;
+        }
+
+        @Override
+        public void drawString3D(GL2ES2 gl, Font font, String str, float[] position, int fontSize, int[] texSize) {
+            throw new UnsupportedOperationException();
+        }
+
+        GlyphString get(Font font, String str, int fontSize, int texSize) {
+            return getCachedGlyphString(font, str, fontSize, texSize);
+        }
+
+        GlyphString add(Font font, String str, int fontSize, int texSize) {
+            final GlyphString glyphString = new GlyphString(font.getName(Font.NAME_UNIQUNAME), str);
+            addCachedGlyphString(null, font, str, fontSize, texSize, glyphString);
+            return glyphString;
+        }
+    }
+
+    @Test
+    public void test01EvictionOrder() {
+        final CacheTextRenderer renderer = new CacheTextRenderer();
+        renderer.setCacheLimit(3);
+        final GlyphString a = renderer.add(font0, "a", 10, 0);
+        renderer.add(font0, "b", 10, 0);
+        final GlyphString c = renderer.add(font0, "c", 10, 0);
+        Assert.assertEquals(3, renderer.getCacheSize());
+        Assert.assertEquals(0, renderer.getCacheEvictionCount());
+
+        // touching 'a' makes 'b' the least recently used one
+        Assert.assertSame(a, renderer.get(font0, "a", 10, 0));
+        final GlyphString d = renderer.add(font0, "d", 10, 0);
+        Assert.assertEquals(3, renderer.getCacheSize());
+        Assert.assertEquals(1, renderer.getCacheEvictionCount());
+        Assert.assertNull(renderer.get(font0, "b", 10, 0));
+        Assert.assertSame(a, renderer.get(font0, "a", 10, 0));
+        Assert.assertSame(c, renderer.get(font0, "c", 10, 0));
+        Assert.assertSame(d, renderer.get(font0, "d", 10, 0));
+
+        // order now is a, c, d - 'a' goes next
+        renderer.add(font0, "e", 10, 0);
+        Assert.assertEquals(2, renderer.getCacheEvictionCount());
+        Assert.assertNull(renderer.get(font0, "a", 10, 0));
+        Assert.assertEquals(3, renderer.getCacheSize());
+
+        // shrinking the limit drops the least recently used ones
+        renderer.setCacheLimit(null, 1);
+        Assert.assertEquals(1, renderer.getCacheSize());
+        Assert.assertNull(renderer.get(font0, "c", 10, 0));
+        Assert.assertNotNull(renderer.get(font0, "e", 10, 0));
+
+        // limit 0 turns the cache off
+        renderer.setCacheLimit(0);
+        renderer.add(font0, "f", 10, 0);
+        Assert.assertNull(renderer.get(font0, "f", 10, 0));
+    }
+
+    @Test
+    public void test02DistinctKeys() {
+        final CacheTextRenderer renderer = new CacheTextRenderer();
+        final String str = "The quick brown fox";
+        final GlyphString s0 = renderer.add(font0, str, 10, 0);
+        final GlyphString s1 = renderer.add(font1, str, 10, 0);
+        final GlyphString s2 = renderer.add(font0, str, 12, 0);
+        final GlyphString s3 = renderer.add(font0, str, 10, 400);
+        final GlyphString s4 = renderer.add(font0, str, 10, 800);
+        Assert.assertEquals(5, renderer.getCacheSize());
+
+        // equal content, but a distinct String instance
+        final String strCopy = new String(str);
+        Assert.assertSame(s0, renderer.get(font0, strCopy, 10, 0));
+        Assert.assertSame(s1, renderer.get(font1, strCopy, 10, 0));
+        Assert.assertSame(s2, renderer.get(font0, strCopy, 12, 0));
+        Assert.assertSame(s3, renderer.get(font0, strCopy, 10, 400));
+        Assert.assertSame(s4, renderer.get(font0, strCopy, 10, 800));
+        Assert.assertNull(renderer.get(font1, strCopy, 12, 400));
+        Assert.assertNull(renderer.get(font0, str+" ", 10, 0));
+
+        // re-adding an existing key replaces w/o growing the cache
+        final GlyphString s5 = renderer.add(font0, strCopy, 10, 0);
+        Assert.assertEquals(5, renderer.getCacheSize());
+        Assert.assertSame(s5, renderer.get(font0, str, 10, 0));
+    }
+
+    @Test
+    public void test03HitMissCounter() {
+        final CacheTextRenderer renderer = new CacheTextRenderer();
+        Assert.assertEquals(0, renderer.getCacheHitCount());
+        Assert.assertEquals(0, renderer.getCacheMissCount());
+
+        Assert.assertNull(renderer.get(font0, "a", 10, 0));
+        renderer.add(font0, "a", 10, 0);
+        renderer.get(font0, "a", 10, 0);
+        renderer.get(font0, "a", 10, 0);
+        renderer.get(font0, "a", 12, 0);
+        Assert.assertEquals(2, renderer.getCacheHitCount());
+        Assert.assertEquals(2, renderer.getCacheMissCount());
+        Assert.assertEquals(0, renderer.getCacheEvictionCount());
+
+        renderer.setCacheLimit(1);
+        renderer.add(font0, "b", 10, 0);
+        Assert.assertEquals(1, renderer.getCacheEvictionCount());
+
+        renderer.resetCacheStats();
+        Assert.assertEquals(0, renderer.getCacheHitCount());
+        Assert.assertEquals(0, renderer.getCacheMissCount());
+        Assert.assertEquals(0, renderer.getCacheEvictionCount());
+        Assert.assertEquals(1, renderer.getCacheSize());
+        Assert.assertEquals(0, renderer.getCacheSizeInBytes());
+    }
+
+    public static void main(String args[]) {
+        org.junit.runner.JUnitCore.main(TestTextRendererCacheNOUI.class.getName());
+    }
+}
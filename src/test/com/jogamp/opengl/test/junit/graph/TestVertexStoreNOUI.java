@@ -0,0 +1,186 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.graph;
+
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.ArrayList;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.graph.curve.OutlineShape;
+import com.jogamp.graph.geom.AABBox;
+import com.jogamp.graph.geom.Triangle;
+import com.jogamp.graph.geom.Vertex;
+import com.jogamp.graph.geom.VertexStore;
+import com.jogamp.graph.geom.opengl.SVertex;
+
+/**
+ * Validates the primitive array {@link VertexStore} triangulation output 
+ * against the object based {@link OutlineShape#triangulate()} result.
+ */
+public class TestVertexStoreNOUI {
+
+    /** A square w/ a square hole and an off-curve bump on top. */
+    static OutlineShape createShape() {
+        final OutlineShape shape = new OutlineShape(SVertex.factory());
+        shape.addVertex(0.0f, 0.0f, true);
+        shape.addVertex(10.0f, 0.0f, true);
+        shape.addVertex(10.0f, 10.0f, true);
+        shape.addVertex(5.0f, 14.0f, false);
+        shape.addVertex(0.0f, 10.0f, true);
+        shape.closeLastOutline();
+        shape.addEmptyOutline();
+        shape.addVertex(3.0f, 3.0f, true);
+        shape.addVertex(3.0f, 7.0f, true);
+        shape.addVertex(7.0f, 7.0f, true);
+        shape.addVertex(7.0f, 3.0f, true);
+        shape.closeLastOutline();
+        return shape;
+    }
+
+    @Test
+    public void test01MatchesObjectTriangulation() {
+        final ArrayList<Triangle> triangles = createShape().triangulate();
+        final VertexStore store = new VertexStore(4, 4);
+        createShape().triangulate(store);
+        System.err.println("objects "+triangles.size()+" triangles, "+store);
+
+        Assert.assertEquals(triangles.size(), store.getTriangleCount());
+        final AABBox box = new AABBox();
+        for(int i=0; i<triangles.size(); i++) {
+            final Vertex[] v = triangles.get(i).getVertices();
+            for(int j=0; j<3; j++) {
+                box.resize(v[j].getX(), v[j].getY(), v[j].getZ());
+            }
+        }
+        for(int i=0; i<3; i++) {
+            Assert.assertEquals(box.getLow()[i], store.getBounds().getLow()[i], 0.0f);
+            Assert.assertEquals(box.getHigh()[i], store.getBounds().getHigh()[i], 0.0f);
+        }
+
+        // object view carries the same coordinates
+        final ArrayList<Triangle> view = store.getTriangles(SVertex.factory());
+        Assert.assertEquals(store.getTriangleCount(), view.size());
+        final int[] indices = store.getIndices();
+        final float[] coords = store.getCoords();
+        for(int i=0; i<view.size(); i++) {
+            final Vertex[] v = view.get(i).getVertices();
+            for(int j=0; j<3; j++) {
+                final int idx = indices[3*i+j];
+                Assert.assertTrue(idx < store.getVertexCount());
+                Assert.assertEquals(coords[3*idx+0], v[j].getX(), 0.0f);
+                Assert.assertEquals(coords[3*idx+1], v[j].getY(), 0.0f);
+            }
+        }
+    }
+
+    @Test
+    public void test02AddInstance() {
+        final VertexStore src = new VertexStore();
+        createShape().triangulate(src);
+        final VertexStore dst = new VertexStore(0, 0);
+        dst.addInstance(src, 1.0f, 0.0f, 0.0f);
+        dst.addInstance(src, 2.0f, 100.0f, 50.0f);
+
+        Assert.assertEquals(2*src.getVertexCount(), dst.getVertexCount());
+        Assert.assertEquals(2*src.getTriangleCount(), dst.getTriangleCount());
+        final int n = src.getVertexCount();
+        final float[] s = src.getCoords();
+        final float[] d = dst.getCoords();
+        for(int i=0; i<n; i++) {
+            Assert.assertEquals(s[3*i+0], d[3*i+0], 0.0f);
+            Assert.assertEquals(2.0f*s[3*i+0]+100.0f, d[3*(n+i)+0], 0.0f);
+            Assert.assertEquals(2.0f*s[3*i+1]+50.0f, d[3*(n+i)+1], 0.0f);
+        }
+        final int[] si = src.getIndices();
+        final int[] di = dst.getIndices();
+        for(int i=0; i<3*src.getTriangleCount(); i++) {
+            Assert.assertEquals(si[i], di[i]);
+            Assert.assertEquals(si[i]+n, di[3*src.getTriangleCount()+i]);
+        }
+        Assert.assertEquals(100.0f + 2.0f*src.getBounds().getHigh()[0], dst.getBounds().getHigh()[0], 0.0f);
+
+        dst.clear();
+        Assert.assertEquals(0, dst.getVertexCount());
+        Assert.assertEquals(0, dst.getTriangleCount());
+    }
+
+    @Test
+    public void test03IndicesBeyond16Bit() {
+        final VertexStore quad = new VertexStore(4, 2);
+        quad.addVertex(0, 0, 0, 0, 0);
+        quad.addVertex(1, 0, 0, 1, 0);
+        quad.addVertex(1, 1, 0, 1, 1);
+        quad.addVertex(0, 1, 0, 0, 1);
+        quad.addTriangle(0, 1, 2);
+        quad.addTriangle(0, 2, 3);
+
+        final VertexStore store = new VertexStore();
+        final int quads = 0x10000 / 4 + 100; // 65936 vertices
+        for(int i=0; i<quads; i++) {
+            store.addInstance(quad, 1.0f, i, 0.0f);
+        }
+        Assert.assertTrue(store.getVertexCount() > 0x10000);
+
+        // 16 bit indices would wrap
+        try {
+            store.getShortIndices(0, null);
+            Assert.fail("16 bit indices w/ "+store.getVertexCount()+" vertices");
+        } catch (IllegalArgumentException iae) {
+            System.err.println("Expected: "+iae.getMessage());
+        }
+
+        final int offset = 3;
+        final IntBuffer ib = store.getIntIndices(offset, null);
+        Assert.assertEquals(3*store.getTriangleCount(), ib.remaining());
+        final int[] indices = store.getIndices();
+        int max = 0;
+        for(int i=0; i<ib.remaining(); i++) {
+            final int idx = ib.get(i);
+            Assert.assertEquals(indices[i] + offset, idx);
+            max = Math.max(max, idx);
+        }
+        Assert.assertEquals(store.getVertexCount() - 1 + offset, max);
+
+        // scratch is reused if large enough
+        final int[] scratch = new int[ib.remaining()];
+        Assert.assertSame(scratch, store.getIntIndices(0, scratch).array());
+
+        // 16 bit indices up to the limit
+        final VertexStore small = new VertexStore();
+        small.addInstance(quad, 1.0f, 0.0f, 0.0f);
+        final ShortBuffer sb = small.getShortIndices(VertexStore.MAX_SHORT_INDEX_VERTICES - small.getVertexCount(), null);
+        Assert.assertEquals(VertexStore.MAX_SHORT_INDEX_VERTICES - 1, sb.get(5) & 0xFFFF);
+    }
+
+    public static void main(String args[]) {
+        org.junit.runner.JUnitCore.main(TestVertexStoreNOUI.class.getName());
+    }
+}
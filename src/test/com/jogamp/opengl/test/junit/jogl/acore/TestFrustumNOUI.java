@@ -0,0 +1,303 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.media.opengl.fixedfunc.GLMatrixFunc;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.opengl.util.Frustum;
+import com.jogamp.opengl.util.PMVMatrix;
+
+/**
+ * Validates the {@link Frustum} planes as delivered by {@link PMVMatrix#glGetFrustum()},
+ * compares the batched culling with the single object tests
+ * and measures the batched culling single threaded and on disjoint ranges in parallel.
+ */
+public class TestFrustumNOUI {
+    static final float epsilon = 0.0001f;
+    static int boxCount = 500000;
+    static int perfLoops = 10;
+
+    static PMVMatrix createPMV(boolean useBackingArray) {
+        final PMVMatrix pmv = new PMVMatrix(useBackingArray);
+        pmv.glMatrixMode(GLMatrixFunc.GL_PROJECTION);
+        pmv.glLoadIdentity();
+        pmv.gluPerspective(60f, 1f, 1f, 100f);
+        pmv.glMatrixMode(GLMatrixFunc.GL_MODELVIEW);
+        pmv.glLoadIdentity();
+        return pmv;
+    }
+
+    @Test
+    public void test01OrthoPlanes() {
+        final PMVMatrix pmv = new PMVMatrix(true);
+        pmv.glMatrixMode(GLMatrixFunc.GL_PROJECTION);
+        pmv.glLoadIdentity();
+        pmv.glOrthof(-2f, 2f, -1f, 1f, 1f, 10f);
+        final Frustum.Plane[] p = pmv.glGetFrustum().getPlanes();
+        // normals point inside, eye looks down -z
+        Assert.assertArrayEquals(new float[] {  1f, 0f, 0f }, p[Frustum.LEFT].n, epsilon);
+        Assert.assertEquals(2f, p[Frustum.LEFT].d, epsilon);
+        Assert.assertArrayEquals(new float[] { -1f, 0f, 0f }, p[Frustum.RIGHT].n, epsilon);
+        Assert.assertEquals(2f, p[Frustum.RIGHT].d, epsilon);
+        Assert.assertArrayEquals(new float[] { 0f,  1f, 0f }, p[Frustum.BOTTOM].n, epsilon);
+        Assert.assertEquals(1f, p[Frustum.BOTTOM].d, epsilon);
+        Assert.assertArrayEquals(new float[] { 0f, -1f, 0f }, p[Frustum.TOP].n, epsilon);
+        Assert.assertEquals(1f, p[Frustum.TOP].d, epsilon);
+        Assert.assertArrayEquals(new float[] { 0f, 0f, -1f }, p[Frustum.NEAR].n, epsilon);
+        Assert.assertEquals(-1f, p[Frustum.NEAR].d, epsilon);
+        Assert.assertArrayEquals(new float[] { 0f, 0f,  1f }, p[Frustum.FAR].n, epsilon);
+        Assert.assertEquals(10f, p[Frustum.FAR].d, epsilon);
+    }
+
+    void testPerspective(boolean useBackingArray) {
+        final PMVMatrix pmv = createPMV(useBackingArray);
+        final Frustum f = pmv.glGetFrustum();
+        Assert.assertFalse(f.isPointOutside(0f, 0f, -2f));
+        Assert.assertFalse(f.isPointOutside(0f, 0f, -99f));
+        Assert.assertTrue(f.isPointOutside(0f, 0f, -0.5f));
+        Assert.assertTrue(f.isPointOutside(0f, 0f, -101f));
+        Assert.assertTrue(f.isPointOutside(0f, 0f, 2f));
+        // fovy 60: half height at distance 10 is 10*tan(30) ~ 5.77
+        Assert.assertFalse(f.isPointOutside(0f, 5.5f, -10f));
+        Assert.assertTrue(f.isPointOutside(0f, 6f, -10f));
+        Assert.assertTrue(f.isPointOutside(-6f, 0f, -10f));
+        Assert.assertFalse(f.isSphereOutside(0f, 6f, -10f, 1f));
+        Assert.assertFalse(f.isAABBoxOutside(5.5f, 5.5f, -11f, 7f, 7f, -9f));
+        Assert.assertTrue(f.isAABBoxOutside(7f, -1f, -10.5f, 8f, 1f, -9.5f));
+    }
+
+    @Test
+    public void test02PerspectivePlanesBackingArray() {
+        testPerspective(true);
+    }
+
+    @Test
+    public void test03PerspectivePlanesDirect() {
+        testPerspective(false);
+    }
+
+    @Test
+    public void test04LazyUpdate() {
+        final PMVMatrix pmv = createPMV(true);
+        final Frustum f = pmv.glGetFrustum();
+        Assert.assertEquals(0, pmv.getDirtyBits() & PMVMatrix.DIRTY_FRUSTUM);
+        Assert.assertFalse(f.isPointOutside(0f, 0f, -10f));
+
+        // Mv change: the point moves behind the eye
+        pmv.glTranslatef(0f, 0f, 20f);
+        Assert.assertTrue(0 != ( pmv.getDirtyBits() & PMVMatrix.DIRTY_FRUSTUM ));
+        Assert.assertSame(f, pmv.glGetFrustum());
+        Assert.assertTrue(f.isPointOutside(0f, 0f, -10f));
+        Assert.assertFalse(f.isPointOutside(0f, 0f, -50f));
+
+        // P change: far plane pulled in
+        pmv.glMatrixMode(GLMatrixFunc.GL_PROJECTION);
+        pmv.glLoadIdentity();
+        pmv.gluPerspective(60f, 1f, 1f, 25f);
+        Assert.assertTrue(0 != ( pmv.getDirtyBits() & PMVMatrix.DIRTY_FRUSTUM ));
+        pmv.update();
+        Assert.assertEquals(0, pmv.getDirtyBits() & PMVMatrix.DIRTY_FRUSTUM);
+        Assert.assertTrue(f.isPointOutside(0f, 0f, -50f));
+        Assert.assertFalse(f.isPointOutside(0f, 0f, -30f));
+
+        // disabling Mvi/Mvit keeps the frustum requested
+        pmv.disableMviMvitUpdate();
+        pmv.glMatrixMode(GLMatrixFunc.GL_MODELVIEW);
+        pmv.glLoadIdentity();
+        pmv.update();
+        Assert.assertTrue(f.isPointOutside(0f, 0f, -30f));
+        Assert.assertFalse(f.isPointOutside(0f, 0f, -10f));
+    }
+
+    static class Boxes {
+        final int n;
+        final float[] lx, ly, lz, hx, hy, hz;
+        final float[] cx, cy, cz, r;
+
+        Boxes(int n, long seed) {
+            this.n = n;
+            lx = new float[n]; ly = new float[n]; lz = new float[n];
+            hx = new float[n]; hy = new float[n]; hz = new float[n];
+            cx = new float[n]; cy = new float[n]; cz = new float[n]; r = new float[n];
+            final Random rnd = new Random(seed);
+            for(int i=0; i<n; i++) {
+                final float x = rnd.nextFloat() * 200f - 100f;
+                final float y = rnd.nextFloat() * 200f - 100f;
+                final float z = rnd.nextFloat() * 200f - 150f;
+                final float e = rnd.nextFloat() * 2f;
+                lx[i] = x - e; ly[i] = y - e; lz[i] = z - e;
+                hx[i] = x + e; hy[i] = y + e; hz[i] = z + e;
+                cx[i] = x; cy[i] = y; cz[i] = z; r[i] = e;
+            }
+        }
+    }
+
+    static boolean isSet(long[] bits, int i) {
+        return 0 != ( bits[i >>> 6] & ( 1L << i ) );
+    }
+
+    @Test
+    public void test05BatchedEqualsSingle() {
+        final PMVMatrix pmv = createPMV(true);
+        pmv.glRotatef(20f, 0f, 1f, 0f);
+        final Frustum f = pmv.glGetFrustum();
+        final Boxes b = new Boxes(1000, 1);
+        final long[] vb = new long[(b.n + 63) >>> 6];
+        final long[] vs = new long[(b.n + 63) >>> 6];
+        final int nb = f.cullAABBoxes(b.lx, b.ly, b.lz, b.hx, b.hy, b.hz, 0, b.n, vb);
+        final int ns = f.cullSpheres(b.cx, b.cy, b.cz, b.r, 0, b.n, vs);
+        int eb = 0, es = 0;
+        for(int i=0; i<b.n; i++) {
+            final boolean visB = !f.isAABBoxOutside(b.lx[i], b.ly[i], b.lz[i], b.hx[i], b.hy[i], b.hz[i]);
+            final boolean visS = !f.isSphereOutside(b.cx[i], b.cy[i], b.cz[i], b.r[i]);
+            Assert.assertEquals("box "+i, visB, isSet(vb, i));
+            Assert.assertEquals("sphere "+i, visS, isSet(vs, i));
+            if( visB ) { eb++; }
+            if( visS ) { es++; }
+        }
+        Assert.assertEquals(eb, nb);
+        Assert.assertEquals(es, ns);
+        Assert.assertTrue(0 < nb && nb < b.n);
+
+        // unaligned sub range leaves the other bits untouched
+        final long[] vr = new long[vb.length];
+        java.util.Arrays.fill(vr, 0x5555555555555555L);
+        final int from = 37, to = 555;
+        final int nr = f.cullAABBoxes(b.lx, b.ly, b.lz, b.hx, b.hy, b.hz, from, to, vr);
+        int er = 0;
+        for(int i=0; i<vr.length*64; i++) {
+            if( from <= i && i < to ) {
+                Assert.assertEquals("box "+i, isSet(vb, i), isSet(vr, i));
+                if( isSet(vb, i) ) { er++; }
+            } else {
+                Assert.assertEquals("bit "+i, 0 == ( i & 1 ), isSet(vr, i));
+            }
+        }
+        Assert.assertEquals(er, nr);
+        Assert.assertEquals(0, f.cullAABBoxes(b.lx, b.ly, b.lz, b.hx, b.hy, b.hz, 10, 10, vr));
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void test06BitsetTooSmall() {
+        final Frustum f = createPMV(true).glGetFrustum();
+        final Boxes b = new Boxes(100, 2);
+        f.cullAABBoxes(b.lx, b.ly, b.lz, b.hx, b.hy, b.hz, 0, 100, new long[1]);
+    }
+
+    static volatile int sink;
+
+    @Test
+    public void test10Perf() throws Exception {
+        final PMVMatrix pmv = createPMV(true);
+        final Frustum f = pmv.glGetFrustum();
+        final Boxes b = new Boxes(boxCount, 3);
+        final long[] visible = new long[(b.n + 63) >>> 6];
+        final int threads = Runtime.getRuntime().availableProcessors();
+        final ExecutorService exec = Executors.newFixedThreadPool(threads);
+        try {
+            // disjoint ranges starting at multiples of 64
+            final int chunk = ( ( b.n / threads + 63 ) >>> 6 ) << 6;
+            final List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>();
+            for(int from=0; from<b.n; from+=chunk) {
+                final int s = from, e = Math.min(b.n, from + chunk);
+                tasks.add(new Callable<Integer>() {
+                    public Integer call() {
+                        return Integer.valueOf(f.cullAABBoxes(b.lx, b.ly, b.lz, b.hx, b.hy, b.hz, s, e, visible));
+                    }
+                });
+            }
+            for(int loop=0; loop<2; loop++) {
+                long t0 = System.nanoTime();
+                int single = 0;
+                for(int l=0; l<perfLoops; l++) {
+                    single = 0;
+                    for(int i=0; i<b.n; i++) {
+                        if( !f.isAABBoxOutside(b.lx[i], b.ly[i], b.lz[i], b.hx[i], b.hy[i], b.hz[i]) ) {
+                            single++;
+                        }
+                    }
+                }
+                final long tSingle = System.nanoTime() - t0;
+
+                t0 = System.nanoTime();
+                int batched = 0;
+                for(int l=0; l<perfLoops; l++) {
+                    batched = f.cullAABBoxes(b.lx, b.ly, b.lz, b.hx, b.hy, b.hz, 0, b.n, visible);
+                }
+                final long tBatched = System.nanoTime() - t0;
+
+                t0 = System.nanoTime();
+                int parallel = 0;
+                for(int l=0; l<perfLoops; l++) {
+                    parallel = 0;
+                    for(Future<Integer> r : exec.invokeAll(tasks)) {
+                        parallel += r.get().intValue();
+                    }
+                }
+                final long tParallel = System.nanoTime() - t0;
+                Assert.assertEquals(single, batched);
+                Assert.assertEquals(single, parallel);
+                sink += parallel;
+
+                if( loop > 0 ) {
+                    final double n = (double)b.n * perfLoops;
+                    System.err.printf("%d boxes, %d visible%n", b.n, single);
+                    System.err.printf("single isAABBoxOutside:     %6.2f ns/box%n", tSingle/n);
+                    System.err.printf("batched cullAABBoxes:       %6.2f ns/box%n", tBatched/n);
+                    System.err.printf("batched, %2d threads:        %6.2f ns/box%n", threads, tParallel/n);
+                }
+            }
+        } finally {
+            exec.shutdown();
+        }
+    }
+
+    public static void main(String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-boxes")) {
+                i++;
+                boxCount = Integer.parseInt(args[i]);
+            } else if(args[i].equals("-loops")) {
+                i++;
+                perfLoops = Integer.parseInt(args[i]);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestFrustumNOUI.class.getName());
+    }
+}
@@ -0,0 +1,192 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import javax.media.opengl.GLContext;
+
+import jogamp.opengl.GLProbeCache;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests persistence and validation of {@link GLProbeCache} entries w/o any GL context.
+ */
+public class TestGLProbeCacheNOUI {
+    static final String platform = "TestOS 1.0 amd64";
+    static final String device = "X11_:0.0_0";
+    static final String renderer = "Some Renderer/PCIe/SSE2";
+    static final String vendor = "Vendor, Inc.";
+    static final String version = "4.3.0 Driver 319.32";
+    static final int COMPAT = 1 << 1; // GLContext.CTX_PROFILE_COMPAT
+    static final int CORE = 1 << 2; // GLContext.CTX_PROFILE_CORE
+    static final int FBO = 1 << 9; // GLContext.CTX_IMPL_FBO
+    static final int SOFT = 1 << 15; // GLContext.CTX_IMPL_ACCEL_SOFT
+
+    File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("TestGLProbeCacheNOUI", ".properties");
+        file.delete();
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    static GLProbeCache.Entry createEntry(String version) {
+        final GLProbeCache.Entry e = new GLProbeCache.Entry(2, COMPAT, vendor, renderer, version);
+        e.addMapping(4, COMPAT, 0x04030000 | COMPAT | FBO );
+        e.addMapping(3, COMPAT, 0x04030000 | COMPAT | FBO );
+        e.addMapping(2, COMPAT, 0x04030000 | COMPAT | FBO );
+        e.addMapping(4, CORE,   0x04030000 | CORE   | FBO );
+        e.addMapping(3, CORE,   0x03020000 | CORE   | FBO | SOFT );
+        return e;
+    }
+
+    static void assertEquals(GLProbeCache.Entry exp, GLProbeCache.Entry has) {
+        Assert.assertNotNull(has);
+        Assert.assertEquals(exp.getVendor(), has.getVendor());
+        Assert.assertEquals(exp.getRenderer(), has.getRenderer());
+        Assert.assertEquals(exp.getVersion(2, COMPAT), has.getVersion(2, COMPAT));
+        Assert.assertEquals(exp.getVersion(3, CORE), has.getVersion(3, CORE));
+        Assert.assertEquals(exp.getMappingCount(), has.getMappingCount());
+        for(int i=0; i<exp.getMappingCount(); i++) {
+            Assert.assertArrayEquals(exp.getMapping(i), has.getMapping(i));
+        }
+    }
+
+    @Test
+    public void test01PersistAndValidate() {
+        final GLProbeCache.Entry e = createEntry(version);
+        Assert.assertNull(new GLProbeCache(file, platform, "2.0.2", GLContext.PROFILE_ALIASING).get(device));
+        Assert.assertTrue(new GLProbeCache(file, platform, "2.0.2", GLContext.PROFILE_ALIASING).put(device, e));
+        Assert.assertTrue(file.exists());
+
+        final GLProbeCache cache = new GLProbeCache(file, platform, "2.0.2", GLContext.PROFILE_ALIASING);
+        final GLProbeCache.Entry e2 = cache.get(device);
+        assertEquals(e, e2);
+        Assert.assertNull(cache.get("X11_:1.0_0"));
+
+        Assert.assertTrue(e2.matches(2, COMPAT, vendor, renderer, version));
+        Assert.assertFalse(e2.matches(2, COMPAT, vendor, renderer, "4.3.0 Driver 325.15")); // driver update
+        Assert.assertFalse(e2.matches(2, COMPAT, vendor, "Other Renderer", version));
+        Assert.assertFalse(e2.matches(2, COMPAT, null, renderer, version));
+
+        // other request, version not validated yet
+        Assert.assertNull(e2.getVersion(3, CORE));
+        Assert.assertTrue(e2.matches(3, CORE, vendor, renderer, "4.3.0 Core Driver 319.32"));
+        Assert.assertFalse(e2.matches(3, CORE, vendor, "Other Renderer", "4.3.0 Core Driver 319.32"));
+        e2.addVersion(3, CORE, "4.3.0 Core Driver 319.32");
+        Assert.assertTrue(cache.put(device, e2));
+
+        final GLProbeCache.Entry e3 = new GLProbeCache(file, platform, "2.0.2", GLContext.PROFILE_ALIASING).get(device);
+        assertEquals(e2, e3);
+        Assert.assertTrue(e3.matches(2, COMPAT, vendor, renderer, version));
+        Assert.assertTrue(e3.matches(3, CORE, vendor, renderer, "4.3.0 Core Driver 319.32"));
+        Assert.assertFalse(e3.matches(3, CORE, vendor, renderer, "4.3.0 Core Driver 325.15")); // driver update
+    }
+
+    @Test
+    public void test02StaleFile() {
+        Assert.assertTrue(new GLProbeCache(file, platform, "2.0.2", true).put(device, createEntry(version)));
+        Assert.assertNull(new GLProbeCache(file, platform, "2.0.3", true).get(device));
+        Assert.assertNull(new GLProbeCache(file, "TestOS 1.1 amd64", "2.0.2", true).get(device));
+        Assert.assertNull(new GLProbeCache(file, platform, "2.0.2", false).get(device));
+        Assert.assertNotNull(new GLProbeCache(file, platform, "2.0.2", true).get(device));
+
+        // a stale file is replaced by the next put
+        final GLProbeCache.Entry e = createEntry("4.3.0 Driver 325.15");
+        Assert.assertTrue(new GLProbeCache(file, platform, "2.0.3", true).put("X11_:1.0_0", e));
+        assertEquals(e, new GLProbeCache(file, platform, "2.0.3", true).get("X11_:1.0_0"));
+        Assert.assertNull(new GLProbeCache(file, platform, "2.0.3", true).get(device));
+    }
+
+    @Test
+    public void test03MultipleDevicesAndRemove() {
+        final GLProbeCache cache = new GLProbeCache(file, platform, null, true);
+        final GLProbeCache.Entry e0 = createEntry(version);
+        final GLProbeCache.Entry e1 = new GLProbeCache.Entry(3, CORE, "X.Org\u00ae", "Gallium 0.4 on AMD = \"RV710\": a#b", "3.3 (Core Profile) Mesa 9.2.0");
+        e1.addMapping(3, CORE, 0x03030000 | CORE | FBO);
+        Assert.assertTrue(cache.put(device, e0));
+        Assert.assertTrue(cache.put("X11_:1.0_0", e1));
+
+        assertEquals(e0, new GLProbeCache(file, platform, null, true).get(device));
+        assertEquals(e1, new GLProbeCache(file, platform, null, true).get("X11_:1.0_0"));
+
+        cache.remove(device);
+        Assert.assertNull(new GLProbeCache(file, platform, null, true).get(device));
+        assertEquals(e1, new GLProbeCache(file, platform, null, true).get("X11_:1.0_0"));
+    }
+
+    @Test
+    public void test04CorruptFile() throws IOException {
+        final FileOutputStream out = new FileOutputStream(file);
+        try {
+            // keys w/ escaped ':'
+            out.write(("format=2\nplatform="+platform+"\njogl=null\naliasing=true\n"+
+                       "X11_\\:0.0_0.version.x\\:2=2.1\nX11_\\:0.0_0.mapping=4:2:4030202\n"+
+                       "X11_\\:1.0_0.version.2\\:2=2.1\nX11_\\:1.0_0.mapping=4:1:zz,3\n"+
+                       "X11_\\:2.0_0.mapping=4:2:4030202\n").getBytes("ISO-8859-1"));
+        } finally {
+            out.close();
+        }
+        final GLProbeCache cache = new GLProbeCache(file, platform, null, true);
+        Assert.assertNull(cache.get(device));
+        Assert.assertNull(cache.get("X11_:1.0_0"));
+        Assert.assertNull(cache.get("X11_:2.0_0")); // no version
+        final GLProbeCache.Entry e = createEntry(version);
+        Assert.assertTrue(cache.put(device, e));
+        assertEquals(e, new GLProbeCache(file, platform, null, true).get(device));
+    }
+
+    @Test
+    public void test05UnwritableLocation() throws IOException {
+        final File dir = File.createTempFile("TestGLProbeCacheNOUI", ".dir");
+        try {
+            // parent is a regular file
+            final GLProbeCache cache = new GLProbeCache(new File(dir, "glprobe.properties"), platform, null, true);
+            Assert.assertFalse(cache.put(device, createEntry(version)));
+            Assert.assertNotNull(cache.get(device)); // still valid for this process
+        } finally {
+            dir.delete();
+        }
+    }
+
+    public static void main(String args[]) {
+        org.junit.runner.JUnitCore.main(TestGLProbeCacheNOUI.class.getName());
+    }
+}
@@ -0,0 +1,355 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GL2ES2;
+import javax.media.opengl.GLArrayData;
+import javax.media.opengl.StateFilterGL2ES2;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.opengl.util.GLStateFilter;
+
+/**
+ * Replays random call logs directly and through the generated {@link StateFilterGL2ES2} pipeline
+ * against a recording stand-in GL, which models the tracked state and snapshots it at each draw call.
+ * Both replays must result in the same snapshots, while the filtered one issues fewer calls.
+ */
+public class TestGLStateFilterNOUI {
+    static int logLength = 2000;
+
+    /** Recording stand-in GL, modeling the state affected by {@link GLStateFilter}. */
+    static class RecordingGL implements InvocationHandler {
+        int program = 0;
+        int activeUnit = 0;
+        final Map<Integer, Integer> buffers = new HashMap<Integer, Integer>();
+        final Map<String, Integer> textures = new HashMap<String, Integer>();
+        final TreeSet<Integer> caps = new TreeSet<Integer>();
+        final TreeSet<Integer> attribArrays = new TreeSet<Integer>();
+        final Map<Integer, long[]> attribPointers = new HashMap<Integer, long[]>();
+        final Map<Integer, Integer> pixelStore = new HashMap<Integer, Integer>();
+
+        final List<String> snapshots = new ArrayList<String>();
+        int stateCalls = 0;
+        int queries = 0;
+
+        final GL2ES2 gl = (GL2ES2) Proxy.newProxyInstance(RecordingGL.class.getClassLoader(), new Class<?>[] { GL2ES2.class }, this);
+
+        int buffer(int target) {
+            final Integer b = buffers.get(target);
+            return null != b ? b.intValue() : 0;
+        }
+
+        public Object invoke(Object proxy, Method m, Object[] args) {
+            final String name = m.getName();
+            if( name.equals("glGetError") ) {
+                return Integer.valueOf(GL.GL_NO_ERROR);
+            } else if( name.equals("glGetIntegerv") ) {
+                queries++;
+                final int pname = ((Integer)args[0]).intValue();
+                final int[] v = (int[]) args[1];
+                final int off = ((Integer)args[2]).intValue();
+                if( GL.GL_ARRAY_BUFFER_BINDING == pname ) {
+                    v[off] = buffer(GL.GL_ARRAY_BUFFER);
+                } else if( GL.GL_ELEMENT_ARRAY_BUFFER_BINDING == pname ) {
+                    v[off] = buffer(GL.GL_ELEMENT_ARRAY_BUFFER);
+                } else {
+                    v[off] = 0;
+                }
+                return null;
+            } else if( name.equals("glDrawArrays") ) {
+                snapshots.add(snapshot());
+                return null;
+            } else if( name.equals("getContext") ) {
+                return null;
+            } else if( !name.startsWith("gl") ) {
+                throw new UnsupportedOperationException(name);
+            } else if( args[0] instanceof GLArrayData ) {
+                // decomposed like the GL implementation does
+                final GLArrayData array = (GLArrayData) args[0];
+                gl.glVertexAttribPointer(array.getLocation(), array.getComponentCount(), array.getComponentType(),
+                                         array.getNormalized(), array.getStride(), array.getVBOOffset());
+                return null;
+            }
+            stateCalls++;
+            final int a0 = args[0] instanceof Integer ? ((Integer)args[0]).intValue() : 0;
+            if( name.equals("glUseProgram") ) {
+                program = a0;
+            } else if( name.equals("glBindBuffer") ) {
+                buffers.put(a0, (Integer)args[1]);
+            } else if( name.equals("glDeleteBuffers") ) {
+                final int[] ids = (int[]) args[1];
+                for(int i=0; i<a0; i++) {
+                    final int id = ids[((Integer)args[2]).intValue()+i];
+                    for(Map.Entry<Integer, Integer> e : buffers.entrySet()) {
+                        if( e.getValue().intValue() == id ) {
+                            e.setValue(Integer.valueOf(0));
+                        }
+                    }
+                    for(long[] p : attribPointers.values()) {
+                        if( p[0] == id ) {
+                            p[0] = 0;
+                        }
+                    }
+                }
+            } else if( name.equals("glActiveTexture") ) {
+                activeUnit = a0 - GL.GL_TEXTURE0;
+            } else if( name.equals("glBindTexture") ) {
+                textures.put(activeUnit+":"+a0, (Integer)args[1]);
+            } else if( name.equals("glDeleteTextures") ) {
+                final int[] ids = (int[]) args[1];
+                for(int i=0; i<a0; i++) {
+                    final int id = ids[((Integer)args[2]).intValue()+i];
+                    for(Map.Entry<String, Integer> e : textures.entrySet()) {
+                        if( e.getValue().intValue() == id ) {
+                            e.setValue(Integer.valueOf(0));
+                        }
+                    }
+                }
+            } else if( name.equals("glEnable") ) {
+                caps.add(a0);
+            } else if( name.equals("glDisable") ) {
+                caps.remove(a0);
+            } else if( name.equals("glEnableVertexAttribArray") ) {
+                attribArrays.add(a0);
+            } else if( name.equals("glDisableVertexAttribArray") ) {
+                attribArrays.remove(a0);
+            } else if( name.equals("glVertexAttribPointer") && 6 == args.length && args[5] instanceof Long ) {
+                attribPointers.put(a0, new long[] { buffer(GL.GL_ARRAY_BUFFER), ((Integer)args[1]).intValue(), ((Integer)args[2]).intValue(),
+                                                    ((Boolean)args[3]).booleanValue() ? 1 : 0, ((Integer)args[4]).intValue(), ((Long)args[5]).longValue() });
+            } else if( name.equals("glPixelStorei") ) {
+                pixelStore.put(a0, (Integer)args[1]);
+            } else {
+                throw new UnsupportedOperationException(m.toString());
+            }
+            return null;
+        }
+
+        String snapshot() {
+            final StringBuilder sb = new StringBuilder();
+            sb.append("prog ").append(program).append(", unit ").append(activeUnit);
+            sb.append(", buffers ").append(nonZero(buffers));
+            sb.append(", textures ").append(nonZero(textures));
+            sb.append(", caps ").append(caps);
+            sb.append(", arrays ").append(attribArrays);
+            sb.append(", pointers");
+            for(Map.Entry<Integer, long[]> e : new TreeMap<Integer, long[]>(attribPointers).entrySet()) {
+                sb.append(" ").append(e.getKey()).append(java.util.Arrays.toString(e.getValue()));
+            }
+            sb.append(", pixel ").append(new TreeMap<Integer, Integer>(pixelStore));
+            return sb.toString();
+        }
+
+        static <K> String nonZero(Map<K, Integer> map) {
+            final TreeMap<String, Integer> r = new TreeMap<String, Integer>();
+            for(Map.Entry<K, Integer> e : map.entrySet()) {
+                if( 0 != e.getValue().intValue() ) {
+                    r.put(String.valueOf(e.getKey()), e.getValue());
+                }
+            }
+            return r.toString();
+        }
+    }
+
+    static GLArrayData createVBOArray(final int location, final int comps, final long offset) {
+        return (GLArrayData) Proxy.newProxyInstance(TestGLStateFilterNOUI.class.getClassLoader(), new Class<?>[] { GLArrayData.class }, new InvocationHandler() {
+            public Object invoke(Object proxy, Method m, Object[] args) {
+                final String name = m.getName();
+                if( name.equals("getLocation") ) { return Integer.valueOf(location); }
+                if( name.equals("isVBO") ) { return Boolean.TRUE; }
+                if( name.equals("getVBOOffset") ) { return Long.valueOf(offset); }
+                if( name.equals("getComponentCount") ) { return Integer.valueOf(comps); }
+                if( name.equals("getComponentType") ) { return Integer.valueOf(GL.GL_FLOAT); }
+                if( name.equals("getNormalized") ) { return Boolean.FALSE; }
+                if( name.equals("getStride") ) { return Integer.valueOf(0); }
+                throw new UnsupportedOperationException(name);
+            }
+        });
+    }
+
+    static final int[] caps = { GL.GL_BLEND, GL.GL_DEPTH_TEST, GL.GL_CULL_FACE, GL.GL_SCISSOR_TEST };
+    static final int[] texTargets = { GL.GL_TEXTURE_2D, GL.GL_TEXTURE_CUBE_MAP };
+    static final int[] bufTargets = { GL.GL_ARRAY_BUFFER, GL.GL_ELEMENT_ARRAY_BUFFER };
+
+    /** Random call log with small value domains, i.e. many redundant calls */
+    static List<int[]> createLog(long seed, int length) {
+        final Random rnd = new Random(seed);
+        final List<int[]> log = new ArrayList<int[]>(length);
+        for(int i=0; i<length; i++) {
+            log.add(new int[] { rnd.nextInt(14), rnd.nextInt(4), rnd.nextInt(4), rnd.nextInt(2) });
+        }
+        return log;
+    }
+
+    static void replay(List<int[]> log, GL2ES2 gl) {
+        for(int[] op : log) {
+            final int a = op[1], b = op[2], c = op[3];
+            switch(op[0]) {
+                case 0: gl.glUseProgram(a % 3); break;
+                case 1: gl.glBindBuffer(bufTargets[c], b); break;
+                case 2: gl.glActiveTexture(GL.GL_TEXTURE0 + a % 3); break;
+                case 3: gl.glBindTexture(texTargets[c], b); break;
+                case 4: gl.glEnable(caps[a]); break;
+                case 5: gl.glDisable(caps[a]); break;
+                case 6: gl.glEnableVertexAttribArray(a % 3); break;
+                case 7: gl.glDisableVertexAttribArray(a % 3); break;
+                case 8: gl.glVertexAttribPointer(a % 3, 2 + c, GL.GL_FLOAT, false, 0, 16 * ( b % 2 )); break;
+                case 9: gl.glVertexAttribPointer(createVBOArray(a % 3, 2 + c, 16 * ( b % 2 ))); break;
+                case 10: gl.glPixelStorei(GL.GL_UNPACK_ALIGNMENT, 0 == c ? 1 : 4); break;
+                case 11:
+                    if( 0 == a ) {
+                        gl.glDeleteBuffers(1, new int[] { 1 + b % 3 }, 0);
+                    } else if( 1 == a ) {
+                        gl.glDeleteTextures(1, new int[] { 1 + b % 3 }, 0);
+                    } else {
+                        gl.glDrawArrays(GL.GL_TRIANGLES, 0, 3);
+                    }
+                    break;
+                default: gl.glDrawArrays(GL.GL_TRIANGLES, 0, 3); break;
+            }
+        }
+    }
+
+    @Test
+    public void test01ReplayEquivalence() {
+        long direct = 0, filtered = 0;
+        for(int seed=1; seed<=20; seed++) {
+            final List<int[]> log = createLog(seed, logLength);
+            final RecordingGL a = new RecordingGL();
+            replay(log, a.gl);
+
+            final RecordingGL b = new RecordingGL();
+            final StateFilterGL2ES2 pipeline = new StateFilterGL2ES2(b.gl);
+            replay(log, pipeline);
+
+            Assert.assertEquals(a.snapshots.size(), b.snapshots.size());
+            for(int i=0; i<a.snapshots.size(); i++) {
+                Assert.assertEquals("seed "+seed+", draw "+i, a.snapshots.get(i), b.snapshots.get(i));
+            }
+            final GLStateFilter filter = pipeline.getStateFilter();
+            Assert.assertEquals(a.stateCalls - b.stateCalls, filter.getElidedCount());
+            Assert.assertTrue(b.stateCalls < a.stateCalls);
+            direct += a.stateCalls;
+            filtered += b.stateCalls;
+            if( 1 == seed ) {
+                System.err.println(filter);
+            }
+        }
+        System.err.println("state calls direct "+direct+", filtered "+filtered);
+    }
+
+    @Test
+    public void test02UnknownUntilSet() {
+        final RecordingGL b = new RecordingGL();
+        b.gl.glUseProgram(5);
+        b.gl.glEnable(GL.GL_BLEND);
+        final StateFilterGL2ES2 pipeline = new StateFilterGL2ES2(b.gl);
+        final GLStateFilter filter = pipeline.getStateFilter();
+        // state set before installing the pipeline is not trusted
+        pipeline.glUseProgram(5);
+        pipeline.glEnable(GL.GL_BLEND);
+        Assert.assertEquals(0, filter.getElidedCount());
+        pipeline.glUseProgram(5);
+        pipeline.glEnable(GL.GL_BLEND);
+        Assert.assertEquals(1, filter.getElidedCount(GLStateFilter.PROGRAM));
+        Assert.assertEquals(1, filter.getElidedCount(GLStateFilter.CAPABILITY));
+        Assert.assertEquals(4, b.stateCalls);
+    }
+
+    @Test
+    public void test03Invalidate() {
+        final RecordingGL b = new RecordingGL();
+        final StateFilterGL2ES2 pipeline = new StateFilterGL2ES2(b.gl);
+        final GLStateFilter filter = pipeline.getStateFilter();
+        pipeline.glActiveTexture(GL.GL_TEXTURE0);
+        pipeline.glBindTexture(GL.GL_TEXTURE_2D, 3);
+        pipeline.glBindBuffer(GL.GL_ARRAY_BUFFER, 2);
+
+        // modified behind the pipeline's back
+        b.gl.glBindTexture(GL.GL_TEXTURE_2D, 0);
+        b.gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+        filter.invalidate();
+
+        pipeline.glActiveTexture(GL.GL_TEXTURE0);
+        pipeline.glBindTexture(GL.GL_TEXTURE_2D, 3);
+        pipeline.glBindBuffer(GL.GL_ARRAY_BUFFER, 2);
+        Assert.assertEquals(0, filter.getElidedCount());
+        Assert.assertEquals(Integer.valueOf(3), b.textures.get("0:"+GL.GL_TEXTURE_2D));
+        Assert.assertEquals(2, b.buffer(GL.GL_ARRAY_BUFFER));
+        // unknown bindings are not queried
+        Assert.assertEquals(0, b.queries);
+
+        pipeline.glBindTexture(GL.GL_TEXTURE_2D, 3);
+        pipeline.glBindBuffer(GL.GL_ARRAY_BUFFER, 2);
+        Assert.assertEquals(2, filter.getElidedCount());
+    }
+
+    @Test
+    public void test04Disabled() {
+        final RecordingGL b = new RecordingGL();
+        final StateFilterGL2ES2 pipeline = new StateFilterGL2ES2(b.gl);
+        final GLStateFilter filter = pipeline.getStateFilter();
+        filter.setEnabled(false);
+        for(int i=0; i<3; i++) {
+            pipeline.glUseProgram(1);
+            pipeline.glEnable(GL.GL_DEPTH_TEST);
+            pipeline.glBindBuffer(GL.GL_ARRAY_BUFFER, 1);
+        }
+        Assert.assertEquals(9, b.stateCalls);
+        Assert.assertEquals(0, filter.getElidedCount());
+
+        filter.setEnabled(true);
+        pipeline.glUseProgram(1);
+        pipeline.glUseProgram(1);
+        pipeline.glBindBuffer(GL.GL_ARRAY_BUFFER, 1);
+        Assert.assertEquals(2, filter.getElidedCount());
+    }
+
+    public static void main(String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-length")) {
+                i++;
+                logLength = Integer.parseInt(args[i]);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestGLStateFilterNOUI.class.getName());
+    }
+}
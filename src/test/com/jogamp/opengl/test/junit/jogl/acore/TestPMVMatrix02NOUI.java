@@ -0,0 +1,285 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore;
+
+import java.nio.FloatBuffer;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GLException;
+import javax.media.opengl.fixedfunc.GLMatrixFunc;
+
+import jogamp.opengl.ProjectFloat;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.opengl.FloatUtil;
+import com.jogamp.opengl.util.PMVMatrix;
+
+/**
+ * Validates the preallocated matrix stacks and the kind dependent inverse of {@link PMVMatrix},
+ * and measures push/pop, multiplication and inversion.
+ */
+public class TestPMVMatrix02NOUI {
+    static final float epsilon = 0.0001f;
+    static int perfLoops = 200000;
+
+    static float[] get(FloatBuffer m) {
+        final float[] r = new float[16];
+        m.get(r);
+        m.reset();
+        return r;
+    }
+
+    /** Asserts Mv * Mvi == I and Mvit == transpose(Mvi) */
+    static void assertInverse(PMVMatrix pmv) {
+        final float[] mv = get(pmv.glGetMvMatrixf());
+        final float[] mvi = get(pmv.glGetMviMatrixf());
+        final float[] mvit = get(pmv.glGetMvitMatrixf());
+        final float[] r = new float[16];
+        FloatUtil.multMatrixf(mv, 0, mvi, 0, r, 0);
+        final float[] ident = new float[16];
+        FloatUtil.makeIdentityf(ident, 0);
+        Assert.assertArrayEquals(ident, r, epsilon);
+        for(int i=0; i<4; i++) {
+            for(int j=0; j<4; j++) {
+                Assert.assertEquals(mvi[i+j*4], mvit[j+i*4], 0f);
+            }
+        }
+    }
+
+    void testKindAndInverse(boolean useBackingArray) {
+        final PMVMatrix pmv = new PMVMatrix(useBackingArray);
+        pmv.glGetMvitMatrixf(); // request Mvi and Mvit
+        pmv.glMatrixMode(GLMatrixFunc.GL_MODELVIEW);
+        pmv.glLoadIdentity();
+        Assert.assertEquals(PMVMatrix.MATRIX_KIND_IDENTITY, pmv.getMvMatrixKind());
+        pmv.update();
+        assertInverse(pmv);
+
+        pmv.glTranslatef(1f, -2f, 3f);
+        pmv.glRotatef(33f, 1f, 2f, 3f);
+        pmv.glTranslatef(-4f, 0.5f, 10f);
+        Assert.assertEquals(PMVMatrix.MATRIX_KIND_RIGID, pmv.getMvMatrixKind());
+        pmv.update();
+        assertInverse(pmv);
+
+        pmv.glPushMatrix();
+        pmv.glScalef(2f, 0.5f, 3f);
+        pmv.glRotatef(-70f, 0f, 1f, 0f);
+        Assert.assertEquals(PMVMatrix.MATRIX_KIND_AFFINE, pmv.getMvMatrixKind());
+        pmv.update();
+        assertInverse(pmv);
+
+        pmv.glPushMatrix();
+        pmv.glFrustumf(-1f, 1f, -1f, 1f, 1f, 100f);
+        Assert.assertEquals(PMVMatrix.MATRIX_KIND_GENERAL, pmv.getMvMatrixKind());
+        pmv.update();
+        assertInverse(pmv);
+
+        // the kind is restored by pop
+        pmv.glPopMatrix();
+        Assert.assertEquals(PMVMatrix.MATRIX_KIND_AFFINE, pmv.getMvMatrixKind());
+        pmv.glPopMatrix();
+        Assert.assertEquals(PMVMatrix.MATRIX_KIND_RIGID, pmv.getMvMatrixKind());
+        pmv.update();
+        assertInverse(pmv);
+
+        // loaded matrices are classified by their last row
+        final float[] m = get(pmv.glGetMvMatrixf());
+        pmv.glLoadMatrixf(m, 0);
+        Assert.assertEquals(PMVMatrix.MATRIX_KIND_AFFINE, pmv.getMvMatrixKind());
+        m[3] = 0.5f;
+        pmv.glMultMatrixf(FloatBuffer.wrap(m));
+        Assert.assertEquals(PMVMatrix.MATRIX_KIND_GENERAL, pmv.getMvMatrixKind());
+        pmv.update();
+        assertInverse(pmv);
+    }
+
+    @Test
+    public void test01KindAndInverseBackingArray() {
+        testKindAndInverse(true);
+    }
+
+    @Test
+    public void test02KindAndInverseDirect() {
+        testKindAndInverse(false);
+    }
+
+    void testStack(boolean useBackingArray) {
+        final PMVMatrix pmv = new PMVMatrix(useBackingArray, 2);
+        final int[] modes = { GLMatrixFunc.GL_MODELVIEW, GLMatrixFunc.GL_PROJECTION, GL.GL_TEXTURE };
+        final int depth = 37; // exceeds the initial depth
+        for(int k=0; k<modes.length; k++) {
+            pmv.glMatrixMode(modes[k]);
+            final FloatBuffer cur = pmv.glGetMatrixf();
+            final float[][] expected = new float[depth][];
+            pmv.glLoadIdentity();
+            for(int i=0; i<depth; i++) {
+                pmv.glTranslatef(i, 2*i, -i);
+                pmv.glRotatef(i * 10f, 0f, 0f, 1f);
+                expected[i] = get(cur);
+                pmv.glPushMatrix();
+                pmv.glScalef(3f, 3f, 3f);
+            }
+            for(int i=depth-1; i>=0; i--) {
+                pmv.glPopMatrix();
+                Assert.assertArrayEquals(expected[i], get(cur), 0f);
+            }
+            pmv.getModifiedBits(true);
+            try {
+                pmv.glPopMatrix();
+                Assert.fail("stack underflow not detected");
+            } catch (GLException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void test03StackBackingArray() {
+        testStack(true);
+    }
+
+    @Test
+    public void test04StackDirect() {
+        testStack(false);
+    }
+
+    @Test
+    public void test05PopMarksModified() {
+        final PMVMatrix pmv = new PMVMatrix();
+        pmv.glGetMviMatrixf();
+        pmv.glMatrixMode(GLMatrixFunc.GL_MODELVIEW);
+        pmv.glPushMatrix();
+        pmv.glTranslatef(1f, 2f, 3f);
+        pmv.update();
+        pmv.glPopMatrix();
+        Assert.assertEquals(PMVMatrix.MODIFIED_MODELVIEW, pmv.getModifiedBits(false));
+        Assert.assertTrue(0 != ( PMVMatrix.DIRTY_INVERSE_MODELVIEW & pmv.getDirtyBits() ));
+        pmv.update();
+        assertInverse(pmv);
+    }
+
+    static volatile float sink;
+
+    @Test
+    public void test10Perf() {
+        final PMVMatrix pmv = new PMVMatrix(true);
+        pmv.glGetMvitMatrixf();
+        pmv.glMatrixMode(GLMatrixFunc.GL_MODELVIEW);
+
+        for(int loop=0; loop<2; loop++) {
+            // scene graph like traversal: push, transform, update, pop
+            long t0 = System.nanoTime();
+            for(int i=0; i<perfLoops; i++) {
+                pmv.glPushMatrix();
+                pmv.glTranslatef(i, 1f, 2f);
+                pmv.glPushMatrix();
+                pmv.glRotatef(i, 0f, 1f, 0f);
+                pmv.glPopMatrix();
+                pmv.glPopMatrix();
+            }
+            final long tPushPop = System.nanoTime() - t0;
+
+            t0 = System.nanoTime();
+            for(int i=0; i<perfLoops; i++) {
+                pmv.glTranslatef(0.1f, 0.1f, 0.1f);
+            }
+            final long tMult = System.nanoTime() - t0;
+
+            final long tRigid = perfUpdate(pmv, PMVMatrix.MATRIX_KIND_RIGID);
+            final long tAffine = perfUpdate(pmv, PMVMatrix.MATRIX_KIND_AFFINE);
+            final long tGeneral = perfUpdate(pmv, PMVMatrix.MATRIX_KIND_GENERAL);
+
+            // same rigid matrix, general vs dedicated inverse
+            final ProjectFloat pf = new ProjectFloat();
+            final float[] m = get(pmv.glGetMvMatrixf());
+            final float[] inv = new float[16];
+            t0 = System.nanoTime();
+            for(int i=0; i<perfLoops; i++) {
+                m[12] = i;
+                pf.gluInvertMatrixf(m, 0, inv, 0);
+                sink += inv[12];
+            }
+            final long tInvGeneral = System.nanoTime() - t0;
+            t0 = System.nanoTime();
+            for(int i=0; i<perfLoops; i++) {
+                m[12] = i;
+                FloatUtil.invertRigidMatrixf(m, 0, inv, 0);
+                sink += inv[12];
+            }
+            final long tInvRigid = System.nanoTime() - t0;
+            t0 = System.nanoTime();
+            for(int i=0; i<perfLoops; i++) {
+                m[12] = i;
+                FloatUtil.invertAffineMatrixf(m, 0, inv, 0);
+                sink += inv[12];
+            }
+            final long tInvAffine = System.nanoTime() - t0;
+
+            if( loop > 0 ) {
+                System.err.printf("push/pop x2 + translate + rotate: %7.1f ns/op%n", (double)tPushPop/perfLoops);
+                System.err.printf("translate (mult):                 %7.1f ns/op%n", (double)tMult/perfLoops);
+                System.err.printf("update, rigid Mv:                 %7.1f ns/op%n", (double)tRigid/perfLoops);
+                System.err.printf("update, affine Mv:                %7.1f ns/op%n", (double)tAffine/perfLoops);
+                System.err.printf("update, general Mv:               %7.1f ns/op%n", (double)tGeneral/perfLoops);
+                System.err.printf("invert general/affine/rigid:      %7.1f / %7.1f / %7.1f ns/op%n",
+                                  (double)tInvGeneral/perfLoops, (double)tInvAffine/perfLoops, (double)tInvRigid/perfLoops);
+            }
+        }
+    }
+
+    static long perfUpdate(PMVMatrix pmv, int kind) {
+        pmv.glLoadIdentity();
+        pmv.glTranslatef(1f, 2f, 3f);
+        pmv.glRotatef(30f, 1f, 1f, 0f);
+        if( PMVMatrix.MATRIX_KIND_AFFINE == kind ) {
+            pmv.glScalef(1f, 2f, 1f);
+        } else if( PMVMatrix.MATRIX_KIND_GENERAL == kind ) {
+            pmv.glFrustumf(-1f, 1f, -1f, 1f, 1f, 10f);
+        }
+        Assert.assertEquals(kind, pmv.getMvMatrixKind());
+        final long t0 = System.nanoTime();
+        for(int i=0; i<perfLoops; i++) {
+            pmv.glTranslatef(0f, 0f, 0f);
+            pmv.update();
+        }
+        return System.nanoTime() - t0;
+    }
+
+    public static void main(String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-loops")) {
+                i++;
+                perfLoops = Integer.parseInt(args[i]);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestPMVMatrix02NOUI.class.getName());
+    }
+}
@@ -0,0 +1,271 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.fixedfunc.GLPointerFunc;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.opengl.util.DirectBufferPool;
+import com.jogamp.opengl.util.GLArrayDataClient;
+import com.jogamp.opengl.util.ImmModeSink;
+
+/**
+ * Testing the geometric growth, {@link GLArrayDataClient#ensureCapacity(int)} / {@link ImmModeSink#ensureCapacity(int)}
+ * and the {@link DirectBufferPool} recycling of the grown storage, w/o a GL context.
+ */
+public class TestBufferGrowthNOUI {
+    static final int COMPS = 3;
+
+    /** Records the acquired capacities and whether a previously released buffer was reused. */
+    static class RecordingPool extends DirectBufferPool {
+        final ArrayList<Integer> acquired = new ArrayList<Integer>();
+        final Set<ByteBuffer> released = Collections.newSetFromMap(new IdentityHashMap<ByteBuffer, Boolean>());
+        ByteBuffer last = null;
+        int hits = 0, misses = 0;
+
+        RecordingPool() { super(1 << 20); }
+
+        @Override
+        public synchronized ByteBuffer acquire(int byteCapacity) {
+            last = super.acquire(byteCapacity);
+            acquired.add(byteCapacity);
+            if( released.remove(last) ) {
+                hits++;
+            } else {
+                misses++;
+            }
+            return last;
+        }
+
+        @Override
+        public synchronized boolean release(ByteBuffer b) {
+            final boolean pooled = super.release(b);
+            if( pooled ) {
+                released.add(b);
+            }
+            return pooled;
+        }
+
+        void resetStats() {
+            acquired.clear();
+            hits = 0;
+            misses = 0;
+        }
+    }
+
+    static float value(int element, int comp) {
+        return element * 10f + comp;
+    }
+
+    static int capacity(GLArrayDataClient adc) {
+        return adc.getBuffer().capacity() / COMPS;
+    }
+
+    static void putElements(GLArrayDataClient adc, int from, int to) {
+        for(int i=from; i<to; i++) {
+            for(int c=0; c<COMPS; c++) {
+                adc.putf(value(i, c));
+            }
+        }
+    }
+
+    static void assertElements(FloatBuffer fb, int count) {
+        for(int i=0; i<count; i++) {
+            for(int c=0; c<COMPS; c++) {
+                Assert.assertEquals("element "+i+", comp "+c, value(i, c), fb.get(i*COMPS+c), 0f);
+            }
+        }
+    }
+
+    /** Capacities in elements of the array while filling it element by element. */
+    static ArrayList<Integer> fillCapacities(GLArrayDataClient adc, int count) {
+        final ArrayList<Integer> caps = new ArrayList<Integer>();
+        caps.add(capacity(adc));
+        for(int i=0; i<count; i++) {
+            putElements(adc, i, i+1);
+            if( capacity(adc) != caps.get(caps.size()-1).intValue() ) {
+                caps.add(capacity(adc));
+            }
+        }
+        return caps;
+    }
+
+    static ImmModeSink createSink(DirectBufferPool pool) {
+        final ImmModeSink sink = ImmModeSink.createFixed(4, COMPS, GL.GL_FLOAT, 0, 0, 0, 0, 0, 0, 0);
+        sink.setBufferPool(pool);
+        sink.glBegin(GL.GL_TRIANGLES);
+        return sink;
+    }
+
+    static void putVertices(ImmModeSink sink, int from, int to) {
+        for(int i=from; i<to; i++) {
+            sink.glVertex3f(value(i, 0), value(i, 1), value(i, 2));
+        }
+    }
+
+    /** Vertices are stored first within the sink's buffer. */
+    static void assertVertices(ByteBuffer storage, int count) {
+        assertElements(storage.duplicate().order(ByteOrder.nativeOrder()).asFloatBuffer(), count);
+    }
+
+    @Test
+    public void test01ArrayGrowthFactor() {
+        final GLArrayDataClient adc = GLArrayDataClient.createFixed(GLPointerFunc.GL_VERTEX_ARRAY, COMPS, GL.GL_FLOAT, false, 4);
+        Assert.assertEquals(GLArrayDataClient.DEFAULT_GROWTH_FACTOR, adc.getGrowthFactor(), 0f);
+        Assert.assertEquals("[4, 8, 16, 32]", fillCapacities(adc, 20).toString());
+        adc.seal(true);
+        assertElements((FloatBuffer)adc.getBuffer(), 20);
+
+        final GLArrayDataClient adc1 = GLArrayDataClient.createFixed(GLPointerFunc.GL_VERTEX_ARRAY, COMPS, GL.GL_FLOAT, false, 4);
+        adc1.setGrowthFactor(1f); // linear, about initialElementCount
+        Assert.assertEquals("[4, 8, 12, 16, 20]", fillCapacities(adc1, 20).toString());
+
+        final GLArrayDataClient adc3 = GLArrayDataClient.createFixed(GLPointerFunc.GL_VERTEX_ARRAY, COMPS, GL.GL_FLOAT, false, 4);
+        adc3.setGrowthFactor(3f);
+        Assert.assertEquals("[4, 12, 36]", fillCapacities(adc3, 20).toString());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void test02ArrayGrowthFactorInvalid() {
+        GLArrayDataClient.createFixed(GLPointerFunc.GL_VERTEX_ARRAY, COMPS, GL.GL_FLOAT, false, 4).setGrowthFactor(0.5f);
+    }
+
+    @Test
+    public void test03ArrayEnsureCapacity() {
+        final RecordingPool pool = new RecordingPool();
+        final GLArrayDataClient adc = GLArrayDataClient.createFixed(GLPointerFunc.GL_VERTEX_ARRAY, COMPS, GL.GL_FLOAT, false, 4);
+        adc.setBufferPool(pool);
+        putElements(adc, 0, 2);
+        adc.ensureCapacity(100);
+        Assert.assertEquals(100, capacity(adc));
+        Assert.assertEquals("[1200]", pool.acquired.toString()); // one step
+
+        final Object buffer = adc.getBuffer();
+        adc.ensureCapacity(50); // NOP
+        putElements(adc, 2, 100);
+        Assert.assertSame(buffer, adc.getBuffer());
+        Assert.assertEquals(1, pool.acquired.size());
+        adc.seal(true);
+        assertElements((FloatBuffer)adc.getBuffer(), 100);
+    }
+
+    @Test
+    public void test04ArrayPooled() {
+        final RecordingPool pool = new RecordingPool();
+        final GLArrayDataClient adc0 = GLArrayDataClient.createFixed(GLPointerFunc.GL_VERTEX_ARRAY, COMPS, GL.GL_FLOAT, false, 4);
+        adc0.setBufferPool(pool);
+        for(int i=0; i<20; i++) {
+            putElements(adc0, i, i+1);
+            // contents survive each reallocation from the pool
+            assertElements(((FloatBuffer)adc0.getBuffer()).duplicate(), i+1);
+        }
+        Assert.assertEquals("[96, 192, 384]", pool.acquired.toString());
+        Assert.assertEquals(0, pool.hits);
+        adc0.destroy(null);
+        Assert.assertEquals(48+96+192+384, pool.getPooledBytes()); // initial, replaced and destroyed storage
+
+        // rebuilding the same geometry reuses the released buffers
+        pool.resetStats();
+        final GLArrayDataClient adc1 = GLArrayDataClient.createFixed(GLPointerFunc.GL_VERTEX_ARRAY, COMPS, GL.GL_FLOAT, false, 4);
+        adc1.setBufferPool(pool);
+        putElements(adc1, 0, 20);
+        Assert.assertEquals("[96, 192, 384]", pool.acquired.toString());
+        Assert.assertEquals(3, pool.hits);
+        Assert.assertEquals(0, pool.misses);
+        adc1.seal(true);
+        assertElements((FloatBuffer)adc1.getBuffer(), 20);
+    }
+
+    @Test
+    public void test11SinkGrowthFactor() {
+        final RecordingPool pool = new RecordingPool();
+        final ImmModeSink sink = createSink(pool);
+        putVertices(sink, 0, 20);
+        Assert.assertEquals("[96, 192, 384]", pool.acquired.toString()); // 8, 16, 32 vertices
+        assertVertices(pool.last, 20);
+
+        pool.resetStats();
+        final ImmModeSink sink1 = createSink(pool);
+        sink1.setGrowthFactor(1f);
+        putVertices(sink1, 0, 20);
+        Assert.assertEquals("[96, 144, 192, 240]", pool.acquired.toString()); // 8, 12, 16, 20 vertices
+        assertVertices(pool.last, 20);
+    }
+
+    @Test
+    public void test12SinkEnsureCapacity() {
+        final RecordingPool pool = new RecordingPool();
+        final ImmModeSink sink = createSink(pool);
+        putVertices(sink, 0, 2);
+        sink.ensureCapacity(100);
+        Assert.assertEquals("[1200]", pool.acquired.toString()); // one step
+        assertVertices(pool.last, 2);
+        sink.ensureCapacity(50); // NOP
+        putVertices(sink, 2, 100);
+        Assert.assertEquals(1, pool.acquired.size());
+        assertVertices(pool.last, 100);
+    }
+
+    @Test
+    public void test13SinkPooled() {
+        final RecordingPool pool = new RecordingPool();
+        final ImmModeSink sink0 = createSink(pool);
+        for(int i=0; i<20; i++) {
+            putVertices(sink0, i, i+1);
+            if( null != pool.last ) { // initial storage is not acquired from the pool
+                assertVertices(pool.last, i+1);
+            }
+        }
+        Assert.assertEquals(0, pool.hits);
+        sink0.destroy(null);
+        Assert.assertEquals(48+96+192+384, pool.getPooledBytes());
+
+        pool.resetStats();
+        final ImmModeSink sink1 = createSink(pool);
+        putVertices(sink1, 0, 20);
+        Assert.assertEquals("[96, 192, 384]", pool.acquired.toString());
+        Assert.assertEquals(3, pool.hits);
+        Assert.assertEquals(0, pool.misses);
+        assertVertices(pool.last, 20);
+    }
+
+    public static void main(String args[]) {
+        org.junit.runner.JUnitCore.main(TestBufferGrowthNOUI.class.getName());
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.opengl.util.DirectBufferPool;
+
+/**
+ * Testing the DirectBufferPool used by GLArrayDataClient and ImmModeSink to recycle grown buffers.
+ */
+public class TestDirectBufferPoolNOUI {
+
+    @Test
+    public void test01Recycle() {
+        final DirectBufferPool pool = new DirectBufferPool(1024);
+        final ByteBuffer b0 = pool.acquire(100);
+        Assert.assertTrue(b0.isDirect());
+        Assert.assertEquals(ByteOrder.nativeOrder(), b0.order());
+        Assert.assertEquals(100, b0.capacity());
+        b0.position(10);
+
+        Assert.assertTrue(pool.release(b0));
+        Assert.assertEquals(100, pool.getPooledBytes());
+        Assert.assertNotSame(b0, pool.acquire(200)); // other capacity
+
+        final ByteBuffer b1 = pool.acquire(100);
+        Assert.assertSame(b0, b1);
+        Assert.assertEquals(0, b1.position());
+        Assert.assertEquals(100, b1.limit());
+        Assert.assertEquals(0, pool.getPooledBytes());
+        System.err.println(pool);
+    }
+
+    @Test
+    public void test02Limit() {
+        final DirectBufferPool pool = new DirectBufferPool(256);
+        Assert.assertTrue(pool.release(ByteBuffer.allocateDirect(128)));
+        Assert.assertTrue(pool.release(ByteBuffer.allocateDirect(128)));
+        Assert.assertFalse(pool.release(ByteBuffer.allocateDirect(1)));
+        Assert.assertFalse(pool.release(ByteBuffer.allocate(1))); // not direct
+        Assert.assertEquals(256, pool.getPooledBytes());
+        pool.clear();
+        Assert.assertEquals(0, pool.getPooledBytes());
+    }
+
+    public static void main(String args[]) {
+        org.junit.runner.JUnitCore.main(TestDirectBufferPoolNOUI.class.getName());
+    }
+}
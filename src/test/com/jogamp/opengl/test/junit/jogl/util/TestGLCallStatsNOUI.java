@@ -0,0 +1,110 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.opengl.util.GLCallStats;
+
+/**
+ * Validates the snapshot, per frame delta and top list of {@link GLCallStats}
+ * as used by the generated <code>ProfileGL*</code> pipelines.
+ */
+public class TestGLCallStatsNOUI {
+    static final String[] names = { "glBindTexture", "glClear", "glDrawArrays", "glDrawElements", "glUniform4fv(int,int,float[],int)" };
+
+    @Test
+    public void test01Snapshot() {
+        final long[] counts = { 3, 1, 0, 7, 2 };
+        final long[] nanos = { 30, 10, 0, 700, 200 };
+        final GLCallStats s = new GLCallStats(names);
+        s.set(counts, nanos, null, null, true);
+        Assert.assertEquals(13, s.getTotalCount());
+        Assert.assertEquals(940, s.getTotalNanos());
+        Assert.assertEquals(7, s.getCount(s.indexOf("glDrawElements")));
+        Assert.assertEquals(-1, s.indexOf("glFinish"));
+        Assert.assertTrue(s.isTimed());
+
+        // snapshot is a copy
+        counts[0] = 100;
+        Assert.assertEquals(3, s.getCount(0));
+    }
+
+    @Test
+    public void test02FrameDelta() {
+        final long[] counts = { 3, 1, 0, 7, 2 };
+        final long[] nanos = { 30, 10, 0, 700, 200 };
+        final long[] frameCounts = { 1, 1, 0, 5, 0 };
+        final long[] frameNanos = { 10, 10, 0, 500, 0 };
+        final GLCallStats s = new GLCallStats(names);
+        s.set(counts, nanos, frameCounts, frameNanos, false);
+        Assert.assertArrayEquals(new long[] { 2, 0, 0, 2, 2 },
+                                 new long[] { s.getCount(0), s.getCount(1), s.getCount(2), s.getCount(3), s.getCount(4) });
+        Assert.assertEquals(6, s.getTotalCount());
+        Assert.assertEquals(420, s.getTotalNanos());
+        Assert.assertFalse(s.isTimed());
+    }
+
+    @Test
+    public void test03Top() {
+        final GLCallStats s = new GLCallStats(names);
+        s.set(new long[] { 3, 1, 0, 7, 2 }, new long[] { 30, 10, 0, 700, 900 }, null, null, true);
+        Assert.assertArrayEquals(new int[] { 3, 0, 4 }, s.getTop(3, false));
+        Assert.assertArrayEquals(new int[] { 4, 3 }, s.getTop(2, true));
+        // entry points w/o calls are omitted
+        Assert.assertArrayEquals(new int[] { 3, 0, 4, 1 }, s.getTop(10, false));
+        Assert.assertArrayEquals(new int[0], new GLCallStats(names).getTop(3, false));
+        final String str = s.toString(null, 2, false).toString();
+        Assert.assertTrue(str, str.contains("glDrawElements 7"));
+        Assert.assertTrue(str, str.contains("glBindTexture 3"));
+        Assert.assertFalse(str, str.contains("glClear"));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void test04SizeMismatch() {
+        new GLCallStats(names).set(new long[3], new long[3], null, null, false);
+    }
+
+    @Test
+    public void test05TopNone() {
+        final GLCallStats s = new GLCallStats(names);
+        s.set(new long[] { 3, 1, 0, 7, 2 }, new long[] { 30, 10, 0, 700, 900 }, null, null, true);
+        Assert.assertArrayEquals(new int[0], s.getTop(0, false));
+        Assert.assertArrayEquals(new int[0], s.getTop(0, true));
+        Assert.assertArrayEquals(new int[0], s.getTop(-1, false));
+        final String str = s.toString(null, 0, false).toString();
+        Assert.assertTrue(str, str.startsWith("GLCallStats[calls 13"));
+        Assert.assertFalse(str, str.contains("glDrawElements"));
+        Assert.assertEquals(str, s.toString(null, -5, true).toString());
+    }
+
+    public static void main(String args[]) {
+        org.junit.runner.JUnitCore.main(TestGLCallStatsNOUI.class.getName());
+    }
+}
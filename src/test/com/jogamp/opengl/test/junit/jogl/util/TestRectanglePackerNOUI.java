@@ -0,0 +1,293 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.opengl.util.packrect.BackingStoreManager;
+import com.jogamp.opengl.util.packrect.LevelSet;
+import com.jogamp.opengl.util.packrect.MaxRectsPacker;
+import com.jogamp.opengl.util.packrect.PackingStrategy;
+import com.jogamp.opengl.util.packrect.Rect;
+import com.jogamp.opengl.util.packrect.RectVisitor;
+import com.jogamp.opengl.util.packrect.RectanglePacker;
+import com.jogamp.opengl.util.packrect.SkylinePacker;
+
+/**
+ * Validates and benchmarks the {@link PackingStrategy} implementations of the
+ * {@link RectanglePacker} by replaying add/remove traces.
+ * <p>
+ * A trace consists of one operation per line, <code>+ id width height</code>
+ * to add and <code>- id</code> to remove a rectangle.
+ * Recorded traces can be replayed by passing <code>-trace &lt;file&gt;</code>.
+ * </p>
+ * <p>
+ * The benchmark only runs a short synthetic trace as part of the unit tests,
+ * the full benchmark runs if invoked via {@link #main(String[])}.
+ * </p>
+ */
+public class TestRectanglePackerNOUI {
+    static final int initialSize = 256;
+    static String traceFile = null;
+    static boolean benchmark = false;
+
+    static PackingStrategy[] strategies() {
+        return new PackingStrategy[] { new LevelSet(initialSize, initialSize),
+                                       new SkylinePacker(initialSize, initialSize),
+                                       new MaxRectsPacker(initialSize, initialSize) };
+    }
+
+    /** Backing store manager without backing store, counting compactions and moves */
+    static class CountingManager implements BackingStoreManager {
+        int allocations, movements, moves;
+
+        public Object allocateBackingStore(int w, int h) { allocations++; return new int[] { w, h }; }
+        public void deleteBackingStore(Object backingStore) { }
+        public boolean canCompact() { return true; }
+        public boolean preExpand(Rect cause, int attemptNumber) { return false; }
+        public boolean additionFailed(Rect cause, int attemptNumber) { return false; }
+        public void beginMovement(Object oldBackingStore, Object newBackingStore) { movements++; }
+        public void move(Object oldBackingStore, Rect oldLocation, Object newBackingStore, Rect newLocation) { moves++; }
+        public void endMovement(Object oldBackingStore, Object newBackingStore) { }
+    }
+
+    /** Synthesizes a glyph cache like trace of strings of mixed font sizes with LRU eviction */
+    static String createTrace(long seed, int ops, int maxLive) {
+        final Random rnd = new Random(seed);
+        final int[] fontHeights = { 12, 14, 16, 18, 24, 32, 48 };
+        final StringBuilder sb = new StringBuilder();
+        final List<Integer> live = new ArrayList<Integer>();
+        int nextId = 0;
+        for(int i=0; i<ops; i++) {
+            if( live.size() >= maxLive || ( !live.isEmpty() && rnd.nextInt(4) == 0 ) ) {
+                // evict mostly old entries
+                final int idx = rnd.nextInt(1 + live.size() / 4);
+                sb.append("- ").append(live.remove(idx)).append('\n');
+            } else {
+                final int h = fontHeights[rnd.nextInt(fontHeights.length)];
+                final int w = 4 + rnd.nextInt(h * ( 1 + rnd.nextInt(5) ));
+                sb.append("+ ").append(nextId).append(' ').append(w).append(' ').append(h).append('\n');
+                live.add(nextId++);
+            }
+        }
+        return sb.toString();
+    }
+
+    static class Result {
+        final String name;
+        int ops, compactions, moves;
+        long nanos;
+        float occupancy, fragmentation;
+        int width, height;
+        Result(String name) { this.name = name; }
+        public String toString() {
+            return String.format("%-15s ops %6d, %8.3f ms, compactions %4d, moved %7d, store %5dx%5d, occupancy %5.1f%%, fragmentation %5.1f%%",
+                                 name, ops, nanos/1e6, compactions, moves, width, height, occupancy*100f, fragmentation*100f);
+        }
+    }
+
+    static Result replay(PackingStrategy strategy, Reader trace, boolean validate) throws IOException {
+        final CountingManager manager = new CountingManager();
+        final RectanglePacker packer = new RectanglePacker(manager, strategy);
+        final Map<String, Rect> live = new HashMap<String, Rect>();
+        final Result res = new Result(strategy.getClass().getSimpleName());
+        final BufferedReader reader = new BufferedReader(trace);
+        String line;
+        while( null != ( line = reader.readLine() ) ) {
+            final String[] tok = line.trim().split("\\s+");
+            if( tok.length == 0 || tok[0].length() == 0 || tok[0].startsWith("#") ) {
+                continue;
+            }
+            final long t0 = System.nanoTime();
+            if( "+".equals(tok[0]) ) {
+                final Rect r = new Rect(0, 0, Integer.parseInt(tok[2]), Integer.parseInt(tok[3]), tok[1]);
+                packer.add(r);
+                live.put(tok[1], r);
+            } else if( "-".equals(tok[0]) ) {
+                packer.remove(live.remove(tok[1]));
+            } else {
+                throw new IOException("Invalid trace line: "+line);
+            }
+            res.nanos += System.nanoTime() - t0;
+            res.ops++;
+            if( validate && 0 == res.ops % 97 ) {
+                validate(packer, live);
+            }
+        }
+        if( validate ) {
+            validate(packer, live);
+        }
+        res.compactions = manager.allocations - 1;
+        res.moves = manager.moves;
+        res.occupancy = packer.occupancyRatio();
+        res.fragmentation = packer.verticalFragmentationRatio();
+        res.width = packer.getPackingStrategy().w();
+        res.height = packer.getPackingStrategy().h();
+        return res;
+    }
+
+    /** Asserts all live rectangles are contained, within bounds and do not overlap */
+    static void validate(RectanglePacker packer, Map<String, Rect> live) {
+        final PackingStrategy s = packer.getPackingStrategy();
+        final List<Rect> rects = new ArrayList<Rect>();
+        packer.visit(new RectVisitor() {
+            public void visit(Rect rect) {
+                rects.add(rect);
+            } });
+        Assert.assertEquals(live.size(), rects.size());
+        final int[] owner = new int[s.w() * s.h()];
+        long area = 0;
+        for(int i=0; i<rects.size(); i++) {
+            final Rect r = rects.get(i);
+            Assert.assertSame(r, live.get(r.getUserData()));
+            Assert.assertTrue("out of bounds "+r+" in "+s.w()+"x"+s.h(), r.x() + r.w() <= s.w() && r.y() + r.h() <= s.h());
+            for(int y=r.y(); y<r.y()+r.h(); y++) {
+                for(int x=r.x(); x<r.x()+r.w(); x++) {
+                    Assert.assertEquals("overlap at "+x+"/"+y+" of "+r, 0, owner[y * s.w() + x]);
+                    owner[y * s.w() + x] = i + 1;
+                }
+            }
+            area += (long) r.w() * r.h();
+        }
+        Assert.assertEquals(area, s.getUsedArea());
+    }
+
+    @Test
+    public void test01ReplayValidate() throws IOException {
+        final String trace = createTrace(0x1234, 3000, 300);
+        final PackingStrategy[] ss = strategies();
+        for(int i=0; i<ss.length; i++) {
+            System.err.println(replay(ss[i], new StringReader(trace), true));
+        }
+    }
+
+    @Test
+    public void test02SkylineRemoveLowers() {
+        final SkylinePacker s = new SkylinePacker(100, 100);
+        final Rect a = new Rect(0, 0, 60, 20, null);
+        final Rect b = new Rect(0, 0, 40, 30, null);
+        Assert.assertTrue(s.add(a));
+        Assert.assertTrue(s.add(b));
+        Assert.assertEquals(30, s.getUsedHeight());
+        Assert.assertTrue(s.remove(b));
+        Assert.assertEquals(20, s.getUsedHeight());
+        // space of b is reused
+        final Rect c = new Rect(0, 0, 40, 30, null);
+        Assert.assertTrue(s.add(c));
+        Assert.assertEquals(b.x(), c.x());
+        Assert.assertEquals(b.y(), c.y());
+        Assert.assertEquals(0f, s.verticalFragmentationRatio(), 0f);
+    }
+
+    @Test
+    public void test03MaxRectsReusesFreedSpace() {
+        final CountingManager manager = new CountingManager();
+        final RectanglePacker packer = new RectanglePacker(manager, new MaxRectsPacker(64, 64));
+        final Rect[] rects = new Rect[16];
+        for(int i=0; i<rects.length; i++) {
+            rects[i] = new Rect(0, 0, 16, 16, null);
+            packer.add(rects[i]);
+        }
+        Assert.assertEquals(1f, packer.occupancyRatio(), 0f);
+        // free two horizontally adjacent rectangles
+        Rect left = null, right = null;
+        for(int i=0; null == right && i<rects.length; i++) {
+            for(int j=0; j<rects.length; j++) {
+                if( rects[i].y() == rects[j].y() && rects[i].x() + 16 == rects[j].x() ) {
+                    left = rects[i];
+                    right = rects[j];
+                    break;
+                }
+            }
+        }
+        packer.remove(left);
+        packer.remove(right);
+        final Rect wide = new Rect(0, 0, 32, 16, null);
+        packer.add(wide);
+        Assert.assertEquals("compacted", 1, manager.allocations);
+        Assert.assertEquals(left.x(), wide.x());
+        Assert.assertEquals(left.y(), wide.y());
+        Assert.assertEquals(0, manager.moves);
+        Assert.assertEquals(1f, packer.occupancyRatio(), 0f);
+    }
+
+    @Test
+    public void test10Benchmark() throws IOException {
+        final String trace;
+        if( null != traceFile ) {
+            final StringBuilder sb = new StringBuilder();
+            final BufferedReader reader = new BufferedReader(new FileReader(traceFile));
+            try {
+                String line;
+                while( null != ( line = reader.readLine() ) ) {
+                    sb.append(line).append('\n');
+                }
+            } finally {
+                reader.close();
+            }
+            trace = sb.toString();
+        } else if( benchmark ) {
+            trace = createTrace(0xCAFE, 50000, 800);
+        } else {
+            trace = createTrace(0xCAFE, 2000, 200);
+        }
+        final int loops = benchmark ? 2 : 1;
+        for(int loop=0; loop<loops; loop++) {
+            final PackingStrategy[] ss = strategies();
+            for(int i=0; i<ss.length; i++) {
+                final Result res = replay(ss[i], new StringReader(trace), false);
+                if( loop == loops - 1 ) {
+                    System.err.println(res);
+                }
+            }
+        }
+    }
+
+    public static void main(String args[]) throws IOException {
+        benchmark = true;
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-trace")) {
+                i++;
+                traceFile = args[i];
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestRectanglePackerNOUI.class.getName());
+    }
+}
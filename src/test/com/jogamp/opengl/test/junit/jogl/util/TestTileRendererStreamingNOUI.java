@@ -0,0 +1,256 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GL2;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.opengl.GLExtensions;
+import com.jogamp.opengl.util.gl2.TileRenderer;
+
+/**
+ * Validates {@link TileRenderer}'s streaming mode against the image buffer mode
+ * and a reference image, using a mock GL2 whose framebuffer content is
+ * a function of the image coordinate given by the tile's orthographic projection.
+ */
+public class TestTileRendererStreamingNOUI {
+    static final int BPP = 4;
+
+    /** Reference RGBA pixel of the final image */
+    static int reference(int x, int y, int c) {
+        switch(c) {
+            case 0: return x & 0xFF;
+            case 1: return y & 0xFF;
+            case 2: return ( ( x >> 8 ) * 31 + ( y >> 8 ) * 7 ) & 0xFF;
+            default: return 0xFF;
+        }
+    }
+
+    /** Mock GL2 'rendering' the reference image w/ the current orthographic projection */
+    static class MockGL implements InvocationHandler {
+        final boolean pboAvailable;
+        final Map<Integer, Integer> pixelStore = new HashMap<Integer, Integer>();
+        final Map<Integer, ByteBuffer> buffers = new HashMap<Integer, ByteBuffer>();
+        int nextBuffer = 1, boundPackBuffer = 0, mapCount = 0;
+        double orthoLeft, orthoBottom;
+
+        MockGL(boolean pboAvailable) {
+            this.pboAvailable = pboAvailable;
+            pixelStore.put(GL2.GL_PACK_ALIGNMENT, 4);
+        }
+
+        GL2 create() {
+            return (GL2) Proxy.newProxyInstance(GL2.class.getClassLoader(), new Class<?>[] { GL2.class }, this);
+        }
+
+        int pixelStore(int pname) {
+            final Integer v = pixelStore.get(pname);
+            return null != v ? v.intValue() : 0;
+        }
+
+        void readPixels(int x, int y, int w, int h, ByteBuffer dst, int offset) {
+            final int rowLength = 0 < pixelStore(GL2.GL_PACK_ROW_LENGTH) ? pixelStore(GL2.GL_PACK_ROW_LENGTH) : w;
+            final int skipRows = pixelStore(GL2.GL_PACK_SKIP_ROWS);
+            final int skipPixels = pixelStore(GL2.GL_PACK_SKIP_PIXELS);
+            Assert.assertEquals("pack alignment", 1, pixelStore(GL2.GL_PACK_ALIGNMENT));
+            final int x0 = (int) Math.round(orthoLeft) + x;
+            final int y0 = (int) Math.round(orthoBottom) + y;
+            for(int j=0; j<h; j++) {
+                for(int i=0; i<w; i++) {
+                    final int o = offset + ( ( skipRows + j ) * rowLength + skipPixels + i ) * BPP;
+                    for(int c=0; c<BPP; c++) {
+                        dst.put(o + c, (byte) reference(x0 + i, y0 + j, c));
+                    }
+                }
+            }
+        }
+
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            final String name = method.getName();
+            if( "glGetIntegerv".equals(name) ) {
+                final int pname = ((Integer) args[0]).intValue();
+                final int[] res = (int[]) args[1];
+                final int off = ((Integer) args[2]).intValue();
+                if( GL.GL_VIEWPORT == pname ) {
+                    res[off] = res[off+1] = 0; res[off+2] = res[off+3] = 1;
+                } else {
+                    res[off] = pixelStore(pname);
+                }
+            } else if( "glPixelStorei".equals(name) ) {
+                pixelStore.put((Integer) args[0], (Integer) args[1]);
+            } else if( "glOrtho".equals(name) ) {
+                orthoLeft = ((Double) args[0]).doubleValue();
+                orthoBottom = ((Double) args[2]).doubleValue();
+            } else if( "glReadPixels".equals(name) ) {
+                final int x = ((Integer) args[0]).intValue(), y = ((Integer) args[1]).intValue();
+                final int w = ((Integer) args[2]).intValue(), h = ((Integer) args[3]).intValue();
+                Assert.assertEquals(GL.GL_RGBA, ((Integer) args[4]).intValue());
+                Assert.assertEquals(GL.GL_UNSIGNED_BYTE, ((Integer) args[5]).intValue());
+                if( args[6] instanceof Long ) {
+                    Assert.assertTrue("no PBO bound", 0 != boundPackBuffer);
+                    readPixels(x, y, w, h, buffers.get(boundPackBuffer), ((Long) args[6]).intValue());
+                } else {
+                    Assert.assertEquals("PBO bound", 0, boundPackBuffer);
+                    final ByteBuffer dst = (ByteBuffer) args[6];
+                    readPixels(x, y, w, h, dst, dst.position());
+                }
+            } else if( "glGenBuffers".equals(name) ) {
+                final int[] res = (int[]) args[1];
+                for(int i=0; i<((Integer) args[0]).intValue(); i++) {
+                    res[((Integer) args[2]).intValue() + i] = nextBuffer++;
+                }
+            } else if( "glBindBuffer".equals(name) ) {
+                Assert.assertEquals(GL2.GL_PIXEL_PACK_BUFFER, ((Integer) args[0]).intValue());
+                boundPackBuffer = ((Integer) args[1]).intValue();
+            } else if( "glBufferData".equals(name) ) {
+                buffers.put(boundPackBuffer, ByteBuffer.allocateDirect((int) ((Long) args[1]).longValue()));
+            } else if( "glMapBuffer".equals(name) ) {
+                mapCount++;
+                return buffers.get(boundPackBuffer).duplicate();
+            } else if( "glDeleteBuffers".equals(name) ) {
+                final int[] names = (int[]) args[1];
+                for(int i=0; i<((Integer) args[0]).intValue(); i++) {
+                    Assert.assertNotNull(buffers.remove(names[((Integer) args[2]).intValue() + i]));
+                }
+            } else if( "isExtensionAvailable".equals(name) ) {
+                return Boolean.valueOf(pboAvailable && GLExtensions.ARB_pixel_buffer_object.equals(args[0]));
+            } else if( "isGL2GL3".equals(name) ) {
+                return Boolean.TRUE;
+            }
+            final Class<?> rt = method.getReturnType();
+            if( boolean.class == rt ) {
+                return Boolean.FALSE;
+            } else if( int.class == rt ) {
+                return Integer.valueOf(0);
+            } else if( long.class == rt ) {
+                return Long.valueOf(0);
+            }
+            return null;
+        }
+    }
+
+    static class Strip {
+        final int imageY, height;
+        final byte[] data;
+        Strip(ByteBuffer rows, int imageY, int height) {
+            this.imageY = imageY;
+            this.height = height;
+            this.data = new byte[rows.remaining()];
+            rows.duplicate().get(data);
+        }
+    }
+
+    void testStreaming(final boolean pbo, final int rowOrder, final int width, final int height, final int tileWidth, final int tileHeight, final int border) {
+        final MockGL mock = new MockGL(pbo);
+        final GL2 gl = mock.create();
+        final List<Strip> strips = new ArrayList<Strip>();
+        final ByteBuffer image = ByteBuffer.allocateDirect(width * height * BPP);
+
+        final TileRenderer tr = new TileRenderer();
+        tr.setTileSize(tileWidth, tileHeight, border);
+        tr.setImageSize(width, height);
+        tr.setImageBuffer(GL.GL_RGBA, GL.GL_UNSIGNED_BYTE, image);
+        tr.setImageRowSink(GL.GL_RGBA, GL.GL_UNSIGNED_BYTE, new TileRenderer.ImageRowSink() {
+            public void rowsCompleted(TileRenderer tr, ByteBuffer rows, int imageY, int rowCount) {
+                Assert.assertEquals(width * rowCount * BPP, rows.remaining());
+                strips.add(new Strip(rows, imageY, rowCount));
+            } });
+        tr.setRowOrder(rowOrder);
+        tr.trOrtho(0, width, 0, height, -1, 1);
+        int tiles = 0;
+        do {
+            tr.beginTile(gl);
+            tiles++;
+        } while( tr.endTile(gl) );
+
+        final int rows = tr.getParam(TileRenderer.TR_ROWS);
+        Assert.assertEquals(rows * tr.getParam(TileRenderer.TR_COLUMNS), tiles);
+        Assert.assertEquals(rows, strips.size());
+        Assert.assertEquals(pbo ? tiles : 0, mock.mapCount);
+        Assert.assertTrue("PBOs leaked", mock.buffers.isEmpty());
+
+        int coveredRows = 0;
+        for(int s=0; s<strips.size(); s++) {
+            final Strip strip = strips.get(s);
+            final int tileRow = TileRenderer.TR_BOTTOM_TO_TOP == rowOrder ? s : rows - 1 - s;
+            Assert.assertEquals(tileRow * ( tileHeight - 2 * border ), strip.imageY);
+            for(int y=0; y<strip.height; y++) {
+                for(int x=0; x<width; x++) {
+                    for(int c=0; c<BPP; c++) {
+                        final int o = ( y * width + x ) * BPP + c;
+                        final int expected = reference(x, strip.imageY + y, c);
+                        if( expected != ( strip.data[o] & 0xFF ) ) {
+                            Assert.fail("strip "+s+", pixel "+x+"/"+(strip.imageY+y)+", channel "+c+": expected "+expected+", got "+(strip.data[o] & 0xFF));
+                        }
+                        // the image buffer mode must agree
+                        Assert.assertEquals(strip.data[o], image.get(( ( strip.imageY + y ) * width + x ) * BPP + c));
+                    }
+                }
+            }
+            coveredRows += strip.height;
+        }
+        Assert.assertEquals(height, coveredRows);
+    }
+
+    @Test
+    public void test01SyncBottomToTop() {
+        testStreaming(false, TileRenderer.TR_BOTTOM_TO_TOP, 300, 200, 64, 48, 2);
+    }
+
+    @Test
+    public void test02PBOBottomToTop() {
+        testStreaming(true, TileRenderer.TR_BOTTOM_TO_TOP, 300, 200, 64, 48, 2);
+    }
+
+    @Test
+    public void test03PBOTopToBottom() {
+        testStreaming(true, TileRenderer.TR_TOP_TO_BOTTOM, 517, 130, 128, 64, 0);
+    }
+
+    @Test
+    public void test04PBOSingleTile() {
+        testStreaming(true, TileRenderer.TR_TOP_TO_BOTTOM, 50, 40, 64, 64, 0);
+    }
+
+    public static void main(String args[]) {
+        org.junit.runner.JUnitCore.main(TestTileRendererStreamingNOUI.class.getName());
+    }
+}
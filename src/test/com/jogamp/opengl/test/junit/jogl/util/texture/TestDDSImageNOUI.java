@@ -0,0 +1,201 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.opengl.util.texture.spi.DDSImage;
+
+/**
+ * Reads synthetic DDS files w/ and w/o the DX10 extended header
+ * and validates the zero-copy mipmap and cubemap face slices.
+ */
+public class TestDDSImageNOUI {
+    static final int DDSD_FLAGS = DDSImage.DDSD_CAPS | DDSImage.DDSD_HEIGHT | DDSImage.DDSD_WIDTH |
+                                  DDSImage.DDSD_PIXELFORMAT | DDSImage.DDSD_MIPMAPCOUNT | DDSImage.DDSD_LINEARSIZE;
+
+    static int levelSize(int width, int height, int level, int blockSize) {
+        final int w = Math.max(1, width >> level), h = Math.max(1, height >> level);
+        return ((w+3)/4) * ((h+3)/4) * blockSize;
+    }
+
+    /** Writes a DX10 DDS file, filling each level's bytes w/ <code>face*16 + level</code>. */
+    static File writeDX10(int width, int height, int levels, int dxgiFormat, int blockSize, int faces) throws IOException {
+        int dataSize = 0;
+        for(int l=0; l<levels; l++) {
+            dataSize += levelSize(width, height, l, blockSize);
+        }
+        final ByteBuffer buf = ByteBuffer.allocate(148 + faces * dataSize).order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(0x20534444);                      // magic
+        buf.putInt(124);                             // size
+        buf.putInt(DDSD_FLAGS);
+        buf.putInt(height);
+        buf.putInt(width);
+        buf.putInt(levelSize(width, height, 0, blockSize));
+        buf.putInt(0);                               // depth
+        buf.putInt(levels);
+        for(int i=0; i<11; i++) { buf.putInt(0); }   // alphaBitDepth .. srcBltColorSpaceHighValue
+        buf.putInt(32);                              // pfSize
+        buf.putInt(DDSImage.DDPF_FOURCC);
+        buf.putInt(DDSImage.D3DFMT_DX10);
+        for(int i=0; i<5; i++) { buf.putInt(0); }    // bit count and masks
+        buf.putInt(DDSImage.DDSCAPS_TEXTURE | DDSImage.DDSCAPS_MIPMAP | ( 1 < faces ? DDSImage.DDSCAPS_COMPLEX : 0 ));
+        buf.putInt(0);                               // caps2, DX10 cubemaps use the misc flag
+        buf.putInt(0);
+        buf.putInt(0);
+        buf.putInt(0);                               // textureStage
+        Assert.assertEquals(128, buf.position());
+        buf.putInt(dxgiFormat);
+        buf.putInt(3);                               // D3D10_RESOURCE_DIMENSION_TEXTURE2D
+        buf.putInt( 1 < faces ? DDSImage.DDS_RESOURCE_MISC_TEXTURECUBE : 0 );
+        buf.putInt(1);                               // arraySize
+        buf.putInt(0);
+        for(int f=0; f<faces; f++) {
+            for(int l=0; l<levels; l++) {
+                final int size = levelSize(width, height, l, blockSize);
+                for(int i=0; i<size; i++) {
+                    buf.put((byte)(f*16 + l));
+                }
+            }
+        }
+        final File file = File.createTempFile("TestDDSImageNOUI", ".dds");
+        file.deleteOnExit();
+        final FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(buf.array());
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+
+    static void validateLevel(DDSImage.ImageInfo info, int width, int height, int level, int blockSize, int fill) {
+        final int size = levelSize(width, height, level, blockSize);
+        Assert.assertEquals(Math.max(1, width >> level), info.getWidth());
+        Assert.assertEquals(Math.max(1, height >> level), info.getHeight());
+        final ByteBuffer data = info.getData();
+        Assert.assertEquals(0, data.position());
+        Assert.assertEquals(size, data.remaining());
+        for(int i=0; i<size; i++) {
+            Assert.assertEquals("level "+level+", byte "+i, fill, data.get(i));
+        }
+    }
+
+    @Test
+    public void test01DX10BC7MipChain() throws IOException {
+        final int width = 64, height = 32, levels = 7;
+        final File file = writeDX10(width, height, levels, DDSImage.DXGI_FORMAT_BC7_UNORM, 16, 1);
+        final DDSImage image = DDSImage.read(file);
+        try {
+            Assert.assertTrue(image.hasDX10Header());
+            Assert.assertTrue(image.isCompressed());
+            Assert.assertFalse(image.isCubemap());
+            Assert.assertEquals(DDSImage.DXGI_FORMAT_BC7_UNORM, image.getDXGIFormat());
+            Assert.assertEquals(DDSImage.D3DFMT_DX10, image.getCompressionFormat());
+            Assert.assertEquals(levels, image.getNumMipMaps());
+
+            final ByteBuffer[] mipmapData = image.getMipMapData(0);
+            Assert.assertEquals(levels, mipmapData.length);
+            for(int l=0; l<levels; l++) {
+                // slices of the mapped file, not copies
+                Assert.assertTrue(mipmapData[l].isDirect());
+                validateLevel(image.getMipMap(l), width, height, l, 16, l);
+            }
+            // slicing leaves the level views independent of each other
+            final ByteBuffer level2 = image.getMipMap(2).getData();
+            image.getMipMap(5);
+            Assert.assertEquals(levelSize(width, height, 2, 16), level2.remaining());
+        } finally {
+            image.close();
+        }
+    }
+
+    @Test
+    public void test02DX10BC4Cubemap() throws IOException {
+        final int width = 16, height = 16, levels = 3;
+        final File file = writeDX10(width, height, levels, DDSImage.DXGI_FORMAT_BC4_UNORM, 8, 6);
+        final DDSImage image = DDSImage.read(file);
+        try {
+            Assert.assertTrue(image.isCubemap());
+            Assert.assertTrue(image.isCompressed());
+            final int[] sides = { DDSImage.DDSCAPS2_CUBEMAP_POSITIVEX, DDSImage.DDSCAPS2_CUBEMAP_NEGATIVEX,
+                                  DDSImage.DDSCAPS2_CUBEMAP_POSITIVEY, DDSImage.DDSCAPS2_CUBEMAP_NEGATIVEY,
+                                  DDSImage.DDSCAPS2_CUBEMAP_POSITIVEZ, DDSImage.DDSCAPS2_CUBEMAP_NEGATIVEZ };
+            for(int f=0; f<sides.length; f++) {
+                Assert.assertTrue(image.isCubemapSidePresent(sides[f]));
+                final DDSImage.ImageInfo[] infos = image.getAllMipMaps(sides[f]);
+                Assert.assertEquals(levels, infos.length);
+                for(int l=0; l<levels; l++) {
+                    validateLevel(infos[l], width, height, l, 8, f*16 + l);
+                }
+            }
+        } finally {
+            image.close();
+        }
+    }
+
+    @Test
+    public void test03LegacyDXT1RoundTrip() throws IOException {
+        final int width = 32, height = 32, levels = 4;
+        final ByteBuffer[] mipmapData = new ByteBuffer[levels];
+        for(int l=0; l<levels; l++) {
+            final ByteBuffer level = ByteBuffer.allocate(levelSize(width, height, l, 8));
+            while(level.hasRemaining()) {
+                level.put((byte)l);
+            }
+            level.flip();
+            mipmapData[l] = level;
+        }
+        final File file = File.createTempFile("TestDDSImageNOUI", ".dds");
+        file.deleteOnExit();
+        DDSImage.createFromData(DDSImage.D3DFMT_DXT1, width, height, mipmapData).write(file);
+
+        final DDSImage image = DDSImage.read(file);
+        try {
+            Assert.assertFalse(image.hasDX10Header());
+            Assert.assertEquals(DDSImage.DXGI_FORMAT_UNKNOWN, image.getDXGIFormat());
+            Assert.assertEquals(DDSImage.D3DFMT_DXT1, image.getCompressionFormat());
+            for(int l=0; l<levels; l++) {
+                validateLevel(image.getMipMap(l), width, height, l, 8, l);
+            }
+        } finally {
+            image.close();
+        }
+    }
+
+    public static void main(String args[]) {
+        org.junit.runner.JUnitCore.main(TestDDSImageNOUI.class.getName());
+    }
+}
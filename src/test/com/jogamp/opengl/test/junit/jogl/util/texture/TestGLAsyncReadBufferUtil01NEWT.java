@@ -0,0 +1,123 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.jogamp.newt.opengl.GLWindow;
+
+import javax.media.opengl.GLAutoDrawable;
+import javax.media.opengl.GLCapabilities;
+import javax.media.opengl.GLEventListener;
+import javax.media.opengl.GLProfile;
+import com.jogamp.opengl.util.GLAsyncReadBufferUtil;
+import com.jogamp.opengl.util.texture.TextureIO;
+
+import com.jogamp.opengl.test.junit.util.UITestCase;
+import com.jogamp.opengl.test.junit.jogl.demos.es2.GearsES2;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Records a few frames w/ {@link GLAsyncReadBufferUtil} and validates
+ * the frame order and the captured / encoded / dropped accounting.
+ */
+public class TestGLAsyncReadBufferUtil01NEWT extends UITestCase {
+    static GLProfile glp;
+    static GLCapabilities caps;
+    static int width, height;
+    static final int frames = 30;
+
+    @BeforeClass
+    public static void initClass() {
+        glp = GLProfile.getDefault();
+        Assert.assertNotNull(glp);
+        caps = new GLCapabilities(glp);
+        Assert.assertNotNull(caps);
+        width  = 256;
+        height = 256;
+    }
+
+    void testRecording(final boolean alpha, final int ringSize, final GLAsyncReadBufferUtil.FrameEncoder encoder) throws InterruptedException {
+        final GLAsyncReadBufferUtil recorder = new GLAsyncReadBufferUtil(alpha, ringSize, 4, encoder);
+        GLWindow glWindow = GLWindow.create(caps);
+        Assert.assertNotNull(glWindow);
+        glWindow.setTitle(getSimpleTestName("."));
+        glWindow.setSize(width, height);
+        glWindow.addGLEventListener(new GearsES2(1));
+        glWindow.addGLEventListener(new GLEventListener() {
+            public void init(GLAutoDrawable drawable) {}
+            public void dispose(GLAutoDrawable drawable) {
+                recorder.dispose(drawable.getGL());
+            }
+            public void display(GLAutoDrawable drawable) {
+                recorder.readPixels(drawable.getGL(), false);
+            }
+            public void reshape(GLAutoDrawable drawable, int x, int y, int width, int height) { }
+        });
+        glWindow.setVisible(true);
+        for(int i=0; i<frames; i++) {
+            glWindow.display();
+        }
+        glWindow.destroy();
+        System.err.println(recorder);
+        Assert.assertEquals(frames, recorder.getCapturedFrameCount());
+        Assert.assertEquals(0, recorder.getFailedFrameCount());
+        Assert.assertEquals(recorder.getCapturedFrameCount(), recorder.getEncodedFrameCount() + recorder.getDroppedFrameCount());
+        Assert.assertTrue(0 < recorder.getEncodedFrameCount());
+    }
+
+    @Test
+    public void testFrameOrder() throws InterruptedException {
+        final AtomicLong lastFrame = new AtomicLong(-1);
+        testRecording(true, 3, new GLAsyncReadBufferUtil.FrameEncoder() {
+            public void encode(GLAsyncReadBufferUtil.Frame frame) throws IOException {
+                Assert.assertTrue(frame.getFrameNumber() > lastFrame.get());
+                Assert.assertEquals(width, frame.getWidth());
+                Assert.assertEquals(height, frame.getHeight());
+                Assert.assertTrue(frame.getData().remaining() >= width * height * 3);
+                lastFrame.set(frame.getFrameNumber());
+            } });
+        Assert.assertEquals(frames - 1, lastFrame.get());
+    }
+
+    @Test
+    public void testWriteFiles() throws InterruptedException {
+        final File dir = new File(getSimpleTestName("."));
+        dir.mkdirs();
+        testRecording(false, 2, GLAsyncReadBufferUtil.createFileEncoder(dir, "frame", TextureIO.TGA));
+    }
+
+    public static void main(String args[]) {
+        org.junit.runner.JUnitCore.main(TestGLAsyncReadBufferUtil01NEWT.class.getName());
+    }
+}
@@ -0,0 +1,199 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.media.opengl.GL;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.opengl.util.texture.MipmapGenerator;
+import com.jogamp.opengl.util.texture.TextureData;
+
+/**
+ * Validates the {@link MipmapGenerator} chain against a reference box filter 
+ * and compares its throughput w/ the former per element buffer positioning.
+ */
+public class TestMipmapGeneratorNOUI {
+
+    static byte[] createImage(int stride, int height, long seed) {
+        final byte[] data = new byte[stride * height];
+        new Random(seed).nextBytes(data);
+        return data;
+    }
+
+    /** Reference 2x2 box filter reading each sample individually. */
+    static byte[] halveReference(byte[] src, int width, int height, int stride, int bpp) {
+        final int w = Math.max(1, width / 2), h = Math.max(1, height / 2);
+        final byte[] dst = new byte[w * h * bpp];
+        for(int y=0; y<h; y++) {
+            final int y0 = Math.min(2*y, height-1), y1 = Math.min(2*y+1, height-1);
+            for(int x=0; x<w; x++) {
+                final int x0 = Math.min(2*x, width-1), x1 = Math.min(2*x+1, width-1);
+                for(int c=0; c<bpp; c++) {
+                    final int a = 0xFF & src[y0*stride + x0*bpp + c], b = 0xFF & src[y0*stride + x1*bpp + c];
+                    final int d = 0xFF & src[y1*stride + x0*bpp + c], e = 0xFF & src[y1*stride + x1*bpp + c];
+                    dst[(y*w + x)*bpp + c] = (byte) ( 1 == width ? ( a + d + 1 ) / 2 : ( a + b + d + e + 2 ) / 4 );
+                }
+            }
+        }
+        return dst;
+    }
+
+    static void validateChain(TextureData data, byte[] base, int stride, int bpp) {
+        final TextureData mipmapped = MipmapGenerator.createMipmapData(data);
+        final Buffer[] levels = mipmapped.getMipmapData();
+        int width = data.getWidth(), height = data.getHeight();
+        Assert.assertEquals(MipmapGenerator.getLevelCount(width, height), levels.length);
+        Assert.assertEquals(1, mipmapped.getAlignment());
+
+        byte[] expected = new byte[width * height * bpp];
+        for(int y=0; y<height; y++) {
+            System.arraycopy(base, y*stride, expected, y*width*bpp, width*bpp);
+        }
+        for(int i=0; i<levels.length; i++) {
+            final ByteBuffer level = (ByteBuffer) levels[i];
+            Assert.assertEquals("level "+i, expected.length, level.remaining());
+            final byte[] actual = new byte[level.remaining()];
+            level.duplicate().get(actual);
+            Assert.assertArrayEquals("level "+i, expected, actual);
+            expected = halveReference(expected, width, height, width * bpp, bpp);
+            width = Math.max(1, width / 2);
+            height = Math.max(1, height / 2);
+        }
+        Assert.assertEquals(1, width);
+        Assert.assertEquals(1, height);
+    }
+
+    static TextureData createTextureData(int width, int height, int format, int alignment, ByteBuffer buffer) {
+        final TextureData data = new TextureData(null, format, width, height, 0, format, GL.GL_UNSIGNED_BYTE,
+                                                 true, false, false, buffer, null);
+        data.setAlignment(alignment);
+        return data;
+    }
+
+    @Test
+    public void test01PowerOfTwoRGBA() {
+        final byte[] base = createImage(256 * 4, 64, 1);
+        validateChain(createTextureData(256, 64, GL.GL_RGBA, 1, ByteBuffer.wrap(base)), base, 256 * 4, 4);
+    }
+
+    @Test
+    public void test02OddRGBAligned() {
+        // 13 * 3 = 39 bytes per row, padded to 40
+        final byte[] base = createImage(40, 7, 2);
+        final ByteBuffer direct = ByteBuffer.allocateDirect(base.length);
+        direct.put(base);
+        direct.rewind();
+        validateChain(createTextureData(13, 7, GL.GL_RGB, 4, direct), base, 40, 3);
+    }
+
+    @Test
+    public void test03Luminance1D() {
+        final byte[] base = createImage(1, 33, 3);
+        validateChain(createTextureData(1, 33, GL.GL_LUMINANCE, 1, ByteBuffer.wrap(base)), base, 1, 1);
+    }
+
+    @Test
+    public void test04ParallelMatchesSequential() {
+        final int width = 1024, height = 512, bpp = 4;
+        final byte[] base = createImage(width * bpp, height, 4);
+        final byte[] seq = new byte[width * height];
+        final byte[] par = new byte[width * height];
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            MipmapGenerator.halveImage(bpp, width, height, base, 0, width * bpp, seq, 0, width / 2 * bpp, null);
+            MipmapGenerator.halveImage(bpp, width, height, base, 0, width * bpp, par, 0, width / 2 * bpp, executor);
+        } finally {
+            executor.shutdown();
+        }
+        Assert.assertArrayEquals(seq, par);
+        Assert.assertArrayEquals(halveReference(base, width, height, width * bpp, bpp), seq);
+    }
+
+    /** The former GLU halving loop, positioning the buffer for each sample. */
+    static void halvePositioned(int components, int width, int height, ByteBuffer datain, ByteBuffer dataout) {
+        final int group_size = components, ysize = width * components;
+        int t = 0, temp;
+        for( int i = 0; i < height / 2; i++ ) {
+            for( int j = 0; j < width / 2; j++ ) {
+                for( int k = 0; k < components; k++ ) {
+                    datain.position( t );
+                    temp = ( 0x000000FF & datain.get() );
+                    datain.position( t + group_size );
+                    temp += ( 0x000000FF & datain.get() );
+                    datain.position( t + ysize );
+                    temp += ( 0x000000FF & datain.get() );
+                    datain.position( t + ysize + group_size );
+                    temp += ( 0x000000FF & datain.get() ) + 2;
+                    dataout.put( (byte)(temp / 4) );
+                    t++;
+                }
+                t += group_size;
+            }
+            t += ysize;
+        }
+    }
+
+    @Test
+    public void test05Benchmark() {
+        final int width = 1024, height = 1024, bpp = 4, loops = 10;
+        final byte[] base = createImage(width * bpp, height, 5);
+        final ByteBuffer src = ByteBuffer.allocateDirect(base.length);
+        src.put(base);
+        src.rewind();
+        final ByteBuffer dst0 = ByteBuffer.allocateDirect(base.length / 4);
+        final ByteBuffer dst1 = ByteBuffer.allocateDirect(base.length / 4);
+        long tPositioned = 0, tBulk = 0;
+        for(int i=0; i<loops+2; i++) {
+            dst0.clear();
+            final long t0 = System.nanoTime();
+            halvePositioned(bpp, width, height, src, dst0);
+            final long t1 = System.nanoTime();
+            MipmapGenerator.halveImage(bpp, width, height, src, 0, width * bpp, dst1, 0, width / 2 * bpp);
+            final long t2 = System.nanoTime();
+            if( 2 <= i ) {
+                tPositioned += t1 - t0;
+                tBulk += t2 - t1;
+            }
+        }
+        dst0.rewind();
+        Assert.assertEquals(dst0, dst1);
+        System.err.println(width+"x"+height+" RGBA halving: positioned "+(tPositioned/1e6/loops)+" ms, bulk "+(tBulk/1e6/loops)+" ms");
+    }
+
+    public static void main(String args[]) {
+        org.junit.runner.JUnitCore.main(TestMipmapGeneratorNOUI.class.getName());
+    }
+}
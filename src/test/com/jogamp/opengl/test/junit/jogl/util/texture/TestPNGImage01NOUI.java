@@ -0,0 +1,256 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+
+import javax.media.opengl.GL;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.util.texture.spi.PNGImage;
+
+/**
+ * Round trips PNGImage data through PngWriter and the bulk row decoder,
+ * and decodes synthetic Adam7 interlaced, indexed and 16 bit images.
+ */
+public class TestPNGImage01NOUI {
+    static final int width = 131, height = 67;
+
+    static ByteBuffer createData(int bytesPerPixel) {
+        final ByteBuffer data = Buffers.newDirectByteBuffer(bytesPerPixel * width * height);
+        for(int y=0; y<height; y++) {
+            for(int x=0; x<width; x++) {
+                for(int c=0; c<bytesPerPixel; c++) {
+                    // gradients and noise, exercising all row filters
+                    final int v = 0 == ( x & 8 ) ? x * ( c + 1 ) + y * 3 : ( ( x * 31 + y * 17 + c * 7 ) * 0x9E3779B1 ) >>> 24;
+                    data.put((byte)v);
+                }
+            }
+        }
+        data.rewind();
+        return data;
+    }
+
+    void testRoundTrip(int bytesPerPixel) throws IOException {
+        final ByteBuffer data = createData(bytesPerPixel);
+        final PNGImage image0 = PNGImage.createFromData(width, height, 72.0, 72.0, bytesPerPixel, false, data);
+        final File file = File.createTempFile("TestPNGImage01NOUI", ".png");
+        file.deleteOnExit();
+        try {
+            image0.write(file, true);
+            final InputStream in = new FileInputStream(file);
+            final PNGImage image1;
+            try {
+                image1 = PNGImage.read(in);
+            } finally {
+                in.close();
+            }
+            System.err.println(image1);
+            Assert.assertEquals(width, image1.getWidth());
+            Assert.assertEquals(height, image1.getHeight());
+            Assert.assertEquals(bytesPerPixel, image1.getBytesPerPixel());
+            final ByteBuffer data1 = image1.getData();
+            Assert.assertEquals(0, data1.position());
+            Assert.assertEquals(data.capacity(), data1.remaining());
+            for(int i=0; i<data.capacity(); i++) {
+                Assert.assertEquals("byte "+i, data.get(i), data1.get(i));
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void test01RGB() throws IOException {
+        testRoundTrip(3);
+    }
+
+    @Test
+    public void test02RGBA() throws IOException {
+        testRoundTrip(4);
+    }
+
+    @Test
+    public void test03Grayscale() throws IOException {
+        final InputStream in = TestPNGImage01NOUI.class.getResourceAsStream("grayscale_texture.png");
+        Assert.assertNotNull(in);
+        try {
+            final PNGImage image = PNGImage.read(in);
+            System.err.println(image);
+            Assert.assertEquals(1, image.getBytesPerPixel());
+            Assert.assertEquals(image.getWidth() * image.getHeight(), image.getData().remaining());
+        } finally {
+            in.close();
+        }
+    }
+
+    static void writeChunk(DataOutputStream out, String type, byte[] data) throws IOException {
+        final byte[] t = type.getBytes("ISO-8859-1");
+        final CRC32 crc = new CRC32();
+        crc.update(t);
+        crc.update(data);
+        out.writeInt(data.length);
+        out.write(t);
+        out.write(data);
+        out.writeInt((int)crc.getValue());
+    }
+
+    /** 
+     * Creates a PNG w/ filter type NONE.
+     * @param rows packed rows of the full image, deinterlaced
+     */
+    static byte[] createPNG(int w, int h, int bitDepth, int colorType, boolean interlaced, byte[][] rows, String[] chunkTypes, byte[][] chunks) throws IOException {
+        final int bitsPixel = bitDepth * ( 2 == colorType ? 3 : 1 );
+        final ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        final int[][] passes = interlaced ? new int[][] { {0,0,8,8}, {4,0,8,8}, {0,4,4,8}, {2,0,4,4}, {0,2,2,4}, {1,0,2,2}, {0,1,1,2} }
+                                          : new int[][] { {0,0,1,1} };
+        for(int p=0; p<passes.length; p++) {
+            final int x0 = passes[p][0], y0 = passes[p][1], dx = passes[p][2], dy = passes[p][3];
+            if( x0 >= w || y0 >= h ) {
+                continue;
+            }
+            for(int y=y0; y<h; y+=dy) {
+                raw.write(0); // filter NONE
+                int acc = 0, bits = 0;
+                for(int x=x0; x<w; x+=dx) {
+                    for(int b=0; b<bitsPixel; b++) {
+                        final int sbit = x * bitsPixel + b;
+                        acc = ( acc << 1 ) | ( ( rows[y][sbit >> 3] >> ( 7 - ( sbit & 7 ) ) ) & 1 );
+                        if( 8 == ++bits ) {
+                            raw.write(acc);
+                            acc = 0;
+                            bits = 0;
+                        }
+                    }
+                }
+                if( 0 < bits ) {
+                    raw.write(acc << ( 8 - bits ));
+                }
+            }
+        }
+        final ByteArrayOutputStream idat = new ByteArrayOutputStream();
+        final DeflaterOutputStream z = new DeflaterOutputStream(idat);
+        z.write(raw.toByteArray());
+        z.close();
+
+        final ByteArrayOutputStream png = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(png);
+        out.write(new byte[] { (byte)0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n' });
+        final ByteArrayOutputStream ihdr = new ByteArrayOutputStream();
+        final DataOutputStream ihdrOut = new DataOutputStream(ihdr);
+        ihdrOut.writeInt(w);
+        ihdrOut.writeInt(h);
+        ihdrOut.write(new byte[] { (byte)bitDepth, (byte)colorType, 0, 0, (byte)( interlaced ? 1 : 0 ) });
+        writeChunk(out, "IHDR", ihdr.toByteArray());
+        for(int i=0; i<chunkTypes.length; i++) {
+            writeChunk(out, chunkTypes[i], chunks[i]);
+        }
+        writeChunk(out, "IDAT", idat.toByteArray());
+        writeChunk(out, "IEND", new byte[0]);
+        return png.toByteArray();
+    }
+
+    @Test
+    public void test04InterlacedPalette() throws IOException {
+        final int w = 13, h = 7;
+        final byte[] plte = new byte[] { 0, 0, 0,  (byte)255, 0, 0,  0, (byte)255, 0,  0, 0, (byte)255 };
+        final byte[] trns = new byte[] { 0, (byte)128 }; // index 2 and 3 are opaque
+        final byte[][] rows = new byte[h][( w * 2 + 7 ) / 8];
+        final int[][] index = new int[h][w];
+        for(int y=0; y<h; y++) {
+            for(int x=0; x<w; x++) {
+                index[y][x] = ( x + y * 3 ) & 3;
+                rows[y][x >> 2] |= index[y][x] << ( 6 - 2 * ( x & 3 ) );
+            }
+        }
+        final byte[] png = createPNG(w, h, 2, 3, true, rows, new String[] { "PLTE", "tRNS" }, new byte[][] { plte, trns });
+        final PNGImage image = PNGImage.read(new ByteArrayInputStream(png));
+        System.err.println(image);
+        Assert.assertEquals(GL.GL_RGBA, image.getGLFormat());
+        Assert.assertEquals(GL.GL_UNSIGNED_BYTE, image.getGLType());
+        Assert.assertEquals(4, image.getBytesPerPixel());
+        final ByteBuffer data = image.getData();
+        for(int y=0; y<h; y++) {
+            for(int x=0; x<w; x++) {
+                final int i = index[y][x];
+                final int o = ( ( h - 1 - y ) * w + x ) * 4; // bottom-to-top
+                Assert.assertEquals(plte[i*3  ], data.get(o  ));
+                Assert.assertEquals(plte[i*3+1], data.get(o+1));
+                Assert.assertEquals(plte[i*3+2], data.get(o+2));
+                Assert.assertEquals(i < trns.length ? trns[i] : (byte)255, data.get(o+3));
+            }
+        }
+    }
+
+    @Test
+    public void test05RGB16() throws IOException {
+        final int w = 5, h = 3;
+        final byte[][] rows = new byte[h][w * 6];
+        for(int y=0; y<h; y++) {
+            for(int i=0; i<w*6; i++) {
+                rows[y][i] = (byte) ( i * 37 + y * 11 );
+            }
+        }
+        for(int interlaced=0; interlaced<2; interlaced++) {
+            final byte[] png = createPNG(w, h, 16, 2, 1 == interlaced, rows, new String[0], new byte[0][]);
+            final PNGImage image8 = PNGImage.read(new ByteArrayInputStream(png));
+            final PNGImage image16 = PNGImage.read(new ByteArrayInputStream(png), true);
+            Assert.assertEquals(GL.GL_UNSIGNED_BYTE, image8.getGLType());
+            Assert.assertEquals(3, image8.getBytesPerPixel());
+            Assert.assertEquals(GL.GL_UNSIGNED_SHORT, image16.getGLType());
+            Assert.assertEquals(6, image16.getBytesPerPixel());
+            final ByteBuffer data8 = image8.getData();
+            final ByteBuffer data16 = image16.getData().order(ByteOrder.nativeOrder());
+            for(int y=0; y<h; y++) {
+                for(int i=0; i<w*3; i++) {
+                    final int o = ( h - 1 - y ) * w * 3 + i; // bottom-to-top
+                    final int v = ( ( rows[y][2*i] & 0xff ) << 8 ) | ( rows[y][2*i+1] & 0xff );
+                    Assert.assertEquals(rows[y][2*i], data8.get(o));
+                    Assert.assertEquals(v, data16.getShort(o * 2) & 0xffff);
+                }
+            }
+        }
+    }
+
+    public static void main(String args[]) {
+        org.junit.runner.JUnitCore.main(TestPNGImage01NOUI.class.getName());
+    }
+}
@@ -0,0 +1,260 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import jogamp.opengl.util.pngj.FilterType;
+import jogamp.opengl.util.pngj.ImageInfo;
+import jogamp.opengl.util.pngj.ImageLine;
+import jogamp.opengl.util.pngj.PngWriter;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.jogamp.opengl.util.texture.spi.PNGImage;
+
+/**
+ * Compares PngWriter's parallel block encoding against the serial writer,
+ * validating the concatenated zlib stream, and measures their throughput.
+ */
+public class TestPNGImage02ParallelWriteNOUI {
+    static ExecutorService executor;
+
+    @BeforeClass
+    public static void setup() {
+        Assume.assumeTrue(PngWriter.isParallelEncodingAvailable());
+        executor = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+    }
+
+    @AfterClass
+    public static void release() {
+        if( null != executor ) {
+            executor.shutdown();
+        }
+    }
+
+    /** RGB(A) rows top-to-bottom, w/ gradients, noise and flat areas */
+    static byte[] createPixels(int w, int h, int channels) {
+        final byte[] pixels = new byte[w * h * channels];
+        for(int y=0, i=0; y<h; y++) {
+            for(int x=0; x<w; x++) {
+                for(int c=0; c<channels; c++) {
+                    final int v;
+                    if( 0 == ( ( x >> 5 ) & 3 ) ) {
+                        v = ( ( x * 31 + y * 17 + c * 7 ) * 0x9E3779B1 ) >>> 24;
+                    } else if( 1 == ( ( y >> 6 ) & 1 ) ) {
+                        v = 0x40 * c;
+                    } else {
+                        v = x * ( c + 1 ) + y;
+                    }
+                    pixels[i++] = (byte)v;
+                }
+            }
+        }
+        return pixels;
+    }
+
+    /**
+     * @param rowsPerBlock -1 for the serial writer
+     */
+    static byte[] encode(byte[] pixels, int w, int h, int channels, FilterType filterType, int rowsPerBlock) {
+        return encode(pixels, w, h, channels, filterType, rowsPerBlock, executor);
+    }
+
+    static byte[] encode(byte[] pixels, int w, int h, int channels, FilterType filterType, int rowsPerBlock,
+                         ExecutorService executor) {
+        final ImageInfo imi = new ImageInfo(w, h, 8, 4 == channels);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final PngWriter png = new PngWriter(out, imi);
+        png.setFilterType(filterType);
+        if( 0 <= rowsPerBlock ) {
+            png.setParallelEncoding(executor, rowsPerBlock);
+            Assert.assertTrue(png.isParallelEncoding());
+        }
+        final ImageLine line = new ImageLine(imi);
+        for(int y=0, i=0; y<h; y++) {
+            for(int j=0; j<w*channels; j++) {
+                line.scanline[j] = pixels[i++] & 0xff;
+            }
+            png.writeRow(line, y);
+        }
+        png.end();
+        return out.toByteArray();
+    }
+
+    /** Inflates the concatenated IDAT chunks, which fails on an invalid stream or adler32 checksum. */
+    static int inflateIDAT(byte[] png) throws IOException, DataFormatException {
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(png));
+        in.skipBytes(8);
+        final ByteArrayOutputStream zdata = new ByteArrayOutputStream();
+        while( true ) {
+            final int len = in.readInt();
+            final byte[] type = new byte[4];
+            in.readFully(type);
+            final byte[] data = new byte[len];
+            in.readFully(data);
+            in.readInt(); // crc
+            final String t = new String(type, "ISO-8859-1");
+            if( "IDAT".equals(t) ) {
+                zdata.write(data);
+            } else if( "IEND".equals(t) ) {
+                break;
+            }
+        }
+        final Inflater inf = new Inflater();
+        inf.setInput(zdata.toByteArray());
+        final byte[] buf = new byte[65536];
+        int total = 0;
+        while( !inf.finished() ) {
+            final int n = inf.inflate(buf);
+            Assert.assertFalse("truncated zlib stream", 0 == n && inf.needsInput());
+            total += n;
+        }
+        Assert.assertEquals(0, inf.getRemaining());
+        inf.end();
+        return total;
+    }
+
+    static void assertPixels(byte[] pixels, int w, int h, int channels, byte[] png) throws IOException {
+        final PNGImage image = PNGImage.read(new ByteArrayInputStream(png));
+        Assert.assertEquals(w, image.getWidth());
+        Assert.assertEquals(h, image.getHeight());
+        Assert.assertEquals(channels, image.getBytesPerPixel());
+        final ByteBuffer data = image.getData();
+        final int rowBytes = w * channels;
+        for(int y=0; y<h; y++) {
+            final int o = ( h - 1 - y ) * rowBytes; // bottom-to-top
+            for(int i=0; i<rowBytes; i++) {
+                if( pixels[y * rowBytes + i] != data.get(o + i) ) {
+                    Assert.fail("row "+y+", byte "+i);
+                }
+            }
+        }
+    }
+
+    void testRoundTrip(int w, int h, int channels, FilterType filterType, int rowsPerBlock) throws Exception {
+        final byte[] pixels = createPixels(w, h, channels);
+        final byte[] png = encode(pixels, w, h, channels, filterType, rowsPerBlock);
+        Assert.assertEquals(h * ( w * channels + 1 ), inflateIDAT(png));
+        assertPixels(pixels, w, h, channels, png);
+    }
+
+    @Test
+    public void test01BlockSizes() throws Exception {
+        final int[] rowsPerBlock = { 0, 1, 7, 64, 1000 };
+        for(int i=0; i<rowsPerBlock.length; i++) {
+            testRoundTrip(301, 203, 3, FilterType.FILTER_DEFAULT, rowsPerBlock[i]);
+            testRoundTrip(301, 203, 4, FilterType.FILTER_DEFAULT, rowsPerBlock[i]);
+        }
+    }
+
+    @Test
+    public void test02Filters() throws Exception {
+        final FilterType[] types = { FilterType.FILTER_NONE, FilterType.FILTER_SUB, FilterType.FILTER_UP,
+                                     FilterType.FILTER_AVERAGE, FilterType.FILTER_PAETH,
+                                     FilterType.FILTER_AGGRESSIVE, FilterType.FILTER_VERYAGGRESSIVE };
+        for(int i=0; i<types.length; i++) {
+            testRoundTrip(97, 89, 4, types[i], 5);
+        }
+    }
+
+    @Test
+    public void test03SmallImages() throws Exception {
+        testRoundTrip(1, 1, 3, FilterType.FILTER_DEFAULT, 0);
+        testRoundTrip(3, 2, 4, FilterType.FILTER_DEFAULT, 1);
+        testRoundTrip(2000, 1, 4, FilterType.FILTER_DEFAULT, 0);
+    }
+
+    /**
+     * A single worker taking the latest task first, i.e. tasks do not start in submission order:
+     * a worker waiting on another block's task would never return.
+     */
+    @Test(timeout=60000)
+    public void test04SingleWorkerLIFO() throws Exception {
+        @SuppressWarnings("serial")
+        final LinkedBlockingDeque<Runnable> lifo = new LinkedBlockingDeque<Runnable>() {
+            @Override
+            public boolean offer(Runnable r) { return offerFirst(r); }
+        };
+        final ExecutorService single = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, lifo);
+        try {
+            final int w = 257, h = 211;
+            final byte[] pixels = createPixels(w, h, 4);
+            final byte[] png = encode(pixels, w, h, 4, FilterType.FILTER_DEFAULT, 3, single);
+            Assert.assertEquals(h * ( w * 4 + 1 ), inflateIDAT(png));
+            assertPixels(pixels, w, h, 4, png);
+        } finally {
+            single.shutdown();
+        }
+    }
+
+    @Test
+    public void test10Throughput() throws Exception {
+        final int w = 1920, h = 1080, channels = 4, loops = 4;
+        final byte[] pixels = createPixels(w, h, channels);
+        encode(pixels, w, h, channels, FilterType.FILTER_DEFAULT, -1); // warm up
+        encode(pixels, w, h, channels, FilterType.FILTER_DEFAULT, 0);
+
+        int serialSize = 0, parallelSize = 0;
+        long t0 = System.nanoTime();
+        for(int i=0; i<loops; i++) {
+            serialSize = encode(pixels, w, h, channels, FilterType.FILTER_DEFAULT, -1).length;
+        }
+        final long serialNS = ( System.nanoTime() - t0 ) / loops;
+        t0 = System.nanoTime();
+        for(int i=0; i<loops; i++) {
+            parallelSize = encode(pixels, w, h, channels, FilterType.FILTER_DEFAULT, 0).length;
+        }
+        final long parallelNS = ( System.nanoTime() - t0 ) / loops;
+        final double mb = w * h * channels / ( 1024.0 * 1024.0 );
+        System.err.println("PngWriter "+w+"x"+h+"x"+channels+", "+Runtime.getRuntime().availableProcessors()+" cpus");
+        System.err.printf("  serial:   %7.2f ms/frame, %7.2f MB/s, %d bytes%n", serialNS/1e6, mb * 1e9 / serialNS, serialSize);
+        System.err.printf("  parallel: %7.2f ms/frame, %7.2f MB/s, %d bytes%n", parallelNS/1e6, mb * 1e9 / parallelNS, parallelSize);
+        // block boundaries cost little compression
+        Assert.assertTrue(parallelSize < serialSize * 1.05 + 1024);
+    }
+
+    public static void main(String args[]) {
+        org.junit.runner.JUnitCore.main(TestPNGImage02ParallelWriteNOUI.class.getName());
+    }
+}
@@ -0,0 +1,275 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import javax.media.opengl.GL;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.opengl.util.TGAWriter;
+import com.jogamp.opengl.util.texture.spi.TGAImage;
+
+/**
+ * Round trips run-length encoded Targa images, decodes hand crafted
+ * color mapped and grayscale files and compares the decoding throughput
+ * w/ the former row by row implementation.
+ */
+public class TestTGAImageNOUI {
+
+    /** Screenshot like BGR(A) content: uniform blocks w/ some noise. */
+    static byte[] createImage(int width, int height, int bpp, long seed) {
+        final Random rnd = new Random(seed);
+        final byte[] data = new byte[width * height * bpp];
+        final byte[] color = new byte[bpp];
+        for(int y=0; y<height; y++) {
+            for(int x=0; x<width; x++) {
+                if( 0 == x % 37 || 0 == rnd.nextInt(16) ) {
+                    rnd.nextBytes(color);
+                }
+                System.arraycopy(color, 0, data, (y*width + x)*bpp, bpp);
+            }
+        }
+        return data;
+    }
+
+    static ByteBuffer direct(byte[] data) {
+        final ByteBuffer buf = ByteBuffer.allocateDirect(data.length);
+        buf.put(data);
+        buf.rewind();
+        return buf;
+    }
+
+    static File tempFile() throws IOException {
+        final File file = File.createTempFile("TestTGAImageNOUI", ".tga");
+        file.deleteOnExit();
+        return file;
+    }
+
+    static File writeFile(byte[] content) throws IOException {
+        final File file = tempFile();
+        final FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content);
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+
+    static byte[] header(int imageType, int colorMapType, int colorMapLength, int colorMapEntrySize,
+                         int width, int height, int pixelDepth, int descriptor) {
+        return new byte[] { 0, (byte)colorMapType, (byte)imageType,
+                            0, 0, (byte)colorMapLength, (byte)(colorMapLength >> 8), (byte)colorMapEntrySize,
+                            0, 0, 0, 0, (byte)width, (byte)(width >> 8), (byte)height, (byte)(height >> 8),
+                            (byte)pixelDepth, (byte)descriptor };
+    }
+
+    static byte[] concat(byte[]... parts) {
+        int n = 0;
+        for(int i=0; i<parts.length; i++) { n += parts[i].length; }
+        final byte[] res = new byte[n];
+        n = 0;
+        for(int i=0; i<parts.length; i++) {
+            System.arraycopy(parts[i], 0, res, n, parts[i].length);
+            n += parts[i].length;
+        }
+        return res;
+    }
+
+    static void assertContent(byte[] expected, ByteBuffer actual) {
+        Assert.assertEquals(expected.length, actual.remaining());
+        final int p = actual.position();
+        for(int i=0; i<expected.length; i++) {
+            if( expected[i] != actual.get(p+i) ) {
+                Assert.fail("byte "+i+": expected "+expected[i]+", got "+actual.get(p+i));
+            }
+        }
+    }
+
+    static byte[] swapBGR(byte[] data, int bpp) {
+        final byte[] res = data.clone();
+        for(int i=0; i<res.length; i+=bpp) {
+            res[i] = data[i+2];
+            res[i+2] = data[i];
+        }
+        return res;
+    }
+
+    void testRoundTrip(int width, int height, int bpp) throws IOException {
+        final byte[] bgr = createImage(width, height, bpp, 4711);
+        final File rleFile = tempFile(), rawFile = tempFile();
+        TGAImage.createFromData(width, height, 4 == bpp, false, true, direct(bgr)).write(rleFile);
+        TGAImage.createFromData(width, height, 4 == bpp, false, direct(bgr)).write(rawFile);
+        System.err.println(bpp*8+"-bit "+width+"x"+height+": RLE "+rleFile.length()+" bytes, uncompressed "+rawFile.length()+" bytes");
+        Assert.assertTrue(rleFile.length() < rawFile.length());
+
+        final TGAImage rle = TGAImage.read(null, rleFile);
+        Assert.assertEquals(width, rle.getWidth());
+        Assert.assertEquals(height, rle.getHeight());
+        Assert.assertEquals(bpp, rle.getBytesPerPixel());
+        Assert.assertEquals(4 == bpp ? GL.GL_RGBA : GL.GL_RGB, rle.getGLFormat());
+        Assert.assertTrue(rle.getData().isDirect());
+        assertContent(swapBGR(bgr, bpp), rle.getData());
+
+        final TGAImage raw = TGAImage.read(null, rawFile);
+        assertContent(swapBGR(bgr, bpp), raw.getData());
+    }
+
+    @Test
+    public void test01RoundTripRLE32() throws IOException {
+        testRoundTrip(301, 67, 4);
+    }
+
+    @Test
+    public void test02RoundTripRLE24() throws IOException {
+        testRoundTrip(130, 129, 3);
+    }
+
+    @Test
+    public void test03ColorMappedRLE() throws IOException {
+        // 3x2 top-to-bottom, one run spanning both rows
+        final byte[] colorMap = { 1, 2, 3,  4, 5, 6,  7, 8, 9 }; // BGR
+        final byte[] pixels = { (byte)0x81, 2,        // run of 2 x index 2
+                                0x01, 0, 1,          // raw 0, 1
+                                (byte)0x81, 1 };     // run of 2 x index 1, crossing the row
+        final File file = writeFile(concat(header(9, 1, 3, 24, 3, 2, 8, 0x20), colorMap, pixels));
+        final TGAImage image = TGAImage.read(null, file);
+        Assert.assertEquals(GL.GL_RGB, image.getGLFormat());
+        // bottom-to-top in RGB order
+        assertContent(new byte[] { 6, 5, 4,  6, 5, 4,  6, 5, 4,
+                                   9, 8, 7,  9, 8, 7,  3, 2, 1 }, image.getData());
+    }
+
+    @Test
+    public void test04GrayscaleZeroCopy() throws IOException {
+        final byte[] pixels = { 10, 20, 30, 40, 50, 60 };
+        final ByteBuffer src = direct(concat(header(3, 0, 0, 0, 3, 2, 8, 0), pixels));
+        final TGAImage image = TGAImage.read(null, src);
+        Assert.assertEquals(GL.GL_LUMINANCE, image.getGLFormat());
+        assertContent(pixels, image.getData());
+        // bottom-to-top uncompressed data is shared w/ the source
+        src.put(18, (byte)99);
+        Assert.assertEquals(99, image.getData().get(0));
+
+        // same content run-length encoded and top-to-bottom, via stream
+        final byte[] rle = { (byte)0x80, 40, 0x01, 50, 60, 0x02, 10, 20, 30 };
+        final InputStream in = new ByteArrayInputStream(concat(header(11, 0, 0, 0, 3, 2, 8, 0x20), rle));
+        assertContent(pixels, TGAImage.read(null, in).getData());
+    }
+
+    @Test
+    public void test05TGAWriterRLE() throws IOException {
+        final int width = 64, height = 48;
+        final byte[] bgra = createImage(width, height, 4, 42);
+        final File file = tempFile();
+        final TGAWriter writer = new TGAWriter();
+        writer.open(file, width, height, true, true);
+        writer.getImageData().put(bgra);
+        writer.close();
+        Assert.assertTrue(file.length() < 18 + bgra.length);
+        assertContent(swapBGR(bgra, 4), TGAImage.read(null, file).getData());
+    }
+
+    /** The former decoding: row by row into a temporary array, swizzling per byte. */
+    static byte[] decodeFormer(InputStream in, int width, int height, int bpp) throws IOException {
+        final DataInputStream dIn = new DataInputStream(in);
+        dIn.skipBytes(18);
+        final int rawWidth = width * bpp;
+        final byte[] rawBuf = new byte[rawWidth];
+        final byte[] tmpData = new byte[rawWidth * height];
+        for (int i = 0; i < height; ++i) {
+            dIn.readFully(rawBuf, 0, rawWidth);
+            System.arraycopy(rawBuf, 0, tmpData, i * rawWidth, rawBuf.length);
+        }
+        for(int i=0; i<height; ++i) {
+            for(int j=0; j<rawWidth; j+=bpp) {
+                final int k=i*rawWidth+j;
+                final byte b=tmpData[k+0];
+                tmpData[k+0]=tmpData[k+2];
+                tmpData[k+2]=b;
+            }
+        }
+        return tmpData;
+    }
+
+    @Test
+    public void test06Benchmark() throws IOException {
+        final int width = 1024, height = 768, bpp = 4, loops = 10;
+        final byte[] bgr = createImage(width, height, bpp, 11);
+        final File rleFile = tempFile(), rawFile = tempFile();
+        TGAImage.createFromData(width, height, true, false, true, direct(bgr)).write(rleFile);
+        TGAImage.createFromData(width, height, true, false, direct(bgr)).write(rawFile);
+        final byte[] rawBytes = new byte[(int) rawFile.length()];
+        final DataInputStream rawIn = new DataInputStream(new FileInputStream(rawFile));
+        try {
+            rawIn.readFully(rawBytes);
+        } finally {
+            rawIn.close();
+        }
+
+        final ByteBuffer rawBuffer = direct(rawBytes);
+
+        long tFormer = Long.MAX_VALUE, tBuffer = Long.MAX_VALUE, tRaw = Long.MAX_VALUE, tRLE = Long.MAX_VALUE, tEncode = Long.MAX_VALUE;
+        for(int l=0; l<loops; l++) {
+            long t0 = System.nanoTime();
+            decodeFormer(new ByteArrayInputStream(rawBytes), width, height, bpp);
+            long tb = System.nanoTime();
+            TGAImage.read(null, rawBuffer);
+            tBuffer = Math.min(tBuffer, System.nanoTime() - tb);
+            long t1 = System.nanoTime();
+            TGAImage.read(null, rawFile);
+            long t2 = System.nanoTime();
+            TGAImage.read(null, rleFile);
+            long t3 = System.nanoTime();
+            TGAImage.createFromData(width, height, true, false, true, direct(bgr)).write(rleFile);
+            long t4 = System.nanoTime();
+            tFormer = Math.min(tFormer, t1 - t0);
+            tRaw = Math.min(tRaw, t2 - t1);
+            tRLE = Math.min(tRLE, t3 - t2);
+            tEncode = Math.min(tEncode, t4 - t3);
+        }
+        System.err.println("Decode "+width+"x"+height+" BGRA -> RGBA: former "+tFormer/1000+" us, buffer "+tBuffer/1000+" us, mapped "+tRaw/1000+
+                           " us, mapped RLE "+tRLE/1000+" us; RLE encode + write "+tEncode/1000+" us; RLE ratio "+
+                           (100 * rleFile.length() / rawFile.length())+"%");
+    }
+
+    public static void main(String args[]) {
+        org.junit.runner.JUnitCore.main(TestTGAImageNOUI.class.getName());
+    }
+}
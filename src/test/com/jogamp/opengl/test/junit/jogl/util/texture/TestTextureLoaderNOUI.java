@@ -0,0 +1,344 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GLException;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.util.texture.Texture;
+import com.jogamp.opengl.util.texture.TextureData;
+import com.jogamp.opengl.util.texture.TextureLoader;
+import com.jogamp.opengl.util.texture.spi.PNGImage;
+
+/**
+ * Drives the asynchronous {@link TextureLoader} against a mock GL, 
+ * i.e. texture creation and row updates are simulated by copying the texture data,
+ * and measures decode throughput as well as the per frame upload time.
+ */
+public class TestTextureLoaderNOUI {
+    static ExecutorService executor;
+    static List<byte[]> pngFiles;
+    static final int pngCount = 24, pngSize = 256;
+
+    /** Mock GL upload, copying the uploaded rows into simulated texture memory. */
+    static class MockLoader extends TextureLoader {
+        final List<String> log = new ArrayList<String>();
+        long uploadedBytes = 0;
+        byte[] vram = new byte[0];
+
+        MockLoader() { this(executor); }
+
+        MockLoader(ExecutorService executor) { super(null, executor); }
+
+        @Override
+        protected Texture createTexture(GL gl, TextureData data) {
+            if( null != data.getBuffer() ) {
+                copy((ByteBuffer) data.getBuffer(), 0, data.getBuffer().remaining());
+            }
+            log.add("create "+data.getWidth()+"x"+data.getHeight()+" "+(null != data.getBuffer()));
+            return new Texture(GL.GL_TEXTURE_2D);
+        }
+
+        @Override
+        protected void updateRows(GL gl, Texture texture, TextureData data, int y, int rows) {
+            final int rowBytes = data.getBuffer().remaining() / data.getHeight();
+            copy((ByteBuffer) data.getBuffer(), y * rowBytes, rows * rowBytes);
+            log.add("rows "+y+" "+rows);
+        }
+
+        void copy(ByteBuffer src, int offset, int length) {
+            if( vram.length < length ) {
+                vram = new byte[length];
+            }
+            final ByteBuffer s = src.duplicate();
+            s.position(s.position() + offset);
+            s.get(vram, 0, length);
+            uploadedBytes += length;
+        }
+    }
+
+    static class CountingListener implements TextureLoader.Listener {
+        final Thread glThread = Thread.currentThread();
+        int loaded = 0, failed = 0;
+        Throwable lastCause;
+        public void textureLoaded(Object source, Texture texture) {
+            Assert.assertEquals(glThread, Thread.currentThread());
+            Assert.assertNotNull(texture);
+            loaded++;
+        }
+        public void textureFailed(Object source, Throwable cause) {
+            Assert.assertEquals(glThread, Thread.currentThread());
+            lastCause = cause;
+            failed++;
+        }
+    }
+
+    @BeforeClass
+    public static void setup() throws IOException {
+        executor = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        pngFiles = new ArrayList<byte[]>();
+        final File file = File.createTempFile("TestTextureLoaderNOUI", ".png");
+        file.deleteOnExit();
+        for(int i=0; i<pngCount; i++) {
+            final ByteBuffer data = Buffers.newDirectByteBuffer(4 * pngSize * pngSize);
+            for(int j=0; j<data.capacity(); j++) {
+                data.put((byte) ( ( j * 31 + i * 7 ) ^ ( j >> 10 ) ));
+            }
+            data.rewind();
+            PNGImage.createFromData(pngSize, pngSize, 72.0, 72.0, 4, false, data).write(file, true);
+            final RandomAccessFile raf = new RandomAccessFile(file, "r");
+            try {
+                final byte[] bytes = new byte[(int) raf.length()];
+                raf.readFully(bytes);
+                pngFiles.add(bytes);
+            } finally {
+                raf.close();
+            }
+        }
+    }
+
+    @AfterClass
+    public static void release() {
+        executor.shutdown();
+    }
+
+    static TextureData decodePNG(byte[] bytes) throws IOException {
+        final PNGImage image = PNGImage.read(new ByteArrayInputStream(bytes));
+        return new TextureData(null, image.getGLFormat(), image.getWidth(), image.getHeight(), 0, 
+                               image.getGLFormat(), image.getGLType(), false, false, false, image.getData(), null);
+    }
+
+    static Callable<TextureData> pngDecoder(final byte[] bytes) {
+        return new Callable<TextureData>() {
+            public TextureData call() throws IOException {
+                return decodePNG(bytes);
+            } };
+    }
+
+    /** Calls {@link TextureLoader#upload(GL)} once per simulated frame until idle, returns the frame count. */
+    static int runFrames(TextureLoader loader, long[] maxFrameNanos) throws InterruptedException {
+        int frames = 0;
+        while( !loader.isIdle() ) {
+            final long t0 = System.nanoTime();
+            loader.upload(null);
+            final long dt = System.nanoTime() - t0;
+            if( null != maxFrameNanos ) {
+                maxFrameNanos[0] = Math.max(maxFrameNanos[0], dt);
+            }
+            frames++;
+            Thread.sleep(1);
+        }
+        return frames;
+    }
+
+    @Test
+    public void test01DecodeAndUpload() throws Exception {
+        final MockLoader loader = new MockLoader();
+        final CountingListener listener = new CountingListener();
+        final List<Future<Texture>> futures = new ArrayList<Future<Texture>>();
+        for(int i=0; i<pngCount; i++) {
+            futures.add(loader.load("png"+i, pngDecoder(pngFiles.get(i)), listener));
+        }
+        runFrames(loader, null);
+        Assert.assertEquals(pngCount, listener.loaded);
+        Assert.assertEquals(0, listener.failed);
+        for(int i=0; i<pngCount; i++) {
+            Assert.assertTrue(futures.get(i).isDone());
+            Assert.assertNotNull(futures.get(i).get());
+        }
+        Assert.assertEquals((long) pngCount * 4 * pngSize * pngSize, loader.uploadedBytes);
+    }
+
+    @Test
+    public void test02SlicedUpload() throws Exception {
+        final MockLoader loader = new MockLoader();
+        final int width = 512, height = 512, rowBytes = 4 * width;
+        loader.setUploadBudget(Long.MAX_VALUE, 32 * rowBytes);
+        final TextureData data = new TextureData(null, GL.GL_RGBA, width, height, 0, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE, 
+                                                 false, false, false, Buffers.newDirectByteBuffer(rowBytes * height), null);
+        final Future<Texture> f = loader.load(data, null);
+        final int frames = runFrames(loader, null);
+        Assert.assertTrue(f.isDone());
+        Assert.assertEquals(height / 32, frames);
+        Assert.assertEquals("create 512x512 false", loader.log.get(0));
+        int y = 0;
+        for(int i=1; i<loader.log.size(); i++) {
+            Assert.assertEquals("rows "+y+" 32", loader.log.get(i));
+            y += 32;
+        }
+        Assert.assertEquals(height, y);
+    }
+
+    @Test
+    public void test03FailureAndCancel() throws Exception {
+        final MockLoader loader = new MockLoader();
+        final CountingListener listener = new CountingListener();
+        final Future<Texture> failing = loader.load("broken", new Callable<TextureData>() {
+            public TextureData call() throws IOException {
+                throw new IOException("broken stream");
+            } }, listener);
+        final Future<Texture> unknown = loader.load("unknown", new Callable<TextureData>() {
+            public TextureData call() {
+                return null;
+            } }, listener);
+        final Future<Texture> cancelled = loader.load("cancelled", pngDecoder(pngFiles.get(0)), listener);
+        Assert.assertTrue(cancelled.cancel(false));
+        runFrames(loader, null);
+        Assert.assertEquals(0, listener.loaded);
+        Assert.assertEquals(2, listener.failed);
+        Assert.assertTrue(cancelled.isCancelled());
+        try {
+            failing.get();
+            Assert.fail("ExecutionException expected");
+        } catch (ExecutionException ee) {
+            Assert.assertTrue(ee.getCause() instanceof IOException);
+        }
+        Assert.assertTrue(unknown.isDone());
+    }
+
+    @Test
+    public void test04Benchmark() throws Exception {
+        long t0 = System.nanoTime();
+        for(int i=0; i<pngCount; i++) {
+            decodePNG(pngFiles.get(i));
+        }
+        final long tSync = System.nanoTime() - t0;
+
+        final MockLoader loader = new MockLoader();
+        loader.setUploadBudget(2000000L, 1024 * 1024);
+        final long[] maxFrameNanos = { 0 };
+        t0 = System.nanoTime();
+        for(int i=0; i<pngCount; i++) {
+            loader.load("png"+i, pngDecoder(pngFiles.get(i)), null);
+        }
+        final int frames = runFrames(loader, maxFrameNanos);
+        final long tAsync = System.nanoTime() - t0;
+        System.err.println(pngCount+" PNGs "+pngSize+"x"+pngSize+": synchronous decode "+(tSync/1e6)+" ms, "+
+                           "asynchronous load "+(tAsync/1e6)+" ms over "+frames+" frames, max upload per frame "+(maxFrameNanos[0]/1e6)+" ms");
+    }
+
+    @Test
+    public void test05DisposeCancelsDecoding() throws Exception {
+        final ExecutorService worker = Executors.newSingleThreadExecutor();
+        final MockLoader loader = new MockLoader(worker);
+        final CountingListener listener = new CountingListener();
+        final CountDownLatch decoding = new CountDownLatch(1);
+        final CountDownLatch proceed = new CountDownLatch(1);
+        final AtomicInteger decodes = new AtomicInteger();
+        final Future<Texture> running = loader.load("running", new Callable<TextureData>() {
+            public TextureData call() throws Exception {
+                decoding.countDown();
+                proceed.await();
+                decodes.incrementAndGet();
+                return decodePNG(pngFiles.get(0));
+            } }, listener);
+        final List<Future<Texture>> waiting = new ArrayList<Future<Texture>>();
+        for(int i=1; i<4; i++) {
+            final byte[] bytes = pngFiles.get(i);
+            waiting.add(loader.load("waiting"+i, new Callable<TextureData>() {
+                public TextureData call() throws IOException {
+                    decodes.incrementAndGet();
+                    return decodePNG(bytes);
+                } }, listener));
+        }
+        Assert.assertTrue(decoding.await(10, TimeUnit.SECONDS));
+        loader.dispose(null);
+        Assert.assertTrue(running.isCancelled());
+        for(int i=0; i<waiting.size(); i++) {
+            Assert.assertTrue(waiting.get(i).isCancelled());
+        }
+        proceed.countDown();
+        worker.shutdown();
+        Assert.assertTrue(worker.awaitTermination(10, TimeUnit.SECONDS));
+
+        // only the running decode completed, the waiting ones never started
+        Assert.assertEquals(1, decodes.get());
+        Assert.assertTrue(loader.isIdle());
+        Assert.assertEquals(0, loader.upload(null));
+        Assert.assertEquals(0, listener.loaded + listener.failed);
+        Assert.assertEquals(0, loader.uploadedBytes);
+    }
+
+    @Test
+    public void test06ListenerFailureContinuesBatch() throws Exception {
+        final MockLoader loader = new MockLoader();
+        loader.setUploadBudget(Long.MAX_VALUE, Integer.MAX_VALUE);
+        final AtomicInteger notified = new AtomicInteger();
+        final TextureLoader.Listener listener = new TextureLoader.Listener() {
+            public void textureLoaded(Object source, Texture texture) {
+                if( 0 == notified.getAndIncrement() ) {
+                    throw new IllegalStateException("failing listener");
+                }
+            }
+            public void textureFailed(Object source, Throwable cause) { 
+                notified.incrementAndGet();
+            } };
+        final List<Future<Texture>> futures = new ArrayList<Future<Texture>>();
+        for(int i=0; i<3; i++) {
+            futures.add(loader.load(decodePNG(pngFiles.get(i)), listener));
+        }
+        try {
+            loader.upload(null);
+            Assert.fail("GLException expected");
+        } catch (GLException gle) {
+            Assert.assertTrue(gle.getCause() instanceof IllegalStateException);
+        }
+        Assert.assertEquals(3, notified.get());
+        Assert.assertTrue(loader.isIdle());
+        for(int i=0; i<futures.size(); i++) {
+            Assert.assertNotNull(futures.get(i).get());
+        }
+        Assert.assertEquals(0, loader.upload(null));
+    }
+
+    public static void main(String args[]) {
+        org.junit.runner.JUnitCore.main(TestTextureLoaderNOUI.class.getName());
+    }
+}
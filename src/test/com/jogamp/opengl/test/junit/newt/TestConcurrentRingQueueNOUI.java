@@ -0,0 +1,131 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.newt;
+
+import jogamp.newt.event.ConcurrentRingQueue;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Testing the lock-free queue used for NEWT events and EDT tasks,
+ * incl. overflow of the ring and FIFO order per producer under contention.
+ */
+public class TestConcurrentRingQueueNOUI {
+
+    @Test
+    public void test01OfferFull() {
+        final ConcurrentRingQueue<Integer> q = new ConcurrentRingQueue<Integer>(3);
+        Assert.assertEquals(4, q.capacity());
+        for(int i=0; i<4; i++) {
+            Assert.assertTrue(q.offer(Integer.valueOf(i)));
+        }
+        Assert.assertFalse(q.offer(Integer.valueOf(4)));
+        Assert.assertEquals(4, q.size());
+        for(int i=0; i<4; i++) {
+            Assert.assertEquals(i, q.poll().intValue());
+        }
+        Assert.assertNull(q.poll());
+        Assert.assertTrue(q.isEmpty());
+    }
+
+    @Test
+    public void test02PutOverflow() {
+        final ConcurrentRingQueue<Integer> q = new ConcurrentRingQueue<Integer>(4);
+        for(int i=0; i<10; i++) {
+            q.put(Integer.valueOf(i));
+        }
+        Assert.assertEquals(10, q.size());
+        for(int i=0; i<3; i++) {
+            Assert.assertEquals(i, q.poll().intValue());
+        }
+        q.put(Integer.valueOf(10)); // still overflowing, keeps order
+        for(int i=3; i<=10; i++) {
+            Assert.assertEquals(i, q.poll().intValue());
+        }
+        Assert.assertNull(q.poll());
+        q.put(Integer.valueOf(11)); // ring again
+        Assert.assertEquals(11, q.poll().intValue());
+        q.put(Integer.valueOf(12));
+        q.clear();
+        Assert.assertTrue(q.isEmpty());
+    }
+
+    @Test
+    public void test03MultiProducerSingleConsumer() throws InterruptedException {
+        testMultiProducer(4, 100000, 64);
+    }
+
+    /**
+     * Tiny ring, hence frequent switches between ring and overflow list,
+     * while the consumer often meets slots claimed but not yet published.
+     */
+    @Test
+    public void test04MultiProducerTinyRing() throws InterruptedException {
+        testMultiProducer(8, 50000, 2);
+    }
+
+    /** Each producer puts its sequence numbers, the single consumer validates their order per producer. */
+    static void testMultiProducer(int producerCount, final int count, int capacity) throws InterruptedException {
+        final ConcurrentRingQueue<int[]> q = new ConcurrentRingQueue<int[]>(capacity);
+        final Thread[] producers = new Thread[producerCount];
+        for(int p=0; p<producerCount; p++) {
+            final int id = p;
+            producers[p] = new Thread(new Runnable() {
+                public void run() {
+                    for(int i=0; i<count; i++) {
+                        q.put(new int[] { id, i });
+                    }
+                } }, "producer-"+p);
+            producers[p].start();
+        }
+        final int[] next = new int[producerCount];
+        int received = 0;
+        final long t0 = System.currentTimeMillis();
+        while( received < producerCount * count ) {
+            final int[] e = q.poll();
+            if( null == e ) {
+                Assert.assertTrue("timeout", System.currentTimeMillis() - t0 < 60000);
+                Thread.yield();
+                continue;
+            }
+            Assert.assertEquals("order of producer "+e[0], next[e[0]], e[1]);
+            next[e[0]]++;
+            received++;
+        }
+        for(int p=0; p<producerCount; p++) {
+            producers[p].join();
+        }
+        Assert.assertNull(q.poll());
+        System.err.println("received "+received+" in "+(System.currentTimeMillis()-t0)+" ms");
+    }
+
+    public static void main(String args[]) {
+        org.junit.runner.JUnitCore.main(TestConcurrentRingQueueNOUI.class.getName());
+    }
+}
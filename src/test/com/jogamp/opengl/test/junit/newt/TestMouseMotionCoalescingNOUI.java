@@ -0,0 +1,188 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.newt;
+
+import jogamp.newt.event.MouseMotionCoalescer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.newt.event.InputEvent;
+import com.jogamp.newt.event.KeyEvent;
+import com.jogamp.newt.event.MouseEvent;
+import com.jogamp.newt.event.WindowEvent;
+
+/**
+ * Testing the merging of pending mouse motion events into one event w/ historical samples,
+ * as used by WindowImpl if mouse motion coalescing is enabled.
+ */
+public class TestMouseMotionCoalescingNOUI {
+    static final Object source = new Object();
+
+    static MouseEvent motion(int eventType, long when, int modifiers, int x, int y, int button) {
+        return new MouseEvent(eventType, source, when, modifiers, x, y, 0, button, 0);
+    }
+
+    static MouseEvent moved(long when, int x, int y) {
+        return motion(MouseEvent.EVENT_MOUSE_MOVED, when, 0, x, y, 0);
+    }
+
+    static boolean mergeMoved(MouseMotionCoalescer c, long when, int x, int y) {
+        return c.merge(MouseEvent.EVENT_MOUSE_MOVED, when, 0, x, y, 0);
+    }
+
+    static void assertSample(MouseEvent e, int pos, long when, int x, int y) {
+        Assert.assertEquals("x of sample "+pos, x, e.getHistoricalX(pos));
+        Assert.assertEquals("y of sample "+pos, y, e.getHistoricalY(pos));
+        Assert.assertEquals("when of sample "+pos, when, e.getHistoricalWhen(pos));
+    }
+
+    @Test
+    public void test01MergeKeepsHistoryInOrder() {
+        final MouseMotionCoalescer c = new MouseMotionCoalescer(source);
+        Assert.assertFalse(mergeMoved(c, 99, 1, 1)); // no pending run
+
+        final MouseEvent e0 = moved(100, 0, 0);
+        c.enqueued(false, e0);
+        for(int i=1; i<=4; i++) {
+            Assert.assertTrue(mergeMoved(c, 100+i, i*10, i*5));
+        }
+        final MouseEvent r = c.take(e0);
+        Assert.assertNotSame(e0, r);
+        Assert.assertEquals(MouseEvent.EVENT_MOUSE_MOVED, r.getEventType());
+        Assert.assertEquals(40, r.getX());
+        Assert.assertEquals(20, r.getY());
+        Assert.assertEquals(104, r.getWhen());
+        Assert.assertEquals(4, r.getHistorySize());
+        for(int i=0; i<4; i++) {
+            assertSample(r, i, 100+i, i*10, i*5); // oldest first
+        }
+
+        // run ended w/ dispatch of its head
+        Assert.assertFalse(mergeMoved(c, 105, 50, 25));
+        Assert.assertSame(e0, c.take(e0));
+        Assert.assertEquals(0, e0.getHistorySize());
+    }
+
+    @Test
+    public void test02HistoryDropsOldest() {
+        final MouseMotionCoalescer c = new MouseMotionCoalescer(source);
+        final MouseEvent e0 = moved(0, 0, 0);
+        c.enqueued(false, e0);
+        for(int i=1; i<=300; i++) {
+            Assert.assertTrue(mergeMoved(c, i, i, -i));
+        }
+        final MouseEvent r = c.take(e0);
+        Assert.assertEquals(300, r.getX());
+        Assert.assertEquals(256, r.getHistorySize());
+        for(int i=0; i<256; i++) {
+            final int s = 300 - 256 + i;
+            assertSample(r, i, s, s, -s);
+        }
+    }
+
+    @Test
+    public void test03ButtonEventFlushesRun() {
+        final MouseMotionCoalescer c = new MouseMotionCoalescer(source);
+        final MouseEvent e0 = moved(100, 0, 0);
+        c.enqueued(false, e0);
+        Assert.assertTrue(mergeMoved(c, 101, 1, 1));
+
+        final MouseEvent pressed = new MouseEvent(MouseEvent.EVENT_MOUSE_PRESSED, source, 102, 0, 1, 1, 1, MouseEvent.BUTTON1, 0);
+        c.enqueued(false, pressed);
+        Assert.assertFalse(mergeMoved(c, 103, 2, 2)); // after the press, needs its own event
+        final MouseEvent e1 = moved(103, 2, 2);
+        c.enqueued(false, e1); // head of the first run is still pending, no new run
+
+        final MouseEvent r = c.take(e0);
+        Assert.assertEquals(1, r.getX());
+        Assert.assertEquals(101, r.getWhen());
+        Assert.assertEquals(1, r.getHistorySize());
+        assertSample(r, 0, 100, 0, 0);
+        Assert.assertSame(pressed, c.take(pressed));
+        Assert.assertSame(e1, c.take(e1));
+    }
+
+    @Test
+    public void test04NonMotionEventFlushesRun() {
+        final MouseMotionCoalescer c = new MouseMotionCoalescer(source);
+        final MouseEvent e0 = moved(100, 0, 0);
+        c.enqueued(false, e0);
+        Assert.assertTrue(mergeMoved(c, 101, 1, 1));
+        c.enqueued(false, new KeyEvent(KeyEvent.EVENT_KEY_PRESSED, source, 102, 0, KeyEvent.VK_A, 'a'));
+        Assert.assertFalse(mergeMoved(c, 103, 2, 2));
+        Assert.assertEquals(1, c.take(e0).getHistorySize());
+
+        // consumed w/o being enqueued
+        final MouseEvent e1 = moved(200, 0, 0);
+        c.enqueued(false, e1);
+        Assert.assertTrue(mergeMoved(c, 201, 1, 1));
+        c.close();
+        Assert.assertFalse(mergeMoved(c, 202, 2, 2));
+        Assert.assertEquals(1, c.take(e1).getHistorySize()); // head is still completed
+    }
+
+    @Test
+    public void test05OnlyMatchingSamplesMerge() {
+        final MouseMotionCoalescer c = new MouseMotionCoalescer(source);
+        final MouseEvent e0 = moved(100, 0, 0);
+        c.enqueued(false, e0);
+        Assert.assertFalse(c.merge(MouseEvent.EVENT_MOUSE_MOVED, 101, InputEvent.SHIFT_MASK, 1, 1, 0)); // modifiers
+        Assert.assertFalse(c.merge(MouseEvent.EVENT_MOUSE_DRAGGED, 101, 0, 1, 1, MouseEvent.BUTTON1)); // type, button
+        Assert.assertTrue(mergeMoved(c, 101, 1, 1));
+        Assert.assertEquals(1, c.take(e0).getHistorySize());
+
+        // blocking or foreign events don't open a run
+        final MouseEvent e1 = moved(200, 0, 0);
+        c.enqueued(true, e1);
+        Assert.assertFalse(mergeMoved(c, 201, 1, 1));
+        Assert.assertSame(e1, c.take(e1));
+        c.enqueued(false, new MouseEvent(MouseEvent.EVENT_MOUSE_MOVED, new Object(), 300, 0, 0, 0, 0, 0, 0));
+        Assert.assertFalse(mergeMoved(c, 301, 1, 1));
+    }
+
+    @Test
+    public void test06ReenqueuedEventFlushesRun() {
+        final MouseMotionCoalescer c = new MouseMotionCoalescer(source);
+        final MouseEvent e0 = moved(100, 0, 0);
+        c.enqueued(false, e0);
+        Assert.assertTrue(mergeMoved(c, 101, 1, 1));
+
+        // not consumed while the window is locked, queued again behind e0
+        final WindowEvent resized = new WindowEvent(WindowEvent.EVENT_WINDOW_RESIZED, source, 90);
+        c.enqueued(false, resized);
+        Assert.assertFalse(mergeMoved(c, 102, 2, 2)); // would be dispatched before the resize otherwise
+        final MouseEvent r = c.take(e0);
+        Assert.assertEquals(1, r.getX());
+        Assert.assertEquals(1, r.getHistorySize());
+    }
+
+    public static void main(String args[]) {
+        org.junit.runner.JUnitCore.main(TestMouseMotionCoalescingNOUI.class.getName());
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * Copyright 2012 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.newt;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.media.nativewindow.util.Insets;
+import javax.media.nativewindow.util.Point;
+
+import jogamp.newt.WindowImpl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.newt.event.KeyAdapter;
+import com.jogamp.newt.event.KeyEvent;
+import com.jogamp.newt.event.MouseAdapter;
+import com.jogamp.newt.event.MouseEvent;
+
+/**
+ * Testing WindowImpl's copy-on-write listener arrays:
+ * adding or removing listeners while an event is dispatched doesn't throw,
+ * the current event is dispatched to the listeners at its start,
+ * the change takes effect w/ the next event.
+ * <p>
+ * Events are consumed directly by a window w/o native peer.
+ * </p>
+ */
+public class TestWindowListenerDispatchNOUI {
+
+    /** Window w/o native peer, only used to consume events. */
+    static class NoNativeWindow extends WindowImpl {
+        protected void createNativeImpl() { }
+        protected void closeNativeImpl() { }
+        protected void requestFocusImpl(boolean force) { }
+        protected boolean reconfigureWindowImpl(int x, int y, int width, int height, int flags) { return true; }
+        protected Point getLocationOnScreenImpl(int x, int y) { return new Point(x, y); }
+        protected void updateInsetsImpl(Insets insets) { }
+    }
+
+    static class LogMouseListener extends MouseAdapter {
+        final String name;
+        final List<String> log;
+        LogMouseListener(String name, List<String> log) { this.name = name; this.log = log; }
+        public void mouseMoved(MouseEvent e) { log.add(name); }
+    }
+
+    static class LogKeyListener extends KeyAdapter {
+        final String name;
+        final List<String> log;
+        LogKeyListener(String name, List<String> log) { this.name = name; this.log = log; }
+        public void keyPressed(KeyEvent e) { log.add(name); }
+    }
+
+    static MouseEvent moved(WindowImpl window) {
+        return new MouseEvent(MouseEvent.EVENT_MOUSE_MOVED, window, System.currentTimeMillis(), 0, 10, 10, 0, 0, 0);
+    }
+
+    static KeyEvent pressed(WindowImpl window) {
+        return new KeyEvent(KeyEvent.EVENT_KEY_PRESSED, window, System.currentTimeMillis(), 0, KeyEvent.VK_A, 'a');
+    }
+
+    @Test
+    public void test01MouseListenerChangedDuringDispatch() {
+        final WindowImpl window = new NoNativeWindow();
+        final List<String> log = new ArrayList<String>();
+        final LogMouseListener b = new LogMouseListener("B", log);
+        final LogMouseListener c = new LogMouseListener("C", log);
+        final LogMouseListener a = new LogMouseListener("A", log) {
+            public void mouseMoved(MouseEvent e) {
+                super.mouseMoved(e);
+                window.removeMouseListener(this);
+                window.removeMouseListener(c);
+                window.addMouseListener(0, b);
+            } };
+        window.addMouseListener(a);
+        window.addMouseListener(c);
+
+        window.consumeEvent(moved(window));
+        Assert.assertEquals("[A, C]", log.toString()); // snapshot at dispatch start
+        Assert.assertEquals(1, window.getMouseListeners().length);
+        Assert.assertSame(b, window.getMouseListener(0));
+
+        log.clear();
+        window.consumeEvent(moved(window));
+        Assert.assertEquals("[B]", log.toString());
+    }
+
+    @Test
+    public void test02KeyListenerChangedDuringDispatch() {
+        final WindowImpl window = new NoNativeWindow();
+        final List<String> log = new ArrayList<String>();
+        final LogKeyListener b = new LogKeyListener("B", log);
+        final LogKeyListener a = new LogKeyListener("A", log) {
+            public void keyPressed(KeyEvent e) {
+                super.keyPressed(e);
+                window.addKeyListener(b);
+                window.removeKeyListener(this);
+            } };
+        window.addKeyListener(a);
+
+        window.consumeEvent(pressed(window));
+        Assert.assertEquals("[A]", log.toString());
+        Assert.assertEquals(1, window.getKeyListeners().length);
+
+        log.clear();
+        window.consumeEvent(pressed(window));
+        Assert.assertEquals("[B]", log.toString());
+
+        window.removeKeyListener(a); // not contained anymore, NOP
+        Assert.assertSame(b, window.getKeyListener(-1));
+    }
+
+    public static void main(String args[]) {
+        org.junit.runner.JUnitCore.main(TestWindowListenerDispatchNOUI.class.getName());
+    }
+}